@@ -0,0 +1,60 @@
+#!/usr/bin/env bash
+#
+# Measures time-to-first-request (JVM launch until /api/public/health answers 200)
+# for the default build and for the fast-startup build (prod profile + AOT + AppCDS).
+#
+# Usage: scripts/startup-benchmark.sh [runs]
+# Needs a reachable MongoDB (SPRING_DATA_MONGODB_HOST/PORT) and nothing else on port 8080.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS="${1:-5}"
+PORT="${SERVER_PORT:-8080}"
+HEALTH_URL="http://localhost:${PORT}/api/public/health"
+JAR_NAME="api-0.0.1-SNAPSHOT.jar"
+
+measure() {
+    local label="$1"
+    shift
+    local times=()
+
+    for run in $(seq 1 "$RUNS"); do
+        local start end pid
+        start=$(date +%s%N)
+        "$@" --server.port="$PORT" > "target/startup-${label}-${run}.log" 2>&1 &
+        pid=$!
+
+        until curl -sf -o /dev/null "$HEALTH_URL"; do
+            if ! kill -0 "$pid" 2>/dev/null; then
+                echo "${label}: application exited, see target/startup-${label}-${run}.log" >&2
+                exit 1
+            fi
+            sleep 0.02
+        done
+        end=$(date +%s%N)
+
+        kill "$pid"
+        wait "$pid" 2>/dev/null || true
+        times+=($(( (end - start) / 1000000 )))
+    done
+
+    local sorted median
+    sorted=$(printf '%s\n' "${times[@]}" | sort -n)
+    median=$(echo "$sorted" | sed -n "$(( (RUNS + 1) / 2 ))p")
+    printf '%-10s median %6d ms   runs: %s\n' "$label" "$median" "$(echo $sorted | tr '\n' ' ')"
+}
+
+echo "Building default jar..."
+mvn -B -q clean package -DskipTests
+cp "target/${JAR_NAME}" "target/baseline-${JAR_NAME}"
+
+echo "Building fast-startup jar (AOT + AppCDS training run)..."
+mvn -B -q -Pfast-startup package -DskipTests
+
+echo
+echo "Time to first request over ${RUNS} runs"
+measure baseline java -jar "target/baseline-${JAR_NAME}"
+measure fast java -XX:SharedArchiveFile=target/extracted/application.jsa -Xlog:cds=off \
+    -Dspring.aot.enabled=true -Dspring.profiles.active=prod -jar "target/extracted/${JAR_NAME}"
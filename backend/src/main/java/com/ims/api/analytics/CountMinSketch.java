@@ -0,0 +1,106 @@
+package com.ims.api.analytics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/*
+ * Count-min sketch: depth rows of width counters, each key adding its weight to one counter
+ * per row. An estimate is the smallest of the key's counters, so it never undercounts and
+ * overcounts by at most epsilon x total with probability 1 - delta, where
+ * width = ceil(e / epsilon) and depth = ceil(ln(1 / delta)). Sketches of equal shape merge
+ * by adding counters.
+ */
+public final class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final long[] counters;
+    private long total;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1) {
+            throw new IllegalArgumentException("Count-min depth and width must be positive");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counters = new long[depth * width];
+    }
+
+    public static CountMinSketch forError(double epsilon, double delta) {
+        return new CountMinSketch((int) Math.ceil(Math.log(1 / delta)), (int) Math.ceil(Math.E / epsilon));
+    }
+
+    // Adds weight to the key and returns its new estimate
+    public long add(String key, long weight) {
+        long hash = SketchHash.hash64(key);
+        long step = SketchHash.mix(hash ^ 0x9e3779b97f4a7c15L) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = row * width + (int) Math.floorMod(hash + row * step, (long) width);
+            counters[index] += weight;
+            estimate = Math.min(estimate, counters[index]);
+        }
+        total += weight;
+        return estimate;
+    }
+
+    public long estimate(String key) {
+        long hash = SketchHash.hash64(key);
+        long step = SketchHash.mix(hash ^ 0x9e3779b97f4a7c15L) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * width + (int) Math.floorMod(hash + row * step, (long) width)]);
+        }
+        return estimate;
+    }
+
+    public void merge(CountMinSketch other) {
+        if (other.depth != depth || other.width != width) {
+            throw new IllegalArgumentException("Count-min sketches of different shapes cannot be merged");
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        total += other.total;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    // The epsilon and delta this shape guarantees
+    public double epsilon() {
+        return Math.E / width;
+    }
+
+    public double delta() {
+        return Math.exp(-depth);
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(depth);
+        out.writeInt(width);
+        out.writeLong(total);
+        for (long counter : counters) {
+            out.writeLong(counter);
+        }
+    }
+
+    static CountMinSketch readFrom(DataInput in) throws IOException {
+        CountMinSketch sketch = new CountMinSketch(in.readInt(), in.readInt());
+        sketch.total = in.readLong();
+        for (int i = 0; i < sketch.counters.length; i++) {
+            sketch.counters[i] = in.readLong();
+        }
+        return sketch;
+    }
+}
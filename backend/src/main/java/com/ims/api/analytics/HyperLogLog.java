@@ -0,0 +1,82 @@
+package com.ims.api.analytics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/*
+ * HyperLogLog distinct counter with 2^precision one-byte registers. The relative standard
+ * error is 1.04 / sqrt(2^precision); small counts use linear counting. Counters of equal
+ * precision merge by taking the larger register.
+ */
+public final class HyperLogLog {
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between 4 and 18");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public void add(String value) {
+        long hash = SketchHash.hash64(value);
+        int index = (int) (hash >>> (64 - precision));
+        // Position of the first one bit after the index bits; the guard bit caps it
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("HyperLogLogs of different precision cannot be merged");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public int precision() {
+        return precision;
+    }
+
+    public double relativeStandardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeByte(precision);
+        out.write(registers);
+    }
+
+    static HyperLogLog readFrom(DataInput in) throws IOException {
+        HyperLogLog hll = new HyperLogLog(in.readUnsignedByte());
+        in.readFully(hll.registers);
+        return hll;
+    }
+}
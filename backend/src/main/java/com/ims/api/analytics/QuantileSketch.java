@@ -0,0 +1,111 @@
+package com.ims.api.analytics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/*
+ * Quantiles of values >= 1 with relative accuracy alpha, in logarithmic buckets: bucket i
+ * holds the values in (gamma^(i-1), gamma^i] with gamma = (1 + alpha) / (1 - alpha), so any
+ * quantile is within alpha of the true value, relatively. Values below 1 count as 1. Sketches
+ * of equal alpha merge exactly by adding bucket counts, whatever the order of the inputs.
+ */
+public final class QuantileSketch {
+
+    private final double alpha;
+    private final double logGamma;
+    private long[] counts = new long[0];
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public QuantileSketch(double alpha) {
+        if (alpha <= 0 || alpha >= 1) {
+            throw new IllegalArgumentException("Quantile accuracy must be between 0 and 1");
+        }
+        this.alpha = alpha;
+        this.logGamma = Math.log((1 + alpha) / (1 - alpha));
+    }
+
+    public void add(double value) {
+        value = Math.max(1, value);
+        int index = (int) Math.ceil(Math.log(value) / logGamma);
+        grow(index + 1);
+        counts[index]++;
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    // q in [0, 1]; NaN when empty
+    public double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.floor(q * (count - 1));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                double estimate = 2 * Math.exp(i * logGamma) / (1 + Math.exp(logGamma));
+                return Math.min(max, Math.max(min, estimate));
+            }
+        }
+        return max;
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.alpha != alpha) {
+            throw new IllegalArgumentException("Quantile sketches of different accuracy cannot be merged");
+        }
+        grow(other.counts.length);
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double alpha() {
+        return alpha;
+    }
+
+    private void grow(int length) {
+        if (length > counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(length, counts.length * 2));
+        }
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeDouble(alpha);
+        out.writeLong(count);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        int length = counts.length;
+        while (length > 0 && counts[length - 1] == 0) {
+            length--;
+        }
+        out.writeInt(length);
+        for (int i = 0; i < length; i++) {
+            out.writeLong(counts[i]);
+        }
+    }
+
+    static QuantileSketch readFrom(DataInput in) throws IOException {
+        QuantileSketch sketch = new QuantileSketch(in.readDouble());
+        sketch.count = in.readLong();
+        sketch.min = in.readDouble();
+        sketch.max = in.readDouble();
+        sketch.counts = new long[in.readInt()];
+        for (int i = 0; i < sketch.counts.length; i++) {
+            sketch.counts[i] = in.readLong();
+        }
+        return sketch;
+    }
+}
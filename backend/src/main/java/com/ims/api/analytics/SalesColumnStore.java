@@ -0,0 +1,444 @@
+package com.ims.api.analytics;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/*
+ * Sales held as primitive columns in fixed-size chunks: timestamps as epoch millis, item and
+ * category as dictionary codes, quantity and revenue as primitives. A row costs BYTES_PER_ROW
+ * whatever the strings, so memory is bounded by the row limit the owner enforces.
+ *
+ * One thread appends; any number of threads scan. A chunk's arrays are written before its
+ * volatile size is raised, so a scan reading the size sees complete rows up to it. Chunks
+ * carry their min/max timestamp, and a scan skips chunks outside the range and drops the
+ * per-row time check for chunks fully inside it.
+ */
+public final class SalesColumnStore {
+
+    public enum GroupBy {
+        CATEGORY,
+        ITEM,
+        HOUR,
+        DAY,
+        WEEK,
+        MONTH;
+
+        boolean isTime() {
+            return this != CATEGORY && this != ITEM;
+        }
+    }
+
+    public static final int BYTES_PER_ROW = Long.BYTES + Integer.BYTES + Short.BYTES + Integer.BYTES + Double.BYTES;
+
+    // Per-group accumulators of all scan tasks together stay under this
+    private static final long ACCUMULATOR_BUDGET_BYTES = 64L << 20;
+
+    private static final int ACCUMULATOR_BYTES_PER_GROUP = Double.BYTES + Long.BYTES + Integer.BYTES;
+
+    private static final class Chunk {
+        final long[] timestamps;
+        final int[] items;
+        final short[] categories;
+        final int[] quantities;
+        final double[] revenue;
+        volatile long minTimestamp = Long.MAX_VALUE;
+        volatile long maxTimestamp = Long.MIN_VALUE;
+        volatile int size;
+
+        Chunk(int capacity) {
+            timestamps = new long[capacity];
+            items = new int[capacity];
+            categories = new short[capacity];
+            quantities = new int[capacity];
+            revenue = new double[capacity];
+        }
+    }
+
+    // Codes are assigned by the appending thread only; labels can be updated in place
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+        private final int maxSize;
+        private volatile String[] keys = new String[1024];
+        private volatile String[] labels = new String[1024];
+        private volatile int size;
+
+        Dictionary(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        int code(String key, String label) {
+            Integer code = codes.get(key);
+            if (code == null) {
+                if (size == maxSize) {
+                    throw new IllegalStateException("Dictionary full at " + maxSize + " entries");
+                }
+                code = size;
+                if (code == keys.length) {
+                    labels = Arrays.copyOf(labels, code * 2);
+                    keys = Arrays.copyOf(keys, code * 2);
+                }
+                keys[code] = key;
+                labels[code] = label;
+                size = code + 1;
+                codes.put(key, code);
+            } else if (label != null && !label.equals(labels[code])) {
+                labels[code] = label;
+            }
+            return code;
+        }
+
+        int find(String key) {
+            return codes.getOrDefault(key, -1);
+        }
+
+        int size() {
+            return size;
+        }
+
+        String key(int code) {
+            return keys[code];
+        }
+
+        String label(int code) {
+            return labels[code];
+        }
+
+        long estimatedBytes() {
+            // Two references per slot plus, roughly, a map entry and a short string per key
+            return (long) keys.length * 8 + (long) size * 96;
+        }
+    }
+
+    public static final class Group {
+        private final String key;
+        private final String label;
+        private final double revenue;
+        private final long units;
+        private final int sales;
+
+        Group(String key, String label, double revenue, long units, int sales) {
+            this.key = key;
+            this.label = label;
+            this.revenue = Math.round(revenue * 100) / 100.0;
+            this.units = units;
+            this.sales = sales;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public double getRevenue() {
+            return revenue;
+        }
+
+        public long getUnits() {
+            return units;
+        }
+
+        public int getSales() {
+            return sales;
+        }
+    }
+
+    private final int chunkSize;
+    private final Dictionary items = new Dictionary(Integer.MAX_VALUE);
+    private final Dictionary categories = new Dictionary(Short.MAX_VALUE);
+    // Replaced, never mutated, so scans work on a stable list
+    private volatile List<Chunk> chunks = List.of();
+
+    public SalesColumnStore(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    // Single writer
+    public void append(long timestamp, String itemId, String itemName, String category, int quantity, double revenue) {
+        List<Chunk> current = chunks;
+        Chunk tail = current.isEmpty() ? null : current.get(current.size() - 1);
+        if (tail == null || tail.size == chunkSize) {
+            tail = new Chunk(chunkSize);
+            List<Chunk> grown = new ArrayList<>(current.size() + 1);
+            grown.addAll(current);
+            grown.add(tail);
+            chunks = Collections.unmodifiableList(grown);
+        }
+        int row = tail.size;
+        tail.timestamps[row] = timestamp;
+        tail.items[row] = items.code(itemId != null ? itemId : "", itemName);
+        tail.categories[row] = (short) categories.code(category != null ? category : "", category);
+        tail.quantities[row] = quantity;
+        tail.revenue[row] = revenue;
+        if (timestamp < tail.minTimestamp) {
+            tail.minTimestamp = timestamp;
+        }
+        if (timestamp > tail.maxTimestamp) {
+            tail.maxTimestamp = timestamp;
+        }
+        tail.size = row + 1;
+    }
+
+    /*
+     * Drops whole chunks from the front while they only hold rows older than the given time,
+     * or while the store holds more than maxRows. Rows are appended roughly in time order, so
+     * the front chunks are the oldest. Single writer. Returns the rows dropped.
+     */
+    public long trim(long olderThan, long maxRows) {
+        List<Chunk> current = chunks;
+        long rows = rows();
+        int drop = 0;
+        long dropped = 0;
+        while (drop < current.size() - 1) {
+            Chunk chunk = current.get(drop);
+            if (chunk.maxTimestamp >= olderThan && rows - dropped <= maxRows) {
+                break;
+            }
+            dropped += chunk.size;
+            drop++;
+        }
+        if (drop > 0) {
+            chunks = List.copyOf(current.subList(drop, current.size()));
+        }
+        return dropped;
+    }
+
+    public long rows() {
+        long rows = 0;
+        for (Chunk chunk : chunks) {
+            rows += chunk.size;
+        }
+        return rows;
+    }
+
+    public Map<String, Object> stats() {
+        List<Chunk> current = chunks;
+        long oldest = Long.MAX_VALUE;
+        long newest = Long.MIN_VALUE;
+        for (Chunk chunk : current) {
+            oldest = Math.min(oldest, chunk.minTimestamp);
+            newest = Math.max(newest, chunk.maxTimestamp);
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("rows", rows());
+        stats.put("chunks", current.size());
+        stats.put("chunkRows", chunkSize);
+        stats.put("items", items.size());
+        stats.put("categories", categories.size());
+        stats.put("columnBytes", (long) current.size() * chunkSize * BYTES_PER_ROW);
+        stats.put("dictionaryBytes", items.estimatedBytes() + categories.estimatedBytes());
+        stats.put("oldest", current.isEmpty() ? null : toLocal(oldest, ZoneId.systemDefault()));
+        stats.put("newest", current.isEmpty() ? null : toLocal(newest, ZoneId.systemDefault()));
+        return stats;
+    }
+
+    /*
+     * Revenue, units and number of sales per group for sales with from <= timestamp < to,
+     * optionally of one category. Time groups come back in order, including empty ones;
+     * category and item groups by revenue, highest first, cut to limit (0 for all).
+     */
+    public List<Group> aggregate(long from, long to, GroupBy groupBy, String category, int limit, ZoneId zone,
+            ExecutorService pool, int parallelism) throws InterruptedException {
+        int categoryFilter = -1;
+        if (category != null) {
+            categoryFilter = categories.find(category);
+            if (categoryFilter < 0) {
+                return groupBy.isTime() ? toGroups(groupBy, boundaries(from, to, groupBy, zone), null, limit, zone) : List.of();
+            }
+        }
+
+        long[] boundaries = groupBy.isTime() ? boundaries(from, to, groupBy, zone) : null;
+        int groups = switch (groupBy) {
+            case CATEGORY -> categories.size();
+            case ITEM -> items.size();
+            default -> boundaries.length - 1;
+        };
+
+        List<Chunk> candidates = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            if (chunk.size > 0 && chunk.maxTimestamp >= from && chunk.minTimestamp < to) {
+                candidates.add(chunk);
+            }
+        }
+
+        long accumulatorBytes = (long) Math.max(1, groups) * ACCUMULATOR_BYTES_PER_GROUP;
+        int tasks = (int) Math.max(1, Math.min(Math.min(parallelism, candidates.size()),
+                ACCUMULATOR_BUDGET_BYTES / accumulatorBytes));
+        List<Future<Accumulator>> futures = new ArrayList<>(tasks);
+        for (int t = 0; t < tasks; t++) {
+            int task = t;
+            int filter = categoryFilter;
+            futures.add(pool.submit(() -> {
+                Accumulator accumulator = new Accumulator(groups);
+                for (int c = task; c < candidates.size(); c += tasks) {
+                    scan(candidates.get(c), from, to, groupBy, filter, boundaries, accumulator);
+                }
+                return accumulator;
+            }));
+        }
+
+        Accumulator total = null;
+        try {
+            for (Future<Accumulator> future : futures) {
+                Accumulator partial = future.get();
+                if (total == null) {
+                    total = partial;
+                } else {
+                    total.add(partial);
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Sales scan failed", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return toGroups(groupBy, boundaries, total, limit, zone);
+    }
+
+    private static final class Accumulator {
+        final double[] revenue;
+        final long[] units;
+        final int[] sales;
+
+        Accumulator(int groups) {
+            revenue = new double[groups];
+            units = new long[groups];
+            sales = new int[groups];
+        }
+
+        void add(Accumulator other) {
+            for (int g = 0; g < revenue.length; g++) {
+                revenue[g] += other.revenue[g];
+                units[g] += other.units[g];
+                sales[g] += other.sales[g];
+            }
+        }
+    }
+
+    private static void scan(Chunk chunk, long from, long to, GroupBy groupBy, int categoryFilter,
+            long[] boundaries, Accumulator accumulator) {
+        int size = chunk.size;
+        boolean inside = chunk.minTimestamp >= from && chunk.maxTimestamp < to;
+        int groups = accumulator.revenue.length;
+        int bucket = 0;
+        for (int row = 0; row < size; row++) {
+            long timestamp = chunk.timestamps[row];
+            if (!inside && (timestamp < from || timestamp >= to)) {
+                continue;
+            }
+            if (categoryFilter >= 0 && chunk.categories[row] != categoryFilter) {
+                continue;
+            }
+            int group = switch (groupBy) {
+                case CATEGORY -> chunk.categories[row];
+                case ITEM -> chunk.items[row];
+                // Rows arrive roughly in time order, so the previous row's bucket usually matches
+                default -> bucket = timestamp >= boundaries[bucket] && timestamp < boundaries[bucket + 1]
+                        ? bucket : bucketOf(boundaries, timestamp);
+            };
+            // Codes added after the scan sized its accumulators belong to rows it need not count
+            if (group < 0 || group >= groups) {
+                continue;
+            }
+            accumulator.revenue[group] += chunk.revenue[row];
+            accumulator.units[group] += chunk.quantities[row];
+            accumulator.sales[group]++;
+        }
+    }
+
+    private static int bucketOf(long[] boundaries, long timestamp) {
+        int index = Arrays.binarySearch(boundaries, timestamp);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    // Bucket starts in the given zone, so days and months follow the calendar across DST changes
+    static long[] boundaries(long from, long to, GroupBy groupBy, ZoneId zone) {
+        ZonedDateTime start = Instant.ofEpochMilli(from).atZone(zone);
+        start = switch (groupBy) {
+            case HOUR -> start.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> start.truncatedTo(ChronoUnit.DAYS);
+            case WEEK -> start.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            default -> start.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        };
+        List<Long> starts = new ArrayList<>();
+        for (ZonedDateTime bucket = start; bucket.toInstant().toEpochMilli() < to; bucket = next(bucket, groupBy)) {
+            starts.add(bucket.toInstant().toEpochMilli());
+            if (starts.size() > 100_000) {
+                throw new IllegalArgumentException("Too many " + groupBy.name().toLowerCase() + " buckets in range");
+            }
+        }
+        starts.add(to);
+        long[] boundaries = new long[starts.size()];
+        for (int i = 0; i < boundaries.length; i++) {
+            boundaries[i] = starts.get(i);
+        }
+        return boundaries;
+    }
+
+    private static ZonedDateTime next(ZonedDateTime bucket, GroupBy groupBy) {
+        return switch (groupBy) {
+            case HOUR -> bucket.plusHours(1);
+            case DAY -> bucket.plusDays(1);
+            case WEEK -> bucket.plusWeeks(1);
+            default -> bucket.plusMonths(1);
+        };
+    }
+
+    private List<Group> toGroups(GroupBy groupBy, long[] boundaries, Accumulator total, int limit, ZoneId zone) {
+        List<Group> result = new ArrayList<>();
+        if (groupBy.isTime()) {
+            for (int g = 0; g < boundaries.length - 1; g++) {
+                String key = toLocal(boundaries[g], zone).toString();
+                result.add(total == null ? new Group(key, null, 0, 0, 0)
+                        : new Group(key, null, total.revenue[g], total.units[g], total.sales[g]));
+            }
+            return result;
+        }
+        if (total == null) {
+            return result;
+        }
+
+        Dictionary dictionary = groupBy == GroupBy.CATEGORY ? categories : items;
+        Comparator<Integer> byRevenue = Comparator.comparingDouble(g -> total.revenue[g]);
+        int keep = limit > 0 ? limit : Integer.MAX_VALUE;
+        PriorityQueue<Integer> top = new PriorityQueue<>(byRevenue);
+        for (int g = 0; g < total.sales.length; g++) {
+            if (total.sales[g] == 0) {
+                continue;
+            }
+            top.add(g);
+            if (top.size() > keep) {
+                top.poll();
+            }
+        }
+        List<Integer> codes = new ArrayList<>(top);
+        codes.sort(byRevenue.reversed());
+        for (int g : codes) {
+            result.add(new Group(dictionary.key(g), dictionary.label(g), total.revenue[g], total.units[g], total.sales[g]));
+        }
+        return result;
+    }
+
+    private static LocalDateTime toLocal(long millis, ZoneId zone) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+    }
+}
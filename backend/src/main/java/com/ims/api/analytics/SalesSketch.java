@@ -0,0 +1,209 @@
+package com.ims.api.analytics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/*
+ * Approximate summary of the sales in one time slice: units per item in a count-min sketch
+ * with the heaviest items kept as candidates, distinct items in a HyperLogLog, sale
+ * quantities in a QuantileSketch, and exact totals. Slices of the same shape merge, so a
+ * window is the merge of its slices, from any number of nodes.
+ *
+ * Heavy hitters: each slice keeps its capacity items with the largest estimates. A merge
+ * re-estimates the union of the candidates against the merged counts, so an item heavy in
+ * the window but never among any slice's top candidates can be missed.
+ *
+ * Not thread-safe; the owner synchronizes.
+ */
+public final class SalesSketch {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final CountMinSketch units;
+    private final HyperLogLog items;
+    private final QuantileSketch quantities;
+    private final int capacity;
+    private final Map<String, Long> candidates = new HashMap<>();
+    // Smallest candidate, or null when it has to be looked up again
+    private String minCandidate;
+    private long sales;
+    private long totalUnits;
+    private double revenue;
+
+    public SalesSketch(double epsilon, double delta, int precision, double alpha, int capacity) {
+        this(CountMinSketch.forError(epsilon, delta), new HyperLogLog(precision), new QuantileSketch(alpha), capacity);
+    }
+
+    private SalesSketch(CountMinSketch units, HyperLogLog items, QuantileSketch quantities, int capacity) {
+        this.units = units;
+        this.items = items;
+        this.quantities = quantities;
+        this.capacity = capacity;
+    }
+
+    public void add(String itemId, int quantity, double saleRevenue) {
+        long estimate = units.add(itemId, quantity);
+        items.add(itemId);
+        quantities.add(quantity);
+        sales++;
+        totalUnits += quantity;
+        revenue += saleRevenue;
+        offer(itemId, estimate);
+    }
+
+    private void offer(String itemId, long estimate) {
+        if (candidates.containsKey(itemId) || candidates.size() < capacity) {
+            candidates.put(itemId, estimate);
+            if (itemId.equals(minCandidate)) {
+                minCandidate = null;
+            }
+            return;
+        }
+        if (minCandidate == null) {
+            minCandidate = smallestCandidate();
+        }
+        if (estimate > candidates.get(minCandidate)) {
+            candidates.remove(minCandidate);
+            candidates.put(itemId, estimate);
+            minCandidate = null;
+        }
+    }
+
+    private String smallestCandidate() {
+        String smallest = null;
+        long smallestCount = Long.MAX_VALUE;
+        for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+            if (candidate.getValue() < smallestCount) {
+                smallest = candidate.getKey();
+                smallestCount = candidate.getValue();
+            }
+        }
+        return smallest;
+    }
+
+    public void merge(SalesSketch other) {
+        units.merge(other.units);
+        items.merge(other.items);
+        quantities.merge(other.quantities);
+        sales += other.sales;
+        totalUnits += other.totalUnits;
+        revenue += other.revenue;
+
+        for (String itemId : other.candidates.keySet()) {
+            candidates.putIfAbsent(itemId, 0L);
+        }
+        List<Map.Entry<String, Long>> ranked = new ArrayList<>();
+        for (String itemId : candidates.keySet()) {
+            ranked.add(Map.entry(itemId, units.estimate(itemId)));
+        }
+        ranked.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+        candidates.clear();
+        for (Map.Entry<String, Long> entry : ranked.subList(0, Math.min(capacity, ranked.size()))) {
+            candidates.put(entry.getKey(), entry.getValue());
+        }
+        minCandidate = null;
+    }
+
+    // An empty sketch that can merge with this one
+    public SalesSketch emptyCopy() {
+        return new SalesSketch(new CountMinSketch(units.depth(), units.width()), new HyperLogLog(items.precision()),
+                new QuantileSketch(quantities.alpha()), capacity);
+    }
+
+    // Up to limit items by estimated units, largest first
+    public List<Map.Entry<String, Long>> topItems(int limit) {
+        List<Map.Entry<String, Long>> top = new ArrayList<>(candidates.entrySet());
+        top.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+        return top.subList(0, Math.min(limit, top.size()));
+    }
+
+    public long distinctItems() {
+        return items.estimate();
+    }
+
+    public double quantity(double q) {
+        return quantities.quantile(q);
+    }
+
+    public long sales() {
+        return sales;
+    }
+
+    public long units() {
+        return totalUnits;
+    }
+
+    public double revenue() {
+        return revenue;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public CountMinSketch unitCounts() {
+        return units;
+    }
+
+    public HyperLogLog distinctCounter() {
+        return items;
+    }
+
+    public QuantileSketch quantityQuantiles() {
+        return quantities;
+    }
+
+    // Deflated, since the counters of a quiet slice are mostly zero
+    public byte[] toBytes() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(capacity);
+            out.writeLong(sales);
+            out.writeLong(totalUnits);
+            out.writeDouble(revenue);
+            units.writeTo(out);
+            items.writeTo(out);
+            quantities.writeTo(out);
+            out.writeInt(candidates.size());
+            for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+                out.writeUTF(candidate.getKey());
+                out.writeLong(candidate.getValue());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    public static SalesSketch fromBytes(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)))) {
+            int version = in.readUnsignedByte();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported sales sketch version " + version);
+            }
+            int capacity = in.readInt();
+            long sales = in.readLong();
+            long totalUnits = in.readLong();
+            double revenue = in.readDouble();
+            SalesSketch sketch = new SalesSketch(CountMinSketch.readFrom(in), HyperLogLog.readFrom(in),
+                    QuantileSketch.readFrom(in), capacity);
+            sketch.sales = sales;
+            sketch.totalUnits = totalUnits;
+            sketch.revenue = revenue;
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                sketch.candidates.put(in.readUTF(), in.readLong());
+            }
+            return sketch;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.ims.api.analytics;
+
+// 64-bit string hash shared by the sketches: FNV-1a over the chars, then the MurmurHash3 finalizer
+final class SketchHash {
+
+    private SketchHash() {
+    }
+
+    static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,210 @@
+package com.ims.api.archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ims.api.model.SalesRecord;
+
+/*
+ * Sales records moved out of Mongo, one file per day under <dir>/<year>/<date>.sales. A file
+ * is a header (magic, format version, UTC offset of the timestamps in seconds) followed by
+ * blocks of up to block-rows records in timestamp order; see SalesBlockCodec. Version 1
+ * files have no offset and were written in the server's zone; they are read in the system
+ * zone and rewritten as version 2 the next time their day is archived. Files are only ever replaced whole (written aside, then renamed), so
+ * readers see either the old or the new partition. The directory must be shared by all
+ * replicas that serve sales queries.
+ */
+@Component
+public class SalesArchive {
+
+    private static final int MAGIC = 0x494D5341; // "IMSA"
+    private static final int FORMAT_VERSION = 2;
+    private static final int LEGACY_FORMAT_VERSION = 1;
+    private static final String SUFFIX = ".sales";
+
+    @Value("${app.sales-archive.dir:data/sales-archive}")
+    private String directory;
+
+    @Value("${app.sales-archive.block-rows:8192}")
+    private int blockRows;
+
+    private Path root() {
+        return Paths.get(directory);
+    }
+
+    private Path partitionOf(LocalDate day) {
+        return root().resolve(String.valueOf(day.getYear())).resolve(day + SUFFIX);
+    }
+
+    /*
+     * Writes the day's partition, merged with whatever is already archived for that day, so
+     * archiving the same records twice (after a crash before their delete) keeps one copy.
+     * Returns the number of records in the partition.
+     */
+    public synchronized int write(LocalDate day, List<SalesRecord> records) throws IOException {
+        Path file = partitionOf(day);
+        Map<String, SalesRecord> merged = new LinkedHashMap<>();
+        if (Files.exists(file)) {
+            for (SalesRecord record : read(file, null, null, null)) {
+                merged.put(record.getId(), record);
+            }
+        }
+        for (SalesRecord record : records) {
+            merged.put(record.getId(), record);
+        }
+        List<SalesRecord> sorted = new ArrayList<>(merged.values());
+        sorted.sort(Comparator.comparing(SalesRecord::getTimestamp)
+                .thenComparing(SalesRecord::getId, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), day.toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+                    DataOutputStream out = new DataOutputStream(
+                            new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(SalesBlockCodec.ZONE.getTotalSeconds());
+                for (int from = 0; from < sorted.size(); from += blockRows) {
+                    SalesBlockCodec.write(sorted.subList(from, Math.min(sorted.size(), from + blockRows)), out);
+                }
+                out.flush();
+                // Durable before it replaces the old partition and the records leave Mongo
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return sorted.size();
+    }
+
+    // Archived records with start < timestamp < end (the bounds of the live period queries)
+    public List<SalesRecord> find(LocalDateTime start, LocalDateTime end, String itemId) throws IOException {
+        List<SalesRecord> records = new ArrayList<>();
+        List<Integer> years = years();
+        if (years.isEmpty() || !end.isAfter(start)) {
+            return records;
+        }
+        // Only days of years that have partitions are probed
+        LocalDate first = max(start.toLocalDate(), LocalDate.of(years.get(0), 1, 1));
+        LocalDate last = min(end.toLocalDate(), LocalDate.of(years.get(years.size() - 1), 12, 31));
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            Path file = partitionOf(day);
+            if (Files.exists(file)) {
+                records.addAll(read(file, start, end, itemId));
+            }
+        }
+        return records;
+    }
+
+    // All archived records of an item, oldest first; blocks without the item are skipped
+    public List<SalesRecord> findItem(String itemId) throws IOException {
+        List<SalesRecord> records = new ArrayList<>();
+        for (Path file : partitions()) {
+            records.addAll(read(file, null, null, itemId));
+        }
+        return records;
+    }
+
+    public Map<String, Object> stats() throws IOException {
+        long partitions = 0;
+        long bytes = 0;
+        String oldest = null;
+        String newest = null;
+        for (Path file : partitions()) {
+            String day = file.getFileName().toString().replace(SUFFIX, "");
+            oldest = oldest == null ? day : oldest;
+            newest = day;
+            partitions++;
+            bytes += Files.size(file);
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("directory", root().toAbsolutePath().toString());
+        stats.put("partitions", partitions);
+        stats.put("bytes", bytes);
+        stats.put("oldestDay", oldest);
+        stats.put("newestDay", newest);
+        return stats;
+    }
+
+    // start and end may be null for an open bound
+    private List<SalesRecord> read(Path file, LocalDateTime start, LocalDateTime end, String itemId) throws IOException {
+        List<SalesRecord> records = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a sales archive partition: " + file);
+            }
+            int version = in.readInt();
+            ZoneId zone;
+            if (version == FORMAT_VERSION) {
+                zone = ZoneOffset.ofTotalSeconds(in.readInt());
+            } else if (version == LEGACY_FORMAT_VERSION) {
+                zone = ZoneId.systemDefault();
+            } else {
+                throw new IOException("Unsupported sales archive format " + version + ": " + file);
+            }
+            long startMillis = start != null ? SalesBlockCodec.toMillis(start, zone) : Long.MIN_VALUE;
+            long endMillis = end != null ? SalesBlockCodec.toMillis(end, zone) : Long.MAX_VALUE;
+            List<SalesRecord> block;
+            while ((block = SalesBlockCodec.read(in, startMillis, endMillis, itemId, zone)) != null) {
+                records.addAll(block);
+            }
+        }
+        return records;
+    }
+
+    // Partition files in day order
+    private List<Path> partitions() throws IOException {
+        if (!Files.isDirectory(root())) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(root(), 2)) {
+            return files.filter(f -> f.toString().endsWith(SUFFIX)).sorted().toList();
+        }
+    }
+
+    private List<Integer> years() throws IOException {
+        if (!Files.isDirectory(root())) {
+            return List.of();
+        }
+        try (Stream<Path> entries = Files.list(root())) {
+            return entries.map(entry -> entry.getFileName().toString())
+                    .filter(name -> name.matches("\\d{4}"))
+                    .map(Integer::valueOf)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
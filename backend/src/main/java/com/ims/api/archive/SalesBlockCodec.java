@@ -0,0 +1,354 @@
+package com.ims.api.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.bson.types.ObjectId;
+
+import com.ims.api.model.SalesRecord;
+
+/*
+ * Encoding of one block of sales records (sorted by timestamp) as separately deflated
+ * columns, so a reader can prune a block from its header alone and decode only the columns
+ * it needs. Block layout:
+ *
+ *   int rowCount, long minTimestamp, long maxTimestamp (epoch millis),
+ *   int compressedLength per column, then the deflated columns in COLUMNS order.
+ *
+ * Ids are stored as 12-byte ObjectIds when every id in the block is one, else as strings.
+ * Timestamps are varint deltas from the block minimum; strings are dictionary encoded.
+ * Timestamps are converted with the zone given by the file header: UTC for files written
+ * now, so a file reads back the same on a server in any time zone.
+ */
+final class SalesBlockCodec {
+
+    static final String[] COLUMNS = {"id", "timestamp", "itemId", "itemName", "category", "locationId",
+            "quantity", "unitPrice", "totalPrice"};
+
+    private static final int ID = 0;
+    private static final int TIMESTAMP = 1;
+    private static final int ITEM_ID = 2;
+    private static final int ITEM_NAME = 3;
+    private static final int CATEGORY = 4;
+    private static final int LOCATION_ID = 5;
+    private static final int QUANTITY = 6;
+    private static final int UNIT_PRICE = 7;
+    private static final int TOTAL_PRICE = 8;
+
+    private static final byte IDS_AS_OBJECT_IDS = 0;
+    private static final byte IDS_AS_STRINGS = 1;
+
+    // Zone new blocks are written in
+    static final ZoneOffset ZONE = ZoneOffset.UTC;
+
+    private SalesBlockCodec() {
+    }
+
+    static long toMillis(LocalDateTime timestamp, ZoneId zone) {
+        return timestamp.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    static LocalDateTime fromMillis(long millis, ZoneId zone) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+    }
+
+    // records must be sorted by timestamp and non-empty; encoded in ZONE
+    static void write(List<SalesRecord> records, DataOutputStream out) throws IOException {
+        long min = toMillis(records.get(0).getTimestamp(), ZONE);
+        long max = toMillis(records.get(records.size() - 1).getTimestamp(), ZONE);
+        byte[][] columns = new byte[COLUMNS.length][];
+
+        boolean objectIds = records.stream().allMatch(r -> r.getId() != null && ObjectId.isValid(r.getId()));
+        columns[ID] = column(column -> {
+            column.writeByte(objectIds ? IDS_AS_OBJECT_IDS : IDS_AS_STRINGS);
+            for (SalesRecord record : records) {
+                if (objectIds) {
+                    column.write(new ObjectId(record.getId()).toByteArray());
+                } else {
+                    column.writeUTF(record.getId() != null ? record.getId() : "");
+                }
+            }
+        });
+        columns[TIMESTAMP] = column(column -> {
+            for (SalesRecord record : records) {
+                writeVarLong(column, toMillis(record.getTimestamp(), ZONE) - min);
+            }
+        });
+        columns[ITEM_ID] = column(column -> writeDictionary(column, records, SalesRecord::getItemId));
+        columns[ITEM_NAME] = column(column -> writeDictionary(column, records, SalesRecord::getItemName));
+        columns[CATEGORY] = column(column -> writeDictionary(column, records, SalesRecord::getCategory));
+        columns[LOCATION_ID] = column(column -> writeDictionary(column, records, SalesRecord::getLocationId));
+        columns[QUANTITY] = column(column -> {
+            for (SalesRecord record : records) {
+                writeVarLong(column, zigZag(record.getQuantity()));
+            }
+        });
+        columns[UNIT_PRICE] = column(column -> {
+            for (SalesRecord record : records) {
+                column.writeDouble(record.getUnitPrice());
+            }
+        });
+        columns[TOTAL_PRICE] = column(column -> {
+            for (SalesRecord record : records) {
+                column.writeDouble(record.getTotalPrice());
+            }
+        });
+
+        out.writeInt(records.size());
+        out.writeLong(min);
+        out.writeLong(max);
+        for (byte[] column : columns) {
+            out.writeInt(column.length);
+        }
+        for (byte[] column : columns) {
+            out.write(column);
+        }
+    }
+
+    /*
+     * Reads the next block and returns the records with start < timestamp < end (and the
+     * given itemId, if not null). start and end are epoch millis in the file's zone. Returns
+     * null at the end of the file. Blocks outside the range, or whose itemId dictionary lacks
+     * the item, are skipped without inflating the remaining columns.
+     */
+    static List<SalesRecord> read(DataInputStream in, long start, long end, String itemId, ZoneId zone)
+            throws IOException {
+        int rows;
+        try {
+            rows = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        long min = in.readLong();
+        long max = in.readLong();
+        int[] lengths = new int[COLUMNS.length];
+        long blockLength = 0;
+        for (int c = 0; c < COLUMNS.length; c++) {
+            lengths[c] = in.readInt();
+            blockLength += lengths[c];
+        }
+        if (max <= start || min >= end) {
+            in.skipNBytes(blockLength);
+            return List.of();
+        }
+        byte[][] compressed = new byte[COLUMNS.length][];
+        for (int c = 0; c < COLUMNS.length; c++) {
+            compressed[c] = new byte[lengths[c]];
+            in.readFully(compressed[c]);
+        }
+
+        int[] itemCodes = null;
+        String[] itemDictionary = null;
+        if (itemId != null) {
+            DataInputStream column = inflate(compressed[ITEM_ID]);
+            itemDictionary = readStrings(column);
+            if (!Arrays.asList(itemDictionary).contains(itemId)) {
+                return List.of();
+            }
+            itemCodes = readCodes(column, rows);
+        }
+
+        long[] timestamps = new long[rows];
+        DataInputStream timestampColumn = inflate(compressed[TIMESTAMP]);
+        boolean[] selected = new boolean[rows];
+        int selectedCount = 0;
+        for (int r = 0; r < rows; r++) {
+            timestamps[r] = min + readVarLong(timestampColumn);
+            selected[r] = timestamps[r] > start && timestamps[r] < end
+                    && (itemCodes == null || itemId.equals(itemDictionary[itemCodes[r]]));
+            if (selected[r]) {
+                selectedCount++;
+            }
+        }
+        if (selectedCount == 0) {
+            return List.of();
+        }
+
+        String[] ids = readIds(inflate(compressed[ID]), rows);
+        if (itemCodes == null) {
+            DataInputStream column = inflate(compressed[ITEM_ID]);
+            itemDictionary = readStrings(column);
+            itemCodes = readCodes(column, rows);
+        }
+        DataInputStream nameColumn = inflate(compressed[ITEM_NAME]);
+        String[] names = readStrings(nameColumn);
+        int[] nameCodes = readCodes(nameColumn, rows);
+        DataInputStream categoryColumn = inflate(compressed[CATEGORY]);
+        String[] categories = readStrings(categoryColumn);
+        int[] categoryCodes = readCodes(categoryColumn, rows);
+        DataInputStream locationColumn = inflate(compressed[LOCATION_ID]);
+        String[] locations = readStrings(locationColumn);
+        int[] locationCodes = readCodes(locationColumn, rows);
+        DataInputStream quantityColumn = inflate(compressed[QUANTITY]);
+        DataInputStream unitPriceColumn = inflate(compressed[UNIT_PRICE]);
+        DataInputStream totalPriceColumn = inflate(compressed[TOTAL_PRICE]);
+
+        List<SalesRecord> records = new ArrayList<>(selectedCount);
+        for (int r = 0; r < rows; r++) {
+            int quantity = (int) unZigZag(readVarLong(quantityColumn));
+            double unitPrice = unitPriceColumn.readDouble();
+            double totalPrice = totalPriceColumn.readDouble();
+            if (!selected[r]) {
+                continue;
+            }
+            SalesRecord record = new SalesRecord();
+            record.setId(ids[r]);
+            record.setTimestamp(fromMillis(timestamps[r], zone));
+            record.setItemId(itemDictionary[itemCodes[r]]);
+            record.setItemName(names[nameCodes[r]]);
+            record.setCategory(categories[categoryCodes[r]]);
+            record.setLocationId(locations[locationCodes[r]]);
+            record.setQuantity(quantity);
+            record.setUnitPrice(unitPrice);
+            record.setTotalPrice(totalPrice);
+            records.add(record);
+        }
+        return records;
+    }
+
+    private interface ColumnWriter {
+        void write(DataOutputStream column) throws IOException;
+    }
+
+    private static byte[] column(ColumnWriter writer) throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        try (DataOutputStream column = new DataOutputStream(raw)) {
+            writer.write(column);
+        }
+        return deflate(raw.toByteArray());
+    }
+
+    // Dictionary of distinct values (null allowed) followed by one varint code per row
+    private static void writeDictionary(DataOutputStream column, List<SalesRecord> records,
+            Function<SalesRecord, String> field) throws IOException {
+        Map<String, Integer> codes = new LinkedHashMap<>();
+        int[] rowCodes = new int[records.size()];
+        for (int r = 0; r < records.size(); r++) {
+            rowCodes[r] = codes.computeIfAbsent(field.apply(records.get(r)), value -> codes.size());
+        }
+        writeVarLong(column, codes.size());
+        for (String value : codes.keySet()) {
+            column.writeBoolean(value != null);
+            if (value != null) {
+                column.writeUTF(value);
+            }
+        }
+        for (int code : rowCodes) {
+            writeVarLong(column, code);
+        }
+    }
+
+    private static String[] readStrings(DataInputStream column) throws IOException {
+        String[] values = new String[(int) readVarLong(column)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = column.readBoolean() ? column.readUTF() : null;
+        }
+        return values;
+    }
+
+    private static int[] readCodes(DataInputStream column, int rows) throws IOException {
+        int[] codes = new int[rows];
+        for (int r = 0; r < rows; r++) {
+            codes[r] = (int) readVarLong(column);
+        }
+        return codes;
+    }
+
+    private static String[] readIds(DataInputStream column, int rows) throws IOException {
+        String[] ids = new String[rows];
+        boolean objectIds = column.readByte() == IDS_AS_OBJECT_IDS;
+        byte[] bytes = new byte[12];
+        for (int r = 0; r < rows; r++) {
+            if (objectIds) {
+                column.readFully(bytes);
+                ids[r] = new ObjectId(ByteBuffer.wrap(bytes)).toHexString();
+            } else {
+                ids[r] = column.readUTF();
+            }
+        }
+        return ids;
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static DataInputStream inflate(byte[] compressed) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated column in sales archive block");
+                }
+                out.write(buffer, 0, n);
+            }
+            return new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt column in sales archive block", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in sales archive block");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,145 @@
+package com.ims.api.cache;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.ims.api.model.Category;
+import com.ims.api.repository.CategoryRepository;
+
+/*
+ * The category list, held in memory as an immutable snapshot. Reads never touch Mongo once
+ * a snapshot is loaded. Loads are single-flight: concurrent callers that find no usable
+ * snapshot all wait on the same load.
+ *
+ * Local writes call invalidate(), which bumps a version; a snapshot is only served if it
+ * was loaded at the current version, so a load that was already in flight when the write
+ * happened is never mistaken for fresh data. Writes made on other replicas are picked up by
+ * the periodic refresh, which swaps in a new snapshot while the old one keeps being served.
+ *
+ * Each snapshot carries a fingerprint of the categories it holds (ids, versions and stock
+ * aggregates), which is the ETag of the list; a conditional GET is answered without any
+ * query, and the tag always matches the body served with it.
+ */
+@Component
+public class CategorySnapshotCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategorySnapshotCache.class);
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private static final class Snapshot {
+        final Versioned<List<Category>> categories;
+        final long version;
+        final LocalDateTime loadedAt = LocalDateTime.now();
+
+        Snapshot(List<Category> categories, long version) {
+            long fingerprint = categories.size();
+            for (Category category : categories) {
+                fingerprint = fingerprint * 0x9E3779B97F4A7C15L + Objects.hash(category.getId(), category.getVersion(),
+                        category.getItemCount(), category.getTotalUnits(), category.getTotalStockValue(),
+                        category.getLowStockCount(), category.getStatsReconciledAt());
+            }
+            this.categories = new Versioned<>(List.copyOf(categories), fingerprint & Long.MAX_VALUE);
+            this.version = version;
+        }
+    }
+
+    private volatile Snapshot snapshot;
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicReference<CompletableFuture<Snapshot>> inFlight = new AtomicReference<>();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+
+    public List<Category> getAll() {
+        return getVersioned().getValue();
+    }
+
+    public Versioned<List<Category>> getVersioned() {
+        Snapshot current = snapshot;
+        while (current == null || current.version != version.get()) {
+            current = join(refresh());
+        }
+        hits.incrementAndGet();
+        return current.categories;
+    }
+
+    public Optional<Category> getById(String id) {
+        return getAll().stream().filter(category -> category.getId().equals(id)).findFirst();
+    }
+
+    // Called after every local category write and after repaired stock aggregates
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    @Scheduled(initialDelayString = "${app.cache.categories.refresh-interval-ms:60000}",
+            fixedDelayString = "${app.cache.categories.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        try {
+            join(refresh());
+        } catch (Exception e) {
+            // The previous snapshot stays in service
+            logger.warn("Category snapshot refresh failed: {}", e.getMessage());
+        }
+    }
+
+    // Starts a load, or returns the one already running
+    private CompletableFuture<Snapshot> refresh() {
+        CompletableFuture<Snapshot> mine = new CompletableFuture<>();
+        CompletableFuture<Snapshot> running = inFlight.compareAndExchange(null, mine);
+        if (running != null) {
+            return running;
+        }
+        try {
+            long loadVersion = version.get();
+            Snapshot loaded = new Snapshot(categoryRepository.findAll(Sort.by("name")), loadVersion);
+            loads.incrementAndGet();
+            snapshot = loaded;
+            mine.complete(loaded);
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+        } finally {
+            inFlight.set(null);
+        }
+        return mine;
+    }
+
+    private static Snapshot join(CompletableFuture<Snapshot> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Snapshot current = snapshot;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", current != null ? current.categories.getValue().size() : 0);
+        stats.put("dataVersion", current != null ? current.categories.getVersion() : null);
+        stats.put("loadedAt", current != null ? current.loadedAt : null);
+        stats.put("current", current != null && current.version == version.get());
+        stats.put("hits", hits.get());
+        stats.put("loads", loads.get());
+        return stats;
+    }
+}
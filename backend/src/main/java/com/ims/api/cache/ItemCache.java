@@ -0,0 +1,217 @@
+package com.ims.api.cache;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.ims.api.event.ItemChangedEvent;
+import com.ims.api.model.Item;
+
+/*
+ * Node-local L1 cache for items by id and item lists by category, bounded by estimated
+ * bytes with Caffeine's W-TinyLFU eviction. Concurrent misses on one key are coalesced
+ * into a single load, and an invalidation that races a load waits for it and then removes
+ * the freshly loaded value, so a load can never reinstate data older than the invalidation.
+ *
+ * Entries are shared between requests and must not be mutated; write paths read items from
+ * the repository, never from here. Invalidation comes from local ItemChangedEvents and,
+ * for writes on other replicas, from ItemChangeStreamListener (or the fallback TTL), and it
+ * alone decides freshness: a hit is served without any database round trip.
+ *
+ * ETags are derived from what is cached: an item's own @Version, and for a category list a
+ * fingerprint of its items' ids and versions taken when the list was loaded.
+ */
+@Component
+public class ItemCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemCache.class);
+
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Cache<String, Item> byId;
+    private final Cache<String, CategoryEntry> byCategory;
+
+    // Bumped by every invalidation; lets put() refuse values read before an invalidation
+    private final AtomicLong generation = new AtomicLong();
+
+    // The items cached for a category, with their ids for invalidation lookups
+    private static final class CategoryEntry {
+        final Versioned<List<Item>> items;
+        final Set<String> ids;
+        final int weight;
+
+        CategoryEntry(List<Item> items) {
+            this.ids = new HashSet<>(items.size() * 2);
+            int total = 64;
+            // Any write to a member bumps its @Version, so the fingerprint changes with the list
+            long fingerprint = items.size();
+            for (Item item : items) {
+                ids.add(item.getId());
+                total += weigh(item);
+                fingerprint = fingerprint * 0x9E3779B97F4A7C15L + Objects.hash(item.getId(), item.getVersion());
+            }
+            this.items = new Versioned<>(List.copyOf(items), fingerprint & Long.MAX_VALUE);
+            this.weight = total;
+        }
+    }
+
+    public ItemCache(@Value("${app.cache.items.enabled:true}") boolean enabled,
+            @Value("${app.cache.items.max-bytes:33554432}") long maxBytes,
+            @Value("${app.cache.items.category-max-bytes:33554432}") long categoryMaxBytes,
+            @Value("${app.cache.items.ttl:10m}") Duration ttl) {
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.byId = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String id, Item item) -> weigh(item))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.byCategory = Caffeine.newBuilder()
+                .maximumWeight(categoryMaxBytes)
+                .weigher((String category, CategoryEntry entry) -> entry.weight)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<Item> getById(String id, Function<String, Optional<Item>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        // Concurrent misses on one key are coalesced; misses are not cached, since a null
+        // result from the mapping function stores nothing
+        return Optional.ofNullable(byId.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    // The version of the result is the fingerprint of its items' versions
+    public Versioned<List<Item>> getByCategory(String category, Supplier<List<Item>> loader) {
+        if (!enabled) {
+            return new CategoryEntry(loader.get()).items;
+        }
+        return byCategory.get(category, key -> new CategoryEntry(loader.get())).items;
+    }
+
+    public Item getIfPresent(String id) {
+        return enabled ? byId.getIfPresent(id) : null;
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    // readGeneration: generation() taken before the item was read from the database
+    public void put(Item item, long readGeneration) {
+        if (enabled && item.getId() != null && generation.get() == readGeneration) {
+            byId.put(item.getId(), item);
+            // An invalidation may have landed between the check and the put
+            if (generation.get() != readGeneration) {
+                byId.invalidate(item.getId());
+            }
+        }
+    }
+
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.isBulk()) {
+            invalidateAll();
+        } else {
+            invalidate(event.getItemId(), event.getCategories());
+        }
+    }
+
+    /*
+     * Drops the item and every category list that contains it or that it now belongs to.
+     * The item's previous category is not always known (deletes, replacements seen through
+     * the change stream), so lists are matched by membership rather than by name.
+     */
+    public void invalidate(String itemId, Set<String> categories) {
+        if (itemId == null) {
+            invalidateAll();
+            return;
+        }
+        generation.incrementAndGet();
+        byId.invalidate(itemId);
+        // By name first: this also waits out a load of that list that is still in flight
+        byCategory.invalidateAll(categories);
+        for (Map.Entry<String, CategoryEntry> entry : byCategory.asMap().entrySet()) {
+            if (entry.getValue().ids.contains(itemId)) {
+                byCategory.invalidate(entry.getKey());
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        byId.invalidateAll();
+        byCategory.invalidateAll();
+        logger.debug("Item cache cleared");
+    }
+
+    // Without change streams, other replicas' writes are only picked up when entries expire
+    void setExpireAfterWrite(Duration expiry) {
+        byId.policy().expireAfterWrite().ifPresent(policy -> policy.setExpiresAfter(expiry));
+        byCategory.policy().expireAfterWrite().ifPresent(policy -> policy.setExpiresAfter(expiry));
+    }
+
+    Duration getTtl() {
+        return ttl;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("byId", stats(byId));
+        stats.put("byCategory", stats(byCategory));
+        return stats;
+    }
+
+    private static Map<String, Object> stats(Cache<String, ?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("entries", cache.estimatedSize());
+        result.put("weightedBytes", cache.policy().eviction()
+                .flatMap(eviction -> eviction.weightedSize().isPresent()
+                        ? Optional.of(eviction.weightedSize().getAsLong()) : Optional.empty())
+                .orElse(0L));
+        result.put("hitRatio", stats.hitRate());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("loads", stats.loadCount());
+        result.put("averageLoadMs", stats.averageLoadPenalty() / 1_000_000.0);
+        result.put("evictions", stats.evictionCount());
+        result.put("evictedBytes", stats.evictionWeight());
+        return result;
+    }
+
+    // Rough retained size: object headers and primitives plus two bytes per string char
+    private static int weigh(Item item) {
+        return 160 + 2 * (length(item.getId()) + length(item.getName()) + length(item.getCategory())
+                + length(item.getDescription()) + length(item.getImageUrl()));
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
@@ -0,0 +1,257 @@
+package com.ims.api.cache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.ims.api.model.Item;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.UpdateDescription;
+
+import jakarta.annotation.PreDestroy;
+
+/*
+ * Tails a change stream on the items collection and drops affected ItemCache entries, so
+ * writes made through any replica invalidate every replica's cache within the stream's
+ * delivery latency. The resume token is kept across reconnects so no event is skipped;
+ * if the stream history has been lost the whole cache is cleared instead.
+ *
+ * Change streams need a replica set (a single-node one is enough). On a standalone server
+ * the cache falls back to local invalidation plus a short TTL, which bounds how long another
+ * replica's write can go unseen.
+ */
+@Component
+public class ItemChangeStreamListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemChangeStreamListener.class);
+
+    // "The $changeStream stage is only supported on replica sets"
+    private static final int NOT_A_REPLICA_SET = 40573;
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Value("${app.cache.items.change-stream-enabled:true}")
+    private boolean changeStreamEnabled;
+
+    @Value("${app.cache.items.fallback-ttl:30s}")
+    private Duration fallbackTtl;
+
+    private volatile boolean running;
+    private volatile MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+
+    private volatile String mode = "STARTING";
+    private volatile String lastError;
+    private volatile LocalDateTime lastEventAt;
+    private volatile long lastLagMs;
+    private final AtomicLong events = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+    private final AtomicLong totalLagMs = new AtomicLong();
+    private final LongAccumulator maxLagMs = new LongAccumulator(Math::max, 0);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!itemCache.isEnabled()) {
+            mode = "DISABLED";
+            return;
+        }
+        if (!changeStreamEnabled) {
+            fallback("change stream disabled by configuration");
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::listen, "item-change-stream");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> current = cursor;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (Exception e) {
+                // Closing interrupts the blocking next() in the listener thread
+            }
+        }
+    }
+
+    private void listen() {
+        BsonDocument resumeToken = null;
+        long backoffMs = 500;
+        while (running) {
+            try {
+                ChangeStreamIterable<Document> stream = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Item.class))
+                        .watch();
+                if (resumeToken != null) {
+                    stream = stream.resumeAfter(resumeToken);
+                }
+                try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> opened = stream.cursor()) {
+                    cursor = opened;
+                    if (!"CHANGE_STREAM".equals(mode)) {
+                        logger.info("Item cache invalidation via change stream{}", resumeToken != null ? " (resumed)" : "");
+                        itemCache.setExpireAfterWrite(itemCache.getTtl());
+                    }
+                    if (resumeToken == null) {
+                        // Anything cached before the stream opened may have missed writes
+                        itemCache.invalidateAll();
+                    }
+                    mode = "CHANGE_STREAM";
+                    backoffMs = 500;
+
+                    while (running) {
+                        ChangeStreamDocument<Document> change = opened.next();
+                        resumeToken = change.getResumeToken();
+                        if (!apply(change)) {
+                            // The stream was invalidated (drop/rename); start a fresh one
+                            resumeToken = null;
+                            break;
+                        }
+                    }
+                }
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == NOT_A_REPLICA_SET) {
+                    fallback("MongoDB is not running as a replica set");
+                    return;
+                }
+                if (e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                    resumeToken = null;
+                }
+                backoffMs = recover(e, backoffMs);
+            } catch (Exception e) {
+                backoffMs = recover(e, backoffMs);
+            } finally {
+                cursor = null;
+            }
+        }
+    }
+
+    // While disconnected, other replicas' writes can go unseen: clear and shorten the TTL
+    private long recover(Exception e, long backoffMs) {
+        if (!running) {
+            return backoffMs;
+        }
+        mode = "RECONNECTING";
+        lastError = e.getMessage();
+        reconnects.incrementAndGet();
+        itemCache.invalidateAll();
+        itemCache.setExpireAfterWrite(fallbackTtl);
+        logger.warn("Item change stream interrupted, retrying in {} ms: {}", backoffMs, e.getMessage());
+        try {
+            Thread.sleep(backoffMs);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+        return Math.min(backoffMs * 2, 30_000);
+    }
+
+    private void fallback(String reason) {
+        mode = "TTL_FALLBACK";
+        lastError = reason;
+        itemCache.setExpireAfterWrite(fallbackTtl);
+        logger.warn("Item cache cannot use a change stream ({}); entries expire after {}", reason, fallbackTtl);
+    }
+
+    // Returns false when the stream has been invalidated and must be reopened
+    private boolean apply(ChangeStreamDocument<Document> change) {
+        events.incrementAndGet();
+        recordLag(change);
+
+        switch (change.getOperationType()) {
+            case INSERT:
+            case REPLACE:
+                itemCache.invalidate(documentId(change), categoryOf(change.getFullDocument()));
+                return true;
+            case UPDATE:
+                // Without a full document lookup only a changed category is known; the old
+                // category's list is found by membership
+                UpdateDescription update = change.getUpdateDescription();
+                BsonValue category = update != null && update.getUpdatedFields() != null
+                        ? update.getUpdatedFields().get("category") : null;
+                itemCache.invalidate(documentId(change), category != null && category.isString()
+                        ? Set.of(category.asString().getValue()) : Collections.emptySet());
+                return true;
+            case DELETE:
+                itemCache.invalidate(documentId(change), Collections.emptySet());
+                return true;
+            case INVALIDATE:
+                itemCache.invalidateAll();
+                return false;
+            default:
+                // drop, rename, dropDatabase and anything newer
+                itemCache.invalidateAll();
+                return true;
+        }
+    }
+
+    private void recordLag(ChangeStreamDocument<Document> change) {
+        long eventMillis;
+        if (change.getWallTime() != null) {
+            eventMillis = change.getWallTime().getValue();
+        } else if (change.getClusterTime() != null) {
+            // Second precision only on servers older than 6.0
+            eventMillis = change.getClusterTime().getTime() * 1000L;
+        } else {
+            return;
+        }
+        long lag = Math.max(0, System.currentTimeMillis() - eventMillis);
+        lastLagMs = lag;
+        totalLagMs.addAndGet(lag);
+        maxLagMs.accumulate(lag);
+        lastEventAt = LocalDateTime.now();
+    }
+
+    private static String documentId(ChangeStreamDocument<Document> change) {
+        BsonValue id = change.getDocumentKey() != null ? change.getDocumentKey().get("_id") : null;
+        if (id == null) {
+            return null;
+        }
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.isString() ? id.asString().getValue() : id.toString();
+    }
+
+    private static Set<String> categoryOf(Document document) {
+        String category = document != null ? document.getString("category") : null;
+        return category != null ? Set.of(category) : Collections.emptySet();
+    }
+
+    public Map<String, Object> stats() {
+        long count = events.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", mode);
+        stats.put("events", count);
+        stats.put("lastEventAt", lastEventAt);
+        stats.put("lastLagMs", lastLagMs);
+        stats.put("averageLagMs", count > 0 ? totalLagMs.get() / count : 0);
+        stats.put("maxLagMs", maxLagMs.get());
+        stats.put("reconnects", reconnects.get());
+        stats.put("lastError", lastError);
+        return stats;
+    }
+}
@@ -0,0 +1,168 @@
+package com.ims.api.cache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * A single computed value, recomputed at most once per ttl. Loads are single-flight: every
+ * caller that needs a new value waits on the same computation.
+ *
+ * Once a value is older than ttl minus refreshAhead, the next read starts a background
+ * recomputation and is still answered from the current value, so a steadily read value
+ * never expires in front of a caller. With serveStale, a value up to maxStale past its ttl
+ * is also returned immediately while it is recomputed; beyond that, or without serveStale,
+ * callers wait for the new value.
+ */
+public class RefreshAheadCache<V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshAheadCache.class);
+
+    private final String name;
+    private final Supplier<V> loader;
+    private final Executor executor;
+    private final long ttlNanos;
+    private final long refreshAtNanos;
+    private final long staleLimitNanos;
+
+    private static final class Entry<V> {
+        final V value;
+        final long loadedAtNanos = System.nanoTime();
+        final LocalDateTime loadedAt = LocalDateTime.now();
+
+        Entry(V value) {
+            this.value = value;
+        }
+    }
+
+    private volatile Entry<V> entry;
+    private final AtomicReference<CompletableFuture<Entry<V>>> inFlight = new AtomicReference<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile long lastLoadMs;
+    private volatile String lastError;
+
+    public RefreshAheadCache(String name, Supplier<V> loader, Executor executor, Duration ttl,
+            Duration refreshAhead, boolean serveStale, Duration maxStale) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive");
+        }
+        this.name = name;
+        this.loader = loader;
+        this.executor = executor;
+        this.ttlNanos = ttl.toNanos();
+        this.refreshAtNanos = Math.max(0, ttl.minus(refreshAhead).toNanos());
+        this.staleLimitNanos = serveStale ? ttlNanos + maxStale.toNanos() : ttlNanos;
+    }
+
+    public V get() {
+        Entry<V> current = entry;
+        if (current != null) {
+            long age = System.nanoTime() - current.loadedAtNanos;
+            if (age < refreshAtNanos) {
+                hits.incrementAndGet();
+                return current.value;
+            }
+            if (age < staleLimitNanos) {
+                refresh(true);
+                (age < ttlNanos ? hits : staleHits).incrementAndGet();
+                return current.value;
+            }
+        }
+        waits.incrementAndGet();
+        return join(refresh(false)).value;
+    }
+
+    // Drops the value; the next read recomputes it
+    public void invalidate() {
+        entry = null;
+    }
+
+    // Starts a computation, or returns the one already running
+    private CompletableFuture<Entry<V>> refresh(boolean background) {
+        CompletableFuture<Entry<V>> mine = new CompletableFuture<>();
+        CompletableFuture<Entry<V>> running = inFlight.compareAndExchange(null, mine);
+        if (running != null) {
+            return running;
+        }
+        if (background) {
+            try {
+                executor.execute(() -> load(mine));
+            } catch (RuntimeException e) {
+                // Executor saturated or shut down: leave the refresh to the next read
+                inFlight.set(null);
+                mine.completeExceptionally(e);
+            }
+        } else {
+            load(mine);
+        }
+        return mine;
+    }
+
+    private void load(CompletableFuture<Entry<V>> future) {
+        long started = System.nanoTime();
+        try {
+            Entry<V> loaded = new Entry<>(loader.get());
+            lastLoadMs = (System.nanoTime() - started) / 1_000_000;
+            loads.incrementAndGet();
+            entry = loaded;
+            future.complete(loaded);
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            lastError = e.getMessage();
+            logger.warn("Recomputing {} failed: {}", name, e.getMessage());
+            future.completeExceptionally(e);
+        } catch (Error e) {
+            // Waiters must not hang on an OutOfMemoryError or the like; it still propagates
+            failures.incrementAndGet();
+            lastError = e.toString();
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.set(null);
+        }
+    }
+
+    private static <V> Entry<V> join(CompletableFuture<Entry<V>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Entry<V> current = entry;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loadedAt", current != null ? current.loadedAt : null);
+        stats.put("ageMs", current != null ? (System.nanoTime() - current.loadedAtNanos) / 1_000_000 : null);
+        stats.put("hits", hits.get());
+        stats.put("staleHits", staleHits.get());
+        stats.put("waits", waits.get());
+        stats.put("loads", loads.get());
+        stats.put("failures", failures.get());
+        stats.put("lastLoadMs", lastLoadMs);
+        stats.put("lastError", lastError);
+        return stats;
+    }
+}
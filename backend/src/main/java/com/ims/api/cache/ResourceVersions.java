@@ -0,0 +1,72 @@
+package com.ims.api.cache;
+
+import java.time.LocalDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.ims.api.event.ItemChangedEvent;
+import com.ims.api.model.CollectionVersion;
+
+/*
+ * Shared change counter behind the ETags of the item list endpoints, which always read from
+ * Mongo. A write bumps the counter after it completes; a read takes the counter before
+ * reading the data, so a representation is never tagged with a version older than its
+ * content. The counter lives in Mongo so every replica hands out the same tags.
+ *
+ * Cached representations (single items, category item lists, the category list) are tagged
+ * from the cached data itself and never read a counter; see ItemCache and CategorySnapshotCache.
+ */
+@Component
+public class ResourceVersions {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResourceVersions.class);
+
+    public static final String ITEMS = "items";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public long current(String key) {
+        CollectionVersion version = mongoTemplate.findById(key, CollectionVersion.class);
+        return version != null ? version.getVersion() : 0;
+    }
+
+    /*
+     * Called after the write. A failed bump is logged rather than thrown, as the write has
+     * already happened; clients may then revalidate against the old tag until the next bump.
+     */
+    public void bump(String... keys) {
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CollectionVersion.class);
+            LocalDateTime now = LocalDateTime.now();
+            for (String key : keys) {
+                bulk.upsert(Query.query(Criteria.where("_id").is(key)),
+                        new Update().inc("version", 1).set("updatedAt", now));
+            }
+            bulk.execute();
+        } catch (Exception e) {
+            logger.error("Failed to bump resource versions {}: {}", String.join(", ", keys), e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        bump(ITEMS);
+    }
+
+    // Covers writes made while starting up and any change in the representations between releases
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        bump(ITEMS);
+    }
+}
@@ -0,0 +1,21 @@
+package com.ims.api.cache;
+
+// A cached value and the version its ETag is built from
+public final class Versioned<T> {
+
+    private final T value;
+    private final long version;
+
+    public Versioned(T value, long version) {
+        this.value = value;
+        this.version = version;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
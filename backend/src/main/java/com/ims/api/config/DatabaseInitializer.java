@@ -1,25 +1,59 @@
 package com.ims.api.config;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import com.ims.api.model.Category;
+import com.ims.api.model.CollectionVersion;
+import com.ims.api.model.ImageAsset;
 import com.ims.api.model.Item;
+import com.ims.api.model.JobLock;
+import com.ims.api.model.JobRun;
+import com.ims.api.model.Location;
+import com.ims.api.model.PriceChange;
+import com.ims.api.model.PricingRule;
+import com.ims.api.model.ReplenishmentPlan;
+import com.ims.api.model.SalesRecord;
+import com.ims.api.model.SalesSketchSlice;
+import com.ims.api.model.StockLevel;
+import com.ims.api.model.StockTransfer;
 import com.ims.api.model.User;
 import com.ims.api.repository.CategoryRepository;
 import com.ims.api.repository.ItemRepository;
+import com.ims.api.repository.PricingRuleRepository;
 import com.ims.api.repository.UserRepository;
+import com.mongodb.MongoException;
+import com.mongodb.client.result.UpdateResult;
 
 @Component
 public class DatabaseInitializer implements CommandLineRunner {
 
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseInitializer.class);
+
     @Autowired
     private UserRepository userRepository;
 
@@ -29,40 +63,129 @@ public class DatabaseInitializer implements CommandLineRunner {
     @Autowired
     private ItemRepository itemRepository;
 
+    @Autowired
+    private PricingRuleRepository pricingRuleRepository;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
     
     @Autowired
     private MongoTemplate mongoTemplate;
 
+    @Value("${app.init.skip-if-schema-present:false}")
+    private boolean skipIfSchemaPresent;
+
+    @Value("${app.init.ensure-indexes:false}")
+    private boolean ensureIndexes;
+
+    private static final String VERSION_MIGRATION = "migration:version-field";
+
+    private static final String HEADROOM_MIGRATION = "migration:item-headroom";
+
+    private static final int NAMESPACE_EXISTS = 48;
+
+    private static final List<Class<?>> DOCUMENT_TYPES = List.of(
+            User.class, Category.class, Item.class, SalesRecord.class, PricingRule.class, PriceChange.class,
+            ReplenishmentPlan.class, JobLock.class, JobRun.class, CollectionVersion.class, Location.class,
+            StockLevel.class, StockTransfer.class, SalesSketchSlice.class, ImageAsset.class);
+
     @Override
     public void run(String... args) throws Exception {
+        long start = System.currentTimeMillis();
         System.out.println("====================================================");
         System.out.println("Starting Database Initialization");
         System.out.println("====================================================");
         
-        // Create MongoDB collections if they don't exist
-        if (!mongoTemplate.collectionExists("users")) {
-            System.out.println("Creating users collection");
-            mongoTemplate.createCollection("users");
+        // One listCollections round trip instead of a collectionExists call per collection
+        Set<String> existing = mongoTemplate.getCollectionNames();
+        List<Class<?>> missing = new ArrayList<>();
+        for (Class<?> type : DOCUMENT_TYPES) {
+            if (!existing.contains(mongoTemplate.getCollectionName(type))) {
+                missing.add(type);
+            }
         }
-        
-        if (!mongoTemplate.collectionExists("categories")) {
-            System.out.println("Creating categories collection");
-            mongoTemplate.createCollection("categories");
+
+        // Before index creation starts: createIndexes implicitly creates a missing collection,
+        // which would make the explicit create below it fail
+        for (Class<?> type : missing) {
+            createCollection(type);
         }
-        
-        if (!mongoTemplate.collectionExists("items")) {
-            System.out.println("Creating items collection");
-            mongoTemplate.createCollection("items");
+
+        // Index creation never blocks startup; createIndexes is a no-op for existing indexes
+        if (ensureIndexes || !missing.isEmpty()) {
+            CompletableFuture.runAsync(() -> ensureIndexes(ensureIndexes ? DOCUMENT_TYPES : missing))
+                .exceptionally(e -> {
+                    logger.warn("Index creation failed", e);
+                    return null;
+                });
+        }
+
+        migrateVersionFields();
+        migrateItemHeadroom();
+
+        if (missing.isEmpty() && skipIfSchemaPresent) {
+            logger.info("Schema already present, skipping seed checks");
+        } else {
+            // The seed checks are independent, so run them concurrently
+            CompletableFuture.allOf(
+                CompletableFuture.runAsync(this::initializeAdminUser),
+                CompletableFuture.runAsync(() -> {
+                    if (categoryRepository.count() == 0) {
+                        System.out.println("Initializing categories...");
+                        initializeCategories();
+                    } else {
+                        System.out.println("Categories already exist, skipping initialization");
+                    }
+                }),
+                CompletableFuture.runAsync(() -> {
+                    if (itemRepository.count() == 0) {
+                        System.out.println("Initializing inventory items...");
+                        initializeItems();
+                    } else {
+                        System.out.println("Inventory items already exist, skipping initialization");
+                    }
+                }),
+                CompletableFuture.runAsync(() -> {
+                    if (pricingRuleRepository.count() == 0) {
+                        logger.info("Initializing pricing rules");
+                        initializePricingRules();
+                    } else {
+                        logger.debug("Pricing rules already exist, skipping initialization");
+                    }
+                })
+            ).join();
         }
         
-        if (!mongoTemplate.collectionExists("salesRecords")) {
-            System.out.println("Creating salesRecords collection");
-            mongoTemplate.createCollection("salesRecords");
+        System.out.println("====================================================");
+        System.out.println("Database Initialization Complete in " + (System.currentTimeMillis() - start) + " ms");
+        System.out.println("====================================================");
+    }
+
+    private void createCollection(Class<?> type) {
+        String name = mongoTemplate.getCollectionName(type);
+        logger.info("Creating {} collection", name);
+        try {
+            mongoTemplate.createCollection(type);
+        } catch (RuntimeException e) {
+            // Another instance starting against the same database got there first
+            if (!isNamespaceExists(e)) {
+                throw e;
+            }
+            logger.debug("{} collection already exists", name);
         }
+    }
 
-        // Initialize admin user if it doesn't exist
+    private static boolean isNamespaceExists(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException && ((MongoException) cause).getCode() == NAMESPACE_EXISTS) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // BCrypt hashing only happens when the admin user actually has to be created
+    private void initializeAdminUser() {
         if (!userRepository.existsByUsername("admin")) {
             System.out.println("Creating admin user...");
             User admin = new User("admin", passwordEncoder.encode("admin123"));
@@ -71,28 +194,50 @@ public class DatabaseInitializer implements CommandLineRunner {
         } else {
             System.out.println("Admin user already exists, skipping creation");
         }
+    }
 
-        // Initialize categories if they don't exist
-        if (categoryRepository.count() == 0) {
-            System.out.println("Initializing categories...");
-            initializeCategories();
-        } else {
-            System.out.println("Categories already exist, skipping initialization");
-            System.out.println("Found " + categoryRepository.count() + " categories");
+    // Documents written before items and categories had a @Version field start at 0; done once per database
+    private void migrateVersionFields() {
+        Query marker = Query.query(Criteria.where("_id").is(VERSION_MIGRATION));
+        if (mongoTemplate.exists(marker, CollectionVersion.class)) {
+            return;
+        }
+        for (Class<?> type : List.of(Item.class, Category.class)) {
+            UpdateResult result = mongoTemplate.updateMulti(Query.query(Criteria.where("version").exists(false)),
+                    new Update().set("version", 0L), type);
+            logger.info("Added version field to {} {} documents", result.getModifiedCount(),
+                    mongoTemplate.getCollectionName(type));
         }
+        mongoTemplate.upsert(marker, new Update().set("updatedAt", LocalDateTime.now()), CollectionVersion.class);
+    }
 
-        // Initialize items if they don't exist
-        if (itemRepository.count() == 0) {
-            System.out.println("Initializing inventory items...");
-            initializeItems();
-        } else {
-            System.out.println("Inventory items already exist, skipping initialization");
-            System.out.println("Found " + itemRepository.count() + " items");
+    // Items written before headroom existed get it; a missing minStock reads as 0. Done once per database
+    private void migrateItemHeadroom() {
+        Query marker = Query.query(Criteria.where("_id").is(HEADROOM_MIGRATION));
+        if (mongoTemplate.exists(marker, CollectionVersion.class)) {
+            return;
+        }
+        UpdateResult result = mongoTemplate.updateMulti(Query.query(Criteria.where("headroom").exists(false)),
+                AggregationUpdate.update().set("headroom").toValue(ArithmeticOperators.Subtract
+                        .valueOf(ConditionalOperators.ifNull("quantity").then(0))
+                        .subtract(ConditionalOperators.ifNull("minStock").then(0))),
+                Item.class);
+        logger.info("Added headroom field to {} items", result.getModifiedCount());
+        mongoTemplate.upsert(marker, new Update().set("updatedAt", LocalDateTime.now()), CollectionVersion.class);
+    }
+
+    private void ensureIndexes(List<Class<?>> types) {
+        ensureIndexes(mongoTemplate, types);
+        logger.info("Indexes ensured for {} collections", types.size());
+    }
+
+    // Creates the indexes declared on the mapped documents (@Indexed, @CompoundIndex)
+    static void ensureIndexes(MongoTemplate mongoTemplate, List<Class<?>> types) {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        for (Class<?> type : types) {
+            IndexOperations indexOps = mongoTemplate.indexOps(type);
+            resolver.resolveIndexFor(type).forEach(indexOps::ensureIndex);
         }
-        
-        System.out.println("====================================================");
-        System.out.println("Database Initialization Complete");
-        System.out.println("====================================================");
     }
 
     private void initializeCategories() {
@@ -107,6 +252,52 @@ public class DatabaseInitializer implements CommandLineRunner {
         System.out.println("Categories initialized: " + categories.size() + " categories created");
     }
 
+    // Default rules reproduce the original fixed price tables: only unpriced items are
+    // touched, item-specific prices win over category defaults, then a flat fallback
+    private void initializePricingRules() {
+        Map<String, Double> itemPrices = new LinkedHashMap<>();
+        itemPrices.put("Laptop", 45000.00);
+        itemPrices.put("Smartphone", 25000.00);
+        itemPrices.put("Wireless Mouse", 1200.00);
+        itemPrices.put("Ergonomic Keyboard", 2500.00);
+        itemPrices.put("Office Chair", 7500.00);
+        itemPrices.put("Desk", 12000.00);
+        itemPrices.put("Filing Cabinet", 5500.00);
+        itemPrices.put("Bookshelf", 8000.00);
+        itemPrices.put("Notebook", 150.00);
+        itemPrices.put("Pens (Box)", 120.00);
+        itemPrices.put("Sticky Notes", 80.00);
+        itemPrices.put("Desk Lamp", 850.00);
+        itemPrices.put("Scissors", 95.00);
+        itemPrices.put("Staplers", 175.00);
+
+        Map<String, Double> categoryPrices = new LinkedHashMap<>();
+        categoryPrices.put("Electronics", 15000.00);
+        categoryPrices.put("Furniture", 7500.00);
+        categoryPrices.put("Stationery", 150.00);
+        categoryPrices.put("Office Supplies", 350.00);
+
+        List<PricingRule> rules = new ArrayList<>();
+        itemPrices.forEach((name, price) -> {
+            PricingRule rule = new PricingRule("Default price: " + name, 10, PricingRule.Action.SET, price);
+            rule.setItemName(name);
+            rule.setOnlyUnpriced(true);
+            rules.add(rule);
+        });
+        categoryPrices.forEach((category, price) -> {
+            PricingRule rule = new PricingRule("Category default: " + category, 50, PricingRule.Action.SET, price);
+            rule.setCategory(category);
+            rule.setOnlyUnpriced(true);
+            rules.add(rule);
+        });
+        PricingRule fallback = new PricingRule("Fallback price", 1000, PricingRule.Action.SET, 500.00);
+        fallback.setOnlyUnpriced(true);
+        rules.add(fallback);
+
+        pricingRuleRepository.saveAll(rules);
+        logger.info("Pricing rules initialized: {} rules created", rules.size());
+    }
+
     private void initializeItems() {
         LocalDateTime now = LocalDateTime.now();
         
@@ -0,0 +1,46 @@
+package com.ims.api.config;
+
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import com.ims.api.repository.FieldSelection;
+
+@Configuration
+public class JacksonFormatsConfig {
+
+    // Documents carry @JsonFilter for sparse fieldsets; without a per-response filter
+    // (see FieldSelection.view) every property is written as before. The default filter
+    // also covers any other filter id, so the shared mapper never fails on one.
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fieldSelectionFilterCustomizer() {
+        return builder -> builder.filters(new SimpleFilterProvider()
+                .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll())
+                .addFilter(FieldSelection.FILTER_ID, SimpleBeanPropertyFilter.serializeAll())
+                .setFailOnUnknownId(false));
+    }
+
+    // Binary encodings negotiated via the Accept header (application/x-jackson-smile,
+    // application/cbor). JSON stays first in the converter list, so it remains the default.
+    // Both mappers are built from Boot's builder so they share the spring.jackson.* settings.
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(
+                builder.createXmlMapper(false).factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(
+                builder.createXmlMapper(false).factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,381 @@
+package com.ims.api.config;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.ims.api.model.Item;
+import com.ims.api.model.SalesRecord;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+
+/*
+ * Generates a large, production-shaped dataset for load and scale testing:
+ *
+ *   java -jar api.jar --spring.profiles.active=datagen --app.datagen.items=1000000 \
+ *       --app.datagen.sales=200000000 --app.datagen.exit-when-done=true
+ *
+ * Output is a pure function of the seed and settings (not of thread count): every item is
+ * derived from its index and every sales partition from its own seeded generator, and
+ * document ids are built from those same coordinates. Runs before DatabaseInitializer, so
+ * the demo seed items are not added on top of the generated catalog.
+ */
+@Component
+@Profile("datagen")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SyntheticDataGenerator implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+
+    private static final String[] ADJECTIVES = {"Ergonomic", "Wireless", "Compact", "Premium", "Classic",
+            "Portable", "Adjustable", "Heavy Duty", "Eco", "Pro", "Smart", "Deluxe", "Mini", "Ultra"};
+    private static final String[] NOUNS = {"Laptop", "Monitor", "Chair", "Desk", "Notebook", "Pen", "Lamp",
+            "Stapler", "Cabinet", "Keyboard", "Mouse", "Shelf", "Folder", "Printer", "Router", "Kettle",
+            "Heater", "Fan", "Marker", "Binder", "Headset", "Webcam", "Scanner", "Tray"};
+
+    // Relative share of a day's sales per hour, shaped around store opening hours
+    private static final double[] HOUR_WEIGHTS = {0.1, 0.05, 0.05, 0.05, 0.05, 0.1, 0.3, 0.6, 1.0, 1.4, 1.6, 1.7,
+            1.8, 1.7, 1.6, 1.5, 1.5, 1.6, 1.7, 1.5, 1.1, 0.7, 0.4, 0.2};
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Value("${app.datagen.seed:42}")
+    private long seed;
+
+    @Value("${app.datagen.items:1000000}")
+    private int itemCount;
+
+    @Value("${app.datagen.sales:10000000}")
+    private long salesCount;
+
+    @Value("${app.datagen.categories:Electronics,Furniture,Stationery,Office Supplies,Appliances}")
+    private String[] categories;
+
+    // Sales cover the history-days days (UTC) before end-date; fixed so a seed always yields the same data
+    @Value("${app.datagen.end-date:2026-01-01}")
+    private String endDate;
+
+    @Value("${app.datagen.history-days:365}")
+    private int historyDays;
+
+    // hot-sku-share of all sales go to the first hot-sku-fraction of the catalog
+    @Value("${app.datagen.hot-sku-fraction:0.01}")
+    private double hotSkuFraction;
+
+    @Value("${app.datagen.hot-sku-share:0.5}")
+    private double hotSkuShare;
+
+    // Yearly seasonality: demand varies by +/- amplitude around a peak day of the year
+    @Value("${app.datagen.seasonal-amplitude:0.4}")
+    private double seasonalAmplitude;
+
+    @Value("${app.datagen.peak-day-of-year:335}")
+    private int peakDayOfYear;
+
+    @Value("${app.datagen.weekend-factor:1.3}")
+    private double weekendFactor;
+
+    @Value("${app.datagen.partition-size:100000}")
+    private int partitionSize;
+
+    @Value("${app.datagen.batch-size:5000}")
+    private int batchSize;
+
+    // 0 means one thread per available processor
+    @Value("${app.datagen.threads:0}")
+    private int threads;
+
+    @Value("${app.datagen.drop-existing:false}")
+    private boolean dropExisting;
+
+    @Value("${app.datagen.update-item-sales:true}")
+    private boolean updateItemSales;
+
+    @Value("${app.datagen.exit-when-done:false}")
+    private boolean exitWhenDone;
+
+    private long historyStartMillis;
+    private int endSeconds;
+    private int hotSkuCount;
+    private double[] dayCumulative;
+    private double[] hourCumulative;
+
+    @Override
+    public void run(String... args) throws Exception {
+        prepare();
+
+        String itemsCollection = mongoTemplate.getCollectionName(Item.class);
+        String salesCollection = mongoTemplate.getCollectionName(SalesRecord.class);
+        if (dropExisting) {
+            logger.info("Dropping {} and {}", itemsCollection, salesCollection);
+            mongoTemplate.dropCollection(itemsCollection);
+            mongoTemplate.dropCollection(salesCollection);
+        }
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        try {
+            long start = System.currentTimeMillis();
+            generate("items", itemCount, executor, mongoTemplate.getCollection(itemsCollection), this::itemDocuments);
+            generate("sales records", salesCount, executor, mongoTemplate.getCollection(salesCollection),
+                    this::salesDocuments);
+            logger.info("Generated {} items and {} sales records in {} s with {} threads",
+                    itemCount, salesCount, (System.currentTimeMillis() - start) / 1000, poolSize);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Building indexes once after the load is much cheaper than maintaining them during it
+        DatabaseInitializer.ensureIndexes(mongoTemplate, List.of(Item.class, SalesRecord.class));
+
+        if (updateItemSales) {
+            rollUpItemSales(salesCollection, itemsCollection);
+        }
+
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    private void prepare() {
+        LocalDate end = LocalDate.parse(endDate);
+        LocalDate start = end.minusDays(historyDays);
+        historyStartMillis = start.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        endSeconds = (int) end.atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+        hotSkuCount = Math.max(1, (int) (itemCount * hotSkuFraction));
+
+        double[] dayWeights = new double[historyDays];
+        for (int d = 0; d < historyDays; d++) {
+            LocalDate day = start.plusDays(d);
+            double phase = 2 * Math.PI * (day.getDayOfYear() - peakDayOfYear) / 365.0;
+            double weight = 1 + seasonalAmplitude * Math.cos(phase);
+            if (day.getDayOfWeek().getValue() >= 6) {
+                weight *= weekendFactor;
+            }
+            dayWeights[d] = Math.max(0.01, weight);
+        }
+        dayCumulative = cumulative(dayWeights);
+        hourCumulative = cumulative(HOUR_WEIGHTS);
+    }
+
+    private interface PartitionWriter {
+        long write(int partition, long from, long to, MongoCollection<Document> collection);
+    }
+
+    private void generate(String label, long total, ExecutorService executor, MongoCollection<Document> collection,
+            PartitionWriter writer) throws Exception {
+        if (total <= 0) {
+            return;
+        }
+        int partitions = (int) ((total + partitionSize - 1) / partitionSize);
+        AtomicLong written = new AtomicLong();
+        AtomicLong partitionsDone = new AtomicLong();
+        logger.info("Generating {} {} in {} partitions", total, label, partitions);
+
+        List<Future<?>> futures = new ArrayList<>(partitions);
+        for (int p = 0; p < partitions; p++) {
+            int partition = p;
+            long from = (long) p * partitionSize;
+            long to = Math.min(total, from + partitionSize);
+            futures.add(executor.submit(() -> {
+                written.addAndGet(writer.write(partition, from, to, collection));
+                long done = partitionsDone.incrementAndGet();
+                if (done % Math.max(1, partitions / 20) == 0 || done == partitions) {
+                    logger.info("{}: {}/{} partitions, {} documents", label, done, partitions, written.get());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private long itemDocuments(int partition, long from, long to, MongoCollection<Document> collection) {
+        List<Document> batch = new ArrayList<>(batchSize);
+        Date lastUpdated = new Date(endSeconds * 1000L);
+        for (long i = from; i < to; i++) {
+            ItemSpec spec = itemSpec((int) i);
+            SplittableRandom random = new SplittableRandom(mix(seed, ~i));
+            int quantity = random.nextInt(500);
+            int minStock = 5 + random.nextInt(45);
+            batch.add(new Document("_id", spec.id)
+                    .append("name", spec.name)
+                    .append("category", spec.category)
+                    .append("description", "Synthetic " + spec.name.toLowerCase() + " (" + spec.category + ")")
+                    .append("quantity", quantity)
+                    .append("minStock", minStock)
+                    .append("headroom", quantity - minStock)
+                    .append("sales", 0)
+                    .append("lastUpdated", lastUpdated)
+                    .append("imageUrl", "/assets/images/items/default.jpg")
+                    .append("price", spec.price)
+                    .append("version", 0L)
+                    .append("_class", Item.class.getName()));
+            if (batch.size() == batchSize) {
+                insert(collection, batch);
+            }
+        }
+        insert(collection, batch);
+        return to - from;
+    }
+
+    private long salesDocuments(int partition, long from, long to, MongoCollection<Document> collection) {
+        SplittableRandom random = new SplittableRandom(mix(seed ^ 0x5A1E5L, partition));
+        ItemSpec[] hotSkus = new ItemSpec[Math.min(hotSkuCount, 4096)];
+        List<Document> batch = new ArrayList<>(batchSize);
+
+        for (long i = from; i < to; i++) {
+            int itemIndex = random.nextDouble() < hotSkuShare
+                    ? random.nextInt(hotSkuCount)
+                    : random.nextInt(itemCount);
+            ItemSpec item;
+            if (itemIndex < hotSkus.length) {
+                if (hotSkus[itemIndex] == null) {
+                    hotSkus[itemIndex] = itemSpec(itemIndex);
+                }
+                item = hotSkus[itemIndex];
+            } else {
+                item = itemSpec(itemIndex);
+            }
+
+            int day = sample(dayCumulative, random);
+            int hour = sample(hourCumulative, random);
+            long timestamp = historyStartMillis + day * MILLIS_PER_DAY + hour * MILLIS_PER_HOUR
+                    + random.nextLong(MILLIS_PER_HOUR);
+
+            // Mostly single units, with a geometric tail of larger baskets
+            int quantity = 1;
+            while (quantity < 20 && random.nextDouble() < 0.35) {
+                quantity++;
+            }
+
+            batch.add(new Document("_id", objectId((int) (timestamp / 1000), partition, (int) (i - from)))
+                    .append("itemId", item.id.toHexString())
+                    .append("itemName", item.name)
+                    .append("category", item.category)
+                    .append("quantity", quantity)
+                    .append("timestamp", new Date(timestamp))
+                    .append("unitPrice", item.price)
+                    .append("totalPrice", item.price * quantity)
+                    .append("_class", SalesRecord.class.getName()));
+            if (batch.size() == batchSize) {
+                insert(collection, batch);
+            }
+        }
+        insert(collection, batch);
+        return to - from;
+    }
+
+    private void insert(MongoCollection<Document> collection, List<Document> batch) {
+        if (!batch.isEmpty()) {
+            collection.insertMany(batch, new InsertManyOptions().ordered(false));
+            batch.clear();
+        }
+    }
+
+    // Sets each item's sales counter from the generated history, entirely server-side
+    private void rollUpItemSales(String salesCollection, String itemsCollection) {
+        logger.info("Rolling up sales totals into {}", itemsCollection);
+        List<Document> pipeline = Arrays.asList(
+                new Document("$group", new Document("_id", "$itemId")
+                        .append("sales", new Document("$sum", "$quantity"))),
+                new Document("$project", new Document("sales", 1)
+                        .append("_id", new Document("$convert", new Document("input", "$_id")
+                                .append("to", "objectId")
+                                .append("onError", null)))),
+                new Document("$match", new Document("_id", new Document("$ne", null))),
+                new Document("$merge", new Document("into", itemsCollection)
+                        .append("on", "_id")
+                        .append("whenMatched", "merge")
+                        .append("whenNotMatched", "discard")));
+        mongoTemplate.getCollection(salesCollection).aggregate(pipeline).allowDiskUse(true).toCollection();
+        logger.info("Item sales totals updated");
+    }
+
+    // Everything about an item is a function of its index, so sales can reference items
+    // without holding the catalog in memory
+    private ItemSpec itemSpec(int index) {
+        SplittableRandom random = new SplittableRandom(mix(seed, index));
+        String category = categories[random.nextInt(categories.length)].trim();
+        String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                + NOUNS[random.nextInt(NOUNS.length)] + " " + String.format("SKU-%07d", index);
+        double basePrice = 50 + 5_000 * Math.exp(random.nextGaussian() * 0.9) / Math.E;
+        double price = Math.round(basePrice * 100) / 100.0;
+        return new ItemSpec(objectId(endSeconds, (int) (seed >>> 8), index), name, category, price);
+    }
+
+    private static ObjectId objectId(int timestamp, int middle, int counter) {
+        return new ObjectId(ByteBuffer.allocate(12).putInt(timestamp).putInt(middle).putInt(counter).array());
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] cumulative = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int sample(double[] cumulative, SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(cumulative.length - 1, index >= 0 ? index : -index - 1);
+    }
+
+    // SplitMix64 finalizer, so neighbouring indexes get unrelated generator seeds
+    private static long mix(long seed, long value) {
+        long z = seed + value * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class ItemSpec {
+        final ObjectId id;
+        final String name;
+        final String category;
+        final double price;
+
+        ItemSpec(ObjectId id, String name, String category, double price) {
+            this.id = id;
+            this.name = name;
+            this.category = category;
+            this.price = price;
+        }
+    }
+}
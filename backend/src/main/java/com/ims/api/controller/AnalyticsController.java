@@ -0,0 +1,145 @@
+package com.ims.api.controller;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ims.api.analytics.SalesColumnStore;
+import com.ims.api.service.SalesAnalyticsService;
+import com.ims.api.service.SalesSketchService;
+
+/*
+ * Dashboard aggregations over the in-memory sales columns (see SalesAnalyticsService), and
+ * approximate sliding-window answers from sales sketches under /approx (see SalesSketchService).
+ */
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+
+    @Autowired
+    private SalesSketchService salesSketchService;
+
+    /*
+     * groupBy: category, item, hour, day, week or month. from defaults to a year before to,
+     * to to now. limit keeps the top groups by revenue for category and item (0 for all).
+     */
+    @GetMapping("/sales")
+    public ResponseEntity<?> getSales(
+            @RequestParam(defaultValue = "category") String groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "0") int limit) {
+        try {
+            SalesColumnStore.GroupBy grouping = parseGroupBy(groupBy);
+            LocalDateTime end = to != null ? to : LocalDateTime.now();
+            LocalDateTime start = from != null ? from : end.minusYears(1);
+            if (!start.isBefore(end)) {
+                return ResponseEntity.badRequest()
+                    .body(Collections.singletonMap("error", "from must be before to"));
+            }
+            return ResponseEntity.ok(salesAnalyticsService.aggregate(start, end, grouping, category, Math.max(0, limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Collections.singletonMap("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Collections.singletonMap("error", e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Collections.singletonMap("error", "Interrupted"));
+        }
+    }
+
+    private static SalesColumnStore.GroupBy parseGroupBy(String groupBy) {
+        try {
+            return SalesColumnStore.GroupBy.valueOf(groupBy.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("groupBy must be one of category, item, hour, day, week, month");
+        }
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<?> getStatus() {
+        return ResponseEntity.ok(salesAnalyticsService.stats());
+    }
+
+    // window: a duration such as 30m, 1h or 24h
+    @GetMapping("/approx/top-items")
+    public ResponseEntity<?> getTopItems(
+            @RequestParam(defaultValue = "1h") String window,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(salesSketchService.topItems(parseWindow(window), limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Collections.singletonMap("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Collections.singletonMap("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/approx/distinct-items")
+    public ResponseEntity<?> getDistinctItems(@RequestParam(defaultValue = "24h") String window) {
+        try {
+            return ResponseEntity.ok(salesSketchService.distinctItems(parseWindow(window)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Collections.singletonMap("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Collections.singletonMap("error", e.getMessage()));
+        }
+    }
+
+    // Quantiles of the quantity per sale
+    @GetMapping("/approx/basket-size")
+    public ResponseEntity<?> getBasketSize(
+            @RequestParam(defaultValue = "24h") String window,
+            @RequestParam(defaultValue = "0.5,0.9,0.99") String quantiles) {
+        try {
+            List<Double> values = new ArrayList<>();
+            for (String quantile : quantiles.split(",")) {
+                values.add(Double.valueOf(quantile.trim()));
+            }
+            return ResponseEntity.ok(salesSketchService.basketSize(parseWindow(window), values));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Collections.singletonMap("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Collections.singletonMap("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/approx/status")
+    public ResponseEntity<?> getApproxStatus() {
+        return ResponseEntity.ok(salesSketchService.stats());
+    }
+
+    private static Duration parseWindow(String window) {
+        try {
+            return DurationStyle.detectAndParse(window);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("window must be a duration such as 30m, 1h or 24h");
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.ims.api.controller;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ims.api.cache.CategorySnapshotCache;
+import com.ims.api.cache.ItemCache;
+import com.ims.api.cache.ItemChangeStreamListener;
+import com.ims.api.service.SalesSummaryService;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheController.class);
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Autowired
+    private ItemChangeStreamListener itemChangeStreamListener;
+
+    @Autowired
+    private CategorySnapshotCache categorySnapshotCache;
+
+    @Autowired
+    private SalesSummaryService salesSummaryService;
+
+    // Stats are per node; each replica reports its own cache
+    @GetMapping("/stats")
+    public ResponseEntity<?> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("items", itemCache.stats());
+        stats.put("invalidation", itemChangeStreamListener.stats());
+        stats.put("categories", categorySnapshotCache.stats());
+        stats.put("salesSummary", salesSummaryService.stats());
+        return ResponseEntity.ok(stats);
+    }
+
+    @PostMapping("/clear")
+    public ResponseEntity<?> clear() {
+        itemCache.invalidateAll();
+        categorySnapshotCache.invalidate();
+        logger.info("Item and category caches cleared on request");
+        return ResponseEntity.ok(Collections.singletonMap("cleared", true));
+    }
+}
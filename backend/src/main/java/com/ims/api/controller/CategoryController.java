@@ -2,8 +2,13 @@ package com.ims.api.controller;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,11 +17,17 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.ims.api.cache.CategorySnapshotCache;
+import com.ims.api.cache.Versioned;
+import com.ims.api.images.ImageVariant;
+import com.ims.api.images.ImageView;
 import com.ims.api.model.Category;
 import com.ims.api.repository.CategoryRepository;
+import com.ims.api.service.CategoryStatsService;
 
 import jakarta.validation.Valid;
 
@@ -24,33 +35,28 @@ import jakarta.validation.Valid;
 @RequestMapping("/api/categories")
 public class CategoryController {
 
+    private static final Logger logger = LoggerFactory.getLogger(CategoryController.class);
+
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private CategoryStatsService categoryStatsService;
+
+    @Autowired
+    private CategorySnapshotCache categorySnapshotCache;
+
+    @ImageView(ImageVariant.CARD)
     @GetMapping
-    public ResponseEntity<?> getAllCategories() {
+    public ResponseEntity<?> getAllCategories(@RequestHeader HttpHeaders headers) {
         try {
-            System.out.println("Fetching all categories from MongoDB");
-            List<Category> categories = categoryRepository.findAll();
-            System.out.println("Found " + categories.size() + " categories in the database");
-            
-            if (categories.isEmpty()) {
-                System.out.println("No categories found in database, initializing default categories");
-                // Initialize with default categories if none exist
-                categories.add(new Category("Electronics", "/assets/images/categories/electronics.jpg"));
-                categories.add(new Category("Furniture", "/assets/images/categories/furniture.jpg"));
-                categories.add(new Category("Stationery", "/assets/images/categories/default.jpg"));
-                categories.add(new Category("Office Supplies", "/assets/images/categories/office-supplies.jpg"));
-                
-                categoryRepository.saveAll(categories);
-                System.out.println("Default categories created");
-            } else {
-                for (Category category : categories) {
-                    System.out.println("Category: " + category.getName() + ", ID: " + category.getId());
-                }
+            // Served from the in-memory snapshot; defaults are seeded by DatabaseInitializer
+            Versioned<List<Category>> snapshot = categorySnapshotCache.getVersioned();
+            String etag = ConditionalRequests.etag("categories", snapshot.getVersion(), null, headers);
+            if (ConditionalRequests.isNotModified(headers, etag)) {
+                return ConditionalRequests.notModified(etag);
             }
-            
-            return ResponseEntity.ok(categories);
+            return ConditionalRequests.ok(etag).body(snapshot.getValue());
         } catch (Exception e) {
             System.err.println("Error fetching categories from MongoDB: " + e.getMessage());
             e.printStackTrace();
@@ -59,14 +65,45 @@ public class CategoryController {
         }
     }
 
+    // Served from the aggregates stored on each category, without reading any items
+    @GetMapping("/stats")
+    public ResponseEntity<?> getCategoryStats() {
+        try {
+            return ResponseEntity.ok(categoryStatsService.getStats());
+        } catch (Exception e) {
+            logger.warn("Fetching category stats failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Collections.singletonMap("error", "Failed to retrieve category stats: " + e.getMessage()));
+        }
+    }
+
+    // Recomputes the aggregates from the items and repairs any drift
+    @PostMapping("/stats/reconcile")
+    public ResponseEntity<?> reconcileCategoryStats() {
+        try {
+            int repaired = categoryStatsService.reconcile();
+            return ResponseEntity.ok(Collections.singletonMap("repaired", repaired));
+        } catch (Exception e) {
+            logger.warn("Reconciling category stats failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Collections.singletonMap("error", "Failed to reconcile category stats: " + e.getMessage()));
+        }
+    }
+
+    @ImageView(ImageVariant.FULL)
     @GetMapping("/{id}")
-    public ResponseEntity<?> getCategoryById(@PathVariable String id) {
+    public ResponseEntity<?> getCategoryById(@PathVariable String id, @RequestHeader HttpHeaders headers) {
         try {
             System.out.println("Fetching category with ID: " + id);
-        return categoryRepository.findById(id)
+            // Falls back to the database for categories created on another node since the last refresh
+            return categorySnapshotCache.getById(id)
+                    .or(() -> categoryRepository.findById(id))
                     .map(category -> {
                         System.out.println("Found category: " + category.getName());
-                        return ResponseEntity.ok(category);
+                        // Tagged with the document version, for If-Match on updates
+                        return ResponseEntity.ok()
+                                .eTag(ConditionalRequests.etag("category", versionOf(category), null, headers))
+                                .body(category);
                     })
                     .orElseGet(() -> {
                         System.out.println("Category not found with ID: " + id);
@@ -91,7 +128,14 @@ public class CategoryController {
                     .body(Collections.singletonMap("error", "Category with this name already exists"));
             }
             
+            // A client-supplied version would make this save an update
+            category.setVersion(null);
             Category savedCategory = categoryRepository.save(category);
+            // Items may already reference this category name
+            if (categoryStatsService.reconcile(savedCategory.getName()) > 0) {
+                savedCategory = categoryRepository.findById(savedCategory.getId()).orElse(savedCategory);
+            }
+            categorySnapshotCache.invalidate();
             System.out.println("Category created successfully with ID: " + savedCategory.getId());
             return ResponseEntity.status(HttpStatus.CREATED).body(savedCategory);
         } catch (Exception e) {
@@ -102,17 +146,33 @@ public class CategoryController {
         }
     }
 
+    // Optimistic like item updates: a stale If-Match or body version, or a concurrent write, gives 412.
+    // Only name and imageUrl are written; the stats aggregates are left to CategoryStatsService.
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateCategory(@PathVariable String id, @Valid @RequestBody Category categoryDetails) {
+    public ResponseEntity<?> updateCategory(@PathVariable String id, @Valid @RequestBody Category categoryDetails,
+            @RequestHeader HttpHeaders headers) {
         try {
             System.out.println("Updating category with ID: " + id);
         return categoryRepository.findById(id)
                 .map(category -> {
-                    category.setName(categoryDetails.getName());
-                    category.setImageUrl(categoryDetails.getImageUrl());
-                        Category updatedCategory = categoryRepository.save(category);
+                    if (!ConditionalRequests.ifMatches(headers, "category", versionOf(category))
+                            || (categoryDetails.getVersion() != null && categoryDetails.getVersion() != versionOf(category))) {
+                        return ConditionalRequests.preconditionFailed("Category was modified by another request",
+                                versionOf(category));
+                    }
+                    Optional<Category> updated = categoryRepository.updateDetails(id, versionOf(category),
+                            categoryDetails.getName(), categoryDetails.getImageUrl());
+                    if (updated.isEmpty()) {
+                        return ConditionalRequests.preconditionFailed("Category was modified by another request", null);
+                    }
+                        Category updatedCategory = updated.get();
+                        // The aggregates are keyed by name, so a renamed category's are recomputed
+                        categoryStatsService.reconcile(updatedCategory.getName());
+                        categorySnapshotCache.invalidate();
                         System.out.println("Category updated successfully: " + updatedCategory.getName());
-                        return ResponseEntity.ok(updatedCategory);
+                        return ResponseEntity.ok()
+                                .eTag(ConditionalRequests.etag("category", versionOf(updatedCategory), null, headers))
+                                .body(updatedCategory);
                     })
                     .orElseGet(() -> {
                         System.out.println("Category not found with ID: " + id);
@@ -127,12 +187,17 @@ public class CategoryController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteCategory(@PathVariable String id) {
+    public ResponseEntity<?> deleteCategory(@PathVariable String id, @RequestHeader HttpHeaders headers) {
         try {
             System.out.println("Deleting category with ID: " + id);
         return categoryRepository.findById(id)
                 .map(category -> {
+                    if (!ConditionalRequests.ifMatches(headers, "category", versionOf(category))) {
+                        return ConditionalRequests.preconditionFailed("Category was modified by another request",
+                                versionOf(category));
+                    }
                     categoryRepository.delete(category);
+                    categorySnapshotCache.invalidate();
                         System.out.println("Category deleted successfully: " + category.getName());
                     return ResponseEntity.ok().build();
                 })
@@ -140,6 +205,9 @@ public class CategoryController {
                         System.out.println("Category not found with ID: " + id);
                         return ResponseEntity.notFound().build();
                     });
+        } catch (OptimisticLockingFailureException e) {
+            logger.debug("Concurrent update of category {} rejected its deletion", id);
+            return ConditionalRequests.preconditionFailed("Category was modified by another request", null);
         } catch (Exception e) {
             System.err.println("Error deleting category " + id + ": " + e.getMessage());
             e.printStackTrace();
@@ -147,4 +215,9 @@ public class CategoryController {
                 .body(Collections.singletonMap("error", "Failed to delete category: " + e.getMessage()));
         }
     }
+
+    // Documents written before the version field existed count as version 0
+    private static long versionOf(Category category) {
+        return category.getVersion() != null ? category.getVersion() : 0;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,135 @@
+package com.ims.api.controller;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+
+import com.ims.api.repository.FieldSelection;
+
+/*
+ * Strong ETags and the If-None-Match / If-Match checks. A tag is "<resource>-<version>",
+ * where the version is the ResourceVersions counter for lists read from the database, a
+ * fingerprint of the cached entries for cached lists and the document's @Version for single
+ * documents, followed by a hash of everything else the body depends on: the requested
+ * fields and the Accept header, which picks JSON, Smile or CBOR. Responses may be stored by
+ * any cache but must be revalidated before reuse; nginx does that with
+ * proxy_cache_revalidate (nginx/nginx.conf).
+ */
+final class ConditionalRequests {
+
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePublic();
+
+    private ConditionalRequests() {
+    }
+
+    static String etag(String resource, long version, FieldSelection selection, HttpHeaders headers) {
+        StringBuilder tag = new StringBuilder("\"").append(resource).append('-').append(version);
+        String accept = headers.getFirst(HttpHeaders.ACCEPT);
+        if (selection != null || StringUtils.hasText(accept)) {
+            String fields = selection != null ? String.join(",", new TreeSet<>(selection.getViewFields())) : "";
+            tag.append('-').append(Integer.toHexString((fields + '|' + (accept != null ? accept : "")).hashCode()));
+        }
+        return tag.append('"').toString();
+    }
+
+    // Weak comparison, as If-None-Match requires; nginx turns strong tags weak when it gzips
+    static boolean isNotModified(HttpHeaders headers, String etag) {
+        List<String> candidates;
+        try {
+            candidates = headers.getIfNoneMatch();
+        } catch (IllegalArgumentException e) {
+            // A malformed header matches nothing
+            return false;
+        }
+        for (String candidate : candidates) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * If-Match for a document tagged etag(resource, version, ...): true when the header is
+     * absent, is "*", or names the current version. Comparison is strong, so weak tags fail.
+     */
+    static boolean ifMatches(HttpHeaders headers, String resource, Long version) {
+        List<Long> versions = ifMatchVersions(headers, resource);
+        return versions == null || versions.contains(version != null ? version : 0L);
+    }
+
+    // The versions If-Match accepts, for conditional updates; null when any version will do
+    static List<Long> ifMatchVersions(HttpHeaders headers, String resource) {
+        List<String> candidates;
+        try {
+            candidates = headers.getIfMatch();
+        } catch (IllegalArgumentException e) {
+            // A malformed header matches nothing
+            return List.of();
+        }
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        List<Long> versions = new ArrayList<>();
+        for (String candidate : candidates) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return null;
+            }
+            Long tagged = versionOf(tag, resource);
+            if (tagged != null) {
+                versions.add(tagged);
+            }
+        }
+        return versions;
+    }
+
+    // The version in a tag of the given resource, or null for any other tag
+    private static Long versionOf(String tag, String resource) {
+        String prefix = "\"" + resource + "-";
+        if (!tag.startsWith(prefix) || !tag.endsWith("\"") || tag.length() <= prefix.length()) {
+            return null;
+        }
+        String rest = tag.substring(prefix.length(), tag.length() - 1);
+        int dash = rest.indexOf('-');
+        try {
+            return Long.parseLong(dash >= 0 ? rest.substring(0, dash) : rest);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static ResponseEntity<Object> preconditionFailed(String message, Long currentVersion) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", message);
+        body.put("currentVersion", currentVersion);
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(body);
+    }
+
+    static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT)
+                .build();
+    }
+
+    static ResponseEntity.BodyBuilder ok(String etag) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT);
+    }
+}
@@ -0,0 +1,50 @@
+package com.ims.api.controller;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ims.api.service.DashboardService;
+
+@RestController
+@RequestMapping("/api/dashboard")
+public class DashboardController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardController.class);
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    /*
+     * KPIs, category breakdown, low stock, top sellers and recent sales in one round trip.
+     * limit is the length of each list. Parts that did not finish in time are listed under
+     * "missing"; only when all of them are missing is the response an error.
+     */
+    @GetMapping
+    public ResponseEntity<?> getDashboard(@RequestParam(defaultValue = "5") int limit) {
+        try {
+            Map<String, Object> dashboard = dashboardService.getDashboard(limit);
+            Map<?, ?> missing = (Map<?, ?>) dashboard.get("missing");
+            if (!missing.isEmpty()) {
+                logger.debug("Dashboard served without {}", missing);
+            }
+            return ResponseEntity.ok(dashboard);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Collections.singletonMap("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            logger.warn(e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Collections.singletonMap("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.ims.api.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.ims.api.images.ImageStore;
+import com.ims.api.images.ImageUrls;
+import com.ims.api.images.ImageVariant;
+import com.ims.api.model.ImageAsset;
+import com.ims.api.repository.ImageAssetRepository;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/*
+ * Image upload and delivery. Variant URLs name immutable bytes (see ImageUrls), so they are
+ * served with a one-year immutable Cache-Control; the canonical URL's target changes when
+ * the full size is reconfigured, so it is cached for a day. Files are handed to Tomcat's
+ * sendfile when the connector supports it, and copied channel to channel otherwise.
+ */
+@RestController
+@RequestMapping("/api/images")
+public class ImageController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageController.class);
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+    private static final CacheControl CANONICAL = CacheControl.maxAge(Duration.ofDays(1)).cachePublic();
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ImageUrls imageUrls;
+
+    @Autowired
+    private ImageAssetRepository imageAssetRepository;
+
+    @Value("${app.images.generate-on-upload:true}")
+    private boolean generateOnUpload;
+
+    // Smaller files are cheaper to copy than to hand over to the poller
+    @Value("${app.images.sendfile-min-bytes:49152}")
+    private long sendfileMinBytes;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> uploadImage(@RequestParam("file") MultipartFile file) {
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("error", "No image file uploaded"));
+        }
+        try {
+            ImageStore.Ingested ingested = imageStore.ingest(file.getBytes());
+            ImageAsset image = imageAssetRepository.findById(ingested.id).orElse(null);
+            boolean created = image == null;
+            if (created) {
+                image = new ImageAsset();
+                image.setId(ingested.id);
+                image.setOriginalName(file.getOriginalFilename());
+                image.setOriginalType(ingested.originalType);
+                image.setOriginalBytes(file.getSize());
+                image.setWidth(ingested.width);
+                image.setHeight(ingested.height);
+                image.setFormat(ingested.format);
+                image = imageAssetRepository.save(image);
+            }
+            if (generateOnUpload) {
+                for (ImageVariant variant : ImageVariant.values()) {
+                    imageStore.generate(ingested, variant);
+                }
+            }
+            logger.debug("Image {} {} from upload {}", image.getId(), created ? "stored" : "already stored",
+                    file.getOriginalFilename());
+            return ResponseEntity.status(created ? HttpStatus.CREATED : HttpStatus.OK).body(describe(image));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("error", e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Collections.singletonMap("error", "Image upload interrupted"));
+        } catch (IOException e) {
+            logger.warn("Storing image failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Collections.singletonMap("error", "Error storing image: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id:[0-9a-f]+}")
+    public ResponseEntity<?> getImage(@PathVariable String id) {
+        Optional<ImageAsset> image = imageAssetRepository.findById(id);
+        if (image.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Collections.singletonMap("error", "Image not found"));
+        }
+        return ResponseEntity.ok(describe(image.get()));
+    }
+
+    // The canonical URL stored in documents: the full variant
+    @GetMapping("/{id:[0-9a-f]+}.{format:jpg|png}")
+    public ResponseEntity<?> getCanonicalImage(@PathVariable String id, @PathVariable String format,
+            @RequestParam(required = false) String imageVariant, HttpServletRequest request,
+            HttpServletResponse response) {
+        ImageVariant variant = ImageVariant.FULL;
+        if (imageVariant != null) {
+            try {
+                variant = ImageVariant.parse(imageVariant);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Collections.singletonMap("error", e.getMessage()));
+            }
+        }
+        return serve(id, imageUrls.variantFileName(variant, format), CANONICAL, request, response);
+    }
+
+    @GetMapping("/{id:[0-9a-f]+}/{name:.+}")
+    public ResponseEntity<?> getImageVariant(@PathVariable String id, @PathVariable String name,
+            HttpServletRequest request, HttpServletResponse response) {
+        return serve(id, name, IMMUTABLE, request, response);
+    }
+
+    private ResponseEntity<?> serve(String id, String name, CacheControl cacheControl, HttpServletRequest request,
+            HttpServletResponse response) {
+        if (id.length() != 32) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Collections.singletonMap("error", "Image not found"));
+        }
+        Path file;
+        try {
+            file = imageStore.variant(id, name);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Collections.singletonMap("error", "Image generation interrupted"));
+        } catch (IOException e) {
+            logger.warn("Generating image {}/{} failed", id, name, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Collections.singletonMap("error", "Error generating image"));
+        }
+        if (file == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Collections.singletonMap("error", "Image not found"));
+        }
+
+        // The bytes behind a name never change, so the name is the tag
+        String etag = "\"" + id + "-" + name + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (ConditionalRequests.isNotModified(requestHeaders(request), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return null;
+        }
+        try {
+            long length = Files.size(file);
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(name.endsWith(".png") ? MediaType.IMAGE_PNG_VALUE : MediaType.IMAGE_JPEG_VALUE);
+            response.setContentLengthLong(length);
+            if (request.getMethod().equals("HEAD")) {
+                return null;
+            }
+            if (length >= sendfileMinBytes && Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+                request.setAttribute("org.apache.tomcat.sendfile.filename", file.toAbsolutePath().toString());
+                request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+                request.setAttribute("org.apache.tomcat.sendfile.end", length);
+                return null;
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                OutputStream out = response.getOutputStream();
+                WritableByteChannel target = Channels.newChannel(out);
+                long position = 0;
+                while (position < length) {
+                    position += channel.transferTo(position, length - position, target);
+                }
+                out.flush();
+            }
+            return null;
+        } catch (IOException e) {
+            // Usually the client went away mid-transfer
+            logger.debug("Sending image {}/{} failed: {}", id, name, e.getMessage());
+            return null;
+        }
+    }
+
+    private static HttpHeaders requestHeaders(HttpServletRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return headers;
+    }
+
+    private Map<String, Object> describe(ImageAsset image) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("id", image.getId());
+        body.put("url", imageUrls.canonicalUrl(image.getId(), image.getFormat()));
+        body.put("width", image.getWidth());
+        body.put("height", image.getHeight());
+        body.put("format", image.getFormat());
+        body.put("originalName", image.getOriginalName());
+        body.put("createdAt", image.getCreatedAt());
+        Map<String, String> variants = new LinkedHashMap<>();
+        for (ImageVariant variant : ImageVariant.values()) {
+            variants.put(variant.key(), imageUrls.variantUrl(image.getId(), variant, image.getFormat()));
+        }
+        body.put("variants", variants);
+        return body;
+    }
+}
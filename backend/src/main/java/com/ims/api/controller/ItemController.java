@@ -2,11 +2,19 @@ package com.ims.api.controller;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -16,13 +24,30 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ims.api.cache.ItemCache;
+import com.ims.api.cache.ResourceVersions;
+import com.ims.api.cache.Versioned;
+import com.ims.api.dto.ItemBatchRequest;
+import com.ims.api.dto.PricingRunResult;
+import com.ims.api.event.ItemChangedEvent;
+import com.ims.api.images.ImageVariant;
+import com.ims.api.images.ImageView;
 import com.ims.api.model.Item;
-import com.ims.api.model.SalesRecord;
+import com.ims.api.repository.FieldSelection;
+import com.ims.api.repository.ItemMergePatch;
 import com.ims.api.repository.ItemRepository;
-import com.ims.api.repository.SalesRecordRepository;
+import com.ims.api.repository.ItemSearch;
+import com.ims.api.service.CategoryStatsService;
+import com.ims.api.service.ItemBatchService;
+import com.ims.api.service.ItemTextSearchService;
+import com.ims.api.service.PricingEngine;
+import com.ims.api.service.StockService;
 
 import jakarta.validation.Valid;
 
@@ -30,15 +55,54 @@ import jakarta.validation.Valid;
 @RequestMapping("/api/items")
 public class ItemController {
 
+    private static final Logger logger = LoggerFactory.getLogger(ItemController.class);
+
     @Autowired
     private ItemRepository itemRepository;
 
     @Autowired
-    private SalesRecordRepository salesRecordRepository;
+    private ItemBatchService itemBatchService;
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @Autowired
+    private CategoryStatsService categoryStatsService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ItemTextSearchService itemTextSearchService;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Search counts stop here; beyond it the total is only "at least"
+    @Value("${app.items.search.max-count:10000}")
+    private int maxSearchCount;
+
+    @ImageView(ImageVariant.CARD)
     @GetMapping
-    public ResponseEntity<?> getAllItems() {
+    public ResponseEntity<?> getAllItems(@RequestParam(required = false) String fields,
+            @RequestHeader HttpHeaders headers) {
         try {
+            FieldSelection selection = FieldSelection.parse(fields, Item.class);
+            // The counter is read before the data, so the tag is never newer than the body
+            String etag = ConditionalRequests.etag("items", resourceVersions.current(ResourceVersions.ITEMS), selection, headers);
+            if (ConditionalRequests.isNotModified(headers, etag)) {
+                return ConditionalRequests.notModified(etag);
+            }
+            if (selection != null) {
+                return ConditionalRequests.ok(etag).body(selection.view(itemRepository.findAllWithFields(selection)));
+            }
+
             System.out.println("Fetching all items from MongoDB database: ims_db_1");
             List<Item> items = itemRepository.findAll();
             System.out.println("Found " + items.size() + " items in the database");
@@ -51,7 +115,10 @@ public class ItemController {
                 }
             }
             
-            return ResponseEntity.ok(items);
+            return ConditionalRequests.ok(etag).body(items);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Collections.singletonMap("error", e.getMessage()));
         } catch (Exception e) {
             System.err.println("Error fetching items from MongoDB: " + e.getMessage());
             e.printStackTrace();
@@ -60,19 +127,112 @@ public class ItemController {
         }
     }
 
+    /*
+     * Filtered, sorted items a page at a time. sort: name, price, sales or lastUpdated; pass
+     * the returned nextCursor with the same filters for the next page. count=true adds the
+     * number of matching items, counted up to app.items.search.max-count.
+     */
+    @ImageView(ImageVariant.CARD)
+    @GetMapping("/search")
+    public ResponseEntity<?> searchItems(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) Boolean lowStock,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "name") String sort,
+            @RequestParam(defaultValue = "asc") String order,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean count,
+            @RequestParam(required = false) String fields,
+            @RequestHeader HttpHeaders headers) {
+        try {
+            ItemSearch search = ItemSearch.parse(category, minPrice, maxPrice, inStock, lowStock, q, sort, order,
+                    limit, cursor);
+            FieldSelection selection = FieldSelection.parse(fields, Item.class);
+            String etag = ConditionalRequests.etag("item-search", resourceVersions.current(ResourceVersions.ITEMS),
+                    selection, headers);
+            if (ConditionalRequests.isNotModified(headers, etag)) {
+                return ConditionalRequests.notModified(etag);
+            }
+
+            List<Item> items = itemRepository.search(search, selection);
+            boolean hasMore = items.size() > search.getLimit();
+            if (hasMore) {
+                items = items.subList(0, search.getLimit());
+            }
+            Map<String, Object> page = new LinkedHashMap<>();
+            page.put("items", items);
+            page.put("hasMore", hasMore);
+            page.put("nextCursor", hasMore ? search.cursorAfter(items.get(items.size() - 1)) : null);
+            if (count) {
+                long total = itemRepository.countMatching(search, maxSearchCount);
+                page.put("total", total);
+                page.put("totalCapped", search.hasFilters() && total >= maxSearchCount);
+            }
+            return ConditionalRequests.ok(etag).body(selection != null ? selection.view(page) : page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Collections.singletonMap("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.warn("Item search failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Collections.singletonMap("error", "Failed to search items: " + e.getMessage()));
+        }
+    }
+
+    /*
+     * Autocomplete over item names and descriptions from the in-memory index: every word of q
+     * is a prefix, one typo is tolerated in words of four or more letters, and results are
+     * ranked by match quality and sales. Reflects this node's writes within
+     * app.search.update-interval-ms.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggestItems(@RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(itemTextSearchService.suggest(q, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Collections.singletonMap("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Collections.singletonMap("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/suggest/stats")
+    public ResponseEntity<?> getSuggestStats() {
+        return ResponseEntity.ok(itemTextSearchService.stats());
+    }
+
+    @ImageView(ImageVariant.FULL)
     @GetMapping("/{id}")
-    public ResponseEntity<?> getItemById(@PathVariable String id) {
+    public ResponseEntity<?> getItemById(@PathVariable String id, @RequestParam(required = false) String fields,
+            @RequestHeader HttpHeaders headers) {
         try {
             System.out.println("Fetching item with ID: " + id);
-            return itemRepository.findById(id)
+            FieldSelection selection = FieldSelection.parse(fields, Item.class);
+            // The tag is the document's own version, which If-Match on updates is checked against.
+            // Cached items are full documents, so a field selection is applied on serialization.
+            return itemCache.getById(id, itemRepository::findById)
                     .map(item -> {
+                        String etag = ConditionalRequests.etag("item", versionOf(item), selection, headers);
+                        if (ConditionalRequests.isNotModified(headers, etag)) {
+                            return ConditionalRequests.notModified(etag);
+                        }
                         System.out.println("Found item: " + item.getName());
-                        return ResponseEntity.ok(item);
+                        return ConditionalRequests.ok(etag).body(selection != null ? selection.view(item) : item);
                     })
                     .orElseGet(() -> {
                         System.out.println("Item not found with ID: " + id);
                         return ResponseEntity.notFound().build();
                     });
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Collections.singletonMap("error", e.getMessage()));
         } catch (Exception e) {
             System.err.println("Error fetching item with ID " + id + ": " + e.getMessage());
             e.printStackTrace();
@@ -81,13 +241,29 @@ public class ItemController {
         }
     }
 
+    @ImageView(ImageVariant.CARD)
     @GetMapping("/category/{category}")
-    public ResponseEntity<?> getItemsByCategory(@PathVariable String category) {
+    public ResponseEntity<?> getItemsByCategory(@PathVariable String category,
+            @RequestParam(required = false) String fields, @RequestHeader HttpHeaders headers) {
         try {
             System.out.println("Fetching items with category: " + category);
-            List<Item> items = itemRepository.findByCategory(category);
+            FieldSelection selection = FieldSelection.parse(fields, Item.class);
+            // Tagged with a fingerprint of the listed items' versions, so a cache hit answers
+            // a conditional GET without touching the database
+            Versioned<List<Item>> entry = itemCache.getByCategory(category, () -> itemRepository.findByCategory(category));
+            String etag = ConditionalRequests.etag("category-items", entry.getVersion(), selection, headers);
+            if (ConditionalRequests.isNotModified(headers, etag)) {
+                return ConditionalRequests.notModified(etag);
+            }
+            List<Item> items = entry.getValue();
+            if (selection != null) {
+                return ConditionalRequests.ok(etag).body(selection.view(items));
+            }
             System.out.println("Found " + items.size() + " items in category: " + category);
-            return ResponseEntity.ok(items);
+            return ConditionalRequests.ok(etag).body(items);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Collections.singletonMap("error", e.getMessage()));
         } catch (Exception e) {
             System.err.println("Error fetching items by category " + category + ": " + e.getMessage());
             e.printStackTrace();
@@ -96,6 +272,26 @@ public class ItemController {
         }
     }
 
+    @ImageView(ImageVariant.CARD)
+    @PostMapping("/batch")
+    public ResponseEntity<?> getItemsByIds(@Valid @RequestBody ItemBatchRequest request) {
+        try {
+            ItemBatchService.BatchResult result = itemBatchService.findByIds(request.getIds());
+
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("items", result.getItems());
+            response.put("missing", result.getMissing());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Collections.singletonMap("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.warn("Batch item lookup failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Collections.singletonMap("error", "Failed to retrieve items: " + e.getMessage()));
+        }
+    }
+
     @PostMapping
     public ResponseEntity<?> createItem(@RequestBody Item item) {
         try {
@@ -114,8 +310,14 @@ public class ItemController {
             
             // Initialize sales to 0 if not already set
             item.setSales(0);
+            // A client-supplied version would make this save an update
+            item.setVersion(null);
             
             Item savedItem = itemRepository.save(item);
+            // The initial quantity is stocked at the default location
+            stockService.itemCreated(savedItem);
+            categoryStatsService.itemCreated(savedItem);
+            eventPublisher.publishEvent(ItemChangedEvent.of(savedItem.getId(), savedItem.getCategory()));
             System.out.println("Item created successfully with ID: " + savedItem.getId());
             return ResponseEntity.status(HttpStatus.CREATED).body(savedItem);
         } catch (Exception e) {
@@ -126,17 +328,31 @@ public class ItemController {
         }
     }
 
+    /*
+     * Optimistic: the save only applies to the version that was loaded, and a version given
+     * in If-Match or in the body must be that version, so an edit based on a stale copy fails
+     * with 412 instead of overwriting changes made since, including sells. The quantity is
+     * not replaced: it changes through PATCH /{id}/quantity, sells and the stock endpoints,
+     * and a quantity in the body is ignored.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateItem(@PathVariable String id, @Valid @RequestBody Item itemDetails) {
+    public ResponseEntity<?> updateItem(@PathVariable String id, @Valid @RequestBody Item itemDetails,
+            @RequestHeader HttpHeaders headers) {
         try {
             System.out.println("Updating item with ID: " + id);
             System.out.println("Received item details: " + itemDetails);
             
             return itemRepository.findById(id)
                     .map(item -> {
+                        if (!ConditionalRequests.ifMatches(headers, "item", versionOf(item))
+                                || (itemDetails.getVersion() != null && itemDetails.getVersion() != versionOf(item))) {
+                            logger.debug("Item {} has changed since the version in the request", id);
+                            return ConditionalRequests.preconditionFailed("Item was modified by another request", versionOf(item));
+                        }
+                        CategoryStatsService.Contribution before = CategoryStatsService.Contribution.of(item);
+                        String previousCategory = item.getCategory();
                         item.setName(itemDetails.getName());
                         item.setCategory(itemDetails.getCategory());
-                        item.setQuantity(itemDetails.getQuantity());
                         item.setMinStock(itemDetails.getMinStock());
                         item.setImageUrl(itemDetails.getImageUrl());
                         
@@ -153,13 +369,20 @@ public class ItemController {
                         
                         item.setLastUpdated(LocalDateTime.now());
                         Item updatedItem = itemRepository.save(item);
+                        categoryStatsService.itemChanged(before, CategoryStatsService.Contribution.of(updatedItem));
+                        eventPublisher.publishEvent(ItemChangedEvent.of(id, previousCategory, updatedItem.getCategory()));
                         System.out.println("Item updated successfully: " + updatedItem.getName() + " with price: " + updatedItem.getPrice());
-                        return ResponseEntity.ok(updatedItem);
+                        return ResponseEntity.ok()
+                                .eTag(ConditionalRequests.etag("item", versionOf(updatedItem), null, headers))
+                                .body(updatedItem);
                     })
                     .orElseGet(() -> {
                         System.out.println("Item not found with ID: " + id);
                         return ResponseEntity.notFound().build();
                     });
+        } catch (OptimisticLockingFailureException e) {
+            logger.debug("Concurrent update of item {} rejected", id);
+            return ConditionalRequests.preconditionFailed("Item was modified by another request", null);
         } catch (Exception e) {
             System.err.println("Error updating item with ID " + id + ": " + e.getMessage());
             e.printStackTrace();
@@ -168,6 +391,62 @@ public class ItemController {
         }
     }
 
+    /*
+     * JSON Merge Patch: the patch becomes a single $set/$unset of just the fields it names,
+     * applied without reading the item first, and the response is the item after the patch.
+     * Edits of different fields no longer conflict; If-Match makes the patch conditional on
+     * the item's version.
+     */
+    @PatchMapping(path = "/{id}", consumes = "application/merge-patch+json")
+    public ResponseEntity<?> patchItem(@PathVariable String id, @RequestBody JsonNode patch,
+            @RequestHeader HttpHeaders headers) {
+        try {
+            ItemMergePatch mergePatch = ItemMergePatch.parse(patch);
+            List<Long> expectedVersions = ConditionalRequests.ifMatchVersions(headers, "item");
+
+            if (mergePatch.isEmpty()) {
+                // Nothing to write; still honour If-Match
+                return itemRepository.findById(id)
+                        .map(item -> ConditionalRequests.ifMatches(headers, "item", versionOf(item))
+                                ? ResponseEntity.ok()
+                                        .eTag(ConditionalRequests.etag("item", versionOf(item), null, headers))
+                                        .body((Object) item)
+                                : ConditionalRequests.preconditionFailed("Item was modified by another request", versionOf(item)))
+                        .orElseGet(() -> ResponseEntity.notFound().build());
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            Optional<Item> previous = itemRepository.updateFields(id, expectedVersions, mergePatch.toUpdate(now));
+            if (previous.isEmpty()) {
+                Optional<Item> current = expectedVersions != null ? itemRepository.findById(id) : Optional.empty();
+                if (current.isEmpty()) {
+                    logger.debug("Item not found with ID: {}", id);
+                    return ResponseEntity.notFound().build();
+                }
+                return ConditionalRequests.preconditionFailed("Item was modified by another request",
+                        versionOf(current.get()));
+            }
+
+            // The update is deterministic, so the post-image is the pre-image with the patch applied
+            Item item = previous.get();
+            CategoryStatsService.Contribution before = CategoryStatsService.Contribution.of(item);
+            String previousCategory = item.getCategory();
+            mergePatch.applyTo(item, now);
+            categoryStatsService.itemChanged(before, CategoryStatsService.Contribution.of(item));
+            eventPublisher.publishEvent(ItemChangedEvent.of(id, previousCategory, item.getCategory()));
+            return ResponseEntity.ok()
+                    .eTag(ConditionalRequests.etag("item", versionOf(item), null, headers))
+                    .body(item);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Collections.singletonMap("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.warn("Patching item {} failed", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Collections.singletonMap("error", "Failed to patch item: " + e.getMessage()));
+        }
+    }
+
     @PatchMapping("/{id}/quantity")
     public ResponseEntity<?> updateQuantity(@PathVariable String id, @RequestBody Map<String, Integer> update) {
         try {
@@ -180,25 +459,20 @@ public class ItemController {
                     .body(Collections.singletonMap("error", "Quantity parameter is required"));
             }
             
-            return itemRepository.findById(id)
-                    .map(item -> {
-                        int newQuantity = item.getQuantity() + quantityToAdd;
-                        if (newQuantity < 0) {
-                            System.out.println("Invalid quantity - would result in negative stock");
-                            return ResponseEntity.badRequest()
-                                .body(Collections.singletonMap("error", "Cannot reduce quantity below zero"));
-                        }
-                        
-                        item.setQuantity(newQuantity);
-                        item.setLastUpdated(LocalDateTime.now());
-                        Item updatedItem = itemRepository.save(item);
-                        System.out.println("Quantity updated successfully. New quantity: " + updatedItem.getQuantity());
-                        return ResponseEntity.ok(updatedItem);
-                    })
-                    .orElseGet(() -> {
-                        System.out.println("Item not found with ID: " + id);
-                        return ResponseEntity.notFound().build();
-                    });
+            // $inc of the default location's stock and the item total, so concurrent adjustments and sells all apply
+            Optional<Item> adjusted = stockService.adjust(id, stockService.getDefaultLocationId(), quantityToAdd);
+            if (adjusted.isEmpty()) {
+                System.out.println("Invalid quantity - would result in negative stock");
+                return ResponseEntity.badRequest()
+                    .body(Collections.singletonMap("error", "Cannot reduce quantity below zero"));
+            }
+            
+            Item updatedItem = adjusted.get();
+            System.out.println("Quantity updated successfully. New quantity: " + updatedItem.getQuantity());
+            return ResponseEntity.ok(updatedItem);
+        } catch (NoSuchElementException e) {
+            System.out.println("Item not found with ID: " + id);
+            return ResponseEntity.notFound().build();
         } catch (Exception e) {
             System.err.println("Error updating quantity for item " + id + ": " + e.getMessage());
             e.printStackTrace();
@@ -219,36 +493,20 @@ public class ItemController {
                     .body(Collections.singletonMap("error", "Invalid quantity"));
             }
             
-            return itemRepository.findById(id)
-                    .map(item -> {
-                        if (item.getQuantity() < quantityToSell) {
-                            System.out.println("Not enough stock available. Current: " + item.getQuantity() + ", Requested: " + quantityToSell);
-                            return ResponseEntity.badRequest()
-                                .body(Collections.singletonMap("error", "Not enough stock available"));
-                        }
-                        
-                        item.setQuantity(item.getQuantity() - quantityToSell);
-                        item.incrementSales(quantityToSell);
-                        item.setLastUpdated(LocalDateTime.now());
-                        Item updatedItem = itemRepository.save(item);
-                        
-                        // Record the sale
-                        SalesRecord salesRecord = new SalesRecord(
-                                item.getId(),
-                                item.getName(),
-                                item.getCategory(),
-                                quantityToSell,
-                                item.getPrice()
-                        );
-                        salesRecordRepository.save(salesRecord);
-                        
-                        System.out.println("Item sold successfully. New quantity: " + updatedItem.getQuantity());
-                        return ResponseEntity.ok(updatedItem);
-                    })
-                    .orElseGet(() -> {
-                        System.out.println("Item not found with ID: " + id);
-                        return ResponseEntity.notFound().build();
-                    });
+            // Sold from the default location: conditional $inc of its stock, then of the item total
+            Optional<Item> sold = stockService.sell(id, stockService.getDefaultLocationId(), quantityToSell);
+            if (sold.isEmpty()) {
+                logger.debug("Not enough stock of item {} to sell {}", id, quantityToSell);
+                return ResponseEntity.badRequest()
+                    .body(Collections.singletonMap("error", "Not enough stock available"));
+            }
+            
+            Item updatedItem = sold.get();
+            System.out.println("Item sold successfully. New quantity: " + updatedItem.getQuantity());
+            return ResponseEntity.ok(updatedItem);
+        } catch (NoSuchElementException e) {
+            System.out.println("Item not found with ID: " + id);
+            return ResponseEntity.notFound().build();
         } catch (Exception e) {
             System.err.println("Error selling item " + id + ": " + e.getMessage());
             e.printStackTrace();
@@ -258,12 +516,19 @@ public class ItemController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteItem(@PathVariable String id) {
+    public ResponseEntity<?> deleteItem(@PathVariable String id, @RequestHeader HttpHeaders headers) {
         try {
             System.out.println("Deleting item with ID: " + id);
             return itemRepository.findById(id)
                     .map(item -> {
+                        if (!ConditionalRequests.ifMatches(headers, "item", versionOf(item))) {
+                            return ConditionalRequests.preconditionFailed("Item was modified by another request", versionOf(item));
+                        }
+                        // Versioned delete: fails if the item changed after it was loaded
                         itemRepository.delete(item);
+                        stockService.itemDeleted(id);
+                        categoryStatsService.itemDeleted(item);
+                        eventPublisher.publishEvent(ItemChangedEvent.of(id, item.getCategory()));
                         System.out.println("Item deleted successfully: " + item.getName());
                         return ResponseEntity.ok().build();
                     })
@@ -271,6 +536,9 @@ public class ItemController {
                         System.out.println("Item not found with ID: " + id);
                         return ResponseEntity.notFound().build();
                     });
+        } catch (OptimisticLockingFailureException e) {
+            logger.debug("Concurrent update of item {} rejected its deletion", id);
+            return ConditionalRequests.preconditionFailed("Item was modified by another request", null);
         } catch (Exception e) {
             System.err.println("Error deleting item " + id + ": " + e.getMessage());
             e.printStackTrace();
@@ -279,60 +547,18 @@ public class ItemController {
         }
     }
 
+    // Prices come from the rules in /api/pricing-rules, applied server-side
     @PatchMapping("/update-prices")
-    public ResponseEntity<?> updateAllItemPrices() {
+    public ResponseEntity<?> updateAllItemPrices(@RequestParam(defaultValue = "false") boolean dryRun) {
         try {
-            System.out.println("Updating all item prices");
-            List<Item> items = itemRepository.findAll();
-            Map<String, Double> categoryPrices = new HashMap<>();
-            
-            // Define default prices by category
-            categoryPrices.put("Electronics", 15000.00);
-            categoryPrices.put("Furniture", 7500.00);
-            categoryPrices.put("Stationery", 150.00);
-            categoryPrices.put("Office Supplies", 350.00);
-            
-            // Define specific prices for common items
-            Map<String, Double> itemPrices = new HashMap<>();
-            itemPrices.put("Laptop", 45000.00);
-            itemPrices.put("Smartphone", 25000.00);
-            itemPrices.put("Wireless Mouse", 1200.00);
-            itemPrices.put("Ergonomic Keyboard", 2500.00);
-            itemPrices.put("Office Chair", 7500.00);
-            itemPrices.put("Desk", 12000.00);
-            itemPrices.put("Filing Cabinet", 5500.00);
-            itemPrices.put("Bookshelf", 8000.00);
-            itemPrices.put("Notebook", 150.00);
-            itemPrices.put("Pens (Box)", 120.00);
-            itemPrices.put("Sticky Notes", 80.00);
-            itemPrices.put("Desk Lamp", 850.00);
-            itemPrices.put("Scissors", 95.00);
-            itemPrices.put("Staplers", 175.00);
-            
-            int updatedCount = 0;
-            
-            for (Item item : items) {
-                if (item.getPrice() == 0.0) {
-                    // Check for specific item price
-                    if (itemPrices.containsKey(item.getName())) {
-                        item.setPrice(itemPrices.get(item.getName()));
-                    } else if (categoryPrices.containsKey(item.getCategory())) {
-                        // Use category default price
-                        item.setPrice(categoryPrices.get(item.getCategory()));
-                    } else {
-                        // Fallback price
-                        item.setPrice(500.00);
-                    }
-                    updatedCount++;
-                }
-            }
-            
-            itemRepository.saveAll(items);
+            PricingRunResult result = pricingEngine.run(dryRun);
+            long updatedCount = dryRun ? result.getItemsMatched() : result.getItemsModified();
             System.out.println(updatedCount + " items updated with prices");
             
             return ResponseEntity.ok(Map.of(
                 "success", true,
-                "message", updatedCount + " items updated with prices"
+                "message", updatedCount + (dryRun ? " items would be updated with prices" : " items updated with prices"),
+                "run", result
             ));
         } catch (Exception e) {
             System.err.println("Error updating prices: " + e.getMessage());
@@ -341,4 +567,9 @@ public class ItemController {
                 .body(Map.of("error", "Failed to update prices", "message", e.getMessage()));
         }
     }
-} 
\ No newline at end of file
+
+    // Documents written before the version field existed count as version 0
+    private static long versionOf(Item item) {
+        return item.getVersion() != null ? item.getVersion() : 0;
+    }
+}
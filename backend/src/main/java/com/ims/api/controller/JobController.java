@@ -0,0 +1,59 @@
+package com.ims.api.controller;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ims.api.model.JobLock;
+import com.ims.api.model.JobRun;
+import com.ims.api.repository.JobRunRepository;
+import com.ims.api.scheduling.LeaderElection;
+import com.ims.api.scheduling.LeaseLockService;
+
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    @Autowired
+    private LeaseLockService leaseLockService;
+
+    @Autowired
+    private LeaderElection leaderElection;
+
+    @Autowired
+    private JobRunRepository jobRunRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // This node's identity and leadership, plus every lock in the cluster
+    @GetMapping
+    public ResponseEntity<?> getJobs() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("nodeId", leaseLockService.getNodeId());
+        response.put("leader", leaderElection.isLeader());
+        response.put("locks", mongoTemplate.find(new Query().with(Sort.by("_id")), JobLock.class));
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/runs")
+    public ResponseEntity<?> getRuns(@RequestParam(required = false) String job,
+            @RequestParam(defaultValue = "50") int limit) {
+        PageRequest page = PageRequest.of(0, Math.max(1, Math.min(limit, 500)));
+        List<JobRun> runs = job != null
+                ? jobRunRepository.findByJobNameOrderByStartedAtDesc(job, page)
+                : jobRunRepository.findAllByOrderByStartedAtDesc(page);
+        return ResponseEntity.ok(runs);
+    }
+}
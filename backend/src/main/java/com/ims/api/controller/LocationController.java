@@ -0,0 +1,113 @@
+package com.ims.api.controller;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.NoSuchElementException;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ims.api.model.Location;
+import com.ims.api.repository.LocationRepository;
+import com.ims.api.service.StockService;
+
+// Locations are deactivated rather than deleted, as stock levels and sales refer to them
+@RestController
+@RequestMapping("/api/locations")
+public class LocationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocationController.class);
+
+    // Codes are part of stock level ids ("<itemId>:<locationId>"), so no ':' and nothing to escape
+    private static final Pattern CODE = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private StockService stockService;
+
+    @GetMapping
+    public ResponseEntity<?> getAllLocations() {
+        return ResponseEntity.ok(locationRepository.findAll(Sort.by("id")));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getLocation(@PathVariable String id) {
+        return locationRepository.findById(id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public ResponseEntity<?> createLocation(@RequestBody Location location) {
+        if (location.getId() == null || !CODE.matcher(location.getId()).matches()) {
+            return ResponseEntity.badRequest()
+                .body(Collections.singletonMap("error", "id must be 1-64 letters, digits, '-' or '_'"));
+        }
+        if (location.getName() == null || location.getName().isBlank() || location.getType() == null) {
+            return ResponseEntity.badRequest()
+                .body(Collections.singletonMap("error", "name and type are required"));
+        }
+        if (locationRepository.existsById(location.getId())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Collections.singletonMap("error", "Location " + location.getId() + " already exists"));
+        }
+        location.setCreatedAt(LocalDateTime.now());
+        Location saved = locationRepository.insert(location);
+        logger.debug("Location created: {}", saved.getId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<?> updateLocation(@PathVariable String id, @RequestBody Location details) {
+        return locationRepository.findById(id)
+                .<ResponseEntity<?>>map(location -> {
+                    if (details.getName() != null && !details.getName().isBlank()) {
+                        location.setName(details.getName());
+                    }
+                    if (details.getType() != null) {
+                        location.setType(details.getType());
+                    }
+                    if (!details.isActive() && id.equals(stockService.getDefaultLocationId())) {
+                        return ResponseEntity.badRequest()
+                            .body(Collections.singletonMap("error", "The default location cannot be deactivated"));
+                    }
+                    location.setActive(details.isActive());
+                    return ResponseEntity.ok(locationRepository.save(location));
+                })
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<?> getStock(@PathVariable String id, @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(stockService.levelsAt(id, limit));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Items at or below their minimum at this location, lowest headroom first
+    @GetMapping("/{id}/low-stock")
+    public ResponseEntity<?> getLowStock(@PathVariable String id, @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(stockService.lowStockAt(id, limit));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.ims.api.controller;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ims.api.dto.PricingRunResult;
+import com.ims.api.model.PriceChange;
+import com.ims.api.model.PricingRule;
+import com.ims.api.repository.PriceChangeRepository;
+import com.ims.api.repository.PricingRuleRepository;
+import com.ims.api.service.PricingEngine;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/pricing-rules")
+public class PricingRuleController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PricingRuleController.class);
+
+    @Autowired
+    private PricingRuleRepository pricingRuleRepository;
+
+    @Autowired
+    private PriceChangeRepository priceChangeRepository;
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @GetMapping
+    public ResponseEntity<?> getAllRules() {
+        return ResponseEntity.ok(pricingRuleRepository.findAllByOrderByPriorityAsc());
+    }
+
+    @PostMapping
+    public ResponseEntity<?> createRule(@Valid @RequestBody PricingRule rule) {
+        try {
+            pricingEngine.validate(rule);
+            rule.setId(null);
+            rule.setLastUpdated(LocalDateTime.now());
+            PricingRule savedRule = pricingRuleRepository.save(rule);
+            logger.debug("Pricing rule created: {}", savedRule.getName());
+            return ResponseEntity.status(HttpStatus.CREATED).body(savedRule);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Collections.singletonMap("error", e.getMessage()));
+        }
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<?> updateRule(@PathVariable String id, @Valid @RequestBody PricingRule ruleDetails) {
+        try {
+            pricingEngine.validate(ruleDetails);
+            if (!pricingRuleRepository.existsById(id)) {
+                return ResponseEntity.notFound().build();
+            }
+            ruleDetails.setId(id);
+            ruleDetails.setLastUpdated(LocalDateTime.now());
+            return ResponseEntity.ok(pricingRuleRepository.save(ruleDetails));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Collections.singletonMap("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deleteRule(@PathVariable String id) {
+        if (!pricingRuleRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        pricingRuleRepository.deleteById(id);
+        return ResponseEntity.ok().build();
+    }
+
+    // dryRun=true reports what would change without writing anything
+    @PostMapping("/apply")
+    public ResponseEntity<?> applyRules(@RequestParam(defaultValue = "false") boolean dryRun) {
+        try {
+            PricingRunResult result = pricingEngine.run(dryRun);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            logger.warn("Applying pricing rules failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Collections.singletonMap("error", "Failed to apply pricing rules: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/history")
+    public ResponseEntity<?> getPriceHistory(@RequestParam(required = false) String itemId,
+            @RequestParam(required = false) String runId,
+            @RequestParam(defaultValue = "100") int limit) {
+        PageRequest page = PageRequest.of(0, Math.max(1, Math.min(limit, 1000)));
+        List<PriceChange> changes;
+        if (runId != null) {
+            changes = priceChangeRepository.findByRunId(runId);
+        } else if (itemId != null) {
+            changes = priceChangeRepository.findByItemIdOrderByChangedAtDesc(itemId, page);
+        } else {
+            changes = priceChangeRepository.findAllByOrderByChangedAtDesc(page);
+        }
+        return ResponseEntity.ok(changes);
+    }
+}
@@ -0,0 +1,77 @@
+package com.ims.api.controller;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ims.api.dto.ReplenishmentRun;
+import com.ims.api.model.ReplenishmentPlan;
+import com.ims.api.repository.ReplenishmentRepository;
+import com.ims.api.service.ReplenishmentEngine;
+
+@RestController
+@RequestMapping("/api/replenishment")
+public class ReplenishmentController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplenishmentController.class);
+
+    @Autowired
+    private ReplenishmentEngine replenishmentEngine;
+
+    @Autowired
+    private ReplenishmentRepository replenishmentRepository;
+
+    @GetMapping
+    public ResponseEntity<?> getPlans(@RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "false") boolean belowReorderPoint,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            List<ReplenishmentPlan> plans = replenishmentEngine.findPlans(category, belowReorderPoint,
+                    Math.max(1, Math.min(limit, 1000)));
+            return ResponseEntity.ok(plans);
+        } catch (Exception e) {
+            logger.warn("Fetching replenishment plans failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Collections.singletonMap("error", "Failed to retrieve replenishment plans: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{itemId}")
+    public ResponseEntity<?> getPlan(@PathVariable String itemId) {
+        return replenishmentRepository.findById(itemId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // Runs take minutes on large catalogues, so this only starts one; poll GET /run for progress
+    @PostMapping("/run")
+    public ResponseEntity<?> startRun() {
+        try {
+            ReplenishmentRun run = replenishmentEngine.start();
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(run);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Collections.singletonMap("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/run")
+    public ResponseEntity<?> getRun() {
+        ReplenishmentRun run = replenishmentEngine.getLastRun();
+        if (run == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(run);
+    }
+}
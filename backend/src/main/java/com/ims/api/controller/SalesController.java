@@ -1,87 +1,50 @@
 package com.ims.api.controller;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.ims.api.model.Item;
 import com.ims.api.model.SalesRecord;
-import com.ims.api.repository.ItemRepository;
+import com.ims.api.repository.FieldSelection;
 import com.ims.api.repository.SalesRecordRepository;
+import com.ims.api.service.SalesArchiveService;
+import com.ims.api.service.SalesSummaryService;
 
 @RestController
 @RequestMapping("/api/sales")
 public class SalesController {
 
+    private static final Logger logger = LoggerFactory.getLogger(SalesController.class);
+
     @Autowired
     private SalesRecordRepository salesRecordRepository;
 
     @Autowired
-    private ItemRepository itemRepository;
+    private SalesSummaryService salesSummaryService;
+
+    @Autowired
+    private SalesArchiveService salesArchiveService;
 
     @GetMapping
     public ResponseEntity<?> getSalesData() {
         try {
-            System.out.println("Fetching sales data from MongoDB");
-            Map<String, Object> salesData = new HashMap<>();
-
-            // Get weekly sales (for past week)
-            List<Map<String, Object>> weeklySales = new ArrayList<>();
-            // Hardcode some sample data for now
-            String[] days = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"};
-            for (String day : days) {
-                Map<String, Object> daySales = new HashMap<>();
-                daySales.put("day", day);
-                daySales.put("sales", Math.floor(Math.random() * 30));
-                weeklySales.add(daySales);
-            }
-            salesData.put("weeklySales", weeklySales);
-
-            // Get monthly sales (for the year)
-            List<Map<String, Object>> monthlySales = new ArrayList<>();
-            String[] months = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
-            for (String month : months) {
-                Map<String, Object> monthSales = new HashMap<>();
-                monthSales.put("month", month);
-                monthSales.put("sales", Math.floor(Math.random() * 500) + 200);
-                monthlySales.add(monthSales);
-            }
-            salesData.put("monthlySales", monthlySales);
-
-            // Get top selling items
-            List<Item> topSellingItems = itemRepository.findAll().stream()
-                .sorted((i1, i2) -> Integer.compare(i2.getSales(), i1.getSales()))
-                .limit(5)
-                .toList();
-            salesData.put("topSellingItems", topSellingItems);
-
-            // Get low stock items
-            List<Item> lowStockItems = itemRepository.findAll().stream()
-                .filter(item -> {
-                    Integer minStock = item.getMinStock();
-                    return item.getQuantity() <= (minStock != null ? minStock : 5);
-                })
-                .limit(5)
-                .toList();
-            salesData.put("lowStockItems", lowStockItems);
-
-            // Empty data for yearly sales (placeholder)
-            salesData.put("yearlySales", new ArrayList<>());
-
-            System.out.println("Sales data fetched successfully");
-            return ResponseEntity.ok(salesData);
+            // Computed at most once per interval on this node and shared by all callers
+            return ResponseEntity.ok(salesSummaryService.getSummary());
         } catch (Exception e) {
             System.out.println("Error fetching sales data: " + e.getMessage());
             e.printStackTrace();
@@ -90,43 +53,118 @@ public class SalesController {
         }
     }
 
+    // Live and archived sales of the item
     @GetMapping("/item/{itemId}")
-    public List<SalesRecord> getSalesByItemId(@PathVariable String itemId) {
-        return salesRecordRepository.findByItemId(itemId);
+    public ResponseEntity<?> getSalesByItemId(@PathVariable String itemId,
+            @RequestParam(required = false) String fields) {
+        return itemQuery(itemId, fields, false);
     }
 
+    // Live sales only: the archive cannot be searched by category. The Sales-Archived-Before
+    // header gives the time before which sales may have been archived.
     @GetMapping("/category/{category}")
-    public List<SalesRecord> getSalesByCategory(@PathVariable String category) {
-        return salesRecordRepository.findByCategory(category);
+    public ResponseEntity<?> getSalesByCategory(@PathVariable String category,
+            @RequestParam(required = false) String fields) {
+        ResponseEntity<?> response = withFields(fields,
+                () -> salesRecordRepository.findByCategory(category),
+                selection -> salesRecordRepository.findByCategoryWithFields(category, selection));
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        return ResponseEntity.ok()
+                .header("Sales-Archived-Before", salesArchiveService.cutoff().toString())
+                .body(response.getBody());
     }
 
     @GetMapping("/period")
-    public List<SalesRecord> getSalesByPeriod(
+    public ResponseEntity<?> getSalesByPeriod(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
-        return salesRecordRepository.findByTimestampBetween(start, end);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) String fields) {
+        return periodQuery(null, start, end, fields);
     }
 
     @GetMapping("/item/{itemId}/period")
-    public List<SalesRecord> getItemSalesByPeriod(
+    public ResponseEntity<?> getItemSalesByPeriod(
             @PathVariable String itemId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
-        return salesRecordRepository.findByItemIdAndTimestampBetween(itemId, start, end);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) String fields) {
+        return periodQuery(itemId, start, end, fields);
     }
 
+    // Live and archived sales of the item, newest first
     @GetMapping("/history/{itemId}")
-    public ResponseEntity<?> getItemSalesHistory(@PathVariable String itemId) {
+    public ResponseEntity<?> getItemSalesHistory(@PathVariable String itemId,
+            @RequestParam(required = false) String fields) {
+        return itemQuery(itemId, fields, true);
+    }
+
+    // Archived sales are older than app.sales-archive.max-age; all but the category query include them
+    @GetMapping("/archive")
+    public ResponseEntity<?> getArchiveStats() {
         try {
-            System.out.println("Fetching sales history for item: " + itemId);
-            List<SalesRecord> salesHistory = salesRecordRepository.findByItemIdOrderByTimestampDesc(itemId);
-            System.out.println("Found " + salesHistory.size() + " sales records");
-            return ResponseEntity.ok(salesHistory);
+            return ResponseEntity.ok(salesArchiveService.stats());
         } catch (Exception e) {
-            System.err.println("Error fetching sales history: " + e.getMessage());
-            e.printStackTrace();
+            logger.warn("Reading sales archive stats failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Failed to fetch sales history", "message", e.getMessage()));
+                .body(Map.of("error", "Failed to read sales archive", "message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/archive/run")
+    public ResponseEntity<?> runArchive() {
+        if (!salesArchiveService.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "A sales archive run is in progress"));
+        }
+        logger.info("Sales archive run started on request");
+        return ResponseEntity.accepted().body(Map.of("started", true));
+    }
+
+    // Live records merged with the archive; projections apply to both
+    private ResponseEntity<?> periodQuery(String itemId, LocalDateTime start, LocalDateTime end, String fields) {
+        try {
+            FieldSelection selection = FieldSelection.parse(fields, SalesRecord.class);
+            List<SalesRecord> records = salesArchiveService.findBetween(itemId, start, end, selection);
+            return ResponseEntity.ok(selection != null ? selection.view(records) : records);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "Invalid fields parameter", "message", e.getMessage()));
+        } catch (Exception e) {
+            logger.warn("Fetching sales by period failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Failed to fetch sales", "message", e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<?> itemQuery(String itemId, String fields, boolean newestFirst) {
+        try {
+            FieldSelection selection = FieldSelection.parse(fields, SalesRecord.class);
+            List<SalesRecord> records = salesArchiveService.findByItem(itemId, selection, newestFirst);
+            return ResponseEntity.ok(selection != null ? selection.view(records) : records);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "Invalid fields parameter", "message", e.getMessage()));
+        } catch (Exception e) {
+            logger.warn("Fetching sales of item {} failed", itemId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Failed to fetch sales", "message", e.getMessage()));
+        }
+    }
+
+    // Full documents when no fields are requested, otherwise a Mongo projection plus matching view
+    private ResponseEntity<?> withFields(String fields, Supplier<List<SalesRecord>> fullQuery,
+            Function<FieldSelection, List<SalesRecord>> projectedQuery) {
+        try {
+            FieldSelection selection = FieldSelection.parse(fields, SalesRecord.class);
+            if (selection == null) {
+                return ResponseEntity.ok(fullQuery.get());
+            }
+            return ResponseEntity.ok(selection.view(projectedQuery.apply(selection)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "Invalid fields parameter", "message", e.getMessage()));
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,166 @@
+package com.ims.api.controller;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ims.api.model.Item;
+import com.ims.api.model.StockLevel;
+import com.ims.api.model.StockTransfer;
+import com.ims.api.repository.ItemRepository;
+import com.ims.api.repository.StockTransferRepository;
+import com.ims.api.service.StockService;
+
+// Stock per item and location; Item.quantity stays the total across locations
+@RestController
+@RequestMapping("/api/stock")
+public class StockController {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockController.class);
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private StockTransferRepository stockTransferRepository;
+
+    @GetMapping("/items/{itemId}")
+    public ResponseEntity<?> getItemStock(@PathVariable String itemId) {
+        Optional<Item> item = itemRepository.findById(itemId);
+        if (item.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        List<StockLevel> levels = stockService.levelsOf(item.get());
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("itemId", itemId);
+        response.put("total", item.get().getQuantity());
+        // Differs from total only if a stock change was interrupted between its two writes
+        response.put("allocated", levels.stream().mapToLong(StockLevel::getQuantity).sum());
+        response.put("levels", levels);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/items/{itemId}/locations/{locationId}/sell")
+    public ResponseEntity<?> sell(@PathVariable String itemId, @PathVariable String locationId,
+            @RequestBody Map<String, Integer> saleInfo) {
+        Integer quantity = saleInfo.get("quantity");
+        if (quantity == null || quantity <= 0) {
+            return ResponseEntity.badRequest()
+                .body(Collections.singletonMap("error", "Invalid quantity"));
+        }
+        return stockChange(itemId, locationId, "sell",
+                () -> stockService.sell(itemId, locationId, quantity), "Not enough stock at " + locationId);
+    }
+
+    // quantity is a delta: positive for received stock, negative for shrinkage or corrections
+    @PostMapping("/items/{itemId}/locations/{locationId}/adjust")
+    public ResponseEntity<?> adjust(@PathVariable String itemId, @PathVariable String locationId,
+            @RequestBody Map<String, Integer> update) {
+        Integer quantity = update.get("quantity");
+        if (quantity == null) {
+            return ResponseEntity.badRequest()
+                .body(Collections.singletonMap("error", "Quantity parameter is required"));
+        }
+        return stockChange(itemId, locationId, "adjust",
+                () -> stockService.adjust(itemId, locationId, quantity),
+                "Cannot reduce stock at " + locationId + " below zero");
+    }
+
+    @PutMapping("/items/{itemId}/locations/{locationId}/min-stock")
+    public ResponseEntity<?> setMinStock(@PathVariable String itemId, @PathVariable String locationId,
+            @RequestBody Map<String, Integer> update) {
+        Integer minStock = update.get("minStock");
+        if (minStock == null) {
+            return ResponseEntity.badRequest()
+                .body(Collections.singletonMap("error", "minStock is required"));
+        }
+        try {
+            return ResponseEntity.ok(stockService.setMinStock(itemId, locationId, minStock));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Collections.singletonMap("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Collections.singletonMap("error", e.getMessage()));
+        }
+    }
+
+    // Body: itemId, fromLocationId, toLocationId, quantity. 409 if the source holds too little.
+    @PostMapping("/transfers")
+    public ResponseEntity<?> transfer(@RequestBody StockTransfer request) {
+        try {
+            StockTransfer transfer = stockService.transfer(request.getItemId(), request.getFromLocationId(),
+                    request.getToLocationId(), request.getQuantity());
+            logger.debug("Transfer of {} x {} from {} to {}: {}", transfer.getQuantity(), transfer.getItemId(),
+                    transfer.getFromLocationId(), transfer.getToLocationId(), transfer.getStatus());
+            HttpStatus status = switch (transfer.getStatus()) {
+                case COMPLETED -> HttpStatus.CREATED;
+                case REJECTED -> HttpStatus.CONFLICT;
+                default -> HttpStatus.INTERNAL_SERVER_ERROR;
+            };
+            return ResponseEntity.status(status).body(transfer);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Collections.singletonMap("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Collections.singletonMap("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/transfers")
+    public ResponseEntity<?> getTransfers(@RequestParam(required = false) String itemId,
+            @RequestParam(defaultValue = "100") int limit) {
+        PageRequest page = PageRequest.of(0, Math.max(1, Math.min(limit, 1000)));
+        return ResponseEntity.ok(itemId != null
+                ? stockTransferRepository.findByItemIdOrderByCreatedAtDesc(itemId, page)
+                : stockTransferRepository.findAllByOrderByCreatedAtDesc(page));
+    }
+
+    private interface StockOperation {
+        Optional<Item> apply();
+    }
+
+    private ResponseEntity<?> stockChange(String itemId, String locationId, String action,
+            StockOperation operation, String shortageMessage) {
+        try {
+            Optional<Item> item = operation.apply();
+            if (item.isEmpty()) {
+                return ResponseEntity.badRequest()
+                    .body(Collections.singletonMap("error", shortageMessage));
+            }
+            return ResponseEntity.ok(item.get());
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Collections.singletonMap("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Collections.singletonMap("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.warn("Stock {} of item {} at {} failed", action, itemId, locationId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Collections.singletonMap("error", "Failed to " + action + " stock: " + e.getMessage()));
+        }
+    }
+}
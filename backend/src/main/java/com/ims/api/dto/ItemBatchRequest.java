@@ -0,0 +1,26 @@
+package com.ims.api.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+
+public class ItemBatchRequest {
+    
+    @NotEmpty
+    private List<String> ids;
+    
+    public ItemBatchRequest() {
+    }
+    
+    public ItemBatchRequest(List<String> ids) {
+        this.ids = ids;
+    }
+
+    public List<String> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<String> ids) {
+        this.ids = ids;
+    }
+}
@@ -0,0 +1,126 @@
+package com.ims.api.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PricingRunResult {
+    
+    private final String runId;
+    private final boolean dryRun;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final List<RuleResult> rules = new ArrayList<>();
+    private final List<PriceDiff> changes = new ArrayList<>();
+    private long itemsMatched;
+    private long itemsModified;
+    private boolean changesTruncated;
+    
+    public PricingRunResult(String runId, boolean dryRun) {
+        this.runId = runId;
+        this.dryRun = dryRun;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public List<RuleResult> getRules() {
+        return rules;
+    }
+
+    public List<PriceDiff> getChanges() {
+        return changes;
+    }
+
+    public long getItemsMatched() {
+        return itemsMatched;
+    }
+
+    public void setItemsMatched(long itemsMatched) {
+        this.itemsMatched = itemsMatched;
+    }
+
+    public long getItemsModified() {
+        return itemsModified;
+    }
+
+    public void setItemsModified(long itemsModified) {
+        this.itemsModified = itemsModified;
+    }
+
+    public boolean isChangesTruncated() {
+        return changesTruncated;
+    }
+
+    public void setChangesTruncated(boolean changesTruncated) {
+        this.changesTruncated = changesTruncated;
+    }
+    
+    public static class RuleResult {
+        private final String ruleId;
+        private final String name;
+        private final long matched;
+        
+        public RuleResult(String ruleId, String name, long matched) {
+            this.ruleId = ruleId;
+            this.name = name;
+            this.matched = matched;
+        }
+
+        public String getRuleId() {
+            return ruleId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getMatched() {
+            return matched;
+        }
+    }
+    
+    public static class PriceDiff {
+        private final String itemId;
+        private final String itemName;
+        private final double oldPrice;
+        private final double newPrice;
+        private final String ruleName;
+        
+        public PriceDiff(String itemId, String itemName, double oldPrice, double newPrice, String ruleName) {
+            this.itemId = itemId;
+            this.itemName = itemName;
+            this.oldPrice = oldPrice;
+            this.newPrice = newPrice;
+            this.ruleName = ruleName;
+        }
+
+        public String getItemId() {
+            return itemId;
+        }
+
+        public String getItemName() {
+            return itemName;
+        }
+
+        public double getOldPrice() {
+            return oldPrice;
+        }
+
+        public double getNewPrice() {
+            return newPrice;
+        }
+
+        public String getRuleName() {
+            return ruleName;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.ims.api.dto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Progress of a replenishment run; updated concurrently by the partition workers
+public class ReplenishmentRun {
+    
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+    
+    private final String runId;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final AtomicLong itemsProcessed = new AtomicLong();
+    private final AtomicLong partitionsCompleted = new AtomicLong();
+    private final AtomicLong belowReorderPoint = new AtomicLong();
+    private volatile Status status = Status.RUNNING;
+    private volatile LocalDateTime finishedAt;
+    private volatile long durationMs;
+    private volatile long minStockUpdated;
+    private volatile String error;
+    
+    public ReplenishmentRun(String runId) {
+        this.runId = runId;
+    }
+
+    public void partitionCompleted(int items, int below) {
+        itemsProcessed.addAndGet(items);
+        belowReorderPoint.addAndGet(below);
+        partitionsCompleted.incrementAndGet();
+    }
+
+    public void finish(Status status, String error) {
+        this.error = error;
+        this.finishedAt = LocalDateTime.now();
+        this.durationMs = Duration.between(startedAt, finishedAt).toMillis();
+        this.status = status;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public long getItemsProcessed() {
+        return itemsProcessed.get();
+    }
+
+    public long getPartitionsCompleted() {
+        return partitionsCompleted.get();
+    }
+
+    public long getBelowReorderPoint() {
+        return belowReorderPoint.get();
+    }
+
+    public long getMinStockUpdated() {
+        return minStockUpdated;
+    }
+
+    public void setMinStockUpdated(long minStockUpdated) {
+        this.minStockUpdated = minStockUpdated;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,44 @@
+package com.ims.api.event;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// Published after items are written; itemId null means any number of items may have changed
+public class ItemChangedEvent {
+
+    private final String itemId;
+    private final Set<String> categories;
+
+    private ItemChangedEvent(String itemId, Set<String> categories) {
+        this.itemId = itemId;
+        this.categories = categories;
+    }
+
+    // categories: the item's category before and after the write (either may be null)
+    public static ItemChangedEvent of(String itemId, String... categories) {
+        Set<String> affected = new LinkedHashSet<>();
+        for (String category : categories) {
+            if (category != null) {
+                affected.add(category);
+            }
+        }
+        return new ItemChangedEvent(itemId, Collections.unmodifiableSet(affected));
+    }
+
+    public static ItemChangedEvent bulk() {
+        return new ItemChangedEvent(null, Collections.emptySet());
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public Set<String> getCategories() {
+        return categories;
+    }
+
+    public boolean isBulk() {
+        return itemId == null;
+    }
+}
@@ -0,0 +1,17 @@
+package com.ims.api.event;
+
+import com.ims.api.model.SalesRecord;
+
+// Published after a sale is stored, on the thread that made it
+public class SaleRecordedEvent {
+
+    private final SalesRecord record;
+
+    public SaleRecordedEvent(SalesRecord record) {
+        this.record = record;
+    }
+
+    public SalesRecord getRecord() {
+        return record;
+    }
+}
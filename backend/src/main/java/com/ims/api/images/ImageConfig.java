@@ -0,0 +1,18 @@
+package com.ims.api.images;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class ImageConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private ImageUrls imageUrls;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ImageViewInterceptor(imageUrls));
+    }
+}
@@ -0,0 +1,295 @@
+package com.ims.api.images;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/*
+ * Image files under <dir>/<id prefix>/<id>/: the uploaded original and its variants, named
+ * like their URLs (card-480.jpg). A variant is written once, aside and then renamed, so it
+ * never changes after it is first served; a missing one is generated from the original on
+ * its first request. The directory must be shared by all replicas that serve images.
+ */
+@Component
+public class ImageStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageStore.class);
+
+    private static final Pattern VARIANT_FILE = Pattern.compile("(thumbnail|card|full)-(\\d{1,5})\\.(jpg|png)");
+
+    public static final class Ingested {
+        public final String id;
+        public final int width;
+        public final int height;
+        public final String format;
+        public final String originalType;
+        final BufferedImage image;
+
+        Ingested(String id, int width, int height, String format, String originalType, BufferedImage image) {
+            this.id = id;
+            this.width = width;
+            this.height = height;
+            this.format = format;
+            this.originalType = originalType;
+            this.image = image;
+        }
+    }
+
+    @Autowired
+    private ImageUrls imageUrls;
+
+    @Value("${app.images.dir:data/images}")
+    private String directory;
+
+    // Larger uploads are refused before they are decoded (4 bytes per pixel in memory)
+    @Value("${app.images.max-pixels:40000000}")
+    private long maxPixels;
+
+    @Value("${app.images.jpeg-quality:0.85}")
+    private float jpegQuality;
+
+    // Decoding and scaling hold whole images in memory; at most this many at a time
+    @Value("${app.images.max-concurrent-resizes:2}")
+    private int maxConcurrentResizes;
+
+    private Semaphore resizes;
+    private final Map<Path, CompletableFuture<Path>> generating = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        resizes = new Semaphore(Math.max(1, maxConcurrentResizes));
+    }
+
+    private Path directoryOf(String id) {
+        return Paths.get(directory).resolve(id.substring(0, 2)).resolve(id);
+    }
+
+    private Path originalOf(String id) {
+        return directoryOf(id).resolve("original");
+    }
+
+    /*
+     * Validates and stores an upload. Throws IllegalArgumentException for data that is not an
+     * image ImageIO can read or that has too many pixels.
+     */
+    public Ingested ingest(byte[] data) throws IOException, InterruptedException {
+        String id = idOf(data);
+        BufferedImage image;
+        String originalType;
+        resizes.acquire();
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Not a supported image (JPEG, PNG, GIF or BMP)");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new IllegalArgumentException("Image has " + pixels + " pixels; the limit is " + maxPixels);
+                }
+                originalType = reader.getFormatName().toLowerCase(Locale.ROOT);
+                image = reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        } finally {
+            resizes.release();
+        }
+
+        Path original = originalOf(id);
+        if (!Files.exists(original)) {
+            Files.createDirectories(original.getParent());
+            writeAtomically(original, out -> out.write(data));
+        }
+        String format = image.getColorModel().hasAlpha() ? "png" : "jpg";
+        return new Ingested(id, image.getWidth(), image.getHeight(), format, originalType, image);
+    }
+
+    // Writes a variant of a just-ingested image, unless it exists
+    public void generate(Ingested ingested, ImageVariant variant) throws IOException, InterruptedException {
+        Path target = directoryOf(ingested.id).resolve(imageUrls.variantFileName(variant, ingested.format));
+        if (Files.exists(target)) {
+            return;
+        }
+        resizes.acquire();
+        try {
+            write(scale(ingested.image, imageUrls.size(variant), ingested.format.equals("png")), ingested.format, target);
+        } finally {
+            resizes.release();
+        }
+    }
+
+    /*
+     * The file for a variant URL, generated from the original if it does not exist yet. Null
+     * when the id or name is unknown, or names a size that is no longer configured and was
+     * never generated.
+     */
+    public Path variant(String id, String fileName) throws IOException, InterruptedException {
+        Matcher matcher = VARIANT_FILE.matcher(fileName);
+        if (!matcher.matches()) {
+            return null;
+        }
+        Path target = directoryOf(id).resolve(fileName);
+        if (Files.exists(target)) {
+            return target;
+        }
+        ImageVariant variant = ImageVariant.parse(matcher.group(1));
+        int size = Integer.parseInt(matcher.group(2));
+        if (size != imageUrls.size(variant) || !Files.exists(originalOf(id))) {
+            return null;
+        }
+
+        // Concurrent first requests for one variant wait for a single generation
+        CompletableFuture<Path> mine = new CompletableFuture<>();
+        CompletableFuture<Path> running = generating.putIfAbsent(target, mine);
+        if (running != null) {
+            try {
+                return running.get();
+            } catch (ExecutionException e) {
+                throw new IOException("Generating " + fileName + " of image " + id + " failed", e.getCause());
+            }
+        }
+        try {
+            String format = matcher.group(3);
+            resizes.acquire();
+            try {
+                BufferedImage original = ImageIO.read(originalOf(id).toFile());
+                if (original == null) {
+                    throw new IOException("Original of image " + id + " is unreadable");
+                }
+                write(scale(original, size, format.equals("png")), format, target);
+            } finally {
+                resizes.release();
+            }
+            logger.debug("Generated {} of image {}", fileName, id);
+            mine.complete(target);
+            return target;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            generating.remove(target, mine);
+        }
+    }
+
+    public static String idOf(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /*
+     * Scales so the longer side is at most maxSize, halving first while the image is more
+     * than twice the target so bilinear steps keep the detail of every source pixel. Without
+     * alpha the image is flattened onto white, as JPEG needs.
+     */
+    static BufferedImage scale(BufferedImage source, int maxSize, boolean alpha) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double factor = Math.min(1.0, (double) maxSize / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * factor));
+        int targetHeight = Math.max(1, (int) Math.round(height * factor));
+
+        BufferedImage current = source;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            current = draw(current, width, height, alpha);
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, boolean alpha) {
+        BufferedImage target = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            if (!alpha) {
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+            }
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void write(BufferedImage image, String format, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        writeAtomically(target, out -> {
+            if (format.equals("png")) {
+                ImageIO.write(image, "png", out);
+                return;
+            }
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+                writer.setOutput(stream);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+        });
+    }
+
+    private interface Writer {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private static void writeAtomically(Path target, Writer writer) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                writer.writeTo(out);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
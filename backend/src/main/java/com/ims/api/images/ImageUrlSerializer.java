@@ -0,0 +1,20 @@
+package com.ims.api.images;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+// For imageUrl properties: writes the variant URL the current request's handler asked for (see ImageView)
+public class ImageUrlSerializer extends StdSerializer<String> {
+
+    public ImageUrlSerializer() {
+        super(String.class);
+    }
+
+    @Override
+    public void serialize(String value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeString(ImageUrls.rewriteForCurrentRequest(value));
+    }
+}
@@ -0,0 +1,94 @@
+package com.ims.api.images;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/*
+ * URLs of uploaded images. Documents store the canonical URL, <public-path>/<id>.<format>,
+ * which serves the full variant; responses link to a variant instead,
+ * <public-path>/<id>/<variant>-<size>.<format>. The id is the hash of the original and the
+ * size is part of the name, so a variant URL always names the same bytes and can be cached
+ * forever. Other URLs (the bundled /assets/images files, external links) are left alone.
+ */
+@Component
+public class ImageUrls {
+
+    static final String REQUEST_ATTRIBUTE = ImageUrls.class.getName() + ".variant";
+
+    private final String publicPath;
+    private final Pattern canonical;
+
+    @Value("${app.images.thumbnail-size:160}")
+    private int thumbnailSize;
+
+    @Value("${app.images.card-size:480}")
+    private int cardSize;
+
+    @Value("${app.images.full-size:1600}")
+    private int fullSize;
+
+    public ImageUrls(@Value("${app.images.public-path:${server.servlet.context-path:}/api/images}") String publicPath) {
+        this.publicPath = publicPath.endsWith("/") ? publicPath.substring(0, publicPath.length() - 1) : publicPath;
+        this.canonical = Pattern.compile(Pattern.quote(this.publicPath) + "/([0-9a-f]{32})\\.(jpg|png)");
+    }
+
+    public int size(ImageVariant variant) {
+        return switch (variant) {
+            case THUMBNAIL -> thumbnailSize;
+            case CARD -> cardSize;
+            case FULL -> fullSize;
+        };
+    }
+
+    public String canonicalUrl(String id, String format) {
+        return publicPath + "/" + id + "." + format;
+    }
+
+    public String variantUrl(String id, ImageVariant variant, String format) {
+        return publicPath + "/" + id + "/" + variantFileName(variant, format);
+    }
+
+    public String variantFileName(ImageVariant variant, String format) {
+        return variant.key() + "-" + size(variant) + "." + format;
+    }
+
+    // The variant URL for a canonical image URL; any other URL unchanged
+    public String rewrite(String url, ImageVariant variant) {
+        if (url == null || variant == null) {
+            return url;
+        }
+        Matcher matcher = canonical.matcher(url);
+        return matcher.matches() ? variantUrl(matcher.group(1), variant, matcher.group(2)) : url;
+    }
+
+    // Makes imageUrl properties written for the current request link to the variant
+    void useVariant(HttpServletRequest request, ImageVariant variant) {
+        request.setAttribute(REQUEST_ATTRIBUTE, new Rewrite(this, variant));
+    }
+
+    static String rewriteForCurrentRequest(String url) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) {
+            return url;
+        }
+        Object rewrite = request.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return rewrite instanceof Rewrite r ? r.urls.rewrite(url, r.variant) : url;
+    }
+
+    private static final class Rewrite {
+        final ImageUrls urls;
+        final ImageVariant variant;
+
+        Rewrite(ImageUrls urls, ImageVariant variant) {
+            this.urls = urls;
+            this.variant = variant;
+        }
+    }
+}
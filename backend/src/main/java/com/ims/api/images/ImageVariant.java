@@ -0,0 +1,22 @@
+package com.ims.api.images;
+
+import java.util.Locale;
+
+// The sizes an image is served at; each bounds the longer side, and images are never enlarged
+public enum ImageVariant {
+    THUMBNAIL,
+    CARD,
+    FULL;
+
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static ImageVariant parse(String key) {
+        try {
+            return valueOf(key.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Image variant must be one of thumbnail, card, full");
+        }
+    }
+}
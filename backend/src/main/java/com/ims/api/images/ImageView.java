@@ -0,0 +1,18 @@
+package com.ims.api.images;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*
+ * The image variant a handler's response links to: imageUrl properties of the documents it
+ * returns are rewritten to that variant's URL. A request can ask for another variant with
+ * ?imageVariant=thumbnail|card|full.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ImageView {
+
+    ImageVariant value();
+}
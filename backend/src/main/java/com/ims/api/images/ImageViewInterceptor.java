@@ -0,0 +1,39 @@
+package com.ims.api.images;
+
+import org.springframework.util.StringUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Applies the handler's ImageView, or the imageVariant request parameter, to the response
+public class ImageViewInterceptor implements HandlerInterceptor {
+
+    private final ImageUrls imageUrls;
+
+    public ImageViewInterceptor(ImageUrls imageUrls) {
+        this.imageUrls = imageUrls;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        ImageView view = method.getMethodAnnotation(ImageView.class);
+        String requested = request.getParameter("imageVariant");
+        ImageVariant variant = view != null ? view.value() : null;
+        if (view != null && StringUtils.hasText(requested)) {
+            try {
+                variant = ImageVariant.parse(requested);
+            } catch (IllegalArgumentException e) {
+                // Unknown values keep the handler's default
+            }
+        }
+        if (variant != null) {
+            imageUrls.useVariant(request, variant);
+        }
+        return true;
+    }
+}
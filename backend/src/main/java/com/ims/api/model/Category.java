@@ -1,9 +1,16 @@
 package com.ims.api.model;
 
+import java.time.LocalDateTime;
+
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.ims.api.images.ImageUrlSerializer;
+
 @Document(collection = "categories")
 public class Category {
     
@@ -13,8 +20,30 @@ public class Category {
     @Indexed(unique = true)
     private String name;
     
+    @JsonSerialize(using = ImageUrlSerializer.class)
     private String imageUrl;
     
+    // Materialized aggregates over the category's items, maintained with $inc on every
+    // item write and repaired by CategoryStatsService's reconciler
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long itemCount;
+    
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long totalUnits;
+    
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private double totalStockValue;
+    
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long lowStockCount;
+    
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private LocalDateTime statsReconciledAt;
+    
+    // Covers the editable fields only; the aggregates above are updated without it
+    @Version
+    private Long version;
+    
     public Category() {
     }
     
@@ -46,4 +75,52 @@ public class Category {
     public void setImageUrl(String imageUrl) {
         this.imageUrl = imageUrl;
     }
+
+    public long getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(long itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    public long getTotalUnits() {
+        return totalUnits;
+    }
+
+    public void setTotalUnits(long totalUnits) {
+        this.totalUnits = totalUnits;
+    }
+
+    public double getTotalStockValue() {
+        return totalStockValue;
+    }
+
+    public void setTotalStockValue(double totalStockValue) {
+        this.totalStockValue = totalStockValue;
+    }
+
+    public long getLowStockCount() {
+        return lowStockCount;
+    }
+
+    public void setLowStockCount(long lowStockCount) {
+        this.lowStockCount = lowStockCount;
+    }
+
+    public LocalDateTime getStatsReconciledAt() {
+        return statsReconciledAt;
+    }
+
+    public void setStatsReconciledAt(LocalDateTime statsReconciledAt) {
+        this.statsReconciledAt = statsReconciledAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 } 
\ No newline at end of file
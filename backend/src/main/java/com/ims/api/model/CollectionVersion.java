@@ -0,0 +1,48 @@
+package com.ims.api.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/*
+ * A change counter for a collection, used for HTTP ETags. Keys are collection names
+ * ("items"); counters only ever increase. Also holds one-off migration markers.
+ */
+@Document(collection = "collection_versions")
+public class CollectionVersion {
+    
+    @Id
+    private String id;
+    
+    private long version;
+    
+    private LocalDateTime updatedAt;
+    
+    public CollectionVersion() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,100 @@
+package com.ims.api.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/*
+ * An uploaded image. The id is the hex SHA-256 prefix of the original file, so uploading the
+ * same bytes twice yields the same image; format is the variants' encoding, png for
+ * originals with transparency and jpg otherwise.
+ */
+@Document(collection = "images")
+public class ImageAsset {
+    
+    @Id
+    private String id;
+    
+    private String originalName;
+    
+    private String originalType;
+    
+    private long originalBytes;
+    
+    private int width;
+    
+    private int height;
+    
+    private String format;
+    
+    private LocalDateTime createdAt;
+    
+    public ImageAsset() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getOriginalName() {
+        return originalName;
+    }
+
+    public void setOriginalName(String originalName) {
+        this.originalName = originalName;
+    }
+
+    public String getOriginalType() {
+        return originalType;
+    }
+
+    public void setOriginalType(String originalType) {
+        this.originalType = originalType;
+    }
+
+    public long getOriginalBytes() {
+        return originalBytes;
+    }
+
+    public void setOriginalBytes(long originalBytes) {
+        this.originalBytes = originalBytes;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public void setWidth(int width) {
+        this.width = width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public void setHeight(int height) {
+        this.height = height;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
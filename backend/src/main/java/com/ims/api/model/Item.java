@@ -2,10 +2,35 @@ package com.ims.api.model;
 
 import java.time.LocalDateTime;
 
+import org.springframework.data.annotation.AccessType;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.ims.api.images.ImageUrlSerializer;
+
 @Document(collection = "items")
+// Item search (ItemSearch): category, then each sort key and _id, then the price filter.
+// quantity is left out: every sale changes it, and each index holding it is one more key to
+// rewrite; the stock filters are checked on the fetched documents instead.
+@CompoundIndexes({
+    @CompoundIndex(name = "search_name", def = "{'name': 1, '_id': 1, 'price': 1}"),
+    @CompoundIndex(name = "search_category_name", def = "{'category': 1, 'name': 1, '_id': 1, 'price': 1}"),
+    @CompoundIndex(name = "search_price", def = "{'price': 1, '_id': 1}"),
+    @CompoundIndex(name = "search_category_price", def = "{'category': 1, 'price': 1, '_id': 1}"),
+    @CompoundIndex(name = "search_sales", def = "{'sales': 1, '_id': 1, 'price': 1}"),
+    @CompoundIndex(name = "search_category_sales", def = "{'category': 1, 'sales': 1, '_id': 1, 'price': 1}"),
+    @CompoundIndex(name = "search_lastUpdated", def = "{'lastUpdated': 1, '_id': 1, 'price': 1}"),
+    @CompoundIndex(name = "search_category_lastUpdated", def = "{'category': 1, 'lastUpdated': 1, '_id': 1, 'price': 1}"),
+    // Low-stock listings
+    @CompoundIndex(name = "headroom", def = "{'headroom': 1}")
+})
+@JsonFilter("fieldSelection")
 public class Item {
     
     @Id
@@ -21,14 +46,32 @@ public class Item {
     
     private int minStock;
     
+    // quantity - minStock, so that "quantity <= minStock" becomes the indexable "headroom <= 0"
+    // (as on StockLevel). Always derived when an item is saved; update operators that change
+    // quantity or minStock must change it as well.
+    @JsonIgnore
+    @AccessType(AccessType.Type.PROPERTY)
+    private int headroom;
+    
     private int sales;
     
     private LocalDateTime lastUpdated;
     
+    // Canonical image URLs are written as the variant the endpoint asks for (ImageView)
+    @JsonSerialize(using = ImageUrlSerializer.class)
     private String imageUrl;
     
     private double price;
     
+    // Incremented by every write; saves and If-Match updates are conditional on it
+    @Version
+    private Long version;
+    
+    // Pricing rule (id, action and value) that last set the price; a relative rule skips
+    // items it has already priced, so rerunning the rules does not compound it
+    @JsonIgnore
+    private String pricedBy;
+    
     public Item() {
         this.lastUpdated = LocalDateTime.now();
         this.sales = 0;
@@ -114,6 +157,15 @@ public class Item {
         this.minStock = minStock;
     }
 
+    public int getHeadroom() {
+        return quantity - minStock;
+    }
+
+    // The stored value is not read back; see getHeadroom
+    public void setHeadroom(int headroom) {
+        this.headroom = headroom;
+    }
+
     public int getSales() {
         return sales;
     }
@@ -151,6 +203,22 @@ public class Item {
         this.price = price;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
+    public String getPricedBy() {
+        return pricedBy;
+    }
+    
+    public void setPricedBy(String pricedBy) {
+        this.pricedBy = pricedBy;
+    }
+    
     public boolean isInStock() {
         return quantity > 0;
     }
@@ -0,0 +1,80 @@
+package com.ims.api.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/*
+ * A named lease. Documents are never deleted, so the fencing token keeps increasing across
+ * every acquisition of the lock; expiry is a field compared on acquire rather than a TTL index.
+ */
+@Document(collection = "job_locks")
+public class JobLock {
+    
+    @Id
+    private String id;
+    
+    private String owner;
+    
+    // Incremented on every acquisition
+    private long token;
+    
+    private LocalDateTime acquiredAt;
+    
+    private LocalDateTime expiresAt;
+    
+    // Last schedule slot in which the job finished, so it runs once per slot
+    private Long completedSlot;
+    
+    public JobLock() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public long getToken() {
+        return token;
+    }
+
+    public void setToken(long token) {
+        this.token = token;
+    }
+
+    public LocalDateTime getAcquiredAt() {
+        return acquiredAt;
+    }
+
+    public void setAcquiredAt(LocalDateTime acquiredAt) {
+        this.acquiredAt = acquiredAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getCompletedSlot() {
+        return completedSlot;
+    }
+
+    public void setCompletedSlot(Long completedSlot) {
+        this.completedSlot = completedSlot;
+    }
+}
@@ -0,0 +1,129 @@
+package com.ims.api.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Document(collection = "job_runs")
+@CompoundIndex(name = "job_started_at", def = "{'jobName': 1, 'startedAt': -1}")
+public class JobRun {
+    
+    public enum Status {
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        // The node stopped renewing its lease (crash, pause) before finishing
+        LEASE_LOST
+    }
+    
+    @Id
+    private String id;
+    
+    private String jobName;
+    
+    // null for jobs that are not partitioned
+    private Integer partition;
+    
+    private String nodeId;
+    
+    private long fencingToken;
+    
+    @Indexed
+    private Status status;
+    
+    // History is kept for 30 days
+    @Indexed(expireAfter = "30d")
+    private LocalDateTime startedAt;
+    
+    private LocalDateTime finishedAt;
+    
+    private long durationMs;
+    
+    private String message;
+    
+    public JobRun() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public Integer getPartition() {
+        return partition;
+    }
+
+    public void setPartition(Integer partition) {
+        this.partition = partition;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public long getFencingToken() {
+        return fencingToken;
+    }
+
+    public void setFencingToken(long fencingToken) {
+        this.fencingToken = fencingToken;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,79 @@
+package com.ims.api.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// A store or warehouse holding stock; the id is the location's code, e.g. "MAIN" or "STORE-042"
+@Document(collection = "locations")
+public class Location {
+    
+    public enum Type {
+        STORE,
+        WAREHOUSE
+    }
+    
+    @Id
+    private String id;
+    
+    private String name;
+    
+    private Type type;
+    
+    // Inactive locations take no new stock but can still be drained
+    private boolean active = true;
+    
+    private LocalDateTime createdAt;
+    
+    public Location() {
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    public Location(String id, String name, Type type) {
+        this.id = id;
+        this.name = name;
+        this.type = type;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
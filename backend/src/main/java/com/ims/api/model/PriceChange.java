@@ -0,0 +1,121 @@
+package com.ims.api.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Document(collection = "price_changes")
+@CompoundIndex(name = "item_changed_at", def = "{'itemId': 1, 'changedAt': -1}")
+public class PriceChange {
+    
+    @Id
+    private String id;
+    
+    private String itemId;
+    
+    private String itemName;
+    
+    private double oldPrice;
+    
+    private double newPrice;
+    
+    private String ruleId;
+    
+    private String ruleName;
+    
+    @Indexed
+    private String runId;
+    
+    private LocalDateTime changedAt;
+    
+    public PriceChange() {
+        this.changedAt = LocalDateTime.now();
+    }
+    
+    public PriceChange(String itemId, String itemName, double oldPrice, double newPrice,
+                       String ruleId, String ruleName, String runId) {
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.oldPrice = oldPrice;
+        this.newPrice = newPrice;
+        this.ruleId = ruleId;
+        this.ruleName = ruleName;
+        this.runId = runId;
+        this.changedAt = LocalDateTime.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(String itemId) {
+        this.itemId = itemId;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public void setItemName(String itemName) {
+        this.itemName = itemName;
+    }
+
+    public double getOldPrice() {
+        return oldPrice;
+    }
+
+    public void setOldPrice(double oldPrice) {
+        this.oldPrice = oldPrice;
+    }
+
+    public double getNewPrice() {
+        return newPrice;
+    }
+
+    public void setNewPrice(double newPrice) {
+        this.newPrice = newPrice;
+    }
+
+    public String getRuleId() {
+        return ruleId;
+    }
+
+    public void setRuleId(String ruleId) {
+        this.ruleId = ruleId;
+    }
+
+    public String getRuleName() {
+        return ruleName;
+    }
+
+    public void setRuleName(String ruleName) {
+        this.ruleName = ruleName;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public void setRunId(String runId) {
+        this.runId = runId;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+}
@@ -0,0 +1,190 @@
+package com.ims.api.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+@Document(collection = "pricing_rules")
+public class PricingRule {
+
+    public enum Action {
+        // Set the price to value
+        SET,
+        // Change the price by value percent (e.g. -10 for a 10% discount)
+        PERCENT,
+        // Add value to the price (negative to subtract)
+        ADD
+    }
+    
+    @Id
+    private String id;
+    
+    @NotBlank
+    private String name;
+    
+    // Lower priorities win when several rules match the same item
+    private int priority = 100;
+    
+    private boolean enabled = true;
+    
+    // Match conditions; unset conditions match every item
+    private String category;
+    
+    private String itemName;
+    
+    private String namePattern;
+    
+    private Integer minQuantity;
+    
+    private Integer maxQuantity;
+    
+    private boolean onlyUnpriced;
+    
+    @NotNull
+    private Action action;
+    
+    private double value;
+    
+    private LocalDateTime lastUpdated;
+    
+    public PricingRule() {
+        this.lastUpdated = LocalDateTime.now();
+    }
+    
+    public PricingRule(String name, int priority, Action action, double value) {
+        this.name = name;
+        this.priority = priority;
+        this.action = action;
+        this.value = value;
+        this.lastUpdated = LocalDateTime.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public void setItemName(String itemName) {
+        this.itemName = itemName;
+    }
+
+    public String getNamePattern() {
+        return namePattern;
+    }
+
+    public void setNamePattern(String namePattern) {
+        this.namePattern = namePattern;
+    }
+
+    public Integer getMinQuantity() {
+        return minQuantity;
+    }
+
+    public void setMinQuantity(Integer minQuantity) {
+        this.minQuantity = minQuantity;
+    }
+
+    public Integer getMaxQuantity() {
+        return maxQuantity;
+    }
+
+    public void setMaxQuantity(Integer maxQuantity) {
+        this.maxQuantity = maxQuantity;
+    }
+
+    public boolean isOnlyUnpriced() {
+        return onlyUnpriced;
+    }
+
+    public void setOnlyUnpriced(boolean onlyUnpriced) {
+        this.onlyUnpriced = onlyUnpriced;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public void setAction(Action action) {
+        this.action = action;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public void setValue(double value) {
+        this.value = value;
+    }
+
+    public LocalDateTime getLastUpdated() {
+        return lastUpdated;
+    }
+
+    public void setLastUpdated(LocalDateTime lastUpdated) {
+        this.lastUpdated = lastUpdated;
+    }
+    
+    // Price this rule would give an item currently priced at currentPrice
+    public double apply(double currentPrice) {
+        switch (action) {
+            case SET:
+                return roundPrice(value);
+            case PERCENT:
+                return roundPrice(currentPrice * (1 + value / 100.0));
+            case ADD:
+                return roundPrice(currentPrice + value);
+            default:
+                throw new IllegalStateException("Unknown pricing action: " + action);
+        }
+    }
+    
+    // Prices are kept to two decimals, rounded half to even like the server-side $round
+    public static double roundPrice(double price) {
+        return BigDecimal.valueOf(price).setScale(2, RoundingMode.HALF_EVEN).doubleValue();
+    }
+}
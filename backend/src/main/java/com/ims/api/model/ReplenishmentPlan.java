@@ -0,0 +1,186 @@
+package com.ims.api.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// One document per item, keyed by the item id and overwritten by every replenishment run
+@Document(collection = "replenishment")
+@CompoundIndexes({
+    @CompoundIndex(name = "below_rop_days_of_supply", def = "{'belowReorderPoint': 1, 'daysOfSupply': 1}"),
+    @CompoundIndex(name = "category_days_of_supply", def = "{'category': 1, 'daysOfSupply': 1}")
+})
+public class ReplenishmentPlan {
+    
+    @Id
+    private String itemId;
+    
+    private String itemName;
+    
+    private String category;
+    
+    // Stock on hand and the hand-entered minimum when the plan was computed
+    private int quantity;
+    
+    private int minStock;
+    
+    // Units per day over the observed window, and the day-to-day standard deviation
+    private double avgDailyDemand;
+    
+    private double demandStdDev;
+    
+    private int daysWithSales;
+    
+    private int observedDays;
+    
+    // null when the item has no demand in the window
+    private Double daysOfSupply;
+    
+    private int safetyStock;
+    
+    private int reorderPoint;
+    
+    private int suggestedOrderQuantity;
+    
+    private boolean belowReorderPoint;
+    
+    @Indexed
+    private String runId;
+    
+    private LocalDateTime computedAt;
+    
+    public ReplenishmentPlan() {
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(String itemId) {
+        this.itemId = itemId;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public void setItemName(String itemName) {
+        this.itemName = itemName;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public int getMinStock() {
+        return minStock;
+    }
+
+    public void setMinStock(int minStock) {
+        this.minStock = minStock;
+    }
+
+    public double getAvgDailyDemand() {
+        return avgDailyDemand;
+    }
+
+    public void setAvgDailyDemand(double avgDailyDemand) {
+        this.avgDailyDemand = avgDailyDemand;
+    }
+
+    public double getDemandStdDev() {
+        return demandStdDev;
+    }
+
+    public void setDemandStdDev(double demandStdDev) {
+        this.demandStdDev = demandStdDev;
+    }
+
+    public int getDaysWithSales() {
+        return daysWithSales;
+    }
+
+    public void setDaysWithSales(int daysWithSales) {
+        this.daysWithSales = daysWithSales;
+    }
+
+    public int getObservedDays() {
+        return observedDays;
+    }
+
+    public void setObservedDays(int observedDays) {
+        this.observedDays = observedDays;
+    }
+
+    public Double getDaysOfSupply() {
+        return daysOfSupply;
+    }
+
+    public void setDaysOfSupply(Double daysOfSupply) {
+        this.daysOfSupply = daysOfSupply;
+    }
+
+    public int getSafetyStock() {
+        return safetyStock;
+    }
+
+    public void setSafetyStock(int safetyStock) {
+        this.safetyStock = safetyStock;
+    }
+
+    public int getReorderPoint() {
+        return reorderPoint;
+    }
+
+    public void setReorderPoint(int reorderPoint) {
+        this.reorderPoint = reorderPoint;
+    }
+
+    public int getSuggestedOrderQuantity() {
+        return suggestedOrderQuantity;
+    }
+
+    public void setSuggestedOrderQuantity(int suggestedOrderQuantity) {
+        this.suggestedOrderQuantity = suggestedOrderQuantity;
+    }
+
+    public boolean isBelowReorderPoint() {
+        return belowReorderPoint;
+    }
+
+    public void setBelowReorderPoint(boolean belowReorderPoint) {
+        this.belowReorderPoint = belowReorderPoint;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public void setRunId(String runId) {
+        this.runId = runId;
+    }
+
+    public LocalDateTime getComputedAt() {
+        return computedAt;
+    }
+
+    public void setComputedAt(LocalDateTime computedAt) {
+        this.computedAt = computedAt;
+    }
+}
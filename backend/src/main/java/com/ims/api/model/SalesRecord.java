@@ -3,9 +3,16 @@ package com.ims.api.model;
 import java.time.LocalDateTime;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+
 @Document(collection = "sales_records")
+// Per-item history scans (replenishment demand, item sales history)
+@CompoundIndex(name = "item_timestamp", def = "{'itemId': 1, 'timestamp': 1}")
+@JsonFilter("fieldSelection")
 public class SalesRecord {
     
     @Id
@@ -19,12 +26,17 @@ public class SalesRecord {
     
     private int quantity;
     
+    // Period queries and the archiver's age cutoff
+    @Indexed(name = "timestamp")
     private LocalDateTime timestamp;
     
     private double unitPrice;
     
     private double totalPrice;
     
+    // Where the stock was sold from; absent on sales recorded before locations existed
+    private String locationId;
+    
     public SalesRecord() {
         this.timestamp = LocalDateTime.now();
     }
@@ -112,4 +124,12 @@ public class SalesRecord {
     public void setTotalPrice(double totalPrice) {
         this.totalPrice = totalPrice;
     }
+
+    public String getLocationId() {
+        return locationId;
+    }
+
+    public void setLocationId(String locationId) {
+        this.locationId = locationId;
+    }
 } 
\ No newline at end of file
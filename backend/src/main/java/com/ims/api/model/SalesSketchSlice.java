@@ -0,0 +1,80 @@
+package com.ims.api.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/*
+ * One node's checkpoint of a SalesSketch time slice. _id is "<nodeId>:<window>:<start>";
+ * start is the slice's first epoch millisecond and data the serialized sketch.
+ */
+@Document(collection = "sales_sketches")
+@CompoundIndex(name = "window_start", def = "{'window': 1, 'start': 1}")
+public class SalesSketchSlice {
+    
+    @Id
+    private String id;
+    
+    private String nodeId;
+    
+    private String window;
+    
+    private long start;
+    
+    private byte[] data;
+    
+    private LocalDateTime updatedAt;
+    
+    public SalesSketchSlice() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getWindow() {
+        return window;
+    }
+
+    public void setWindow(String window) {
+        this.window = window;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public void setStart(long start) {
+        this.start = start;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,102 @@
+package com.ims.api.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/*
+ * The stock of one item at one location. Item.quantity is the sum of an item's levels and is
+ * kept up to date with every change here, so catalog reads never touch this collection.
+ *
+ * headroom is quantity - minStock, maintained alongside both: "quantity <= minStock" compares
+ * two fields and cannot use an index, "headroom <= 0" can.
+ */
+@Document(collection = "stock_levels")
+@CompoundIndexes({
+    @CompoundIndex(name = "item_location", def = "{'itemId': 1, 'locationId': 1}"),
+    // Low-stock and stock listings of one location
+    @CompoundIndex(name = "location_headroom", def = "{'locationId': 1, 'headroom': 1}")
+})
+public class StockLevel {
+    
+    @Id
+    private String id;
+    
+    private String itemId;
+    
+    private String locationId;
+    
+    private int quantity;
+    
+    private int minStock;
+    
+    private int headroom;
+    
+    private LocalDateTime lastUpdated;
+    
+    public StockLevel() {
+    }
+
+    public static String idOf(String itemId, String locationId) {
+        return itemId + ":" + locationId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(String itemId) {
+        this.itemId = itemId;
+    }
+
+    public String getLocationId() {
+        return locationId;
+    }
+
+    public void setLocationId(String locationId) {
+        this.locationId = locationId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public int getMinStock() {
+        return minStock;
+    }
+
+    public void setMinStock(int minStock) {
+        this.minStock = minStock;
+    }
+
+    public int getHeadroom() {
+        return headroom;
+    }
+
+    public void setHeadroom(int headroom) {
+        this.headroom = headroom;
+    }
+
+    public LocalDateTime getLastUpdated() {
+        return lastUpdated;
+    }
+
+    public void setLastUpdated(LocalDateTime lastUpdated) {
+        this.lastUpdated = lastUpdated;
+    }
+}
@@ -0,0 +1,130 @@
+package com.ims.api.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/*
+ * A move of stock between two locations. Mongo runs standalone here, so there is no
+ * transaction around the two stock levels: the source is debited, then the destination
+ * credited, and the source is credited back if the second step fails. The record says how
+ * far a transfer got; one left PENDING means the node stopped between the steps.
+ */
+@Document(collection = "stock_transfers")
+@CompoundIndex(name = "item_created_at", def = "{'itemId': 1, 'createdAt': -1}")
+public class StockTransfer {
+    
+    public enum Status {
+        PENDING,
+        COMPLETED,
+        // Not enough stock at the source; nothing was moved
+        REJECTED,
+        // The destination could not be credited and the source was restored
+        COMPENSATED
+    }
+    
+    @Id
+    private String id;
+    
+    private String itemId;
+    
+    private String fromLocationId;
+    
+    private String toLocationId;
+    
+    private int quantity;
+    
+    private Status status;
+    
+    private String message;
+    
+    private LocalDateTime createdAt;
+    
+    private LocalDateTime finishedAt;
+    
+    public StockTransfer() {
+    }
+    
+    public StockTransfer(String itemId, String fromLocationId, String toLocationId, int quantity) {
+        this.itemId = itemId;
+        this.fromLocationId = fromLocationId;
+        this.toLocationId = toLocationId;
+        this.quantity = quantity;
+        this.status = Status.PENDING;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(String itemId) {
+        this.itemId = itemId;
+    }
+
+    public String getFromLocationId() {
+        return fromLocationId;
+    }
+
+    public void setFromLocationId(String fromLocationId) {
+        this.fromLocationId = fromLocationId;
+    }
+
+    public String getToLocationId() {
+        return toLocationId;
+    }
+
+    public void setToLocationId(String toLocationId) {
+        this.toLocationId = toLocationId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
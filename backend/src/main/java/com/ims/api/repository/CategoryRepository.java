@@ -8,7 +8,7 @@ import org.springframework.stereotype.Repository;
 import com.ims.api.model.Category;
 
 @Repository
-public interface CategoryRepository extends MongoRepository<Category, String> {
+public interface CategoryRepository extends MongoRepository<Category, String>, CategoryRepositoryCustom {
     
     Optional<Category> findByName(String name);
     
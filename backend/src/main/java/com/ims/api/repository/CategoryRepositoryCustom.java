@@ -0,0 +1,13 @@
+package com.ims.api.repository;
+
+import java.util.Optional;
+
+import com.ims.api.model.Category;
+
+public interface CategoryRepositoryCustom {
+
+    // $set of the editable fields only, leaving the aggregates CategoryStatsService maintains
+    // with $inc untouched. Returns the updated category, or empty if it does not exist or its
+    // version is no longer expectedVersion.
+    Optional<Category> updateDetails(String id, long expectedVersion, String name, String imageUrl);
+}
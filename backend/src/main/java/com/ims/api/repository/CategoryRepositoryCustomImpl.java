@@ -0,0 +1,29 @@
+package com.ims.api.repository;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.ims.api.model.Category;
+
+public class CategoryRepositoryCustomImpl implements CategoryRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<Category> updateDetails(String id, long expectedVersion, String name, String imageUrl) {
+        Query query = new Query(Criteria.where("id").is(id).and("version").is(expectedVersion));
+        Update update = new Update()
+                .set("name", name)
+                .set("imageUrl", imageUrl)
+                .inc("version", 1);
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), Category.class));
+    }
+}
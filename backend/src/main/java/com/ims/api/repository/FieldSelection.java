@@ -0,0 +1,126 @@
+package com.ims.api.repository;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import com.ims.api.model.Item;
+import com.ims.api.model.SalesRecord;
+
+/*
+ * A validated sparse fieldset (?fields=id,name,quantity) for a document type. The same
+ * selection drives the Mongo projection, so unrequested fields never leave the database,
+ * and the Jackson filter, so unrequested properties are not rendered with default values.
+ */
+public final class FieldSelection {
+
+    // Filter id referenced by @JsonFilter on the document classes
+    public static final String FILTER_ID = "fieldSelection";
+
+    // Stored fields a client may select; internal bookkeeping such as @Version stays out
+    private static final Map<Class<?>, Set<String>> KNOWN_FIELDS = Map.of(
+            Item.class, orderedSet("id", "name", "category", "description", "quantity", "minStock", "sales",
+                    "lastUpdated", "imageUrl", "price"),
+            SalesRecord.class, orderedSet("id", "itemId", "itemName", "category", "quantity", "timestamp",
+                    "unitPrice", "totalPrice", "locationId"));
+
+    // Computed properties and the stored fields they are derived from
+    private static final Map<Class<?>, Map<String, List<String>>> DERIVED_FIELDS = Map.of(
+            Item.class, Map.of(
+                    "inStock", List.of("quantity"),
+                    "lowStock", List.of("quantity", "minStock")));
+
+    private final Set<String> viewFields;
+    private final Set<String> projectedFields;
+
+    private FieldSelection(Set<String> viewFields, Set<String> projectedFields) {
+        this.viewFields = Collections.unmodifiableSet(viewFields);
+        this.projectedFields = Collections.unmodifiableSet(projectedFields);
+    }
+
+    // Returns null when no fields were requested, meaning "full documents"
+    public static FieldSelection parse(String fields, Class<?> documentType) {
+        if (!StringUtils.hasText(fields)) {
+            return null;
+        }
+
+        Set<String> known = knownFields(documentType);
+        Map<String, List<String>> derived = DERIVED_FIELDS.getOrDefault(documentType, Map.of());
+
+        Set<String> viewFields = new LinkedHashSet<>();
+        Set<String> projectedFields = new LinkedHashSet<>();
+        viewFields.add("id");
+        projectedFields.add("id");
+
+        for (String raw : fields.split(",")) {
+            String field = raw.trim();
+            if (field.isEmpty()) {
+                continue;
+            }
+            if (known.contains(field)) {
+                projectedFields.add(field);
+            } else if (derived.containsKey(field)) {
+                projectedFields.addAll(derived.get(field));
+            } else {
+                throw new IllegalArgumentException("Unknown field '" + field + "' for "
+                        + documentType.getSimpleName() + ". Allowed fields: " + allowedFields(documentType));
+            }
+            viewFields.add(field);
+        }
+
+        return new FieldSelection(viewFields, projectedFields);
+    }
+
+    public static Set<String> allowedFields(Class<?> documentType) {
+        Set<String> allowed = new LinkedHashSet<>(knownFields(documentType));
+        allowed.addAll(DERIVED_FIELDS.getOrDefault(documentType, Map.of()).keySet());
+        return allowed;
+    }
+
+    private static Set<String> knownFields(Class<?> documentType) {
+        Set<String> known = KNOWN_FIELDS.get(documentType);
+        if (known == null) {
+            throw new IllegalStateException("Field selection is not supported for " + documentType.getSimpleName());
+        }
+        return known;
+    }
+
+    private static Set<String> orderedSet(String... names) {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(List.of(names)));
+    }
+
+    public Query applyTo(Query query) {
+        query.fields().include(projectedFields.toArray(new String[0]));
+        return query;
+    }
+
+    public MappingJacksonValue view(Object body) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(new SimpleFilterProvider()
+                .addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(viewFields))
+                .setFailOnUnknownId(false));
+        return value;
+    }
+
+    public Set<String> getViewFields() {
+        return viewFields;
+    }
+
+    public Set<String> getProjectedFields() {
+        return projectedFields;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", viewFields);
+    }
+}
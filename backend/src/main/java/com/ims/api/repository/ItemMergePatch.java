@@ -0,0 +1,153 @@
+package com.ims.api.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.LiteralOperators;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ims.api.model.Item;
+
+/*
+ * A JSON Merge Patch (RFC 7396) of an Item, validated against the item's field types and
+ * translated into one $set/$unset update. Members set to null are removed, which is only
+ * allowed for optional fields. Server-managed fields (id, version, sales, lastUpdated)
+ * cannot be patched, nor can quantity, which changes only through stock adjustments, so a
+ * patch is always one conditional write. A patch of minStock also sets headroom from the
+ * stored quantity, so it becomes a pipeline update.
+ */
+public final class ItemMergePatch {
+
+    private static final Map<String, Class<?>> PATCHABLE_FIELDS = new LinkedHashMap<>();
+
+    static {
+        PATCHABLE_FIELDS.put("name", String.class);
+        PATCHABLE_FIELDS.put("category", String.class);
+        PATCHABLE_FIELDS.put("description", String.class);
+        PATCHABLE_FIELDS.put("imageUrl", String.class);
+        PATCHABLE_FIELDS.put("minStock", Integer.class);
+        PATCHABLE_FIELDS.put("price", Double.class);
+    }
+
+    private static final Set<String> REMOVABLE_FIELDS = Set.of("description", "imageUrl");
+
+    private final Map<String, Object> set;
+    private final Set<String> unset;
+
+    private ItemMergePatch(Map<String, Object> set, Set<String> unset) {
+        this.set = Collections.unmodifiableMap(set);
+        this.unset = Collections.unmodifiableSet(unset);
+    }
+
+    public static ItemMergePatch parse(JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("A merge patch for an item must be a JSON object");
+        }
+
+        Map<String, Object> set = new LinkedHashMap<>();
+        Set<String> unset = new LinkedHashSet<>();
+        Iterator<Map.Entry<String, JsonNode>> members = patch.fields();
+        while (members.hasNext()) {
+            Map.Entry<String, JsonNode> member = members.next();
+            String field = member.getKey();
+            JsonNode value = member.getValue();
+            Class<?> type = PATCHABLE_FIELDS.get(field);
+            if ("quantity".equals(field)) {
+                throw new IllegalArgumentException("Field 'quantity' cannot be patched; use PATCH /api/items/{id}/quantity"
+                        + " or the /api/stock endpoints");
+            }
+            if (type == null) {
+                throw new IllegalArgumentException("Field '" + field + "' cannot be patched. Patchable fields: "
+                        + PATCHABLE_FIELDS.keySet());
+            }
+            if (value.isNull()) {
+                if (!REMOVABLE_FIELDS.contains(field)) {
+                    throw new IllegalArgumentException("Field '" + field + "' is required and cannot be removed");
+                }
+                unset.add(field);
+            } else {
+                set.put(field, convert(field, value, type));
+            }
+        }
+        return new ItemMergePatch(set, unset);
+    }
+
+    // Strict: no coercion of strings to numbers or numbers to strings
+    private static Object convert(String field, JsonNode value, Class<?> type) {
+        if (type == String.class) {
+            if (!value.isTextual()) {
+                throw new IllegalArgumentException("Field '" + field + "' must be a string");
+            }
+            if (!REMOVABLE_FIELDS.contains(field) && value.asText().isBlank()) {
+                throw new IllegalArgumentException("Field '" + field + "' cannot be blank");
+            }
+            return value.asText();
+        }
+        if (type == Integer.class) {
+            if (!value.isIntegralNumber() || !value.canConvertToInt() || value.intValue() < 0) {
+                throw new IllegalArgumentException("Field '" + field + "' must be a non-negative integer");
+            }
+            return value.intValue();
+        }
+        if (!value.isNumber() || !Double.isFinite(value.doubleValue()) || value.doubleValue() < 0) {
+            throw new IllegalArgumentException("Field '" + field + "' must be a non-negative number");
+        }
+        return value.doubleValue();
+    }
+
+    public boolean isEmpty() {
+        return set.isEmpty() && unset.isEmpty();
+    }
+
+    public UpdateDefinition toUpdate(LocalDateTime now) {
+        Integer minStock = (Integer) set.get("minStock");
+        if (minStock != null) {
+            return toPipelineUpdate(minStock, now);
+        }
+        Update update = new Update();
+        set.forEach(update::set);
+        unset.forEach(update::unset);
+        return update.set("lastUpdated", now).inc("version", 1);
+    }
+
+    private AggregationUpdate toPipelineUpdate(int minStock, LocalDateTime now) {
+        AggregationUpdate update = AggregationUpdate.update();
+        // As literals, so that a string starting with $ is not read as a field path
+        set.forEach((field, value) -> update.set(field).toValue(LiteralOperators.valueOf(value).asLiteral()));
+        if (!unset.isEmpty()) {
+            update.unset(unset.toArray(new String[0]));
+        }
+        return update
+                .set("headroom").toValue(ArithmeticOperators.Subtract
+                        .valueOf(ConditionalOperators.ifNull("quantity").then(0)).subtract(minStock))
+                .set("lastUpdated").toValue(now)
+                .set("version").toValue(ArithmeticOperators.Add.valueOf(
+                        ConditionalOperators.ifNull("version").then(0L)).add(1));
+    }
+
+    // Turns the item as it was before toUpdate(now) ran into the item as it is after
+    public void applyTo(Item item, LocalDateTime now) {
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(item);
+        set.forEach(wrapper::setPropertyValue);
+        unset.forEach(field -> wrapper.setPropertyValue(field, null));
+        item.setLastUpdated(now);
+        item.setVersion(item.getVersion() != null ? item.getVersion() + 1 : 1);
+    }
+
+    @Override
+    public String toString() {
+        return "set " + set.keySet() + ", unset " + unset;
+    }
+}
@@ -9,7 +9,7 @@ import org.springframework.stereotype.Repository;
 import com.ims.api.model.Item;
 
 @Repository
-public interface ItemRepository extends MongoRepository<Item, String> {
+public interface ItemRepository extends MongoRepository<Item, String>, ItemRepositoryCustom {
     
     List<Item> findByCategory(String category);
     
@@ -0,0 +1,31 @@
+package com.ims.api.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.ims.api.model.Item;
+
+public interface ItemRepositoryCustom {
+
+    List<Item> findAllWithFields(FieldSelection fields);
+
+    Optional<Item> findByIdWithFields(String id, FieldSelection fields);
+
+    List<Item> findByCategoryWithFields(String category, FieldSelection fields);
+
+    // One page of the search, plus the first item of the next page if there is one
+    List<Item> search(ItemSearch search, FieldSelection fields);
+
+    // Items matching the search's filters, counting no further than max
+    long countMatching(ItemSearch search, int max);
+
+    // Atomic $inc of quantity and sales that never takes the quantity below zero. Returns the
+    // updated item, or empty if the item does not exist or has too little stock.
+    Optional<Item> adjustStock(String id, int quantityDelta, int salesDelta);
+
+    // Applies the update in one round trip and returns the item as it was before, or empty if
+    // it does not exist or its version is not one of expectedVersions (null: any version)
+    Optional<Item> updateFields(String id, List<Long> expectedVersions, UpdateDefinition update);
+}
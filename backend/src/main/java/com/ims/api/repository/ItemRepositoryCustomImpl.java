@@ -0,0 +1,86 @@
+package com.ims.api.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.ims.api.model.Item;
+
+public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Item> findAllWithFields(FieldSelection fields) {
+        return mongoTemplate.find(fields.applyTo(new Query()), Item.class);
+    }
+
+    @Override
+    public Optional<Item> findByIdWithFields(String id, FieldSelection fields) {
+        Query query = fields.applyTo(new Query(Criteria.where("id").is(id)));
+        return Optional.ofNullable(mongoTemplate.findOne(query, Item.class));
+    }
+
+    @Override
+    public List<Item> findByCategoryWithFields(String category, FieldSelection fields) {
+        Query query = fields.applyTo(new Query(Criteria.where("category").is(category)));
+        return mongoTemplate.find(query, Item.class);
+    }
+
+    @Override
+    public List<Item> search(ItemSearch search, FieldSelection fields) {
+        Query query = search.pageQuery();
+        if (fields != null) {
+            fields.applyTo(query);
+            // The next cursor is made from the last item's sort value
+            query.fields().include(search.getSortField());
+        }
+        return mongoTemplate.find(query, Item.class);
+    }
+
+    @Override
+    public long countMatching(ItemSearch search, int max) {
+        if (!search.hasFilters()) {
+            // From collection metadata, without a scan
+            return mongoTemplate.estimatedCount(Item.class);
+        }
+        return mongoTemplate.count(search.filterQuery().limit(max), Item.class);
+    }
+
+    @Override
+    public Optional<Item> adjustStock(String id, int quantityDelta, int salesDelta) {
+        Criteria criteria = Criteria.where("id").is(id);
+        if (quantityDelta < 0) {
+            criteria.and("quantity").gte(-quantityDelta);
+        }
+        Update update = new Update()
+                .inc("quantity", quantityDelta)
+                .inc("headroom", quantityDelta)
+                .set("lastUpdated", LocalDateTime.now())
+                .inc("version", 1);
+        if (salesDelta != 0) {
+            update.inc("sales", salesDelta);
+        }
+        return Optional.ofNullable(mongoTemplate.findAndModify(new Query(criteria), update,
+                FindAndModifyOptions.options().returnNew(true), Item.class));
+    }
+
+    @Override
+    public Optional<Item> updateFields(String id, List<Long> expectedVersions, UpdateDefinition update) {
+        Criteria criteria = Criteria.where("id").is(id);
+        if (expectedVersions != null) {
+            criteria.and("version").in(expectedVersions);
+        }
+        return Optional.ofNullable(mongoTemplate.findAndModify(new Query(criteria), update,
+                FindAndModifyOptions.options().returnNew(false), Item.class));
+    }
+}
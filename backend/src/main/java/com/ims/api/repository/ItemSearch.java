@@ -0,0 +1,248 @@
+package com.ims.api.repository;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ims.api.model.Item;
+
+/*
+ * A validated item search: combinable filters, one sort key and keyset pagination. Pages
+ * continue after the last item of the previous one, (sort value, id), instead of skipping,
+ * so every page costs the same and items inserted meanwhile do not shift later pages. The
+ * cursor is opaque to clients and tied to the sort and filters it was issued for.
+ *
+ * The compound indexes on Item follow equality, sort, range: category, then the sort key and
+ * _id, then price, so each filter and sort combination walks one index in order and checks
+ * the price range on index keys. Name matching and the stock filters (inStock on quantity,
+ * lowStock on headroom) are checked on the fetched documents.
+ */
+public final class ItemSearch {
+
+    public static final int MAX_LIMIT = 200;
+    private static final int MAX_NAME_FILTER = 100;
+
+    private static final List<String> SORT_FIELDS = List.of("name", "price", "sales", "lastUpdated");
+
+    private static final ObjectMapper CURSOR_MAPPER = new ObjectMapper();
+
+    private final String category;
+    private final Double minPrice;
+    private final Double maxPrice;
+    private final Boolean inStock;
+    private final Boolean lowStock;
+    private final String nameContains;
+    private final String sortField;
+    private final Sort.Direction direction;
+    private final int limit;
+    // Sort value and id of the last item of the previous page; both null on the first page
+    private final Object afterValue;
+    private final String afterId;
+
+    private ItemSearch(String category, Double minPrice, Double maxPrice, Boolean inStock, Boolean lowStock,
+            String nameContains, String sortField, Sort.Direction direction, int limit, Object afterValue,
+            String afterId) {
+        this.category = category;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.inStock = inStock;
+        this.lowStock = lowStock;
+        this.nameContains = nameContains;
+        this.sortField = sortField;
+        this.direction = direction;
+        this.limit = limit;
+        this.afterValue = afterValue;
+        this.afterId = afterId;
+    }
+
+    // Throws IllegalArgumentException with a message for the client on any invalid parameter
+    public static ItemSearch parse(String category, Double minPrice, Double maxPrice, Boolean inStock,
+            Boolean lowStock, String nameContains, String sort, String order, int limit, String cursor) {
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        if (nameContains != null && nameContains.length() > MAX_NAME_FILTER) {
+            throw new IllegalArgumentException("q must be at most " + MAX_NAME_FILTER + " characters");
+        }
+        if (!SORT_FIELDS.contains(sort)) {
+            throw new IllegalArgumentException("sort must be one of " + String.join(", ", SORT_FIELDS));
+        }
+        Sort.Direction direction;
+        try {
+            direction = Sort.Direction.fromString(order);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("order must be asc or desc");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        ItemSearch search = new ItemSearch(StringUtils.hasText(category) ? category : null, minPrice, maxPrice,
+                inStock, lowStock, StringUtils.hasText(nameContains) ? nameContains.trim() : null, sort, direction,
+                limit, null, null);
+        if (!StringUtils.hasText(cursor)) {
+            return search;
+        }
+        JsonNode decoded;
+        try {
+            decoded = CURSOR_MAPPER.readTree(Base64.getUrlDecoder().decode(cursor));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (decoded == null || !decoded.hasNonNull("id") || !sort.equals(decoded.path("sort").asText())
+                || !direction.name().equals(decoded.path("order").asText())
+                || !search.filterKey().equals(decoded.path("filter").asText())) {
+            throw new IllegalArgumentException("Cursor does not belong to this sort and filter; start from the first page");
+        }
+        return new ItemSearch(search.category, minPrice, maxPrice, inStock, lowStock, search.nameContains, sort,
+                direction, limit, cursorValue(sort, decoded.get("value")), decoded.get("id").asText());
+    }
+
+    private static Object cursorValue(String sort, JsonNode value) {
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        return switch (sort) {
+            case "price" -> value.asDouble();
+            case "sales" -> value.asInt();
+            case "lastUpdated" -> LocalDateTime.parse(value.asText());
+            default -> value.asText();
+        };
+    }
+
+    private String filterKey() {
+        return Integer.toHexString(Objects.hash(category, minPrice, maxPrice, inStock, lowStock, nameContains));
+    }
+
+    public boolean hasFilters() {
+        return category != null || minPrice != null || maxPrice != null || inStock != null || lowStock != null
+                || nameContains != null;
+    }
+
+    // The filters alone, for counting
+    public Query filterQuery() {
+        List<Criteria> criteria = filters();
+        return criteria.isEmpty() ? new Query() : new Query(new Criteria().andOperator(criteria));
+    }
+
+    // One page, plus one item to tell whether another page follows
+    public Query pageQuery() {
+        List<Criteria> criteria = filters();
+        if (afterId != null) {
+            criteria.add(after());
+        }
+        Query query = criteria.isEmpty() ? new Query() : new Query(new Criteria().andOperator(criteria));
+        return query.with(Sort.by(direction, sortField, "id")).limit(limit + 1);
+    }
+
+    private List<Criteria> filters() {
+        List<Criteria> criteria = new ArrayList<>();
+        if (category != null) {
+            criteria.add(Criteria.where("category").is(category));
+        }
+        if (minPrice != null || maxPrice != null) {
+            Criteria price = Criteria.where("price");
+            if (minPrice != null) {
+                price.gte(minPrice);
+            }
+            if (maxPrice != null) {
+                price.lte(maxPrice);
+            }
+            criteria.add(price);
+        }
+        if (inStock != null) {
+            criteria.add(inStock ? Criteria.where("quantity").gt(0) : Criteria.where("quantity").lte(0));
+        }
+        if (lowStock != null) {
+            criteria.add(lowStock ? Criteria.where("headroom").lte(0) : Criteria.where("headroom").gt(0));
+        }
+        if (nameContains != null) {
+            criteria.add(Criteria.where("name").regex(Pattern.quote(nameContains), "i"));
+        }
+        return criteria;
+    }
+
+    /*
+     * Items after (afterValue, afterId) in sort order. Missing and null values sort before
+     * every other value, and comparison operators never match them, so they need their own
+     * branches.
+     */
+    private Criteria after() {
+        boolean ascending = direction.isAscending();
+        Criteria sameValueLaterId = ascending ? Criteria.where("id").gt(afterId) : Criteria.where("id").lt(afterId);
+        if (afterValue == null) {
+            Criteria nullsAfter = new Criteria().andOperator(Criteria.where(sortField).is(null), sameValueLaterId);
+            return ascending ? new Criteria().orOperator(nullsAfter, Criteria.where(sortField).ne(null)) : nullsAfter;
+        }
+        // The redundant outer range gives the index scan its start; the $or alone would not
+        Criteria sameValue = new Criteria().andOperator(Criteria.where(sortField).is(afterValue), sameValueLaterId);
+        if (ascending) {
+            return new Criteria().andOperator(Criteria.where(sortField).gte(afterValue),
+                    new Criteria().orOperator(Criteria.where(sortField).gt(afterValue), sameValue));
+        }
+        return new Criteria().andOperator(Criteria.where(sortField).not().gt(afterValue),
+                new Criteria().orOperator(Criteria.where(sortField).lt(afterValue), sameValue,
+                        Criteria.where(sortField).is(null)));
+    }
+
+    // The cursor for the page after the one ending with last
+    public String cursorAfter(Item last) {
+        Map<String, Object> cursor = new LinkedHashMap<>();
+        cursor.put("sort", sortField);
+        cursor.put("order", direction.name());
+        cursor.put("filter", filterKey());
+        Object value = switch (sortField) {
+            case "price" -> last.getPrice();
+            case "sales" -> last.getSales();
+            case "lastUpdated" -> last.getLastUpdated() != null ? last.getLastUpdated().toString() : null;
+            default -> last.getName();
+        };
+        cursor.put("value", value);
+        cursor.put("id", last.getId());
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(CURSOR_MAPPER.writeValueAsBytes(cursor));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public String getSortField() {
+        return sortField;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public boolean isFirstPage() {
+        return afterId == null;
+    }
+
+    @Override
+    public String toString() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("category", category);
+        description.put("minPrice", minPrice);
+        description.put("maxPrice", maxPrice);
+        description.put("inStock", inStock);
+        description.put("lowStock", lowStock);
+        description.put("q", nameContains);
+        description.values().removeIf(Objects::isNull);
+        return description + " sort " + sortField + " " + direction.name().toLowerCase(Locale.ROOT)
+                + (afterId != null ? " after " + afterId : "");
+    }
+}
@@ -0,0 +1,19 @@
+package com.ims.api.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.ims.api.model.JobRun;
+
+@Repository
+public interface JobRunRepository extends MongoRepository<JobRun, String> {
+    
+    List<JobRun> findByJobNameOrderByStartedAtDesc(String jobName, Pageable pageable);
+    
+    List<JobRun> findAllByOrderByStartedAtDesc(Pageable pageable);
+    
+    List<JobRun> findByStatus(JobRun.Status status);
+}
@@ -0,0 +1,10 @@
+package com.ims.api.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.ims.api.model.Location;
+
+@Repository
+public interface LocationRepository extends MongoRepository<Location, String> {
+}
@@ -0,0 +1,19 @@
+package com.ims.api.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.ims.api.model.PriceChange;
+
+@Repository
+public interface PriceChangeRepository extends MongoRepository<PriceChange, String> {
+    
+    List<PriceChange> findByItemIdOrderByChangedAtDesc(String itemId, Pageable pageable);
+    
+    List<PriceChange> findAllByOrderByChangedAtDesc(Pageable pageable);
+    
+    List<PriceChange> findByRunId(String runId);
+}
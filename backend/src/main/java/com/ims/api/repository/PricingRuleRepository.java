@@ -0,0 +1,16 @@
+package com.ims.api.repository;
+
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.ims.api.model.PricingRule;
+
+@Repository
+public interface PricingRuleRepository extends MongoRepository<PricingRule, String> {
+    
+    List<PricingRule> findByEnabledTrueOrderByPriorityAsc();
+    
+    List<PricingRule> findAllByOrderByPriorityAsc();
+}
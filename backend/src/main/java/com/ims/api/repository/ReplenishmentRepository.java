@@ -0,0 +1,12 @@
+package com.ims.api.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.ims.api.model.ReplenishmentPlan;
+
+@Repository
+public interface ReplenishmentRepository extends MongoRepository<ReplenishmentPlan, String> {
+    
+    long deleteByRunIdNot(String runId);
+}
@@ -9,7 +9,7 @@ import org.springframework.stereotype.Repository;
 import com.ims.api.model.SalesRecord;
 
 @Repository
-public interface SalesRecordRepository extends MongoRepository<SalesRecord, String> {
+public interface SalesRecordRepository extends MongoRepository<SalesRecord, String>, SalesRecordRepositoryCustom {
     
     List<SalesRecord> findByItemId(String itemId);
     
@@ -0,0 +1,20 @@
+package com.ims.api.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.ims.api.model.SalesRecord;
+
+public interface SalesRecordRepositoryCustom {
+
+    List<SalesRecord> findByItemIdWithFields(String itemId, FieldSelection fields);
+
+    List<SalesRecord> findByItemIdOrderByTimestampDescWithFields(String itemId, FieldSelection fields);
+
+    List<SalesRecord> findByCategoryWithFields(String category, FieldSelection fields);
+
+    List<SalesRecord> findByTimestampBetweenWithFields(LocalDateTime start, LocalDateTime end, FieldSelection fields);
+
+    List<SalesRecord> findByItemIdAndTimestampBetweenWithFields(String itemId, LocalDateTime start, LocalDateTime end,
+            FieldSelection fields);
+}
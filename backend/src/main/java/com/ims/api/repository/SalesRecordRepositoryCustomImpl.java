@@ -0,0 +1,54 @@
+package com.ims.api.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.ims.api.model.SalesRecord;
+
+public class SalesRecordRepositoryCustomImpl implements SalesRecordRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<SalesRecord> findByItemIdWithFields(String itemId, FieldSelection fields) {
+        return find(Criteria.where("itemId").is(itemId), null, fields);
+    }
+
+    @Override
+    public List<SalesRecord> findByItemIdOrderByTimestampDescWithFields(String itemId, FieldSelection fields) {
+        return find(Criteria.where("itemId").is(itemId), Sort.by(Sort.Direction.DESC, "timestamp"), fields);
+    }
+
+    @Override
+    public List<SalesRecord> findByCategoryWithFields(String category, FieldSelection fields) {
+        return find(Criteria.where("category").is(category), null, fields);
+    }
+
+    // Same exclusive bounds as the derived findByTimestampBetween query
+    @Override
+    public List<SalesRecord> findByTimestampBetweenWithFields(LocalDateTime start, LocalDateTime end,
+            FieldSelection fields) {
+        return find(Criteria.where("timestamp").gt(start).lt(end), null, fields);
+    }
+
+    @Override
+    public List<SalesRecord> findByItemIdAndTimestampBetweenWithFields(String itemId, LocalDateTime start,
+            LocalDateTime end, FieldSelection fields) {
+        return find(Criteria.where("itemId").is(itemId).and("timestamp").gt(start).lt(end), null, fields);
+    }
+
+    private List<SalesRecord> find(Criteria criteria, Sort sort, FieldSelection fields) {
+        Query query = fields.applyTo(new Query(criteria));
+        if (sort != null) {
+            query.with(sort);
+        }
+        return mongoTemplate.find(query, SalesRecord.class);
+    }
+}
@@ -0,0 +1,17 @@
+package com.ims.api.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.ims.api.model.StockTransfer;
+
+@Repository
+public interface StockTransferRepository extends MongoRepository<StockTransfer, String> {
+    
+    List<StockTransfer> findByItemIdOrderByCreatedAtDesc(String itemId, Pageable pageable);
+    
+    List<StockTransfer> findAllByOrderByCreatedAtDesc(Pageable pageable);
+}
@@ -0,0 +1,175 @@
+package com.ims.api.scheduling;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.ims.api.model.JobLock;
+import com.ims.api.model.JobRun;
+import com.ims.api.repository.JobRunRepository;
+
+/*
+ * Runs periodic work once across all replicas. Every node keeps its own @Scheduled
+ * trigger; the trigger only does work if it wins the job's lease. Time is cut into slots of
+ * the job's interval and a finished run records its slot on the lock, so a node whose
+ * trigger fires later in the same slot skips instead of repeating the work. A node that
+ * dies mid-run stops renewing, its lease expires and another node picks the job up in that
+ * slot. Each run is recorded in job_runs with its fencing token.
+ */
+@Service
+public class ClusterJobRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterJobRunner.class);
+
+    @FunctionalInterface
+    public interface JobBody {
+        void run(JobExecution execution) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface PartitionBody {
+        void run(int partition, int partitions, JobExecution execution) throws Exception;
+    }
+
+    @Autowired
+    private LeaseLockService leaseLockService;
+
+    @Autowired
+    private LeaderElection leaderElection;
+
+    @Autowired
+    private JobRunRepository jobRunRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private SchedulingProperties properties;
+
+    public static long slotOf(Duration interval) {
+        return System.currentTimeMillis() / Math.max(1, interval.toMillis());
+    }
+
+    // Runs the body here if no node has run it yet in the current slot of interval
+    public boolean runOncePerInterval(String jobName, Duration interval, JobBody body) {
+        Optional<JobExecution> execution = tryBegin(jobName, null, slotOf(interval));
+        execution.ifPresent(e -> execute(e, body));
+        return execution.isPresent();
+    }
+
+    /*
+     * Splits a large job into partitions that are leased independently, so several nodes
+     * can work through one slot in parallel. Each node starts at a different partition and
+     * moves on past the ones held or already done. Returns the partitions run on this node.
+     */
+    public int runPartitioned(String jobName, int partitions, Duration interval, PartitionBody body) {
+        long slot = slotOf(interval);
+        int start = Math.floorMod(leaseLockService.getNodeId().hashCode(), partitions);
+        int ran = 0;
+        for (int i = 0; i < partitions; i++) {
+            int partition = (start + i) % partitions;
+            Optional<JobExecution> execution = tryBegin(jobName, partition, slot);
+            if (execution.isPresent()) {
+                execute(execution.get(), e -> body.run(partition, partitions, e));
+                ran++;
+            }
+        }
+        return ran;
+    }
+
+    /*
+     * Acquires the job's lease, records the run and starts renewing. The caller owns the
+     * returned execution and must end it with complete() or fail(), which also releases the
+     * lease. Use LeaseLockService.NO_SLOT for on-demand runs that should not count as the
+     * scheduled run of any slot.
+     */
+    public Optional<JobExecution> tryBegin(String jobName, Integer partition, long slot) {
+        String lockName = partition == null ? jobName : jobName + "#" + partition;
+        Optional<Lease> acquired = leaseLockService.tryAcquire(lockName, properties.getJobLeaseTtl(), slot);
+        if (acquired.isEmpty()) {
+            logger.debug("Job {} is running or already done on another node", lockName);
+            return Optional.empty();
+        }
+        Lease lease = acquired.get();
+
+        JobRun run = new JobRun();
+        run.setJobName(jobName);
+        run.setPartition(partition);
+        run.setNodeId(leaseLockService.getNodeId());
+        run.setFencingToken(lease.getToken());
+        run.setStatus(JobRun.Status.RUNNING);
+        run.setStartedAt(LocalDateTime.now());
+        try {
+            run = jobRunRepository.save(run);
+        } catch (Exception e) {
+            leaseLockService.release(lease);
+            throw e;
+        }
+
+        leaseLockService.keepAlive(lease);
+        logger.info("Job {} started on {} (token {})", lockName, run.getNodeId(), lease.getToken());
+        return Optional.of(new JobExecution(this, lease, run, slot));
+    }
+
+    private void execute(JobExecution execution, JobBody body) {
+        try {
+            body.run(execution);
+            execution.complete(null);
+        } catch (Exception e) {
+            logger.error("Job {} failed", execution.getJobName(), e);
+            execution.fail(e);
+        }
+    }
+
+    // Called once per execution when it completes or fails
+    void finished(JobExecution execution) {
+        JobRun run = execution.getRun();
+        boolean succeeded = run.getStatus() == JobRun.Status.SUCCEEDED;
+        leaseLockService.release(execution.getLease(), succeeded ? execution.getSlot() : LeaseLockService.NO_SLOT);
+        try {
+            jobRunRepository.save(run);
+        } catch (Exception e) {
+            logger.warn("Failed to record the end of job {}: {}", run.getJobName(), e.getMessage());
+        }
+        logger.info("Job {} {} in {} ms", run.getJobName(), run.getStatus(), run.getDurationMs());
+    }
+
+    // The leader marks runs whose node stopped renewing the lease before recording an outcome
+    @Scheduled(fixedDelayString = "${app.scheduling.abandoned-run-check-ms:60000}")
+    public void markAbandonedRuns() {
+        if (!leaderElection.isLeader()) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            for (JobRun run : jobRunRepository.findByStatus(JobRun.Status.RUNNING)) {
+                String lockName = run.getPartition() == null ? run.getJobName() : run.getJobName() + "#" + run.getPartition();
+                boolean stillHeld = mongoTemplate.exists(Query.query(Criteria.where("_id").is(lockName)
+                        .and("token").is(run.getFencingToken())
+                        .and("expiresAt").gt(now)), JobLock.class);
+                if (!stillHeld) {
+                    mongoTemplate.updateFirst(
+                            Query.query(Criteria.where("_id").is(run.getId()).and("status").is(JobRun.Status.RUNNING)),
+                            new Update().set("status", JobRun.Status.LEASE_LOST)
+                                    .set("finishedAt", now)
+                                    .set("message", "Lease expired before the run finished"),
+                            JobRun.class);
+                    logger.warn("Job {} on {} (token {}) abandoned its lease", lockName, run.getNodeId(),
+                            run.getFencingToken());
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Abandoned job run check failed: {}", e.getMessage());
+        }
+    }
+}
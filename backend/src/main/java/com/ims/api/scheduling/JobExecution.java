@@ -0,0 +1,74 @@
+package com.ims.api.scheduling;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import com.ims.api.model.JobRun;
+
+// One node's run of a cluster job while it holds the job's lease
+public class JobExecution {
+
+    private final ClusterJobRunner runner;
+    private final Lease lease;
+    private final JobRun run;
+    private final long slot;
+    private volatile boolean finished;
+
+    JobExecution(ClusterJobRunner runner, Lease lease, JobRun run, long slot) {
+        this.runner = runner;
+        this.lease = lease;
+        this.run = run;
+        this.slot = slot;
+    }
+
+    public String getJobName() {
+        return run.getJobName();
+    }
+
+    public Integer getPartition() {
+        return run.getPartition();
+    }
+
+    public long getFencingToken() {
+        return lease.getToken();
+    }
+
+    public Lease getLease() {
+        return lease;
+    }
+
+    long getSlot() {
+        return slot;
+    }
+
+    JobRun getRun() {
+        return run;
+    }
+
+    // Throws LeaseLostException once the lease has expired or been taken over
+    public void checkLease() {
+        lease.checkValid();
+    }
+
+    public void complete(String message) {
+        finish(JobRun.Status.SUCCEEDED, message);
+    }
+
+    public void fail(Throwable error) {
+        finish(error instanceof LeaseLostException ? JobRun.Status.LEASE_LOST : JobRun.Status.FAILED,
+                error.getMessage());
+    }
+
+    private synchronized void finish(JobRun.Status status, String message) {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        LocalDateTime now = LocalDateTime.now();
+        run.setStatus(status);
+        run.setMessage(message);
+        run.setFinishedAt(now);
+        run.setDurationMs(Duration.between(run.getStartedAt(), now).toMillis());
+        runner.finished(this);
+    }
+}
@@ -0,0 +1,91 @@
+package com.ims.api.scheduling;
+
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/*
+ * Cluster leader election on the "leader" lease. Every node campaigns every third of the
+ * lease TTL: the leader renews, the others try to acquire once the lease has expired, so a
+ * crashed leader is replaced within one TTL. A node shutting down cleanly releases the lease
+ * so a successor takes over on its next campaign.
+ */
+@Component
+public class LeaderElection {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderElection.class);
+
+    static final String LEADER_LOCK = "leader";
+
+    private final LeaseLockService leaseLockService;
+    private final SchedulingProperties properties;
+    private volatile Lease lease;
+    private volatile ScheduledFuture<?> campaign;
+
+    public LeaderElection(LeaseLockService leaseLockService, SchedulingProperties properties) {
+        this.leaseLockService = leaseLockService;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (properties.isLeaderElectionEnabled()) {
+            campaign = leaseLockService.scheduleWithFixedDelay(this::campaign,
+                    properties.getLeaderLeaseTtl().dividedBy(3));
+        }
+    }
+
+    void campaign() {
+        try {
+            Lease current = lease;
+            if (current != null && current.isValid()) {
+                if (!leaseLockService.renew(current)) {
+                    logger.warn("Lost leadership (token {})", current.getToken());
+                    lease = null;
+                }
+                return;
+            }
+            if (current != null) {
+                logger.warn("Leadership lease expired (token {})", current.getToken());
+                lease = null;
+            }
+
+            Optional<Lease> acquired = leaseLockService.tryAcquire(LEADER_LOCK, properties.getLeaderLeaseTtl());
+            if (acquired.isPresent()) {
+                lease = acquired.get();
+                logger.info("Node {} is now the leader (term {})", leaseLockService.getNodeId(), lease.getToken());
+            }
+        } catch (Exception e) {
+            logger.warn("Leader election round failed: {}", e.getMessage());
+        }
+    }
+
+    public boolean isLeader() {
+        Lease current = lease;
+        return current != null && current.isValid();
+    }
+
+    // Fencing token of the current term, for writes that must come from the leader
+    public Optional<Lease> getLeaderLease() {
+        return isLeader() ? Optional.of(lease) : Optional.empty();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (campaign != null) {
+            campaign.cancel(false);
+        }
+        Lease current = lease;
+        if (current != null) {
+            leaseLockService.release(current);
+            lease = null;
+        }
+    }
+}
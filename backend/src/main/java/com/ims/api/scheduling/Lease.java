@@ -0,0 +1,77 @@
+package com.ims.api.scheduling;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ScheduledFuture;
+
+// A held lock; the token is the fencing token, unique and increasing per lock name
+public class Lease {
+
+    private final String name;
+    private final String owner;
+    private final long token;
+    private final Duration ttl;
+    private volatile LocalDateTime expiresAt;
+    private volatile boolean lost;
+    private volatile ScheduledFuture<?> renewal;
+
+    Lease(String name, String owner, long token, Duration ttl, LocalDateTime expiresAt) {
+        this.name = name;
+        this.owner = owner;
+        this.token = token;
+        this.ttl = ttl;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public long getToken() {
+        return token;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    void markLost() {
+        this.lost = true;
+    }
+
+    void setRenewal(ScheduledFuture<?> renewal) {
+        this.renewal = renewal;
+    }
+
+    void stopRenewal() {
+        ScheduledFuture<?> current = renewal;
+        if (current != null) {
+            current.cancel(false);
+        }
+    }
+
+    // Local view: not lost and not past the expiry of the last successful renewal
+    public boolean isValid() {
+        return !lost && LocalDateTime.now().isBefore(expiresAt);
+    }
+
+    // Long-running jobs call this between units of work so a node that has lost its
+    // lease stops before writing anything else
+    public void checkValid() {
+        if (!isValid()) {
+            throw new LeaseLostException("Lease " + name + " (token " + token + ") is no longer held by " + owner);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.ims.api.scheduling;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.ims.api.model.JobLock;
+
+import jakarta.annotation.PreDestroy;
+
+/*
+ * Lease locks stored in job_locks.
+ *
+ * Acquiring is a single findAndModify with upsert: it matches the lock only if the current
+ * lease has expired (and, for scheduled jobs, the job has not already completed in this
+ * slot). If another node holds it the filter misses, the upsert collides on _id and the
+ * DuplicateKeyException means "not acquired". Every acquisition increments the fencing
+ * token; renewals and releases are conditional on owner and token, so a node whose lease
+ * was taken over can never extend or release the new holder's lease.
+ *
+ * Expiry uses each node's clock, so lease TTLs must be well above the clock skew between
+ * replicas.
+ */
+@Service
+public class LeaseLockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaseLockService.class);
+
+    // Slot value for locks that are not tied to a schedule
+    public static final long NO_SLOT = -1;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final String nodeId;
+
+    // Renewals get their own threads so a busy @Scheduled pool can never starve them
+    private final ScheduledExecutorService renewalExecutor = Executors.newScheduledThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "lease-renewal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LeaseLockService(SchedulingProperties properties) {
+        this.nodeId = StringUtils.hasText(properties.getNodeId()) ? properties.getNodeId() : generateNodeId();
+        logger.info("Scheduling node id: {}", nodeId);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public Optional<Lease> tryAcquire(String name, Duration ttl) {
+        return tryAcquire(name, ttl, NO_SLOT);
+    }
+
+    public Optional<Lease> tryAcquire(String name, Duration ttl, long slot) {
+        LocalDateTime now = LocalDateTime.now();
+        Criteria criteria = Criteria.where("_id").is(name).and("expiresAt").lt(now);
+        if (slot != NO_SLOT) {
+            criteria.orOperator(Criteria.where("completedSlot").is(null), Criteria.where("completedSlot").lt(slot));
+        }
+
+        LocalDateTime expiresAt = now.plus(ttl);
+        Update update = new Update()
+                .set("owner", nodeId)
+                .set("acquiredAt", now)
+                .set("expiresAt", expiresAt)
+                .inc("token", 1);
+
+        try {
+            JobLock lock = mongoTemplate.findAndModify(Query.query(criteria), update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), JobLock.class);
+            if (lock == null) {
+                return Optional.empty();
+            }
+            logger.debug("Acquired lease {} with token {}", name, lock.getToken());
+            return Optional.of(new Lease(name, nodeId, lock.getToken(), ttl, expiresAt));
+        } catch (DuplicateKeyException e) {
+            // Held by another node, or already completed in this slot
+            return Optional.empty();
+        }
+    }
+
+    public boolean renew(Lease lease) {
+        LocalDateTime expiresAt = LocalDateTime.now().plus(lease.getTtl());
+        boolean renewed = mongoTemplate.updateFirst(heldBy(lease), new Update().set("expiresAt", expiresAt), JobLock.class)
+                .getMatchedCount() == 1;
+        if (renewed) {
+            lease.setExpiresAt(expiresAt);
+        } else {
+            lease.markLost();
+        }
+        return renewed;
+    }
+
+    // Renews every third of the TTL until released; a failed renewal marks the lease lost
+    public void keepAlive(Lease lease) {
+        long period = Math.max(1, lease.getTtl().toMillis() / 3);
+        lease.setRenewal(renewalExecutor.scheduleAtFixedRate(() -> {
+            try {
+                if (!renew(lease)) {
+                    logger.warn("Lease {} (token {}) was taken over by another node", lease.getName(), lease.getToken());
+                    lease.stopRenewal();
+                }
+            } catch (Exception e) {
+                // Keep trying while the lease may still be valid; isValid() goes false on expiry
+                logger.warn("Failed to renew lease {}: {}", lease.getName(), e.getMessage());
+            }
+        }, period, period, TimeUnit.MILLISECONDS));
+    }
+
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Duration period) {
+        return renewalExecutor.scheduleWithFixedDelay(task, 0, period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Read-side fence: confirms in the database that this lease is still the current one
+    public boolean isHeld(Lease lease) {
+        return mongoTemplate.exists(heldBy(lease).addCriteria(Criteria.where("expiresAt").gt(LocalDateTime.now())),
+                JobLock.class);
+    }
+
+    public void release(Lease lease) {
+        release(lease, NO_SLOT);
+    }
+
+    // completedSlot marks a scheduled job as done for its slot so no other node repeats it
+    public void release(Lease lease, long completedSlot) {
+        lease.stopRenewal();
+        Update update = new Update().set("expiresAt", LocalDateTime.now());
+        if (completedSlot != NO_SLOT) {
+            update.set("completedSlot", completedSlot);
+        }
+        try {
+            mongoTemplate.updateFirst(heldBy(lease), update, JobLock.class);
+        } catch (Exception e) {
+            // The lease simply runs out at its expiry
+            logger.warn("Failed to release lease {}: {}", lease.getName(), e.getMessage());
+        }
+        lease.markLost();
+    }
+
+    private Query heldBy(Lease lease) {
+        return Query.query(Criteria.where("_id").is(lease.getName())
+                .and("owner").is(lease.getOwner())
+                .and("token").is(lease.getToken()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renewalExecutor.shutdownNow();
+    }
+
+    // Host name plus a random suffix, so a restarted replica is never mistaken for its previous instance
+    private static String generateNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + new ObjectId().toHexString().substring(18);
+    }
+}
@@ -0,0 +1,9 @@
+package com.ims.api.scheduling;
+
+// Thrown when a job finds it no longer holds the lease it started with
+public class LeaseLostException extends RuntimeException {
+
+    public LeaseLostException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.ims.api.scheduling;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(SchedulingProperties.class)
+public class SchedulingConfig {
+}
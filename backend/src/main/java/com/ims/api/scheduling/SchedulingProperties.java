@@ -0,0 +1,51 @@
+package com.ims.api.scheduling;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.scheduling")
+public class SchedulingProperties {
+
+    // Identifies this replica in job_locks and job_runs; generated when blank
+    private String nodeId;
+
+    // Default lease for cluster jobs; renewed every third of it while the job runs
+    private Duration jobLeaseTtl = Duration.ofMinutes(2);
+
+    private Duration leaderLeaseTtl = Duration.ofSeconds(30);
+
+    private boolean leaderElectionEnabled = true;
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public Duration getJobLeaseTtl() {
+        return jobLeaseTtl;
+    }
+
+    public void setJobLeaseTtl(Duration jobLeaseTtl) {
+        this.jobLeaseTtl = jobLeaseTtl;
+    }
+
+    public Duration getLeaderLeaseTtl() {
+        return leaderLeaseTtl;
+    }
+
+    public void setLeaderLeaseTtl(Duration leaderLeaseTtl) {
+        this.leaderLeaseTtl = leaderLeaseTtl;
+    }
+
+    public boolean isLeaderElectionEnabled() {
+        return leaderElectionEnabled;
+    }
+
+    public void setLeaderElectionEnabled(boolean leaderElectionEnabled) {
+        this.leaderElectionEnabled = leaderElectionEnabled;
+    }
+}
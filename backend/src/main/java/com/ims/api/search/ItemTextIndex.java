@@ -0,0 +1,614 @@
+package com.ims.api.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * In-memory prefix and typo-tolerant search over item names and descriptions. Every query
+ * term is a prefix ("blu wir" finds "Blue Wireless Mouse"), all of them must match, and
+ * results are ranked by how well they match, name before description and whole words before
+ * prefixes, then by sales.
+ *
+ * Each field has a sorted term dictionary mapping terms to the sorted ids of the items that
+ * contain them, so the items matching a prefix are the postings of one contiguous range of
+ * terms. A query intersects the items matching each of its terms and ranks them. When more
+ * than max-ranked items match, it walks them in descending sales order instead and
+ * stops after a few pages, so short prefixes stay cheap: the best sellers among the matches
+ * are found, though a weaker seller with a better match can be missed.
+ *
+ * When exact prefixes find fewer items than asked for, terms of four or more characters are
+ * retried with one edit (insertion, deletion, substitution or swap of neighbours).
+ *
+ * Reads run concurrently; writes take an exclusive lock for the few postings they change.
+ */
+public class ItemTextIndex {
+
+    private static final int MAX_QUERY_TERMS = 8;
+    private static final int MAX_NAME_TERMS = 32;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    /*
+     * Terms with more postings than this fraction of the items are checked per item rather
+     * than put in a bitmap. A lone term can be left out sooner: nothing else needs to match,
+     * so the best sellers quickly yield enough matches.
+     */
+    private static final int COMMON_TERM_FRACTION = 4;
+    private static final int COMMON_SINGLE_TERM_FRACTION = 16;
+    // A broad scan stops after this many pages of matches
+    private static final int SCAN_PAGES = 4;
+    // Items a scan scores before giving up, as a multiple of max-ranked
+    private static final int SCAN_BUDGET = 4;
+    private static final char[] ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+
+    public static final class Hit {
+        public final String id;
+        public final String name;
+        public final String category;
+        public final double price;
+        public final int quantity;
+        public final int sales;
+        public final double score;
+        public final boolean fuzzy;
+
+        Hit(Doc doc, double score, boolean fuzzy) {
+            this.id = doc.id;
+            this.name = doc.name;
+            this.category = doc.category;
+            this.price = doc.price;
+            this.quantity = doc.quantity;
+            this.sales = doc.sales;
+            this.score = score;
+            this.fuzzy = fuzzy;
+        }
+    }
+
+    private static final class Doc {
+        final String id;
+        String name;
+        String category;
+        double price;
+        int quantity;
+        int sales;
+        // log1p(sales), for the sales part of the score
+        double salesWeight;
+        String[] nameTerms;
+        String[] descriptionTerms;
+
+        Doc(String id) {
+            this.id = id;
+        }
+    }
+
+    // Sorted doc ids containing a term
+    private static final class Postings {
+        final String term;
+        int[] docs = new int[2];
+        int size;
+
+        Postings(String term) {
+            this.term = term;
+        }
+
+        void add(int doc) {
+            int at = Arrays.binarySearch(docs, 0, size, doc);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size + (size >> 1) + 1);
+            }
+            System.arraycopy(docs, at, docs, at + 1, size - at);
+            docs[at] = doc;
+            size++;
+        }
+
+        void remove(int doc) {
+            int at = Arrays.binarySearch(docs, 0, size, doc);
+            if (at >= 0) {
+                System.arraycopy(docs, at + 1, docs, at, size - at - 1);
+                size--;
+            }
+        }
+    }
+
+    private final int maxDescriptionTerms;
+    private final int maxRanked;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> nameIndex = new TreeMap<>();
+    private final TreeMap<String, Postings> descriptionIndex = new TreeMap<>();
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private final Map<String, String> categories = new HashMap<>();
+    private Doc[] docs = new Doc[1024];
+    private int docLimit;
+    private int[] freeIds = new int[16];
+    private int freeCount;
+    // Freed since the last sort; still listed in salesOrder, so not reused before the next one
+    private int[] releasedIds = new int[16];
+    private int releasedCount;
+    private double maxSalesWeight;
+    private long postingCount;
+
+    // Doc ids in descending sales order as of the last sort, then those added since
+    private int[] salesOrder = new int[0];
+    private int[] addedSinceSort = new int[16];
+    private int addedCount;
+
+    public ItemTextIndex(int maxDescriptionTerms, int maxRanked) {
+        this.maxDescriptionTerms = maxDescriptionTerms;
+        this.maxRanked = maxRanked;
+    }
+
+    // Adds an item or replaces what is indexed for it
+    public void put(String id, String name, String description, String category, double price, int quantity,
+            int sales) {
+        List<String> nameTerms = TextAnalyzer.terms(name, MAX_NAME_TERMS);
+        List<String> descriptionTerms = TextAnalyzer.terms(description, maxDescriptionTerms);
+        lock.writeLock().lock();
+        try {
+            Integer existing = docIds.get(id);
+            Doc doc;
+            int docId;
+            if (existing != null) {
+                docId = existing;
+                doc = docs[docId];
+                removePostings(nameIndex, doc.nameTerms, docId);
+                removePostings(descriptionIndex, doc.descriptionTerms, docId);
+            } else {
+                docId = allocate();
+                doc = new Doc(id);
+                docs[docId] = doc;
+                docIds.put(id, docId);
+                addedSinceSort = append(addedSinceSort, addedCount++, docId);
+            }
+            doc.name = name;
+            doc.category = category != null ? categories.computeIfAbsent(category, c -> c) : null;
+            doc.price = price;
+            doc.quantity = quantity;
+            doc.sales = Math.max(0, sales);
+            doc.salesWeight = Math.log1p(doc.sales);
+            doc.nameTerms = addPostings(nameIndex, nameTerms, docId);
+            doc.descriptionTerms = addPostings(descriptionIndex, descriptionTerms, docId);
+            maxSalesWeight = Math.max(maxSalesWeight, doc.salesWeight);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Integer docId = docIds.remove(id);
+            if (docId == null) {
+                return false;
+            }
+            Doc doc = docs[docId];
+            removePostings(nameIndex, doc.nameTerms, docId);
+            removePostings(descriptionIndex, doc.descriptionTerms, docId);
+            docs[docId] = null;
+            releasedIds = append(releasedIds, releasedCount++, docId);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return freeIds[--freeCount];
+        }
+        if (docLimit == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+        }
+        return docLimit++;
+    }
+
+    private static int[] append(int[] array, int index, int value) {
+        int[] target = index < array.length ? array : Arrays.copyOf(array, array.length * 2);
+        target[index] = value;
+        return target;
+    }
+
+    // Returns the canonical term strings, shared by every doc containing them
+    private String[] addPostings(TreeMap<String, Postings> index, List<String> terms, int docId) {
+        String[] canonical = new String[terms.size()];
+        for (int i = 0; i < canonical.length; i++) {
+            Postings postings = index.computeIfAbsent(terms.get(i), Postings::new);
+            postings.add(docId);
+            canonical[i] = postings.term;
+        }
+        postingCount += canonical.length;
+        return canonical;
+    }
+
+    private void removePostings(TreeMap<String, Postings> index, String[] terms, int docId) {
+        for (String term : terms) {
+            Postings postings = index.get(term);
+            if (postings != null) {
+                postings.remove(docId);
+                if (postings.size == 0) {
+                    index.remove(term);
+                }
+            }
+        }
+        postingCount -= terms.length;
+    }
+
+    /*
+     * Re-sorts the scan order by current sales. The sort runs outside the lock; items added
+     * or removed meanwhile stay in the added and released lists until the next sort.
+     */
+    public void sortBySales() {
+        long[] keys;
+        int addedAtSnapshot;
+        int releasedAtSnapshot;
+        lock.readLock().lock();
+        try {
+            int count = 0;
+            keys = new long[docIds.size()];
+            for (int docId = 0; docId < docLimit && count < keys.length; docId++) {
+                Doc doc = docs[docId];
+                if (doc != null) {
+                    keys[count++] = ((long) (Integer.MAX_VALUE - doc.sales) << 32) | docId;
+                }
+            }
+            keys = Arrays.copyOf(keys, count);
+            addedAtSnapshot = addedCount;
+            releasedAtSnapshot = releasedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Arrays.parallelSort(keys);
+        int[] order = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            order[i] = (int) keys[i];
+        }
+
+        lock.writeLock().lock();
+        try {
+            salesOrder = order;
+            addedSinceSort = Arrays.copyOfRange(addedSinceSort, addedAtSnapshot, Math.max(addedCount, addedAtSnapshot + 16));
+            addedCount -= addedAtSnapshot;
+            // Ids released before the snapshot are in neither list any more
+            for (int i = 0; i < releasedAtSnapshot; i++) {
+                freeIds = append(freeIds, freeCount++, releasedIds[i]);
+            }
+            releasedIds = Arrays.copyOfRange(releasedIds, releasedAtSnapshot, Math.max(releasedCount, releasedAtSnapshot + 16));
+            releasedCount -= releasedAtSnapshot;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Hit> search(String query, int limit) {
+        List<String> terms = TextAnalyzer.terms(query, MAX_QUERY_TERMS);
+        if (terms.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Hit> hits = search(terms, limit, false);
+            if (hits.size() < limit && terms.stream().anyMatch(term -> term.length() >= MIN_FUZZY_LENGTH)) {
+                // Exact prefixes still match with one edit allowed, so this finds a superset
+                hits = search(terms, limit, true);
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+     * Intersects the items matching each term, leaving out terms so common that checking
+     * them per item is cheaper. Up to max-ranked matches are all ranked; beyond that
+     * the best sellers among them are. Should the left-out terms turn out to rarely occur
+     * together, the query is repeated with every term in the bitmap.
+     */
+    private List<Hit> search(List<String> terms, int limit, boolean fuzzy) {
+        long maxPostings = Math.max(maxRanked,
+                docIds.size() / (terms.size() == 1 ? COMMON_SINGLE_TERM_FRACTION : COMMON_TERM_FRACTION));
+        List<Hit> hits = search(terms, limit, fuzzy, maxPostings);
+        return hits != null ? hits : search(terms, limit, fuzzy, Long.MAX_VALUE);
+    }
+
+    // Null if the scan ran out of budget before filling the page
+    private List<Hit> search(List<String> terms, int limit, boolean fuzzy, long maxPostings) {
+        DocSet matching = null;
+        boolean complete = true;
+        int size = Integer.MAX_VALUE;
+        for (String term : terms) {
+            DocSet matches = matches(term, fuzzy && term.length() >= MIN_FUZZY_LENGTH, maxPostings);
+            if (matches == null) {
+                complete = false;
+                continue;
+            }
+            size = matching == null ? matches.size() : matching.retainAll(matches);
+            matching = matching == null ? matches : matching;
+            if (size <= maxRanked) {
+                // Few enough to check the remaining terms item by item
+                break;
+            }
+        }
+        TopHits top = new TopHits(limit);
+        if (size == 0) {
+            return List.of();
+        }
+        if (size <= maxRanked) {
+            for (int docId : matching.toArray()) {
+                if (docs[docId] != null) {
+                    score(docs[docId], terms, fuzzy, top);
+                }
+            }
+            return top.hits();
+        }
+        // With every term in the bitmap each item scored is a match, so no budget is needed
+        int budget = complete ? Integer.MAX_VALUE : maxRanked * SCAN_BUDGET;
+        return !scan(matching, terms, fuzzy, top, budget) && top.size() < limit ? null : top.hits();
+    }
+
+    /*
+     * Items with a term starting with the prefix, or with one edit of it; null when that takes
+     * more than maxPostings postings, e.g. for a short prefix or a variant that is a common word.
+     */
+    private DocSet matches(String prefix, boolean fuzzy, long maxPostings) {
+        // Counting first spares filling a bitmap only to drop it
+        if (countPostings(prefix, maxPostings) > maxPostings) {
+            return null;
+        }
+        DocSet matches = new DocSet(docLimit);
+        long postings = addRange(prefix, matches, maxPostings);
+        for (String variant : fuzzy ? variants(prefix) : List.<String>of()) {
+            if (postings > maxPostings) {
+                break;
+            }
+            postings += addRange(variant, matches, maxPostings - postings);
+        }
+        return postings > maxPostings ? null : matches;
+    }
+
+    // Postings of the terms starting with prefix, counted no further than max + 1
+    private long countPostings(String prefix, long max) {
+        long postings = 0;
+        for (TreeMap<String, Postings> index : List.of(nameIndex, descriptionIndex)) {
+            for (Postings range : index.tailMap(prefix, true).values()) {
+                if (!range.term.startsWith(prefix) || postings > max) {
+                    break;
+                }
+                postings += range.size;
+            }
+        }
+        return postings;
+    }
+
+    // Adds the items with a term starting with prefix; returns the postings read, at most max + 1
+    private long addRange(String prefix, DocSet matches, long max) {
+        long postings = 0;
+        for (TreeMap<String, Postings> index : List.of(nameIndex, descriptionIndex)) {
+            for (Postings range : index.tailMap(prefix, true).values()) {
+                if (!range.term.startsWith(prefix)) {
+                    break;
+                }
+                if (postings + range.size > max) {
+                    return max + 1;
+                }
+                matches.addAll(range.docs, range.size);
+                postings += range.size;
+            }
+        }
+        return postings;
+    }
+
+    // Every string one edit away from term; a term with any of them as prefix is within one edit
+    private static List<String> variants(String term) {
+        List<String> variants = new ArrayList<>();
+        char[] chars = term.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            variants.add(term.substring(0, i) + term.substring(i + 1));
+            if (i + 1 < chars.length && chars[i] != chars[i + 1]) {
+                variants.add(term.substring(0, i) + chars[i + 1] + chars[i] + term.substring(i + 2));
+            }
+        }
+        for (int i = 0; i < chars.length; i++) {
+            String head = term.substring(0, i);
+            for (char c : ALPHABET) {
+                if (c != chars[i]) {
+                    variants.add(head + c + term.substring(i + 1));
+                }
+                variants.add(head + c + term.substring(i));
+            }
+        }
+        return variants;
+    }
+
+    /*
+     * Best sellers in matching first, until SCAN_PAGES pages of matches are found. Items are
+     * only scored once they pass the bitmap, and at most budget of them; returns false if the
+     * budget ran out.
+     */
+    private boolean scan(DocSet matching, List<String> terms, boolean fuzzy, TopHits top, int budget) {
+        int wanted = top.docs.length * SCAN_PAGES;
+        int found = 0;
+        for (int i = 0; i < addedCount + salesOrder.length && found < wanted; i++) {
+            int docId = i < addedCount ? addedSinceSort[i] : salesOrder[i - addedCount];
+            if ((matching != null && !matching.contains(docId)) || docs[docId] == null) {
+                continue;
+            }
+            if (budget-- == 0) {
+                return false;
+            }
+            if (score(docs[docId], terms, fuzzy, top)) {
+                found++;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Scores a doc against every query term and offers it to top; false if a term does not
+     * match. Per term: 3 for a whole name word, 2 for a name prefix, 1.5 for a name prefix one
+     * edit away, 1 for a description prefix, 0.5 for a description prefix one edit away. A
+     * name starting with the first query term adds 0.5, and sales add up to 1 on a log scale.
+     */
+    private boolean score(Doc doc, List<String> terms, boolean fuzzy, TopHits top) {
+        double total = 0;
+        boolean anyFuzzy = false;
+        for (String query : terms) {
+            double best = 0;
+            boolean allowEdit = fuzzy && query.length() >= MIN_FUZZY_LENGTH;
+            for (String term : doc.nameTerms) {
+                if (term.startsWith(query)) {
+                    best = Math.max(best, term.length() == query.length() ? 3 : 2);
+                    if (best == 3) {
+                        break;
+                    }
+                } else if (allowEdit && best < 1.5 && TextAnalyzer.prefixWithinOneEdit(query, term)) {
+                    best = 1.5;
+                }
+            }
+            if (best < 2) {
+                for (String term : doc.descriptionTerms) {
+                    if (term.startsWith(query)) {
+                        best = Math.max(best, 1);
+                        break;
+                    } else if (allowEdit && best < 0.5 && TextAnalyzer.prefixWithinOneEdit(query, term)) {
+                        best = 0.5;
+                    }
+                }
+            }
+            if (best == 0) {
+                return false;
+            }
+            anyFuzzy |= best == 1.5 || best == 0.5;
+            total += best;
+        }
+        if (doc.nameTerms.length > 0 && doc.nameTerms[0].startsWith(terms.get(0))) {
+            total += 0.5;
+        }
+        if (maxSalesWeight > 0) {
+            total += doc.salesWeight / maxSalesWeight;
+        }
+        top.offer(doc, total, anyFuzzy);
+        return true;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("items", docIds.size());
+            stats.put("nameTerms", nameIndex.size());
+            stats.put("descriptionTerms", descriptionIndex.size());
+            stats.put("postings", postingCount);
+            stats.put("unsortedItems", addedCount);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Doc ids as a bitmap; cheaper to fill and intersect than java.util.BitSet
+    private static final class DocSet {
+        final long[] words;
+
+        DocSet(int capacity) {
+            words = new long[(capacity + 63) >>> 6];
+        }
+
+        void addAll(int[] docs, int count) {
+            for (int i = 0; i < count; i++) {
+                words[docs[i] >>> 6] |= 1L << docs[i];
+            }
+        }
+
+        boolean contains(int doc) {
+            return (words[doc >>> 6] & (1L << doc)) != 0;
+        }
+
+        // Returns the size after intersecting
+        int retainAll(DocSet other) {
+            int size = 0;
+            for (int i = 0; i < words.length; i++) {
+                words[i] &= other.words[i];
+                size += Long.bitCount(words[i]);
+            }
+            return size;
+        }
+
+        int size() {
+            int size = 0;
+            for (long word : words) {
+                size += Long.bitCount(word);
+            }
+            return size;
+        }
+
+        int[] toArray() {
+            int[] docs = new int[size()];
+            int count = 0;
+            for (int i = 0; i < words.length; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    docs[count++] = (i << 6) + Long.numberOfTrailingZeros(word);
+                }
+            }
+            return docs;
+        }
+    }
+
+    // The limit best hits so far, kept sorted by descending score
+    private static final class TopHits {
+        final Doc[] docs;
+        final double[] scores;
+        final boolean[] fuzzy;
+        int size;
+
+        TopHits(int limit) {
+            docs = new Doc[limit];
+            scores = new double[limit];
+            fuzzy = new boolean[limit];
+        }
+
+        void offer(Doc doc, double score, boolean isFuzzy) {
+            if (size == docs.length && score <= scores[size - 1]) {
+                return;
+            }
+            int at = size < docs.length ? size++ : size - 1;
+            while (at > 0 && scores[at - 1] < score) {
+                docs[at] = docs[at - 1];
+                scores[at] = scores[at - 1];
+                fuzzy[at] = fuzzy[at - 1];
+                at--;
+            }
+            docs[at] = doc;
+            scores[at] = score;
+            fuzzy[at] = isFuzzy;
+        }
+
+        int size() {
+            return size;
+        }
+
+        List<Hit> hits() {
+            List<Hit> hits = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                hits.add(new Hit(docs[i], Math.round(scores[i] * 1000) / 1000.0, fuzzy[i]));
+            }
+            return hits;
+        }
+    }
+}
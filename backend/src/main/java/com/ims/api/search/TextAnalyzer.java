@@ -0,0 +1,84 @@
+package com.ims.api.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/*
+ * Turns text into index terms: lower case, accents removed, split on anything that is not a
+ * letter or digit. The same analysis applies to documents and queries, so "Café-Table"
+ * and "cafe table" give the same terms.
+ */
+final class TextAnalyzer {
+
+    private TextAnalyzer() {
+    }
+
+    // Distinct terms in order of first appearance, at most maxTerms of them
+    static List<String> terms(String text, int maxTerms) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length() && terms.size() < maxTerms; i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    private static String fold(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        boolean ascii = true;
+        for (int i = 0; i < lower.length() && ascii; i++) {
+            ascii = lower.charAt(i) < 0x80;
+        }
+        if (ascii) {
+            return lower;
+        }
+        // Decompose, then drop the combining marks
+        String decomposed = Normalizer.normalize(lower, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                folded.append(c);
+            }
+        }
+        return folded.toString();
+    }
+
+    /*
+     * True when some prefix of term is at most one edit (insertion, deletion, substitution or
+     * transposition of neighbours) away from query, e.g. "wirless" and "wierless" both match
+     * "wireless".
+     */
+    static boolean prefixWithinOneEdit(String query, String term) {
+        int q = query.length();
+        int t = term.length();
+        int i = 0;
+        while (i < q && i < t && query.charAt(i) == term.charAt(i)) {
+            i++;
+        }
+        if (i == q) {
+            return true;
+        }
+        // Substitution at i, deletion from the query, insertion into the query, transposition
+        int rest = q - i - 1;
+        return term.regionMatches(i + 1, query, i + 1, rest)
+                || term.regionMatches(i, query, i + 1, rest)
+                || (i < t && term.regionMatches(i + 1, query, i, rest + 1))
+                || (i + 1 < q && i + 1 < t && query.charAt(i) == term.charAt(i + 1)
+                        && query.charAt(i + 1) == term.charAt(i) && term.regionMatches(i + 2, query, i + 2, rest - 1));
+    }
+}
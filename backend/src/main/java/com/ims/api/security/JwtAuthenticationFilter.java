@@ -10,6 +10,9 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,9 +25,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtTokenProvider tokenProvider;
 
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
+        // Its own span, so token validation and the user lookup show apart from the rest of the chain
+        Observation observation = Observation.createNotStarted("security.jwt.authentication", observationRegistry)
+                .contextualName("jwt authentication")
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            observation.lowCardinalityKeyValue("outcome", authenticate(request));
+        } finally {
+            observation.stop();
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private String authenticate(HttpServletRequest request) {
         try {
             String jwt = getJwtFromRequest(request);
             String requestPath = request.getRequestURI();
@@ -32,8 +52,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // Skip token validation for login/register endpoints
             if (requestPath.contains("/api/auth/login") || requestPath.contains("/api/auth/register")) {
                 log.debug("Skipping token validation for auth endpoint: {}", requestPath);
-                filterChain.doFilter(request, response);
-                return;
+                return "skipped";
             }
 
             if (StringUtils.hasText(jwt)) {
@@ -45,20 +64,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         SecurityContextHolder.getContext().setAuthentication(authentication);
                         log.debug("Set authentication in security context for user: {}", 
                                 authentication.getName());
+                        return "authenticated";
                     } else {
                         log.warn("Failed to extract authentication from valid token");
                     }
                 } else {
                     log.warn("Invalid JWT token detected");
                 }
+                return "invalid";
             } else {
                 log.debug("No JWT token found in request to {}", requestPath);
+                return "none";
             }
         } catch (Exception ex) {
             log.error("Could not set user authentication in security context: {}", ex.getMessage());
+            return "error";
         }
-
-        filterChain.doFilter(request, response);
     }
 
     private String getJwtFromRequest(HttpServletRequest request) {
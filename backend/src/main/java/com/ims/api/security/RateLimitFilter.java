@@ -0,0 +1,183 @@
+package com.ims.api.security;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final RateLimitProperties properties;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep;
+    private final List<IpAddressMatcher> trustedProxies = new ArrayList<>();
+
+    public RateLimitFilter(RateLimitProperties properties) {
+        this.properties = properties;
+        for (String proxy : properties.getTrustedProxies()) {
+            trustedProxies.add(new IpAddressMatcher(proxy.trim()));
+        }
+        this.nextSweep = new AtomicLong(System.nanoTime() + properties.getSweepInterval().toNanos());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RateLimitProperties.Route route = findRoute(request);
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long now = System.nanoTime();
+        sweepIfDue(now);
+
+        String key = route.getName() + "|" + clientKey(request);
+        TokenBucket bucket = buckets.computeIfAbsent(key,
+                k -> new TokenBucket(route.getCapacity(), route.getNanosPerToken(), now));
+        TokenBucket.Result result = bucket.tryConsume(now);
+
+        response.setHeader("RateLimit-Limit", String.valueOf(route.getCapacity()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(result.remaining));
+        response.setHeader("RateLimit-Reset", String.valueOf(toSeconds(result.resetNanos)));
+        response.setHeader("RateLimit-Policy", route.getCapacity() + ";w=" + route.getWindowSeconds());
+
+        if (!result.allowed) {
+            long retryAfter = toSeconds(result.retryAfterNanos);
+            log.warn("Rate limit exceeded for {} on route {}", key, route.getName());
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", String.valueOf(retryAfter));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Too many requests\",\"retryAfterSeconds\":" + retryAfter + "}");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private RateLimitProperties.Route findRoute(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            boolean methodMatches = route.getMethods().isEmpty()
+                    || route.getMethods().stream().anyMatch(m -> m.equalsIgnoreCase(request.getMethod()));
+            if (methodMatches && pathMatcher.match(route.getPattern(), path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    // Authenticated principal when there is one, otherwise the client address
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+
+        String address = request.getRemoteAddr();
+        if (properties.isTrustForwardedFor() && isTrustedProxy(address)) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (StringUtils.hasText(forwardedFor)) {
+                // Entries left of the first untrusted hop were supplied by the client and can be forged
+                String[] hops = forwardedFor.split(",");
+                for (int i = hops.length - 1; i >= 0; i--) {
+                    String hop = hops[i].trim();
+                    if (hop.isEmpty()) {
+                        continue;
+                    }
+                    address = hop;
+                    if (!isTrustedProxy(hop)) {
+                        break;
+                    }
+                }
+            }
+        }
+        return "ip:" + address;
+    }
+
+    private boolean isTrustedProxy(String address) {
+        for (IpAddressMatcher proxy : trustedProxies) {
+            try {
+                if (proxy.matches(address)) {
+                    return true;
+                }
+            } catch (IllegalArgumentException e) {
+                // Not an IP address, so not one of our proxies
+                return false;
+            }
+        }
+        return false;
+    }
+
+    // Full buckets are dropped periodically; if the map is still over its bound the buckets
+    // nearest to full go next, as they belong to the least active clients and forgetting
+    // them gives those clients back the fewest tokens
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        boolean overCapacity = buckets.size() >= properties.getMaxBuckets();
+        if ((now - due < 0 && !overCapacity)
+                || !nextSweep.compareAndSet(due, now + properties.getSweepInterval().toNanos())) {
+            return;
+        }
+
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+
+        int excess = buckets.size() - properties.getMaxBuckets() * 9 / 10;
+        if (excess > 0) {
+            // Snapshot the fill levels; buckets keep changing while the sort runs
+            List<Eviction> candidates = new ArrayList<>(buckets.size());
+            buckets.forEach((key, bucket) -> candidates.add(new Eviction(key, bucket, bucket.usedFraction(now))));
+            candidates.sort(Comparator.comparingDouble(candidate -> candidate.usedFraction));
+            for (int i = 0; i < excess && i < candidates.size(); i++) {
+                buckets.remove(candidates.get(i).key, candidates.get(i).bucket);
+            }
+        }
+        log.debug("Rate limit sweep complete, {} buckets tracked", buckets.size());
+    }
+
+    private static long toSeconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private static final class Eviction {
+        final String key;
+        final TokenBucket bucket;
+        final double usedFraction;
+
+        Eviction(String key, TokenBucket bucket, double usedFraction) {
+            this.key = key;
+            this.bucket = bucket;
+            this.usedFraction = usedFraction;
+        }
+    }
+}
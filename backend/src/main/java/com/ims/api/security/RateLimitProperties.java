@@ -0,0 +1,151 @@
+package com.ims.api.security;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Upper bound on tracked client buckets across all routes
+    private int maxBuckets = 100_000;
+
+    // How often full (idle) buckets are swept out of memory
+    private Duration sweepInterval = Duration.ofSeconds(30);
+
+    // Only enable behind a proxy that appends to X-Forwarded-For (nginx does)
+    private boolean trustForwardedFor = false;
+
+    // Addresses or CIDR ranges of those proxies; X-Forwarded-For is read only on requests
+    // from them, and the client is the rightmost entry that is not one of them
+    private List<String> trustedProxies = new ArrayList<>(List.of("127.0.0.0/8", "::1"));
+
+    private List<Route> routes = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxBuckets() {
+        return maxBuckets;
+    }
+
+    public void setMaxBuckets(int maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+
+    public Duration getSweepInterval() {
+        return sweepInterval;
+    }
+
+    public void setSweepInterval(Duration sweepInterval) {
+        this.sweepInterval = sweepInterval;
+    }
+
+    public boolean isTrustForwardedFor() {
+        return trustForwardedFor;
+    }
+
+    public void setTrustForwardedFor(boolean trustForwardedFor) {
+        this.trustForwardedFor = trustForwardedFor;
+    }
+
+    public List<String> getTrustedProxies() {
+        return trustedProxies;
+    }
+
+    public void setTrustedProxies(List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies;
+    }
+
+    public List<Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<Route> routes) {
+        this.routes = routes;
+    }
+
+    public static class Route {
+
+        private String name;
+
+        // Ant-style pattern relative to the context path, e.g. /api/sales/**
+        private String pattern;
+
+        // Empty means every method
+        private List<String> methods = new ArrayList<>();
+
+        private long capacity = 60;
+
+        private long refillTokens = 60;
+
+        private Duration refillPeriod = Duration.ofMinutes(1);
+
+        public String getName() {
+            return name != null ? name : pattern;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public List<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(List<String> methods) {
+            this.methods = methods;
+        }
+
+        public long getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(long capacity) {
+            this.capacity = capacity;
+        }
+
+        public long getRefillTokens() {
+            return refillTokens;
+        }
+
+        public void setRefillTokens(long refillTokens) {
+            this.refillTokens = refillTokens;
+        }
+
+        public Duration getRefillPeriod() {
+            return refillPeriod;
+        }
+
+        public void setRefillPeriod(Duration refillPeriod) {
+            this.refillPeriod = refillPeriod;
+        }
+
+        public long getNanosPerToken() {
+            return Math.max(1, refillPeriod.toNanos() / Math.max(1, refillTokens));
+        }
+
+        // Time an empty bucket takes to refill: the window in which capacity requests are allowed
+        public long getWindowSeconds() {
+            long nanos = getNanosPerToken() * capacity;
+            return Math.max(1, (nanos + 999_999_999L) / 1_000_000_000L);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ims.api.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket expressed as a single "theoretical arrival time" (GCRA), so consuming
+// a token is one compare-and-set on an AtomicLong and needs no locking.
+final class TokenBucket {
+
+    private final long capacity;
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(long capacity, long nanosPerToken, long now) {
+        this.capacity = capacity;
+        this.nanosPerToken = nanosPerToken;
+        this.burstNanos = capacity * nanosPerToken;
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    Result tryConsume(long now) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + nanosPerToken;
+            long backlog = next - now;
+
+            if (backlog > burstNanos) {
+                long waitNanos = backlog - burstNanos;
+                long remainingBacklog = Math.max(current, now) - now;
+                return new Result(false, 0, waitNanos, remainingBacklog);
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                long remaining = (burstNanos - backlog) / nanosPerToken;
+                return new Result(true, remaining, 0, backlog);
+            }
+        }
+    }
+
+    // A full bucket holds no state beyond a fresh one, so it can be dropped without loss
+    boolean isFull(long now) {
+        return theoreticalArrival.get() <= now;
+    }
+
+    // Share of the burst currently used: 0 for a full bucket, 1 for an empty one
+    double usedFraction(long now) {
+        return Math.max(0, theoreticalArrival.get() - now) / (double) burstNanos;
+    }
+
+    long getCapacity() {
+        return capacity;
+    }
+
+    static final class Result {
+        final boolean allowed;
+        final long remaining;
+        final long retryAfterNanos;
+        final long resetNanos;
+
+        Result(boolean allowed, long remaining, long retryAfterNanos, long resetNanos) {
+            this.allowed = allowed;
+            this.remaining = remaining;
+            this.retryAfterNanos = retryAfterNanos;
+            this.resetNanos = resetNanos;
+        }
+    }
+}
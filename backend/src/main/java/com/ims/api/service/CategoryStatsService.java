@@ -0,0 +1,301 @@
+package com.ims.api.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.ims.api.cache.CategorySnapshotCache;
+import com.ims.api.model.Category;
+import com.ims.api.model.Item;
+import com.ims.api.scheduling.ClusterJobRunner;
+import com.mongodb.client.result.UpdateResult;
+
+/*
+ * Keeps the aggregates stored on each Category (item count, units, stock value, low-stock
+ * count) in step with its items. Item writes apply the difference between the item's
+ * contribution before and after the write as a single $inc, so reading the stats never
+ * touches the items collection. The item write and the $inc are separate operations, and
+ * bulk writes such as repricing bypass the deltas, so a reconciler periodically recomputes
+ * the aggregates and repairs any category that has drifted.
+ */
+@Service
+public class CategoryStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryStatsService.class);
+
+    // Stock value is a floating point sum, so allow for accumulated rounding
+    private static final double VALUE_TOLERANCE = 0.01;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ClusterJobRunner clusterJobRunner;
+
+    @Autowired
+    private CategorySnapshotCache categorySnapshotCache;
+
+    @Value("${app.category-stats.reconcile-enabled:true}")
+    private boolean reconcileEnabled;
+
+    @Value("${app.category-stats.reconcile-interval-ms:300000}")
+    private long reconcileIntervalMs;
+
+    // One item's share of its category's aggregates
+    public static final class Contribution {
+
+        static final Contribution NONE = new Contribution(null, 0, 0, 0, 0);
+
+        final String category;
+        final long items;
+        final long units;
+        final double value;
+        final long lowStock;
+
+        private Contribution(String category, long items, long units, double value, long lowStock) {
+            this.category = category;
+            this.items = items;
+            this.units = units;
+            this.value = value;
+            this.lowStock = lowStock;
+        }
+
+        public static Contribution of(Item item) {
+            return item == null ? NONE : of(item, item.getQuantity());
+        }
+
+        // The item's contribution had it held the given quantity, for writes done with $inc
+        public static Contribution of(Item item, int quantity) {
+            if (item == null || item.getCategory() == null) {
+                return NONE;
+            }
+            return new Contribution(item.getCategory(), 1, quantity,
+                    quantity * item.getPrice(), quantity <= item.getMinStock() ? 1 : 0);
+        }
+    }
+
+    public void itemCreated(Item item) {
+        itemChanged(Contribution.NONE, Contribution.of(item));
+    }
+
+    public void itemDeleted(Item item) {
+        itemChanged(Contribution.of(item), Contribution.NONE);
+    }
+
+    // Callers capture the "before" contribution prior to mutating the item
+    public void itemChanged(Contribution before, Contribution after) {
+        try {
+            if (Objects.equals(before.category, after.category)) {
+                increment(after.category, after.items - before.items, after.units - before.units,
+                        after.value - before.value, after.lowStock - before.lowStock);
+            } else {
+                increment(before.category, -before.items, -before.units, -before.value, -before.lowStock);
+                increment(after.category, after.items, after.units, after.value, after.lowStock);
+            }
+        } catch (Exception e) {
+            // The item write has already succeeded; the reconciler will repair the stats
+            logger.warn("Failed to update category stats: {}", e.getMessage());
+        }
+    }
+
+    private void increment(String category, long items, long units, double value, long lowStock) {
+        if (category == null || (items == 0 && units == 0 && value == 0 && lowStock == 0)) {
+            return;
+        }
+        Update update = new Update();
+        if (items != 0) {
+            update.inc("itemCount", items);
+        }
+        if (units != 0) {
+            update.inc("totalUnits", units);
+        }
+        if (value != 0) {
+            update.inc("totalStockValue", value);
+        }
+        if (lowStock != 0) {
+            update.inc("lowStockCount", lowStock);
+        }
+        // Items whose category has no Category document are picked up by the stats endpoint
+        // only once such a category is created and reconciled
+        mongoTemplate.updateFirst(Query.query(Criteria.where("name").is(category)), update, Category.class);
+    }
+
+    public Map<String, Object> getStats() {
+        Query query = new Query().with(Sort.by("name"));
+        query.fields().include("name", "itemCount", "totalUnits", "totalStockValue", "lowStockCount",
+                "statsReconciledAt");
+
+        List<Map<String, Object>> categories = new ArrayList<>();
+        long itemCount = 0;
+        long totalUnits = 0;
+        double totalStockValue = 0;
+        long lowStockCount = 0;
+        for (Category category : mongoTemplate.find(query, Category.class)) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("id", category.getId());
+            entry.put("name", category.getName());
+            entry.put("itemCount", category.getItemCount());
+            entry.put("totalUnits", category.getTotalUnits());
+            entry.put("totalStockValue", round(category.getTotalStockValue()));
+            entry.put("lowStockCount", category.getLowStockCount());
+            entry.put("reconciledAt", category.getStatsReconciledAt());
+            categories.add(entry);
+
+            itemCount += category.getItemCount();
+            totalUnits += category.getTotalUnits();
+            totalStockValue += category.getTotalStockValue();
+            lowStockCount += category.getLowStockCount();
+        }
+
+        Map<String, Object> totals = new LinkedHashMap<>();
+        totals.put("itemCount", itemCount);
+        totals.put("totalUnits", totalUnits);
+        totals.put("totalStockValue", round(totalStockValue));
+        totals.put("lowStockCount", lowStockCount);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("categories", categories);
+        response.put("totals", totals);
+        return response;
+    }
+
+    @Scheduled(initialDelayString = "${app.category-stats.reconcile-initial-delay-ms:30000}",
+            fixedDelayString = "${app.category-stats.reconcile-interval-ms:300000}")
+    public void scheduledReconcile() {
+        if (reconcileEnabled) {
+            try {
+                // Every replica triggers this; only one of them reconciles per interval
+                clusterJobRunner.runOncePerInterval("category-stats-reconcile", Duration.ofMillis(reconcileIntervalMs),
+                        execution -> reconcile());
+            } catch (Exception e) {
+                logger.warn("Category stats reconciliation failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /*
+     * Recomputes every category's aggregates with one $group over the items and overwrites
+     * the ones that differ. The overwrite is conditional on the stored values being the ones
+     * read before the aggregation ran, so a concurrent $inc is never lost; a category skipped
+     * that way is picked up on the next pass. Returns the number of categories repaired.
+     */
+    public int reconcile() {
+        return reconcile(new Query(), new Criteria());
+    }
+
+    // Reconciles a single category, e.g. one just created for items that already exist
+    public int reconcile(String categoryName) {
+        return reconcile(Query.query(Criteria.where("name").is(categoryName)), Criteria.where("category").is(categoryName));
+    }
+
+    private int reconcile(Query categories, Criteria items) {
+        long start = System.currentTimeMillis();
+        List<Category> stored = mongoTemplate.find(categories, Category.class);
+        Map<String, Document> actual = aggregateByCategory(items);
+        LocalDateTime now = LocalDateTime.now();
+
+        int repaired = 0;
+        int skipped = 0;
+        for (Category category : stored) {
+            Document expected = actual.getOrDefault(category.getName(), new Document());
+            long itemCount = number(expected, "itemCount").longValue();
+            long totalUnits = number(expected, "totalUnits").longValue();
+            double totalStockValue = number(expected, "totalStockValue").doubleValue();
+            long lowStockCount = number(expected, "lowStockCount").longValue();
+
+            boolean drifted = category.getItemCount() != itemCount
+                    || category.getTotalUnits() != totalUnits
+                    || Math.abs(category.getTotalStockValue() - totalStockValue) > VALUE_TOLERANCE
+                    || category.getLowStockCount() != lowStockCount;
+
+            Criteria unchanged = Criteria.where("_id").is(category.getId());
+            storedValue(unchanged, "itemCount", category.getItemCount());
+            storedValue(unchanged, "totalUnits", category.getTotalUnits());
+            storedValue(unchanged, "totalStockValue", category.getTotalStockValue());
+            storedValue(unchanged, "lowStockCount", category.getLowStockCount());
+            Update update = new Update().set("statsReconciledAt", now);
+            if (drifted) {
+                logger.info("Category '{}' stats drifted (items {} -> {}, units {} -> {}, value {} -> {}, low stock {} -> {})",
+                        category.getName(), category.getItemCount(), itemCount, category.getTotalUnits(), totalUnits,
+                        round(category.getTotalStockValue()), round(totalStockValue),
+                        category.getLowStockCount(), lowStockCount);
+                update.set("itemCount", itemCount)
+                        .set("totalUnits", totalUnits)
+                        .set("totalStockValue", totalStockValue)
+                        .set("lowStockCount", lowStockCount);
+            }
+
+            UpdateResult result = mongoTemplate.updateFirst(Query.query(unchanged), update, Category.class);
+            if (result.getMatchedCount() == 0) {
+                skipped++;
+            } else if (drifted) {
+                repaired++;
+            }
+        }
+
+        if (repaired > 0) {
+            // Aggregate deltas otherwise reach the category list with the next periodic refresh
+            categorySnapshotCache.invalidate();
+        }
+        logger.debug("Category stats reconciled in {} ms: {} categories checked, {} repaired, {} changed concurrently",
+                System.currentTimeMillis() - start, stored.size(), repaired, skipped);
+        return repaired;
+    }
+
+    private Map<String, Document> aggregateByCategory(Criteria items) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(items),
+                Aggregation.group("category")
+                        .count().as("itemCount")
+                        .sum("quantity").as("totalUnits")
+                        .sum(ArithmeticOperators.Multiply.valueOf("quantity").multiplyBy("price")).as("totalStockValue")
+                        .sum(ConditionalOperators.when(ComparisonOperators.Lte.valueOf("quantity").lessThanEqualTo("minStock"))
+                                .then(1).otherwise(0)).as("lowStockCount"));
+
+        Map<String, Document> byCategory = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Item.class, Document.class)) {
+            byCategory.put(row.getString("_id"), row);
+        }
+        return byCategory;
+    }
+
+    // Categories created before the aggregates existed have no stats fields, which read as 0
+    private static void storedValue(Criteria criteria, String field, Number value) {
+        if (value.doubleValue() == 0) {
+            criteria.and(field).in(0, null);
+        } else {
+            criteria.and(field).is(value);
+        }
+    }
+
+    private static Number number(Document document, String key) {
+        Object value = document.get(key);
+        return value instanceof Number ? (Number) value : 0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
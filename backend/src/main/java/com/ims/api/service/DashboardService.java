@@ -0,0 +1,252 @@
+package com.ims.api.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.ims.api.images.ImageUrls;
+import com.ims.api.images.ImageVariant;
+import com.ims.api.model.Item;
+import com.ims.api.model.SalesRecord;
+
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/*
+ * Everything the dashboard page shows, in one response. The parts are independent queries
+ * run concurrently on a small pool; each gets part-timeout from the start of the request and
+ * a Mongo maxTime of the same length, so the server gives up on it too. A part that fails,
+ * times out or finds the pool full is left out and named under "missing" instead of failing
+ * the response. Lists are cut to the widget size and carry only the fields the widgets use.
+ */
+@Service
+public class DashboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CategoryStatsService categoryStatsService;
+
+    @Autowired
+    private ImageUrls imageUrls;
+
+    @Value("${app.dashboard.threads:8}")
+    private int threads;
+
+    // Parts waiting for a thread; beyond this, parts are dropped rather than queued
+    @Value("${app.dashboard.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${app.dashboard.part-timeout:2s}")
+    private Duration partTimeout;
+
+    @Value("${app.dashboard.max-list-size:50}")
+    private int maxListSize;
+
+    private ExecutorService pool;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // Carries the request's trace into the parts, so their Mongo spans nest under it
+        ContextSnapshotFactory snapshots = ContextSnapshotFactory.builder().build();
+        pool = ContextExecutorService.wrap(executor, snapshots::captureAll);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public Map<String, Object> getDashboard(int listSize) {
+        if (listSize < 1 || listSize > maxListSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxListSize);
+        }
+        long started = System.nanoTime();
+        Map<String, Callable<Object>> parts = new LinkedHashMap<>();
+        parts.put("inventory", categoryStatsService::getStats);
+        parts.put("salesToday", this::salesToday);
+        parts.put("lowStock", () -> lowStock(listSize));
+        parts.put("topSellers", () -> topSellers(listSize));
+        parts.put("recentSales", () -> recentSales(listSize));
+
+        Map<String, Future<Object>> futures = new LinkedHashMap<>();
+        Map<String, String> missing = new LinkedHashMap<>();
+        for (Map.Entry<String, Callable<Object>> part : parts.entrySet()) {
+            try {
+                futures.put(part.getKey(), pool.submit(part.getValue()));
+            } catch (RejectedExecutionException e) {
+                missing.put(part.getKey(), "busy");
+            }
+        }
+
+        long deadline = started + partTimeout.toNanos();
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Future<Object>> future : futures.entrySet()) {
+            try {
+                results.put(future.getKey(), future.getValue().get(Math.max(0, deadline - System.nanoTime()),
+                        TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.getValue().cancel(true);
+                missing.put(future.getKey(), "timed out after " + partTimeout.toMillis() + "ms");
+            } catch (ExecutionException e) {
+                logger.warn("Dashboard part {} failed: {}", future.getKey(), e.getCause().toString());
+                missing.put(future.getKey(), "failed");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.values().forEach(pending -> pending.cancel(true));
+                missing.put(future.getKey(), "interrupted");
+                break;
+            }
+        }
+        for (String name : parts.keySet()) {
+            if (!results.containsKey(name) && !missing.containsKey(name)) {
+                missing.put(name, "interrupted");
+            }
+        }
+        if (missing.size() == parts.size()) {
+            throw new IllegalStateException("Dashboard unavailable: " + missing);
+        }
+        return assemble(results, missing, started);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> assemble(Map<String, Object> results, Map<String, String> missing, long started) {
+        Map<String, Object> kpis = new LinkedHashMap<>();
+        Map<String, Object> inventory = (Map<String, Object>) results.get("inventory");
+        List<Map<String, Object>> categories = null;
+        if (inventory != null) {
+            kpis.putAll((Map<String, Object>) inventory.get("totals"));
+            categories = new ArrayList<>();
+            for (Map<String, Object> category : (List<Map<String, Object>>) inventory.get("categories")) {
+                Map<String, Object> row = new LinkedHashMap<>(category);
+                row.remove("reconciledAt");
+                categories.add(row);
+            }
+            kpis.put("categoryCount", categories.size());
+        }
+        if (results.containsKey("salesToday")) {
+            kpis.put("salesToday", results.get("salesToday"));
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("kpis", kpis);
+        response.put("categories", categories);
+        response.put("lowStock", results.get("lowStock"));
+        response.put("topSellers", results.get("topSellers"));
+        response.put("recentSales", results.get("recentSales"));
+        response.put("partial", !missing.isEmpty());
+        response.put("missing", missing);
+        response.put("generatedAt", LocalDateTime.now());
+        response.put("tookMs", (System.nanoTime() - started) / 1_000_000.0);
+        return response;
+    }
+
+    private Map<String, Object> salesToday() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("timestamp").gte(LocalDate.now().atStartOfDay())),
+                Aggregation.group().count().as("sales").sum("quantity").as("units").sum("totalPrice").as("revenue"))
+                .withOptions(AggregationOptions.builder().maxTime(partTimeout).build());
+        Document row = mongoTemplate.aggregate(aggregation, SalesRecord.class, Document.class).getUniqueMappedResult();
+        Map<String, Object> sales = new LinkedHashMap<>();
+        sales.put("sales", row != null ? ((Number) row.get("sales")).longValue() : 0L);
+        sales.put("units", row != null ? ((Number) row.get("units")).longValue() : 0L);
+        sales.put("revenue", row != null ? Math.round(((Number) row.get("revenue")).doubleValue() * 100) / 100.0 : 0.0);
+        return sales;
+    }
+
+    // Items at or below their minimum stock, furthest below it first; a walk of the headroom index
+    private List<Map<String, Object>> lowStock(int limit) {
+        Query query = new Query(Criteria.where("headroom").lte(0))
+                .with(Sort.by("headroom")).limit(limit).maxTime(partTimeout);
+        query.fields().include("name", "category", "quantity", "minStock", "imageUrl");
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Item item : mongoTemplate.find(query, Item.class)) {
+            Map<String, Object> row = itemRow(item);
+            row.put("quantity", item.getQuantity());
+            row.put("minStock", item.getMinStock());
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private List<Map<String, Object>> topSellers(int limit) {
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, "sales")).limit(limit).maxTime(partTimeout);
+        query.fields().include("name", "category", "sales", "price", "imageUrl");
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Item item : mongoTemplate.find(query, Item.class)) {
+            Map<String, Object> row = itemRow(item);
+            row.put("sales", item.getSales());
+            row.put("price", item.getPrice());
+            row.put("revenue", Math.round(item.getSales() * item.getPrice() * 100) / 100.0);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private Map<String, Object> itemRow(Item item) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", item.getId());
+        row.put("name", item.getName());
+        row.put("category", item.getCategory());
+        row.put("imageUrl", imageUrls.rewrite(item.getImageUrl(), ImageVariant.THUMBNAIL));
+        return row;
+    }
+
+    private List<Map<String, Object>> recentSales(int limit) {
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, "timestamp")).limit(limit).maxTime(partTimeout);
+        query.fields().include("itemId", "itemName", "category", "quantity", "totalPrice", "timestamp");
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (SalesRecord sale : mongoTemplate.find(query, SalesRecord.class)) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", sale.getId());
+            row.put("itemId", sale.getItemId());
+            row.put("itemName", sale.getItemName());
+            row.put("category", sale.getCategory());
+            row.put("quantity", sale.getQuantity());
+            row.put("totalPrice", sale.getTotalPrice());
+            row.put("timestamp", sale.getTimestamp());
+            rows.add(row);
+        }
+        return rows;
+    }
+}
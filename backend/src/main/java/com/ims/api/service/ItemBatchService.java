@@ -0,0 +1,110 @@
+package com.ims.api.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.ims.api.cache.ItemCache;
+import com.ims.api.model.Item;
+import com.ims.api.repository.ItemRepository;
+
+@Service
+public class ItemBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemBatchService.class);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Value("${app.items.batch.max-ids:5000}")
+    private int maxIds;
+
+    @Value("${app.items.batch.chunk-size:1000}")
+    private int chunkSize;
+
+    public int getMaxIds() {
+        return maxIds;
+    }
+
+    // Resolves ids in request order (duplicates collapsed), reading cache hits first and
+    // fetching the rest with one $in query per chunk
+    public BatchResult findByIds(List<String> requestedIds) {
+        if (requestedIds.size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " ids can be requested at once");
+        }
+
+        Set<String> ids = new LinkedHashSet<>();
+        for (String id : requestedIds) {
+            if (id != null && !id.isBlank()) {
+                ids.add(id);
+            }
+        }
+
+        Map<String, Item> found = new HashMap<>(ids.size() * 2);
+        List<String> toFetch = new ArrayList<>();
+
+        for (String id : ids) {
+            Item cached = itemCache.getIfPresent(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                toFetch.add(id);
+            }
+        }
+        int cacheHits = found.size();
+        long cacheGeneration = itemCache.generation();
+
+        for (int from = 0; from < toFetch.size(); from += chunkSize) {
+            List<String> chunk = toFetch.subList(from, Math.min(from + chunkSize, toFetch.size()));
+            for (Item item : itemRepository.findAllById(chunk)) {
+                found.put(item.getId(), item);
+                itemCache.put(item, cacheGeneration);
+            }
+        }
+
+        List<Item> items = new ArrayList<>(found.size());
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            Item item = found.get(id);
+            if (item != null) {
+                items.add(item);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        logger.debug("Batch lookup of {} ids: {} cache hits, {} fetched, {} missing",
+                ids.size(), cacheHits, items.size() - cacheHits, missing.size());
+        return new BatchResult(items, missing);
+    }
+
+    public static class BatchResult {
+        private final List<Item> items;
+        private final List<String> missing;
+
+        public BatchResult(List<Item> items, List<String> missing) {
+            this.items = items;
+            this.missing = missing;
+        }
+
+        public List<Item> getItems() {
+            return items;
+        }
+
+        public List<String> getMissing() {
+            return missing;
+        }
+    }
+}
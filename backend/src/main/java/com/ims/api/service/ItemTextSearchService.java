@@ -0,0 +1,275 @@
+package com.ims.api.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.ims.api.event.ItemChangedEvent;
+import com.ims.api.model.Item;
+import com.ims.api.search.ItemTextIndex;
+
+/*
+ * Keeps an ItemTextIndex of every item for /api/items/suggest. The index is built at startup
+ * from one streamed read of the fields it needs and swapped in when complete; until then
+ * suggestions are unavailable. Items written through this node are re-read and re-indexed
+ * every update-interval-ms after their ItemChangedEvent; bulk writes, and writes made through
+ * other replicas, are picked up by a full rebuild, at the latest every rebuild-interval.
+ * Between rebuilds the sales order that broad queries scan is re-sorted at most every
+ * sort-interval, so re-indexed items keep their old sales rank until then.
+ */
+@Service
+public class ItemTextSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemTextSearchService.class);
+
+    private static final String[] FIELDS = { "name", "description", "category", "price", "quantity", "sales" };
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.search.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.search.rebuild-interval:15m}")
+    private Duration rebuildInterval;
+
+    // Re-sorting copies and sorts a key per item, too much to do after every update
+    @Value("${app.search.sort-interval:1m}")
+    private Duration sortInterval;
+
+    // Delay before retrying a failed build
+    @Value("${app.search.retry-interval:30s}")
+    private Duration retryInterval;
+
+    @Value("${app.search.max-description-terms:32}")
+    private int maxDescriptionTerms;
+
+    // Queries with more matches than this return the best sellers among them
+    @Value("${app.search.max-ranked:500}")
+    private int maxRanked;
+
+    @Value("${app.search.load-batch-size:10000}")
+    private int loadBatchSize;
+
+    @Value("${app.search.max-limit:50}")
+    private int maxLimit;
+
+    private volatile ItemTextIndex index;
+    private volatile String loadError;
+    private volatile LocalDateTime builtAt;
+    private volatile long buildMs;
+    // Null until the first build has been attempted
+    private volatile LocalDateTime nextBuildAt;
+    private volatile LocalDateTime sortedAt;
+    // Items re-indexed since the index was last sorted
+    private volatile boolean unsorted;
+
+    private final Object pendingLock = new Object();
+    // Changed items to re-read; while a build runs they are also kept to replay onto the new index
+    private Set<String> pending = new HashSet<>();
+    private Set<String> changedDuringBuild;
+    private boolean rebuildRequested;
+    private final AtomicBoolean building = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoading() {
+        if (!enabled) {
+            return;
+        }
+        Thread loader = new Thread(this::rebuild, "item-search-load");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        synchronized (pendingLock) {
+            if (event.isBulk()) {
+                rebuildRequested = true;
+                return;
+            }
+            pending.add(event.getItemId());
+            if (changedDuringBuild != null) {
+                changedDuringBuild.add(event.getItemId());
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.search.update-interval-ms:500}",
+            fixedDelayString = "${app.search.update-interval-ms:500}")
+    public void update() {
+        ItemTextIndex current = index;
+        LocalDateTime next = nextBuildAt;
+        if (!enabled || next == null || building.get()) {
+            return;
+        }
+        boolean due = !LocalDateTime.now().isBefore(next);
+        if (current == null) {
+            // The first build failed; changes are picked up by the retry
+            if (due) {
+                rebuild();
+            }
+            return;
+        }
+        boolean rebuild;
+        Set<String> ids;
+        synchronized (pendingLock) {
+            rebuild = due || rebuildRequested;
+            rebuildRequested = false;
+            ids = pending;
+            pending = new HashSet<>();
+        }
+        try {
+            if (rebuild) {
+                rebuild();
+                return;
+            }
+            if (!ids.isEmpty()) {
+                apply(current, ids);
+                unsorted = true;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            if (unsorted && !now.isBefore(sortedAt.plus(sortInterval))) {
+                current.sortBySales();
+                sortedAt = now;
+                unsorted = false;
+            }
+        } catch (Exception e) {
+            // Retried with the next update
+            synchronized (pendingLock) {
+                pending.addAll(ids);
+            }
+            logger.warn("Item search index update failed: {}", e.getMessage());
+        }
+    }
+
+    private void apply(ItemTextIndex target, Set<String> ids) {
+        Query query = Query.query(Criteria.where("_id").in(ids));
+        query.fields().include(FIELDS);
+        Set<String> missing = new HashSet<>(ids);
+        for (Item item : mongoTemplate.find(query, Item.class)) {
+            put(target, item);
+            missing.remove(item.getId());
+        }
+        missing.forEach(target::remove);
+    }
+
+    private static void put(ItemTextIndex target, Item item) {
+        target.put(item.getId(), item.getName(), item.getDescription(), item.getCategory(), item.getPrice(),
+                item.getQuantity(), item.getSales());
+    }
+
+    private void rebuild() {
+        if (!building.compareAndSet(false, true)) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        synchronized (pendingLock) {
+            changedDuringBuild = new HashSet<>();
+        }
+        try {
+            ItemTextIndex loading = new ItemTextIndex(maxDescriptionTerms, maxRanked);
+            Query query = new Query().cursorBatchSize(loadBatchSize);
+            query.fields().include(FIELDS);
+            try (Stream<Item> items = mongoTemplate.stream(query, Item.class)) {
+                items.forEach(item -> put(loading, item));
+            }
+            // Writes that raced with the read may be missing or stale in what was streamed
+            Set<String> changed;
+            synchronized (pendingLock) {
+                changed = changedDuringBuild;
+                changedDuringBuild = null;
+            }
+            if (!changed.isEmpty()) {
+                apply(loading, changed);
+            }
+            loading.sortBySales();
+            builtAt = LocalDateTime.now();
+            sortedAt = builtAt;
+            unsorted = false;
+            index = loading;
+            buildMs = System.currentTimeMillis() - started;
+            loadError = null;
+            nextBuildAt = builtAt.plus(rebuildInterval);
+            logger.info("Item search index built in {} ms: {}", buildMs, loading.stats());
+        } catch (Exception e) {
+            loadError = e.getMessage();
+            synchronized (pendingLock) {
+                changedDuringBuild = null;
+            }
+            // Any previous index stays in use meanwhile
+            nextBuildAt = LocalDateTime.now().plus(retryInterval);
+            logger.error("Item search index build failed, retrying in {}: {}", retryInterval, e.getMessage());
+        } finally {
+            building.set(false);
+        }
+    }
+
+    // Throws IllegalStateException until the index has been built
+    public Map<String, Object> suggest(String q, int limit) {
+        if (limit < 1 || limit > maxLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxLimit);
+        }
+        if (q == null || q.isBlank()) {
+            throw new IllegalArgumentException("q is required");
+        }
+        ItemTextIndex current = index;
+        if (current == null) {
+            throw new IllegalStateException(enabled ? "Item search index is still loading"
+                    + (loadError != null ? " (last attempt failed: " + loadError + ")" : "")
+                    : "Item search is disabled");
+        }
+        long started = System.nanoTime();
+        List<Map<String, Object>> hits = new ArrayList<>();
+        for (ItemTextIndex.Hit hit : current.search(q, limit)) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", hit.id);
+            row.put("name", hit.name);
+            row.put("category", hit.category);
+            row.put("price", hit.price);
+            row.put("quantity", hit.quantity);
+            row.put("sales", hit.sales);
+            row.put("score", hit.score);
+            row.put("fuzzy", hit.fuzzy);
+            hits.add(row);
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("query", q);
+        response.put("items", hits);
+        response.put("tookMs", (System.nanoTime() - started) / 1_000_000.0);
+        return response;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        ItemTextIndex current = index;
+        stats.put("enabled", enabled);
+        stats.put("ready", current != null);
+        stats.put("builtAt", builtAt);
+        stats.put("buildMs", buildMs);
+        stats.put("loadError", loadError);
+        if (current != null) {
+            stats.putAll(current.stats());
+        }
+        return stats;
+    }
+}
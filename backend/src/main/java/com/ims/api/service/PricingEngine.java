@@ -0,0 +1,302 @@
+package com.ims.api.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.ims.api.dto.PricingRunResult;
+import com.ims.api.event.ItemChangedEvent;
+import com.ims.api.model.Item;
+import com.ims.api.model.PriceChange;
+import com.ims.api.model.PricingRule;
+import com.ims.api.repository.PricingRuleRepository;
+import com.mongodb.bulk.BulkWriteResult;
+
+/*
+ * Compiles the stored pricing rules into one server-side updateMany per rule.
+ *
+ * Each item is priced by the first enabled rule (by priority) whose conditions it meets:
+ * a rule's filter excludes everything matched by higher-priority rules, and items the rule
+ * would not change are filtered out too, so only affected documents are written. Every write
+ * also stamps the item with the run id and the filters skip stamped items, so a price change
+ * cannot make an item match a second rule in the same run; the writes therefore price exactly
+ * the items the diff, computed from the prices as they were before the run, reports.
+ *
+ * Every write records the rule in Item.pricedBy, and PERCENT/ADD rules skip items they have
+ * already priced at their current value, so applying the rules again changes nothing. New
+ * prices are rounded to two decimals. History rows are staged and only copied into
+ * price_changes once the price updates have been written.
+ */
+@Service
+public class PricingEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(PricingEngine.class);
+
+    private static final String HISTORY_STAGING = "price_change_staging";
+
+    // Id of the last run that wrote the item; not mapped on Item, only the engine reads it
+    private static final String RUN_FIELD = "pricingRun";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PricingRuleRepository pricingRuleRepository;
+
+    @Autowired
+    private CategoryStatsService categoryStatsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Upper bound on per-item diff entries returned from a run
+    @Value("${app.pricing.max-diff-entries:1000}")
+    private int maxDiffEntries;
+
+    @Value("${app.pricing.record-history:true}")
+    private boolean recordHistory;
+
+    @Value("${app.pricing.history-batch-size:1000}")
+    private int historyBatchSize;
+
+    public void validate(PricingRule rule) {
+        if (!StringUtils.hasText(rule.getName())) {
+            throw new IllegalArgumentException("Rule name is required");
+        }
+        if (rule.getAction() == null) {
+            throw new IllegalArgumentException("Rule action is required (SET, PERCENT or ADD)");
+        }
+        if (rule.getAction() == PricingRule.Action.SET && rule.getValue() < 0) {
+            throw new IllegalArgumentException("A SET rule cannot set a negative price");
+        }
+        if (rule.getAction() == PricingRule.Action.PERCENT && rule.getValue() <= -100) {
+            throw new IllegalArgumentException("A PERCENT rule must be greater than -100");
+        }
+        if (rule.getMinQuantity() != null && rule.getMaxQuantity() != null
+                && rule.getMinQuantity() > rule.getMaxQuantity()) {
+            throw new IllegalArgumentException("minQuantity cannot be greater than maxQuantity");
+        }
+        if (StringUtils.hasText(rule.getNamePattern())) {
+            try {
+                Pattern.compile(rule.getNamePattern());
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException("Invalid namePattern: " + e.getDescription());
+            }
+        }
+    }
+
+    public PricingRunResult run(boolean dryRun) {
+        List<PricingRule> rules = pricingRuleRepository.findByEnabledTrueOrderByPriorityAsc();
+        PricingRunResult result = new PricingRunResult(new ObjectId().toHexString(), dryRun);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Criteria> higherPriorityMatches = new ArrayList<>();
+        List<Query> filters = new ArrayList<>();
+        List<PricingRule> effectiveRules = new ArrayList<>();
+
+        try {
+            for (PricingRule rule : rules) {
+                Criteria match = matchCriteria(rule);
+                Criteria affects = affectsCriteria(rule);
+
+                if (affects != null) {
+                    List<Criteria> parts = new ArrayList<>();
+                    parts.add(match);
+                    parts.add(affects);
+                    if (!higherPriorityMatches.isEmpty()) {
+                        parts.add(new Criteria().norOperator(higherPriorityMatches.toArray(new Criteria[0])));
+                    }
+                    parts.add(Criteria.where(RUN_FIELD).ne(result.getRunId()));
+                    Query filter = new Query(new Criteria().andOperator(parts.toArray(new Criteria[0])));
+
+                    long matched = collectChanges(rule, filter, result, dryRun);
+                    result.getRules().add(new PricingRunResult.RuleResult(rule.getId(), rule.getName(), matched));
+                    result.setItemsMatched(result.getItemsMatched() + matched);
+                    if (matched > 0) {
+                        filters.add(filter);
+                        effectiveRules.add(rule);
+                    }
+                } else {
+                    result.getRules().add(new PricingRunResult.RuleResult(rule.getId(), rule.getName(), 0));
+                }
+
+                higherPriorityMatches.add(match);
+            }
+
+            if (!dryRun && !filters.isEmpty()) {
+                // Highest priority first; items it wrote carry the run id and are skipped by
+                // the lower rules even if their new price no longer meets its conditions
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Item.class);
+                for (int i = 0; i < filters.size(); i++) {
+                    bulk.updateMulti(filters.get(i), priceUpdate(effectiveRules.get(i), result.getRunId(), now));
+                }
+                BulkWriteResult writeResult = bulk.execute();
+                result.setItemsModified(writeResult.getModifiedCount());
+                if (recordHistory) {
+                    publishHistory(result.getRunId());
+                }
+                // Bulk price changes bypass the per-item stock value deltas
+                categoryStatsService.reconcile();
+                eventPublisher.publishEvent(ItemChangedEvent.bulk());
+            }
+        } finally {
+            if (!dryRun && recordHistory) {
+                mongoTemplate.remove(Query.query(Criteria.where("runId").is(result.getRunId())), HISTORY_STAGING);
+            }
+        }
+
+        logger.info("Pricing run {} ({}): {} rules, {} items matched, {} modified", result.getRunId(),
+                dryRun ? "dry run" : "applied", rules.size(), result.getItemsMatched(), result.getItemsModified());
+        return result;
+    }
+
+    // Copies the run's staged history rows into price_changes on the server
+    private void publishHistory(String runId) {
+        Aggregation copy = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("runId").is(runId)),
+                Aggregation.merge().intoCollection(mongoTemplate.getCollectionName(PriceChange.class)).build());
+        mongoTemplate.aggregate(copy, HISTORY_STAGING, Document.class);
+    }
+
+    // Reads only the affected items (id, name, price) to report the diff and record history
+    private long collectChanges(PricingRule rule, Query filter, PricingRunResult result, boolean dryRun) {
+        boolean writeHistory = !dryRun && recordHistory;
+        if (!writeHistory && result.getChanges().size() >= maxDiffEntries) {
+            result.setChangesTruncated(true);
+            return mongoTemplate.count(filter, Item.class);
+        }
+
+        Query query = Query.of(filter);
+        query.fields().include("id", "name", "price");
+
+        long matched = 0;
+        List<PriceChange> history = new ArrayList<>();
+        try (Stream<Item> items = mongoTemplate.stream(query, Item.class)) {
+            for (Item item : (Iterable<Item>) items::iterator) {
+                matched++;
+                double newPrice = rule.apply(item.getPrice());
+
+                if (result.getChanges().size() < maxDiffEntries) {
+                    result.getChanges().add(new PricingRunResult.PriceDiff(
+                            item.getId(), item.getName(), item.getPrice(), newPrice, rule.getName()));
+                } else {
+                    result.setChangesTruncated(true);
+                }
+
+                if (writeHistory) {
+                    history.add(new PriceChange(item.getId(), item.getName(), item.getPrice(), newPrice,
+                            rule.getId(), rule.getName(), result.getRunId()));
+                    if (history.size() >= historyBatchSize) {
+                        mongoTemplate.insert(history, HISTORY_STAGING);
+                        history.clear();
+                    }
+                }
+            }
+        }
+        if (!history.isEmpty()) {
+            mongoTemplate.insert(history, HISTORY_STAGING);
+        }
+        return matched;
+    }
+
+    private Criteria matchCriteria(PricingRule rule) {
+        List<Criteria> parts = new ArrayList<>();
+        if (StringUtils.hasText(rule.getCategory())) {
+            parts.add(Criteria.where("category").is(rule.getCategory()));
+        }
+        if (StringUtils.hasText(rule.getItemName())) {
+            parts.add(Criteria.where("name").is(rule.getItemName()));
+        }
+        if (StringUtils.hasText(rule.getNamePattern())) {
+            parts.add(Criteria.where("name").regex(rule.getNamePattern()));
+        }
+        if (rule.getMinQuantity() != null || rule.getMaxQuantity() != null) {
+            Criteria quantity = Criteria.where("quantity");
+            if (rule.getMinQuantity() != null) {
+                quantity = quantity.gte(rule.getMinQuantity());
+            }
+            if (rule.getMaxQuantity() != null) {
+                quantity = quantity.lte(rule.getMaxQuantity());
+            }
+            parts.add(quantity);
+        }
+        if (rule.isOnlyUnpriced()) {
+            parts.add(Criteria.where("price").is(0.0));
+        }
+        return parts.isEmpty() ? new Criteria() : new Criteria().andOperator(parts.toArray(new Criteria[0]));
+    }
+
+    // Narrows a rule to items whose price it would actually change; null when it changes none
+    private Criteria affectsCriteria(PricingRule rule) {
+        Criteria notYetApplied = Criteria.where("pricedBy").ne(ruleKey(rule));
+        switch (rule.getAction()) {
+            case SET:
+                return Criteria.where("price").ne(PricingRule.roundPrice(rule.getValue()));
+            case PERCENT:
+                return rule.getValue() == 0 ? null
+                        : new Criteria().andOperator(Criteria.where("price").ne(0.0), notYetApplied);
+            case ADD:
+                if (rule.getValue() == 0) {
+                    return null;
+                }
+                // Never take a price below zero
+                return rule.getValue() < 0
+                        ? new Criteria().andOperator(Criteria.where("price").gte(-rule.getValue()), notYetApplied)
+                        : notYetApplied;
+            default:
+                throw new IllegalStateException("Unknown pricing action: " + rule.getAction());
+        }
+    }
+
+    // Changes when the rule's effect does, so an edited relative rule applies once more
+    private static String ruleKey(PricingRule rule) {
+        return rule.getId() + ":" + rule.getAction() + ":" + rule.getValue();
+    }
+
+    // A pipeline update, so relative changes can be rounded on the server
+    private AggregationUpdate priceUpdate(PricingRule rule, String runId, LocalDateTime now) {
+        // Bumping the version makes concurrent If-Match edits of these items fail rather than overwrite the price
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("lastUpdated").toValue(now)
+                .set("version").toValue(ArithmeticOperators.Add.valueOf(
+                        ConditionalOperators.ifNull("version").then(0L)).add(1))
+                .set("pricedBy").toValue(ruleKey(rule))
+                .set(RUN_FIELD).toValue(runId);
+        AggregationExpression price;
+        switch (rule.getAction()) {
+            case SET:
+                return update.set("price").toValue(PricingRule.roundPrice(rule.getValue()));
+            case PERCENT:
+                price = ArithmeticOperators.Multiply.valueOf("price").multiplyBy(1 + rule.getValue() / 100.0);
+                break;
+            case ADD:
+                price = ArithmeticOperators.Add.valueOf("price").add(rule.getValue());
+                break;
+            default:
+                throw new IllegalStateException("Unknown pricing action: " + rule.getAction());
+        }
+        return update.set("price").toValue(ArithmeticOperators.Round.roundValueOf(price).place(2));
+    }
+}
@@ -0,0 +1,363 @@
+package com.ims.api.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.ims.api.dto.ReplenishmentRun;
+import com.ims.api.event.ItemChangedEvent;
+import com.ims.api.model.Item;
+import com.ims.api.model.ReplenishmentPlan;
+import com.ims.api.model.SalesRecord;
+import com.ims.api.repository.ReplenishmentRepository;
+import com.ims.api.scheduling.ClusterJobRunner;
+import com.ims.api.scheduling.JobExecution;
+import com.ims.api.scheduling.LeaseLockService;
+
+/*
+ * Computes demand rate, days of supply and a reorder point / order quantity per item from
+ * the sales history.
+ *
+ * Items are streamed once in _id order and cut into partitions; each partition is handed to
+ * a ForkJoinPool worker that runs one aggregation over sales_records for its item ids
+ * (served by the itemId + timestamp index) producing per-item daily totals, computes the
+ * plans and upserts them with one unordered bulk write. A semaphore bounds the number of
+ * partitions in flight so memory stays flat however many items there are.
+ *
+ * Reorder point = average daily demand x lead time + safety stock, with safety stock
+ * z x sigma(daily demand) x sqrt(lead time). Items at or below their reorder point get an
+ * order quantity that brings them up to lead time + review period of demand plus safety stock.
+ */
+@Service
+public class ReplenishmentEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplenishmentEngine.class);
+
+    private static final String JOB_NAME = "replenishment";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ReplenishmentRepository replenishmentRepository;
+
+    @Autowired
+    private CategoryStatsService categoryStatsService;
+
+    @Autowired
+    private ClusterJobRunner clusterJobRunner;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.replenishment.lookback-days:365}")
+    private int lookbackDays;
+
+    // Items with a shorter sales history are still averaged over at least this many days
+    @Value("${app.replenishment.min-history-days:28}")
+    private int minHistoryDays;
+
+    @Value("${app.replenishment.lead-time-days:7}")
+    private int leadTimeDays;
+
+    @Value("${app.replenishment.review-period-days:7}")
+    private int reviewPeriodDays;
+
+    // 1.65 is roughly a 95% cycle service level
+    @Value("${app.replenishment.service-level-z:1.65}")
+    private double serviceLevelZ;
+
+    @Value("${app.replenishment.partition-size:2000}")
+    private int partitionSize;
+
+    // 0 uses one worker per available processor
+    @Value("${app.replenishment.parallelism:0}")
+    private int parallelism;
+
+    // Write the computed reorder point back to Item.minStock
+    @Value("${app.replenishment.update-min-stock:false}")
+    private boolean updateMinStock;
+
+    private final AtomicReference<ReplenishmentRun> lastRun = new AtomicReference<>();
+
+    public ReplenishmentRun getLastRun() {
+        return lastRun.get();
+    }
+
+    // Starts a run in the background; throws IllegalStateException if one is already running
+    public ReplenishmentRun start() {
+        return start(LeaseLockService.NO_SLOT);
+    }
+
+    private ReplenishmentRun start(long slot) {
+        ReplenishmentRun previous = lastRun.get();
+        if (previous != null && previous.getStatus() == ReplenishmentRun.Status.RUNNING) {
+            throw new IllegalStateException("Replenishment run " + previous.getRunId() + " is already in progress");
+        }
+        ReplenishmentRun run = new ReplenishmentRun(new ObjectId().toHexString());
+        if (!lastRun.compareAndSet(previous, run)) {
+            throw new IllegalStateException("A replenishment run has just been started");
+        }
+
+        // Only one replica may run at a time; the lease is held until the run finishes
+        Optional<JobExecution> execution = clusterJobRunner.tryBegin(JOB_NAME, null, slot);
+        if (execution.isEmpty()) {
+            lastRun.compareAndSet(run, previous);
+            throw new IllegalStateException("A replenishment run is in progress on another node");
+        }
+
+        Thread thread = new Thread(() -> execute(run, execution.get()), "replenishment-" + run.getRunId());
+        thread.setDaemon(true);
+        thread.start();
+        return run;
+    }
+
+    // The cron fires in the same minute on every replica, so the minute is the run's slot
+    @Scheduled(cron = "${app.replenishment.cron:-}")
+    public void scheduledRun() {
+        try {
+            start(ClusterJobRunner.slotOf(Duration.ofMinutes(1)));
+        } catch (IllegalStateException e) {
+            logger.info("Skipping scheduled replenishment run: {}", e.getMessage());
+        }
+    }
+
+    private void execute(ReplenishmentRun run, JobExecution execution) {
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        Semaphore inFlight = new Semaphore(workers * 2);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = now.minusDays(lookbackDays);
+        logger.info("Replenishment run {} started: {} workers, partitions of {}, {} days of history",
+                run.getRunId(), workers, partitionSize, lookbackDays);
+
+        try {
+            Query query = new Query().with(Sort.by("_id")).cursorBatchSize(partitionSize);
+            query.fields().include("id", "name", "category", "quantity", "minStock");
+
+            try (Stream<Item> items = mongoTemplate.stream(query, Item.class)) {
+                List<Item> partition = new ArrayList<>(partitionSize);
+                for (Item item : (Iterable<Item>) items::iterator) {
+                    partition.add(item);
+                    if (partition.size() == partitionSize) {
+                        execution.checkLease();
+                        submit(pool, inFlight, failure, partition, from, now, run);
+                        partition = new ArrayList<>(partitionSize);
+                    }
+                    if (failure.get() != null) {
+                        break;
+                    }
+                }
+                if (!partition.isEmpty() && failure.get() == null) {
+                    submit(pool, inFlight, failure, partition, from, now, run);
+                }
+            }
+
+            // Wait for the partitions still in flight
+            inFlight.acquire(workers * 2);
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+
+            execution.checkLease();
+            long removed = replenishmentRepository.deleteByRunIdNot(run.getRunId());
+            if (updateMinStock && run.getMinStockUpdated() > 0) {
+                categoryStatsService.reconcile();
+                eventPublisher.publishEvent(ItemChangedEvent.bulk());
+            }
+
+            run.finish(ReplenishmentRun.Status.COMPLETED, null);
+            execution.complete(run.getItemsProcessed() + " items, " + run.getBelowReorderPoint() + " below reorder point");
+            logger.info("Replenishment run {} completed in {} ms: {} items, {} below reorder point, {} stale plans removed",
+                    run.getRunId(), run.getDurationMs(), run.getItemsProcessed(), run.getBelowReorderPoint(), removed);
+        } catch (Throwable e) {
+            run.finish(ReplenishmentRun.Status.FAILED, e.getMessage());
+            execution.fail(e);
+            logger.error("Replenishment run {} failed after {} items", run.getRunId(), run.getItemsProcessed(), e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void submit(ForkJoinPool pool, Semaphore inFlight, AtomicReference<Throwable> failure,
+            List<Item> partition, LocalDateTime from, LocalDateTime now, ReplenishmentRun run)
+            throws InterruptedException {
+        inFlight.acquire();
+        pool.execute(() -> {
+            try {
+                processPartition(partition, from, now, run);
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void processPartition(List<Item> items, LocalDateTime from, LocalDateTime now, ReplenishmentRun run) {
+        Map<String, Document> demand = dailyDemand(items, from, now);
+        LocalDate today = now.toLocalDate();
+
+        BulkOperations plans = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ReplenishmentPlan.class);
+        BulkOperations minStockUpdates = updateMinStock
+                ? mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Item.class)
+                : null;
+        int below = 0;
+        int minStockChanges = 0;
+
+        for (Item item : items) {
+            ReplenishmentPlan plan = plan(item, demand.get(item.getId()), today, now, run.getRunId());
+            plans.replaceOne(Query.query(Criteria.where("_id").is(item.getId())), plan,
+                    FindAndReplaceOptions.options().upsert());
+            if (plan.isBelowReorderPoint()) {
+                below++;
+            }
+            if (minStockUpdates != null && plan.getReorderPoint() != item.getMinStock()) {
+                minStockUpdates.updateOne(Query.query(Criteria.where("_id").is(item.getId())),
+                        minStockUpdate(plan.getReorderPoint()));
+                minStockChanges++;
+            }
+        }
+
+        plans.execute();
+        if (minStockChanges > 0) {
+            minStockUpdates.execute();
+            synchronized (run) {
+                run.setMinStockUpdated(run.getMinStockUpdated() + minStockChanges);
+            }
+        }
+        run.partitionCompleted(items.size(), below);
+    }
+
+    // Sets minStock, and headroom from the quantity as stored now rather than as read for the plan
+    private static AggregationUpdate minStockUpdate(int minStock) {
+        return AggregationUpdate.update()
+                .set("minStock").toValue(minStock)
+                .set("headroom").toValue(ArithmeticOperators.Subtract
+                        .valueOf(ConditionalOperators.ifNull("quantity").then(0)).subtract(minStock))
+                .set("version").toValue(ArithmeticOperators.Add.valueOf(
+                        ConditionalOperators.ifNull("version").then(0L)).add(1));
+    }
+
+    // Per item: total units, sum of squared daily totals, days with sales and the first such day
+    private Map<String, Document> dailyDemand(List<Item> items, LocalDateTime from, LocalDateTime now) {
+        List<String> ids = new ArrayList<>(items.size());
+        for (Item item : items) {
+            ids.add(item.getId());
+        }
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("itemId").in(ids).and("timestamp").gte(from).lt(now)),
+                Aggregation.project("itemId", "quantity")
+                        .and(DateOperators.DateToString.dateOf("timestamp").toString("%Y-%m-%d")).as("day"),
+                Aggregation.group("itemId", "day").sum("quantity").as("units"),
+                Aggregation.group("itemId")
+                        .sum("units").as("total")
+                        .sum(ArithmeticOperators.Multiply.valueOf("units").multiplyBy("units")).as("sumSquares")
+                        .count().as("daysWithSales")
+                        .min("day").as("firstDay"));
+
+        Map<String, Document> byItem = new HashMap<>(items.size() * 2);
+        for (Document row : mongoTemplate.aggregate(aggregation, SalesRecord.class, Document.class)) {
+            byItem.put(row.getString("_id"), row);
+        }
+        return byItem;
+    }
+
+    private ReplenishmentPlan plan(Item item, Document demand, LocalDate today, LocalDateTime now, String runId) {
+        double total = 0;
+        double sumSquares = 0;
+        int daysWithSales = 0;
+        int observedDays = lookbackDays;
+        if (demand != null) {
+            total = ((Number) demand.get("total")).doubleValue();
+            sumSquares = ((Number) demand.get("sumSquares")).doubleValue();
+            daysWithSales = ((Number) demand.get("daysWithSales")).intValue();
+            String firstDay = demand.getString("firstDay");
+            if (StringUtils.hasText(firstDay)) {
+                long sinceFirstSale = ChronoUnit.DAYS.between(LocalDate.parse(firstDay), today) + 1;
+                observedDays = (int) Math.min(lookbackDays, Math.max(minHistoryDays, sinceFirstSale));
+            }
+        }
+
+        // Days without sales count as zero demand in the mean and the variance
+        double mean = total / observedDays;
+        double variance = Math.max(0, sumSquares / observedDays - mean * mean);
+        double stdDev = Math.sqrt(variance);
+
+        int safetyStock = (int) Math.ceil(serviceLevelZ * stdDev * Math.sqrt(leadTimeDays));
+        int reorderPoint = (int) Math.ceil(mean * leadTimeDays) + safetyStock;
+        int orderUpTo = (int) Math.ceil(mean * (leadTimeDays + reviewPeriodDays)) + safetyStock;
+        boolean below = mean > 0 && item.getQuantity() <= reorderPoint;
+
+        ReplenishmentPlan plan = new ReplenishmentPlan();
+        plan.setItemId(item.getId());
+        plan.setItemName(item.getName());
+        plan.setCategory(item.getCategory());
+        plan.setQuantity(item.getQuantity());
+        plan.setMinStock(item.getMinStock());
+        plan.setAvgDailyDemand(round(mean));
+        plan.setDemandStdDev(round(stdDev));
+        plan.setDaysWithSales(daysWithSales);
+        plan.setObservedDays(observedDays);
+        plan.setDaysOfSupply(mean > 0 ? round(item.getQuantity() / mean) : null);
+        plan.setSafetyStock(safetyStock);
+        plan.setReorderPoint(reorderPoint);
+        plan.setSuggestedOrderQuantity(below ? Math.max(0, orderUpTo - item.getQuantity()) : 0);
+        plan.setBelowReorderPoint(below);
+        plan.setRunId(runId);
+        plan.setComputedAt(now);
+        return plan;
+    }
+
+    // Most urgent first; items without demand have no days of supply and are left out
+    public List<ReplenishmentPlan> findPlans(String category, boolean belowReorderPointOnly, int limit) {
+        Criteria criteria = Criteria.where("daysOfSupply").ne(null);
+        if (StringUtils.hasText(category)) {
+            criteria.and("category").is(category);
+        }
+        if (belowReorderPointOnly) {
+            criteria.and("belowReorderPoint").is(true);
+        }
+        Query query = Query.query(criteria).with(Sort.by("daysOfSupply")).limit(limit);
+        return mongoTemplate.find(query, ReplenishmentPlan.class);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,242 @@
+package com.ims.api.service;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.ims.api.analytics.SalesColumnStore;
+import com.ims.api.model.SalesRecord;
+
+import jakarta.annotation.PreDestroy;
+
+/*
+ * Keeps the last app.analytics.retention of sales in a SalesColumnStore on this node and
+ * answers dashboard aggregations from it instead of from Mongo.
+ *
+ * The store is loaded in the background after startup, in timestamp order, and then follows
+ * sales_records by _id: a sale's ObjectId carries the second it was created, so each poll
+ * appends the ids between the previous watermark and now minus poll-grace. The grace covers
+ * inserts that reach Mongo a little after their id was generated; a sale whose insert takes
+ * longer than that is not counted here.
+ *
+ * Memory is rows x SalesColumnStore.BYTES_PER_ROW plus the dictionaries; beyond max-rows the
+ * oldest chunks are dropped, and stats report the time span actually covered.
+ */
+@Service
+public class SalesAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesAnalyticsService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.analytics.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.analytics.retention:366d}")
+    private Duration retention;
+
+    @Value("${app.analytics.max-rows:10000000}")
+    private long maxRows;
+
+    @Value("${app.analytics.chunk-rows:65536}")
+    private int chunkRows;
+
+    @Value("${app.analytics.poll-grace:5s}")
+    private Duration pollGrace;
+
+    @Value("${app.analytics.load-batch-size:10000}")
+    private int loadBatchSize;
+
+    // 0 uses one scan thread per available processor
+    @Value("${app.analytics.parallelism:0}")
+    private int parallelism;
+
+    private volatile SalesColumnStore store;
+    private volatile boolean ready;
+    private volatile String loadError;
+    private volatile LocalDateTime lastPoll;
+    // Every sale with a smaller _id has been appended; only the loading/polling thread writes it
+    private volatile ObjectId watermark;
+
+    private ExecutorService scanPool;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLoading() {
+        if (!enabled) {
+            return;
+        }
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        scanPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "sales-analytics-scan-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Thread loader = new Thread(this::load, "sales-analytics-load");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scanPool != null) {
+            scanPool.shutdownNow();
+        }
+    }
+
+    private void load() {
+        long started = System.currentTimeMillis();
+        try {
+            SalesColumnStore loading = new SalesColumnStore(chunkRows);
+            ObjectId until = idAt(System.currentTimeMillis() - pollGrace.toMillis());
+            Query query = Query.query(Criteria.where("timestamp").gte(new Date(retentionStart()))
+                            .and("_id").lt(until))
+                    .with(Sort.by("timestamp"))
+                    .cursorBatchSize(loadBatchSize);
+            query.fields().include("itemId", "itemName", "category", "quantity", "totalPrice", "timestamp");
+            long rows = 0;
+            try (Stream<SalesRecord> records = mongoTemplate.stream(query, SalesRecord.class)) {
+                for (SalesRecord record : (Iterable<SalesRecord>) records::iterator) {
+                    append(loading, record);
+                    if (++rows % chunkRows == 0) {
+                        loading.trim(Long.MIN_VALUE, maxRows);
+                    }
+                }
+            }
+            loading.trim(retentionStart(), maxRows);
+            store = loading;
+            watermark = until;
+            ready = true;
+            logger.info("Sales analytics loaded {} of {} sales in {} ms: {}", loading.rows(), rows,
+                    System.currentTimeMillis() - started, loading.stats());
+        } catch (Exception e) {
+            loadError = e.getMessage();
+            logger.error("Sales analytics load failed; aggregations are unavailable: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.analytics.poll-interval-ms:5000}",
+            fixedDelayString = "${app.analytics.poll-interval-ms:5000}")
+    public synchronized void poll() {
+        if (!ready) {
+            return;
+        }
+        try {
+            ObjectId until = idAt(System.currentTimeMillis() - pollGrace.toMillis());
+            if (until.compareTo(watermark) <= 0) {
+                return;
+            }
+            Query query = Query.query(Criteria.where("_id").gte(watermark).lt(until))
+                    .with(Sort.by("_id"))
+                    .cursorBatchSize(loadBatchSize);
+            query.fields().include("itemId", "itemName", "category", "quantity", "totalPrice", "timestamp");
+            // Appended only once the whole range is read, so a failed poll can simply be repeated
+            List<SalesRecord> records = mongoTemplate.find(query, SalesRecord.class);
+            records.forEach(record -> append(store, record));
+            watermark = until;
+            store.trim(retentionStart(), maxRows);
+            lastPoll = LocalDateTime.now();
+        } catch (Exception e) {
+            logger.warn("Sales analytics poll failed, retrying from the same watermark: {}", e.getMessage());
+        }
+    }
+
+    /*
+     * Revenue, units and number of sales per group for sales with from <= timestamp < to.
+     * Throws IllegalStateException while the store is still loading.
+     */
+    public Map<String, Object> aggregate(LocalDateTime from, LocalDateTime to, SalesColumnStore.GroupBy groupBy,
+            String category, int limit) throws InterruptedException {
+        SalesColumnStore current = requireStore();
+        ZoneId zone = ZoneId.systemDefault();
+        long started = System.nanoTime();
+        List<SalesColumnStore.Group> groups = current.aggregate(from.atZone(zone).toInstant().toEpochMilli(),
+                to.atZone(zone).toInstant().toEpochMilli(), groupBy, category, limit, zone, scanPool,
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("from", from);
+        response.put("to", to);
+        response.put("groupBy", groupBy.name().toLowerCase());
+        if (category != null) {
+            response.put("category", category);
+        }
+        response.put("groups", groups);
+        response.put("tookMs", (System.nanoTime() - started) / 1_000_000.0);
+        // The span the store covers; sales outside it are not in the groups
+        Map<String, Object> stats = current.stats();
+        response.put("coveredFrom", stats.get("oldest"));
+        response.put("coveredTo", stats.get("newest"));
+        return response;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ready", ready);
+        if (loadError != null) {
+            stats.put("loadError", loadError);
+        }
+        stats.put("retention", retention.toString());
+        stats.put("maxRows", maxRows);
+        stats.put("lastPoll", lastPoll);
+        if (store != null) {
+            stats.putAll(store.stats());
+        }
+        return stats;
+    }
+
+    private SalesColumnStore requireStore() {
+        if (!enabled) {
+            throw new IllegalStateException("Sales analytics is disabled");
+        }
+        if (!ready) {
+            throw new IllegalStateException(loadError != null
+                    ? "Sales analytics failed to load: " + loadError
+                    : "Sales analytics is still loading");
+        }
+        return store;
+    }
+
+    private static void append(SalesColumnStore store, SalesRecord record) {
+        if (record.getTimestamp() == null) {
+            return;
+        }
+        store.append(record.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                record.getItemId(), record.getItemName(), record.getCategory(), record.getQuantity(),
+                record.getTotalPrice());
+    }
+
+    private long retentionStart() {
+        return System.currentTimeMillis() - retention.toMillis();
+    }
+
+    // The smallest ObjectId of the given time's second: its timestamp and zeros
+    private static ObjectId idAt(long millis) {
+        return new ObjectId(ByteBuffer.allocate(12).putInt((int) (millis / 1000)).array());
+    }
+}
@@ -0,0 +1,249 @@
+package com.ims.api.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.ims.api.archive.SalesArchive;
+import com.ims.api.model.SalesRecord;
+import com.ims.api.repository.FieldSelection;
+import com.ims.api.repository.SalesRecordRepository;
+import com.ims.api.scheduling.ClusterJobRunner;
+import com.ims.api.scheduling.JobExecution;
+import com.ims.api.scheduling.LeaseLockService;
+
+/*
+ * Moves sales older than app.sales-archive.max-age out of sales_records into the
+ * SalesArchive, one day at a time and oldest first: the day's records are written to its
+ * partition, then deleted from Mongo in batches. A crash between the two leaves the records
+ * in both places; the next run merges them into the partition again and period queries
+ * drop the duplicates, so nothing is lost or counted twice.
+ */
+@Service
+public class SalesArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesArchiveService.class);
+
+    private static final String JOB_NAME = "sales-archive";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private SalesRecordRepository salesRecordRepository;
+
+    @Autowired
+    private SalesArchive salesArchive;
+
+    @Autowired
+    private ClusterJobRunner clusterJobRunner;
+
+    @Value("${app.sales-archive.enabled:true}")
+    private boolean enabled;
+
+    // Must stay above the replenishment lookback, which reads sales_records only
+    @Value("${app.sales-archive.max-age:400d}")
+    private Duration maxAge;
+
+    @Value("${app.sales-archive.interval:1d}")
+    private Duration interval;
+
+    @Value("${app.sales-archive.max-days-per-run:60}")
+    private int maxDaysPerRun;
+
+    @Value("${app.sales-archive.delete-batch-size:1000}")
+    private int deleteBatchSize;
+
+    // Pause between delete batches, to leave the primary room for live traffic
+    @Value("${app.sales-archive.delete-pause-ms:50}")
+    private long deletePauseMs;
+
+    private final AtomicReference<Map<String, Object>> lastRun = new AtomicReference<>();
+
+    @Scheduled(initialDelayString = "${app.sales-archive.initial-delay-ms:120000}",
+            fixedDelayString = "${app.sales-archive.check-interval-ms:3600000}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            // Every replica triggers this; one of them archives per interval
+            clusterJobRunner.runOncePerInterval(JOB_NAME, interval, this::archive);
+        } catch (Exception e) {
+            logger.warn("Sales archive run failed: {}", e.getMessage());
+        }
+    }
+
+    // Starts an on-demand run in the background; false if a run is in progress on some node
+    public boolean start() {
+        Optional<JobExecution> execution = clusterJobRunner.tryBegin(JOB_NAME, null, LeaseLockService.NO_SLOT);
+        if (execution.isEmpty()) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                archive(execution.get());
+                execution.get().complete(String.valueOf(lastRun.get()));
+            } catch (Exception e) {
+                logger.warn("Sales archive run failed: {}", e.getMessage());
+                execution.get().fail(e);
+            }
+        }, JOB_NAME);
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    private void archive(JobExecution execution) throws Exception {
+        LocalDateTime cutoff = cutoff();
+        long started = System.currentTimeMillis();
+        int days = 0;
+        long archived = 0;
+        while (days < maxDaysPerRun) {
+            execution.checkLease();
+            Query oldest = Query.query(Criteria.where("timestamp").lt(cutoff))
+                    .with(Sort.by("timestamp"))
+                    .limit(1);
+            oldest.fields().include("timestamp");
+            SalesRecord first = mongoTemplate.findOne(oldest, SalesRecord.class);
+            if (first == null) {
+                break;
+            }
+
+            LocalDate day = first.getTimestamp().toLocalDate();
+            LocalDateTime dayEnd = day.plusDays(1).atStartOfDay();
+            Query dayQuery = Query.query(Criteria.where("timestamp")
+                    .gte(day.atStartOfDay())
+                    .lt(dayEnd.isBefore(cutoff) ? dayEnd : cutoff));
+            List<SalesRecord> records = mongoTemplate.find(dayQuery, SalesRecord.class);
+            int partitionSize = salesArchive.write(day, records);
+            deleteInBatches(records, execution);
+            logger.info("Archived {} sales records of {} ({} in partition)", records.size(), day, partitionSize);
+            archived += records.size();
+            days++;
+        }
+
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("finishedAt", LocalDateTime.now());
+        run.put("cutoff", cutoff);
+        run.put("days", days);
+        run.put("records", archived);
+        run.put("durationMs", System.currentTimeMillis() - started);
+        lastRun.set(run);
+    }
+
+    private void deleteInBatches(List<SalesRecord> records, JobExecution execution) throws InterruptedException {
+        for (int from = 0; from < records.size(); from += deleteBatchSize) {
+            execution.checkLease();
+            List<String> ids = new ArrayList<>(deleteBatchSize);
+            for (SalesRecord record : records.subList(from, Math.min(records.size(), from + deleteBatchSize))) {
+                ids.add(record.getId());
+            }
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids)), SalesRecord.class);
+            if (deletePauseMs > 0 && from + deleteBatchSize < records.size()) {
+                Thread.sleep(deletePauseMs);
+            }
+        }
+    }
+
+    /*
+     * Sales with start < timestamp < end from the archive and the live collection, archived
+     * first. Records present in both (archived but not yet deleted) are returned once.
+     */
+    public List<SalesRecord> findBetween(String itemId, LocalDateTime start, LocalDateTime end,
+            FieldSelection selection) throws Exception {
+        List<SalesRecord> live;
+        if (selection != null) {
+            live = itemId != null
+                    ? salesRecordRepository.findByItemIdAndTimestampBetweenWithFields(itemId, start, end, selection)
+                    : salesRecordRepository.findByTimestampBetweenWithFields(start, end, selection);
+        } else {
+            live = itemId != null
+                    ? salesRecordRepository.findByItemIdAndTimestampBetween(itemId, start, end)
+                    : salesRecordRepository.findByTimestampBetween(start, end);
+        }
+
+        // Only days that have a partition file are read, so recent periods cost a few stat calls
+        return merge(salesArchive.find(start, end, itemId), live, false);
+    }
+
+    /*
+     * All sales of an item from the archive and the live collection: archived first, or with
+     * newestFirst, live newest first followed by archived newest first. Every partition is
+     * read, though only blocks that contain the item are decoded.
+     */
+    public List<SalesRecord> findByItem(String itemId, FieldSelection selection, boolean newestFirst)
+            throws Exception {
+        List<SalesRecord> live;
+        if (newestFirst) {
+            live = selection != null
+                    ? salesRecordRepository.findByItemIdOrderByTimestampDescWithFields(itemId, selection)
+                    : salesRecordRepository.findByItemIdOrderByTimestampDesc(itemId);
+        } else {
+            live = selection != null
+                    ? salesRecordRepository.findByItemIdWithFields(itemId, selection)
+                    : salesRecordRepository.findByItemId(itemId);
+        }
+        return merge(salesArchive.findItem(itemId), live, newestFirst);
+    }
+
+    // Records present in both (archived but not yet deleted) are returned once, from live
+    private static List<SalesRecord> merge(List<SalesRecord> archived, List<SalesRecord> live, boolean newestFirst) {
+        if (archived.isEmpty()) {
+            return live;
+        }
+        Set<String> liveIds = new HashSet<>();
+        for (SalesRecord record : live) {
+            liveIds.add(record.getId());
+        }
+        List<SalesRecord> older = new ArrayList<>(archived.size());
+        for (SalesRecord record : archived) {
+            if (!liveIds.contains(record.getId())) {
+                older.add(record);
+            }
+        }
+        List<SalesRecord> merged = new ArrayList<>(older.size() + live.size());
+        if (newestFirst) {
+            Collections.reverse(older);
+            merged.addAll(live);
+            merged.addAll(older);
+        } else {
+            merged.addAll(older);
+            merged.addAll(live);
+        }
+        return merged;
+    }
+
+    // Sales before this are no longer in sales_records once the archive has run
+    public LocalDateTime cutoff() {
+        return LocalDate.now().atStartOfDay().minus(maxAge);
+    }
+
+    public Map<String, Object> stats() throws Exception {
+        Map<String, Object> stats = new LinkedHashMap<>(salesArchive.stats());
+        stats.put("enabled", enabled);
+        stats.put("maxAge", maxAge.toString());
+        stats.put("lastRun", lastRun.get());
+        return stats;
+    }
+}
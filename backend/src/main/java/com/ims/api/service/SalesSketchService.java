@@ -0,0 +1,471 @@
+package com.ims.api.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.ims.api.analytics.SalesSketch;
+import com.ims.api.event.SaleRecordedEvent;
+import com.ims.api.model.Item;
+import com.ims.api.model.SalesRecord;
+import com.ims.api.model.SalesSketchSlice;
+import com.ims.api.repository.ItemRepository;
+import com.ims.api.scheduling.LeaseLockService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/*
+ * Approximate sales analytics over sliding windows: top items by units, distinct items sold
+ * and the distribution of sale quantities, from SalesSketches updated on every sale.
+ *
+ * Each node sketches its own sales in two rings of slices, one per minute for the last
+ * minute-slices minutes and one per hour for the last hour-slices hours. A query merges the
+ * slices covering the window, so windows are rounded up to whole slices. Every
+ * checkpoint-interval-ms the node writes its changed slices to sales_sketches and reads the
+ * other nodes' slices, which answers include; other nodes' sales therefore show up one
+ * checkpoint late. A node that stops keeps contributing its checkpoints until they age out,
+ * and loses at most its last checkpoint interval. A node restarted with the same node id
+ * reloads its own unexpired checkpoints, so it keeps adding to them instead of replacing them.
+ */
+@Service
+public class SalesSketchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesSketchService.class);
+
+    private static final class Window {
+        final String name;
+        final long sliceMillis;
+        final int slices;
+        // This node's slices by start; guarded by the window
+        final TreeMap<Long, SalesSketch> local = new TreeMap<>();
+        final Set<Long> dirty = new HashSet<>();
+        // Other nodes' checkpoints by document id, replaced as a whole by each checkpoint run
+        volatile Map<String, PeerSlice> peers = Map.of();
+
+        Window(String name, long sliceMillis, int slices) {
+            this.name = name;
+            this.sliceMillis = sliceMillis;
+            this.slices = slices;
+        }
+
+        long span() {
+            return sliceMillis * slices;
+        }
+
+        long sliceStart(long millis) {
+            return millis - Math.floorMod(millis, sliceMillis);
+        }
+
+        // Start of the oldest slice still kept at the given time
+        long cutoff(long now) {
+            return sliceStart(now) - (slices - 1) * sliceMillis;
+        }
+    }
+
+    private static final class PeerSlice {
+        final String nodeId;
+        final long start;
+        final LocalDateTime updatedAt;
+        final SalesSketch sketch;
+
+        PeerSlice(String nodeId, long start, LocalDateTime updatedAt, SalesSketch sketch) {
+            this.nodeId = nodeId;
+            this.start = start;
+            this.updatedAt = updatedAt;
+            this.sketch = sketch;
+        }
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private LeaseLockService leaseLockService;
+
+    @Value("${app.sketches.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.sketches.minute-slices:60}")
+    private int minuteSlices;
+
+    @Value("${app.sketches.hour-slices:48}")
+    private int hourSlices;
+
+    // Top-item estimates exceed the true units by at most epsilon x window units, with probability 1 - delta
+    @Value("${app.sketches.epsilon:0.002}")
+    private double epsilon;
+
+    @Value("${app.sketches.delta:0.01}")
+    private double delta;
+
+    // Distinct counts: relative standard error 1.04 / sqrt(2^precision)
+    @Value("${app.sketches.hll-precision:14}")
+    private int hllPrecision;
+
+    // Quantity quantiles are within this relative error
+    @Value("${app.sketches.quantile-accuracy:0.01}")
+    private double quantileAccuracy;
+
+    // Candidates kept per slice; the largest top-items limit
+    @Value("${app.sketches.heavy-hitters:256}")
+    private int heavyHitters;
+
+    @Value("${app.sketches.checkpoint-interval-ms:15000}")
+    private long checkpointIntervalMs;
+
+    private final List<Window> windows = new ArrayList<>();
+    private volatile LocalDateTime lastCheckpoint;
+
+    @PostConstruct
+    public void init() {
+        windows.add(new Window("minute", 60_000L, minuteSlices));
+        windows.add(new Window("hour", 3_600_000L, hourSlices));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        if (!enabled) {
+            return;
+        }
+        String nodeId = leaseLockService.getNodeId();
+        for (Window window : windows) {
+            try {
+                long cutoff = window.cutoff(System.currentTimeMillis());
+                int restored = 0;
+                for (SalesSketchSlice slice : mongoTemplate.find(Query.query(Criteria.where("window").is(window.name)
+                        .and("nodeId").is(nodeId).and("start").gte(cutoff)), SalesSketchSlice.class)) {
+                    SalesSketch sketch;
+                    try {
+                        sketch = SalesSketch.fromBytes(slice.getData());
+                    } catch (Exception e) {
+                        logger.warn("Skipping unreadable sales sketch {}: {}", slice.getId(), e.getMessage());
+                        continue;
+                    }
+                    synchronized (window) {
+                        // Sales recorded since startup are already in a dirty slice
+                        SalesSketch recorded = window.local.get(slice.getStart());
+                        if (recorded != null) {
+                            sketch.merge(recorded);
+                        }
+                        window.local.put(slice.getStart(), sketch);
+                    }
+                    restored++;
+                }
+                if (restored > 0) {
+                    logger.info("Restored {} {} sales sketch slices of node {}", restored, window.name, nodeId);
+                }
+            } catch (Exception e) {
+                // Their sales are lost from this node's view, and overwritten by its next checkpoint
+                logger.warn("Restoring the {} sales sketch window failed: {}", window.name, e.getMessage());
+            }
+        }
+    }
+
+    private SalesSketch newSketch() {
+        return new SalesSketch(epsilon, delta, hllPrecision, quantileAccuracy, heavyHitters);
+    }
+
+    @EventListener
+    public void onSaleRecorded(SaleRecordedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        SalesRecord record = event.getRecord();
+        long now = System.currentTimeMillis();
+        try {
+            for (Window window : windows) {
+                synchronized (window) {
+                    long start = window.sliceStart(now);
+                    window.local.computeIfAbsent(start, key -> newSketch())
+                            .add(record.getItemId(), record.getQuantity(), record.getTotalPrice());
+                    window.dirty.add(start);
+                    expire(window, now);
+                }
+            }
+        } catch (Exception e) {
+            // The sale is stored; a sketch update must never fail it
+            logger.warn("Sales sketch update failed for item {}: {}", record.getItemId(), e.getMessage());
+        }
+    }
+
+    private static void expire(Window window, long now) {
+        long cutoff = window.cutoff(now);
+        window.local.headMap(cutoff).clear();
+        window.dirty.removeIf(start -> start < cutoff);
+    }
+
+    @Scheduled(initialDelayString = "${app.sketches.checkpoint-interval-ms:15000}",
+            fixedDelayString = "${app.sketches.checkpoint-interval-ms:15000}")
+    public void checkpoint() {
+        if (!enabled) {
+            return;
+        }
+        for (Window window : windows) {
+            try {
+                writeDirty(window);
+                long cutoff = window.cutoff(System.currentTimeMillis());
+                // Any node removes expired slices, including those of nodes that are gone
+                mongoTemplate.remove(Query.query(Criteria.where("window").is(window.name).and("start").lt(cutoff)),
+                        SalesSketchSlice.class);
+                refreshPeers(window, cutoff);
+            } catch (Exception e) {
+                logger.warn("Sales sketch checkpoint of the {} window failed: {}", window.name, e.getMessage());
+            }
+        }
+        lastCheckpoint = LocalDateTime.now();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        for (Window window : windows) {
+            try {
+                writeDirty(window);
+            } catch (Exception e) {
+                logger.warn("Final sales sketch checkpoint of the {} window failed: {}", window.name, e.getMessage());
+            }
+        }
+    }
+
+    private void writeDirty(Window window) throws Exception {
+        Map<Long, byte[]> changed = new TreeMap<>();
+        synchronized (window) {
+            expire(window, System.currentTimeMillis());
+            for (Long start : window.dirty) {
+                changed.put(start, window.local.get(start).toBytes());
+            }
+            window.dirty.clear();
+        }
+        String nodeId = leaseLockService.getNodeId();
+        for (Map.Entry<Long, byte[]> slice : changed.entrySet()) {
+            SalesSketchSlice document = new SalesSketchSlice();
+            document.setId(nodeId + ":" + window.name + ":" + slice.getKey());
+            document.setNodeId(nodeId);
+            document.setWindow(window.name);
+            document.setStart(slice.getKey());
+            document.setData(slice.getValue());
+            document.setUpdatedAt(LocalDateTime.now());
+            try {
+                mongoTemplate.save(document);
+            } catch (RuntimeException e) {
+                // Written with the next checkpoint
+                synchronized (window) {
+                    if (window.local.containsKey(slice.getKey())) {
+                        window.dirty.add(slice.getKey());
+                    }
+                }
+                throw e;
+            }
+        }
+    }
+
+    // Reloads other nodes' slices, decoding only those rewritten since the last refresh
+    private void refreshPeers(Window window, long cutoff) {
+        Query query = Query.query(Criteria.where("window").is(window.name)
+                .and("nodeId").ne(leaseLockService.getNodeId())
+                .and("start").gte(cutoff));
+        query.fields().include("nodeId", "start", "updatedAt");
+        Map<String, PeerSlice> previous = window.peers;
+        Map<String, PeerSlice> peers = new HashMap<>();
+        List<String> changed = new ArrayList<>();
+        for (SalesSketchSlice slice : mongoTemplate.find(query, SalesSketchSlice.class)) {
+            PeerSlice known = previous.get(slice.getId());
+            if (known != null && known.updatedAt.equals(slice.getUpdatedAt())) {
+                peers.put(slice.getId(), known);
+            } else {
+                changed.add(slice.getId());
+            }
+        }
+        if (!changed.isEmpty()) {
+            for (SalesSketchSlice slice : mongoTemplate.find(Query.query(Criteria.where("_id").in(changed)),
+                    SalesSketchSlice.class)) {
+                try {
+                    peers.put(slice.getId(), new PeerSlice(slice.getNodeId(), slice.getStart(), slice.getUpdatedAt(),
+                            SalesSketch.fromBytes(slice.getData())));
+                } catch (Exception e) {
+                    logger.warn("Skipping unreadable sales sketch {}: {}", slice.getId(), e.getMessage());
+                }
+            }
+        }
+        window.peers = peers;
+    }
+
+    private static final class Merged {
+        final SalesSketch sketch;
+        final long from;
+        final Set<String> nodes;
+
+        Merged(SalesSketch sketch, long from, Set<String> nodes) {
+            this.sketch = sketch;
+            this.from = from;
+            this.nodes = nodes;
+        }
+    }
+
+    // This node's and the other nodes' slices covering the last span, rounded up to whole slices
+    private Merged merge(Duration span) {
+        if (!enabled) {
+            throw new IllegalStateException("Sales sketches are disabled");
+        }
+        if (span.isNegative() || span.isZero()) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        Window window = null;
+        for (Window candidate : windows) {
+            if (span.toMillis() <= candidate.span()) {
+                window = candidate;
+                break;
+            }
+        }
+        if (window == null) {
+            throw new IllegalArgumentException("window must be at most "
+                    + Duration.ofMillis(windows.get(windows.size() - 1).span()));
+        }
+
+        long now = System.currentTimeMillis();
+        long slices = (span.toMillis() + window.sliceMillis - 1) / window.sliceMillis;
+        long from = window.sliceStart(now) - (slices - 1) * window.sliceMillis;
+        SalesSketch merged = newSketch();
+        Set<String> nodes = new HashSet<>();
+        nodes.add(leaseLockService.getNodeId());
+        synchronized (window) {
+            for (SalesSketch slice : window.local.tailMap(from).values()) {
+                merged.merge(slice);
+            }
+        }
+        for (PeerSlice peer : window.peers.values()) {
+            if (peer.start < from) {
+                continue;
+            }
+            try {
+                merged.merge(peer.sketch);
+                nodes.add(peer.nodeId);
+            } catch (IllegalArgumentException e) {
+                // Written with different sketch settings
+                logger.debug("Skipping incompatible sales sketch of {}: {}", peer.nodeId, e.getMessage());
+            }
+        }
+        return new Merged(merged, from, nodes);
+    }
+
+    private Map<String, Object> describe(Merged merged, Duration span) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("window", span.toString());
+        response.put("from", LocalDateTime.ofInstant(Instant.ofEpochMilli(merged.from), ZoneId.systemDefault()));
+        response.put("nodes", merged.nodes.size());
+        response.put("sales", merged.sketch.sales());
+        response.put("units", merged.sketch.units());
+        response.put("revenue", merged.sketch.revenue());
+        return response;
+    }
+
+    public Map<String, Object> topItems(Duration span, int limit) {
+        if (limit < 1 || limit > heavyHitters) {
+            throw new IllegalArgumentException("limit must be between 1 and " + heavyHitters);
+        }
+        Merged merged = merge(span);
+        List<Map.Entry<String, Long>> top = merged.sketch.topItems(limit);
+        Map<String, String> names = new HashMap<>();
+        List<String> ids = top.stream().map(Map.Entry::getKey).toList();
+        for (Item item : itemRepository.findAllById(ids)) {
+            names.put(item.getId(), item.getName());
+        }
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : top) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("itemId", entry.getKey());
+            row.put("name", names.get(entry.getKey()));
+            row.put("units", entry.getValue());
+            items.add(row);
+        }
+
+        Map<String, Object> response = describe(merged, span);
+        response.put("items", items);
+        Map<String, Object> error = new LinkedHashMap<>();
+        // Estimates never undercount
+        error.put("maxOverestimate", (long) Math.ceil(merged.sketch.unitCounts().epsilon() * merged.sketch.units()));
+        error.put("probability", 1 - merged.sketch.unitCounts().delta());
+        response.put("errorBound", error);
+        return response;
+    }
+
+    public Map<String, Object> distinctItems(Duration span) {
+        Merged merged = merge(span);
+        long estimate = merged.sketch.distinctItems();
+        double error = merged.sketch.distinctCounter().relativeStandardError();
+        Map<String, Object> response = describe(merged, span);
+        response.put("distinctItems", estimate);
+        Map<String, Object> bound = new LinkedHashMap<>();
+        bound.put("relativeStandardError", error);
+        // Two standard errors, about 95% of the time
+        bound.put("low", (long) Math.floor(estimate * (1 - 2 * error)));
+        bound.put("high", (long) Math.ceil(estimate * (1 + 2 * error)));
+        response.put("errorBound", bound);
+        return response;
+    }
+
+    public Map<String, Object> basketSize(Duration span, List<Double> quantiles) {
+        for (double q : quantiles) {
+            if (q < 0 || q > 1) {
+                throw new IllegalArgumentException("quantiles must be between 0 and 1");
+            }
+        }
+        Merged merged = merge(span);
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (double q : quantiles) {
+            double value = merged.sketch.quantity(q);
+            values.put(String.valueOf(q), Double.isNaN(value) ? null : value);
+        }
+        Map<String, Object> response = describe(merged, span);
+        response.put("quantiles", values);
+        response.put("errorBound", Map.of("relativeError", merged.sketch.quantityQuantiles().alpha()));
+        return response;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("nodeId", leaseLockService.getNodeId());
+        stats.put("lastCheckpoint", lastCheckpoint);
+        stats.put("checkpointIntervalMs", checkpointIntervalMs);
+        for (Window window : windows) {
+            Map<String, Object> windowStats = new LinkedHashMap<>();
+            windowStats.put("sliceMillis", window.sliceMillis);
+            windowStats.put("span", Duration.ofMillis(window.span()).toString());
+            synchronized (window) {
+                windowStats.put("localSlices", window.local.size());
+                windowStats.put("dirtySlices", window.dirty.size());
+            }
+            windowStats.put("peerSlices", window.peers.size());
+            stats.put(window.name, windowStats);
+        }
+        return stats;
+    }
+}
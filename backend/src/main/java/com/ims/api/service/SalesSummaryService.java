@@ -0,0 +1,125 @@
+package com.ims.api.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.ims.api.cache.RefreshAheadCache;
+import com.ims.api.model.Item;
+import com.ims.api.repository.ItemRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/*
+ * The dashboard summary behind GET /api/sales. Every open dashboard polls it, so the result
+ * is computed at most once per app.cache.sales-summary.ttl on each node and shared between
+ * callers; see RefreshAheadCache for the refresh and staleness rules. The returned map is
+ * shared and must not be modified.
+ */
+@Service
+public class SalesSummaryService {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Value("${app.cache.sales-summary.ttl:30s}")
+    private Duration ttl;
+
+    @Value("${app.cache.sales-summary.refresh-ahead:10s}")
+    private Duration refreshAhead;
+
+    @Value("${app.cache.sales-summary.serve-stale:true}")
+    private boolean serveStale;
+
+    @Value("${app.cache.sales-summary.max-stale:5m}")
+    private Duration maxStale;
+
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sales-summary-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private RefreshAheadCache<Map<String, Object>> summary;
+
+    @PostConstruct
+    public void init() {
+        summary = new RefreshAheadCache<>("sales summary", this::compute, refreshExecutor,
+                ttl, refreshAhead, serveStale, maxStale);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    public Map<String, Object> getSummary() {
+        return summary.get();
+    }
+
+    public Map<String, Object> stats() {
+        return summary.stats();
+    }
+
+    private Map<String, Object> compute() {
+        Map<String, Object> salesData = new HashMap<>();
+
+        // Get weekly sales (for past week)
+        List<Map<String, Object>> weeklySales = new ArrayList<>();
+        // Hardcode some sample data for now
+        String[] days = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"};
+        for (String day : days) {
+            Map<String, Object> daySales = new HashMap<>();
+            daySales.put("day", day);
+            daySales.put("sales", Math.floor(Math.random() * 30));
+            weeklySales.add(daySales);
+        }
+        salesData.put("weeklySales", weeklySales);
+
+        // Get monthly sales (for the year)
+        List<Map<String, Object>> monthlySales = new ArrayList<>();
+        String[] months = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+        for (String month : months) {
+            Map<String, Object> monthSales = new HashMap<>();
+            monthSales.put("month", month);
+            monthSales.put("sales", Math.floor(Math.random() * 500) + 200);
+            monthlySales.add(monthSales);
+        }
+        salesData.put("monthlySales", monthlySales);
+
+        // One read of the items serves both lists
+        List<Item> items = itemRepository.findAll();
+
+        // Get top selling items
+        List<Item> topSellingItems = items.stream()
+            .sorted((i1, i2) -> Integer.compare(i2.getSales(), i1.getSales()))
+            .limit(5)
+            .toList();
+        salesData.put("topSellingItems", topSellingItems);
+
+        // Get low stock items
+        List<Item> lowStockItems = items.stream()
+            .filter(item -> {
+                Integer minStock = item.getMinStock();
+                return item.getQuantity() <= (minStock != null ? minStock : 5);
+            })
+            .limit(5)
+            .toList();
+        salesData.put("lowStockItems", lowStockItems);
+
+        // Empty data for yearly sales (placeholder)
+        salesData.put("yearlySales", new ArrayList<>());
+
+        return Collections.unmodifiableMap(salesData);
+    }
+}
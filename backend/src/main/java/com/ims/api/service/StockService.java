@@ -0,0 +1,321 @@
+package com.ims.api.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.ims.api.event.ItemChangedEvent;
+import com.ims.api.event.SaleRecordedEvent;
+import com.ims.api.model.Item;
+import com.ims.api.model.Location;
+import com.ims.api.model.SalesRecord;
+import com.ims.api.model.StockLevel;
+import com.ims.api.model.StockTransfer;
+import com.ims.api.repository.ItemRepository;
+import com.ims.api.repository.LocationRepository;
+import com.ims.api.repository.SalesRecordRepository;
+import com.ims.api.repository.StockTransferRepository;
+
+/*
+ * Per-location stock. Every change is a conditional $inc of one stock level followed by the
+ * same $inc of Item.quantity, so the item keeps the total across its locations and catalog
+ * reads stay single-document. Item-level writes that predate locations (sell, quantity
+ * adjustments, edits of the quantity) act on the default location.
+ *
+ * Items created before locations existed have no stock levels; the first stock change seeds
+ * their default-location level with the item's quantity.
+ */
+@Service
+public class StockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private StockTransferRepository stockTransferRepository;
+
+    @Autowired
+    private SalesRecordRepository salesRecordRepository;
+
+    @Autowired
+    private CategoryStatsService categoryStatsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.stock.default-location:MAIN}")
+    private String defaultLocationId;
+
+    @Value("${app.stock.max-page-size:1000}")
+    private int maxPageSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureDefaultLocation() {
+        Update update = new Update()
+                .setOnInsert("name", "Main warehouse")
+                .setOnInsert("type", Location.Type.WAREHOUSE)
+                .setOnInsert("active", true)
+                .setOnInsert("createdAt", LocalDateTime.now());
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(defaultLocationId)), update, Location.class);
+    }
+
+    public String getDefaultLocationId() {
+        return defaultLocationId;
+    }
+
+    // Empty when the location does not hold enough stock
+    public Optional<Item> sell(String itemId, String locationId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Invalid quantity");
+        }
+        Optional<Item> sold = change(itemId, locationId, -quantity, quantity);
+        sold.ifPresent(item -> {
+            SalesRecord salesRecord = new SalesRecord(item.getId(), item.getName(), item.getCategory(),
+                    quantity, item.getPrice());
+            salesRecord.setLocationId(locationId);
+            salesRecordRepository.save(salesRecord);
+            eventPublisher.publishEvent(new SaleRecordedEvent(salesRecord));
+        });
+        return sold;
+    }
+
+    // Empty when a negative delta would take the location below zero
+    public Optional<Item> adjust(String itemId, String locationId, int delta) {
+        if (delta == 0) {
+            return Optional.of(itemRepository.findById(itemId)
+                    .orElseThrow(() -> new NoSuchElementException("Item not found: " + itemId)));
+        }
+        return change(itemId, locationId, delta, 0);
+    }
+
+    private Optional<Item> change(String itemId, String locationId, int delta, int salesDelta) {
+        if (delta > 0) {
+            requireActiveLocation(locationId);
+            seedIfNeeded(itemId);
+        }
+        if (moveStock(itemId, locationId, delta) == null) {
+            // Fast path failed: find out why before reporting a shortage
+            if (!seedIfNeeded(itemId) || moveStock(itemId, locationId, delta) == null) {
+                requireLocation(locationId);
+                return Optional.empty();
+            }
+        }
+
+        Optional<Item> updated = itemRepository.adjustStock(itemId, delta, salesDelta);
+        if (updated.isEmpty()) {
+            // The item was deleted meanwhile, or its total no longer covers its levels
+            moveStock(itemId, locationId, -delta);
+            logger.warn("Stock change of {} at {} undone: item total did not accept {}", itemId, locationId, delta);
+            throw new IllegalStateException("Stock of item " + itemId + " changed concurrently, please retry");
+        }
+
+        Item item = updated.get();
+        categoryStatsService.itemChanged(
+                CategoryStatsService.Contribution.of(item, item.getQuantity() - delta),
+                CategoryStatsService.Contribution.of(item));
+        eventPublisher.publishEvent(ItemChangedEvent.of(itemId, item.getCategory()));
+        return updated;
+    }
+
+    /*
+     * Debit the source, then credit the destination. The item's total does not change, so
+     * the item document is not written and no ItemChangedEvent is published.
+     */
+    public StockTransfer transfer(String itemId, String fromLocationId, String toLocationId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (fromLocationId == null || fromLocationId.equals(toLocationId)) {
+            throw new IllegalArgumentException("Source and destination must be different locations");
+        }
+        requireLocation(fromLocationId);
+        requireActiveLocation(toLocationId);
+        seedIfNeeded(itemId);
+
+        StockTransfer transfer = stockTransferRepository.save(
+                new StockTransfer(itemId, fromLocationId, toLocationId, quantity));
+        if (moveStock(itemId, fromLocationId, -quantity) == null) {
+            transfer.setStatus(StockTransfer.Status.REJECTED);
+            transfer.setMessage("Not enough stock at " + fromLocationId);
+        } else {
+            try {
+                moveStock(itemId, toLocationId, quantity);
+                transfer.setStatus(StockTransfer.Status.COMPLETED);
+            } catch (Exception e) {
+                logger.warn("Transfer {} could not credit {}, restoring {}: {}",
+                        transfer.getId(), toLocationId, fromLocationId, e.getMessage());
+                try {
+                    moveStock(itemId, fromLocationId, quantity);
+                    transfer.setStatus(StockTransfer.Status.COMPENSATED);
+                    transfer.setMessage(e.getMessage());
+                } catch (Exception restoreFailure) {
+                    // Left PENDING: the source is short by the quantity until corrected by hand
+                    logger.error("Transfer {} could not restore {} at {}: {}",
+                            transfer.getId(), quantity, fromLocationId, restoreFailure.getMessage());
+                    transfer.setMessage("Debited " + fromLocationId + " but could not credit " + toLocationId
+                            + " or restore the source: " + restoreFailure.getMessage());
+                    return stockTransferRepository.save(transfer);
+                }
+            }
+        }
+        transfer.setFinishedAt(LocalDateTime.now());
+        return stockTransferRepository.save(transfer);
+    }
+
+    // Creates the level with no stock if the item is not stocked at the location yet
+    public StockLevel setMinStock(String itemId, String locationId, int minStock) {
+        if (minStock < 0) {
+            throw new IllegalArgumentException("minStock must not be negative");
+        }
+        requireLocation(locationId);
+        seedIfNeeded(itemId);
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("itemId").toValue(itemId)
+                .set("locationId").toValue(locationId)
+                .set("minStock").toValue(minStock)
+                .set("quantity").toValue(ConditionalOperators.ifNull("quantity").then(0))
+                .set("headroom").toValue(ArithmeticOperators.Subtract
+                        .valueOf(ConditionalOperators.ifNull("quantity").then(0)).subtract(minStock))
+                .set("lastUpdated").toValue(LocalDateTime.now());
+        return mongoTemplate.findAndModify(levelQuery(itemId, locationId), update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), StockLevel.class);
+    }
+
+    // An item without levels yet is reported as holding its whole quantity at the default location
+    public List<StockLevel> levelsOf(Item item) {
+        Query query = Query.query(Criteria.where("itemId").is(item.getId())).with(Sort.by("locationId"));
+        List<StockLevel> levels = mongoTemplate.find(query, StockLevel.class);
+        return levels.isEmpty() ? List.of(defaultLevel(item)) : levels;
+    }
+
+    public List<StockLevel> levelsAt(String locationId, int limit) {
+        requireLocation(locationId);
+        Query query = Query.query(Criteria.where("locationId").is(locationId))
+                .with(Sort.by("headroom"))
+                .limit(pageSize(limit));
+        return mongoTemplate.find(query, StockLevel.class);
+    }
+
+    // Levels at or below their minimum, most urgent first; served by the location_headroom index
+    public List<StockLevel> lowStockAt(String locationId, int limit) {
+        requireLocation(locationId);
+        Query query = Query.query(Criteria.where("locationId").is(locationId).and("headroom").lte(0))
+                .with(Sort.by("headroom"))
+                .limit(pageSize(limit));
+        return mongoTemplate.find(query, StockLevel.class);
+    }
+
+    public void itemCreated(Item item) {
+        try {
+            mongoTemplate.insert(defaultLevel(item));
+        } catch (DuplicateKeyException e) {
+            // Already seeded by a concurrent stock change
+        }
+    }
+
+    public void itemDeleted(String itemId) {
+        mongoTemplate.remove(Query.query(Criteria.where("itemId").is(itemId)), StockLevel.class);
+    }
+
+    public Location requireLocation(String locationId) {
+        return locationRepository.findById(locationId)
+                .orElseThrow(() -> new NoSuchElementException("Location not found: " + locationId));
+    }
+
+    private void requireActiveLocation(String locationId) {
+        if (!requireLocation(locationId).isActive()) {
+            throw new IllegalArgumentException("Location " + locationId + " is inactive and takes no new stock");
+        }
+    }
+
+    // True if the default-location level was created by this call
+    private boolean seedIfNeeded(String itemId) {
+        if (mongoTemplate.exists(levelQuery(itemId, defaultLocationId), StockLevel.class)) {
+            return false;
+        }
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new NoSuchElementException("Item not found: " + itemId));
+        // Every quantity write seeds first, so the quantity read here is still the item's whole stock
+        StockLevel level = defaultLevel(item);
+        Update update = new Update()
+                .setOnInsert("itemId", level.getItemId())
+                .setOnInsert("locationId", level.getLocationId())
+                .setOnInsert("quantity", level.getQuantity())
+                .setOnInsert("minStock", level.getMinStock())
+                .setOnInsert("headroom", level.getHeadroom())
+                .setOnInsert("lastUpdated", level.getLastUpdated());
+        try {
+            return mongoTemplate.upsert(levelQuery(itemId, defaultLocationId), update, StockLevel.class)
+                    .getUpsertedId() != null;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private StockLevel defaultLevel(Item item) {
+        StockLevel level = new StockLevel();
+        level.setId(StockLevel.idOf(item.getId(), defaultLocationId));
+        level.setItemId(item.getId());
+        level.setLocationId(defaultLocationId);
+        level.setQuantity(item.getQuantity());
+        level.setMinStock(item.getMinStock());
+        level.setHeadroom(item.getQuantity() - item.getMinStock());
+        level.setLastUpdated(item.getLastUpdated() != null ? item.getLastUpdated() : LocalDateTime.now());
+        return level;
+    }
+
+    // Debits only if the level holds enough; credits create the level if needed. Null when a debit is refused.
+    private StockLevel moveStock(String itemId, String locationId, int delta) {
+        Query query = levelQuery(itemId, locationId);
+        if (delta < 0) {
+            query.addCriteria(Criteria.where("quantity").gte(-delta));
+        }
+        Update update = new Update()
+                .inc("quantity", delta)
+                .inc("headroom", delta)
+                .set("lastUpdated", LocalDateTime.now());
+        if (delta > 0) {
+            update.setOnInsert("itemId", itemId)
+                    .setOnInsert("locationId", locationId)
+                    .setOnInsert("minStock", 0);
+        }
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().upsert(delta > 0).returnNew(true), StockLevel.class);
+    }
+
+    private static Query levelQuery(String itemId, String locationId) {
+        return Query.query(Criteria.where("_id").is(StockLevel.idOf(itemId, locationId)));
+    }
+
+    private int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, maxPageSize));
+    }
+}
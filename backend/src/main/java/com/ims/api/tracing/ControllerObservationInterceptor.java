@@ -0,0 +1,62 @@
+package com.ims.api.tracing;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/*
+ * One observation (and so one span) per controller method call, named after the method,
+ * inside the HTTP server span. It covers the handler and writing its response body, which is
+ * where the service and Mongo spans of the request nest.
+ */
+public class ControllerObservationInterceptor implements HandlerInterceptor {
+
+    private static final String OBSERVATION = ControllerObservationInterceptor.class.getName() + ".observation";
+    private static final String SCOPE = ControllerObservationInterceptor.class.getName() + ".scope";
+
+    private final ObservationRegistry registry;
+
+    public ControllerObservationInterceptor(ObservationRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        String controller = method.getBeanType().getSimpleName();
+        String name = method.getMethod().getName();
+        Observation observation = Observation.createNotStarted("ims.controller", registry)
+                .contextualName(controller + "." + name)
+                .lowCardinalityKeyValue("controller", controller)
+                .lowCardinalityKeyValue("method", name)
+                .start();
+        request.setAttribute(OBSERVATION, observation);
+        request.setAttribute(SCOPE, observation.openScope());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        Observation.Scope scope = (Observation.Scope) request.getAttribute(SCOPE);
+        Observation observation = (Observation) request.getAttribute(OBSERVATION);
+        if (observation == null) {
+            return;
+        }
+        if (scope != null) {
+            scope.close();
+        }
+        if (ex != null) {
+            observation.error(ex);
+        }
+        observation.lowCardinalityKeyValue("status", String.valueOf(response.getStatus()));
+        observation.stop();
+    }
+}
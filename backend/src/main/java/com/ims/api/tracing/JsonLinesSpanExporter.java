@@ -0,0 +1,141 @@
+package com.ims.api.tracing;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/*
+ * Writes finished spans as JSON lines to <dir>/spans-<date>.jsonl, one object per span with
+ * trace and parent ids, so traces can be rebuilt and analysed offline (jq, pandas, or an
+ * OTLP file receiver after conversion). Files older than max-files days are deleted when
+ * the day rolls over. Called by the batch span processor from a single thread.
+ */
+public class JsonLinesSpanExporter implements SpanExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonLinesSpanExporter.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Path directory;
+    private final int maxFiles;
+    private LocalDate day;
+    private BufferedWriter writer;
+
+    public JsonLinesSpanExporter(String directory, int maxFiles) {
+        this.directory = Paths.get(directory);
+        this.maxFiles = maxFiles;
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        try {
+            BufferedWriter out = writerForToday();
+            for (SpanData span : spans) {
+                out.write(objectMapper.writeValueAsString(toJson(span)));
+                out.newLine();
+            }
+            out.flush();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            logger.warn("Could not write {} spans to {}: {}", spans.size(), directory, e.getMessage());
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    private static Map<String, Object> toJson(SpanData span) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("traceId", span.getTraceId());
+        json.put("spanId", span.getSpanId());
+        json.put("parentSpanId", span.getParentSpanContext().isValid() ? span.getParentSpanId() : null);
+        json.put("name", span.getName());
+        json.put("kind", span.getKind().name());
+        json.put("startEpochNanos", span.getStartEpochNanos());
+        json.put("durationMs", (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1_000_000.0);
+        json.put("status", span.getStatus().getStatusCode().name());
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), value));
+        json.put("attributes", attributes);
+        if (!span.getEvents().isEmpty()) {
+            List<Map<String, Object>> events = new ArrayList<>();
+            for (EventData event : span.getEvents()) {
+                Map<String, Object> eventJson = new LinkedHashMap<>();
+                eventJson.put("name", event.getName());
+                eventJson.put("offsetMs", (event.getEpochNanos() - span.getStartEpochNanos()) / 1_000_000.0);
+                events.add(eventJson);
+            }
+            json.put("events", events);
+        }
+        return json;
+    }
+
+    private BufferedWriter writerForToday() throws IOException {
+        LocalDate today = LocalDate.now();
+        if (writer != null && today.equals(day)) {
+            return writer;
+        }
+        closeWriter();
+        Files.createDirectories(directory);
+        writer = Files.newBufferedWriter(directory.resolve("spans-" + today + ".jsonl"), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        day = today;
+        deleteOldFiles(today);
+        return writer;
+    }
+
+    private void deleteOldFiles(LocalDate today) {
+        String oldest = "spans-" + today.minusDays(maxFiles - 1) + ".jsonl";
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                // Dates in ISO order, so names sort like days
+                if (name.startsWith("spans-") && name.endsWith(".jsonl") && name.compareTo(oldest) < 0) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not delete old span files in {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                logger.warn("Could not close span file: {}", e.getMessage());
+            }
+            writer = null;
+        }
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        closeWriter();
+        return CompletableResultCode.ofSuccess();
+    }
+}
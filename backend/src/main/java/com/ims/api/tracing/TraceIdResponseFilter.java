@@ -0,0 +1,39 @@
+package com.ims.api.tracing;
+
+import java.io.IOException;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/*
+ * Returns the request's trace id in X-Trace-Id, so a slow or failed call seen by a client can
+ * be found in the span files and the logs. Runs right after the HTTP server observation
+ * filter has opened the request span, before anything can commit the response.
+ */
+public class TraceIdResponseFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Trace-Id";
+
+    private final Tracer tracer;
+
+    public TraceIdResponseFilter(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Span span = tracer.currentSpan();
+        if (span != null) {
+            response.setHeader(HEADER, span.context().traceId());
+        }
+        filterChain.doFilter(request, response);
+    }
+}
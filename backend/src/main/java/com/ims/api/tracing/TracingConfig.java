@@ -0,0 +1,79 @@
+package com.ims.api.tracing;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.observation.ObservationRegistryCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.Tracer;
+
+/*
+ * Request tracing on top of the Boot tracing auto-configuration (Micrometer Tracing with the
+ * OpenTelemetry bridge), which already gives the HTTP server span, W3C traceparent
+ * propagation, trace and span ids in log lines and the Spring Security filter chain spans.
+ * Added here: a span per Mongo command, a span per controller method, the X-Trace-Id
+ * response header and the JSON-lines span file. OTLP export is on when
+ * management.otlp.tracing.endpoint is set.
+ */
+@Configuration
+public class TracingConfig implements WebMvcConfigurer {
+
+    private static final String MONGO_COMMAND = "spring.data.mongodb.command";
+    private static final String SCHEDULED_TASK = "tasks.scheduled.execution";
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoObservationCustomizer() {
+        return builder -> builder
+                .contextProvider(ContextProviderFactory.create(observationRegistry))
+                .addCommandListener(new MongoObservationCommandListener(observationRegistry));
+    }
+
+    /*
+     * Scheduled jobs and pollers run every few seconds on every node; unless scheduled-task
+     * spans are on, neither their runs nor Mongo commands outside a traced request are traced.
+     * Static, so customizing the registry does not need this configuration, which depends on it.
+     */
+    @Bean
+    public static ObservationRegistryCustomizer<ObservationRegistry> backgroundObservationFilter(
+            @Value("${app.tracing.scheduled-tasks:false}") boolean scheduledTasks) {
+        return registry -> registry.observationConfig().observationPredicate((name, context) -> scheduledTasks
+                || (!SCHEDULED_TASK.equals(name)
+                        && (!MONGO_COMMAND.equals(name) || registry.getCurrentObservation() != null)));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ControllerObservationInterceptor(observationRegistry));
+    }
+
+    // The server observation filter runs at HIGHEST_PRECEDENCE + 1
+    @Bean
+    public FilterRegistrationBean<TraceIdResponseFilter> traceIdResponseFilter(Tracer tracer) {
+        FilterRegistrationBean<TraceIdResponseFilter> registration =
+                new FilterRegistrationBean<>(new TraceIdResponseFilter(tracer));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+
+    // Static like the registry customizer: span exporters are built while the registry is
+    @Bean
+    @ConditionalOnProperty(name = "app.tracing.file.enabled", havingValue = "true", matchIfMissing = true)
+    public static JsonLinesSpanExporter jsonLinesSpanExporter(
+            @Value("${app.tracing.file.dir:data/traces}") String directory,
+            @Value("${app.tracing.file.max-files:7}") int maxFiles) {
+        return new JsonLinesSpanExporter(directory, maxFiles);
+    }
+}
@@ -0,0 +1,99 @@
+package com.ims.api.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class CountMinSketchTest {
+
+    @Test
+    void shapeFollowsTheRequestedError() {
+        CountMinSketch sketch = CountMinSketch.forError(0.001, 0.01);
+
+        assertThat(sketch.width()).isEqualTo(2719);
+        assertThat(sketch.depth()).isEqualTo(5);
+        assertThat(sketch.epsilon()).isLessThanOrEqualTo(0.001);
+        assertThat(sketch.delta()).isLessThanOrEqualTo(0.01);
+    }
+
+    @Test
+    void neverUndercountsAndStaysWithinTheErrorBound() {
+        CountMinSketch sketch = CountMinSketch.forError(0.01, 0.001);
+        Map<String, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            // Skewed keys, like item sales
+            String key = "item-" + (int) Math.pow(random.nextInt(1000), 2) / 1000;
+            long weight = 1 + random.nextInt(5);
+            sketch.add(key, weight);
+            exact.merge(key, weight, Long::sum);
+        }
+
+        long bound = (long) Math.ceil(sketch.epsilon() * sketch.total());
+        exact.forEach((key, count) -> assertThat(sketch.estimate(key)).as(key).isBetween(count, count + bound));
+        assertThat(sketch.total()).isEqualTo(exact.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void addReturnsTheNewEstimate() {
+        CountMinSketch sketch = new CountMinSketch(4, 64);
+
+        assertThat(sketch.add("a", 3)).isEqualTo(3);
+        assertThat(sketch.add("a", 2)).isEqualTo(5);
+        assertThat(sketch.estimate("a")).isEqualTo(5);
+        assertThat(sketch.estimate("never-added")).isBetween(0L, 5L);
+    }
+
+    @Test
+    void mergeEqualsAddingEverythingToOneSketch() {
+        CountMinSketch left = new CountMinSketch(3, 50);
+        CountMinSketch right = new CountMinSketch(3, 50);
+        CountMinSketch both = new CountMinSketch(3, 50);
+        for (int i = 0; i < 500; i++) {
+            String key = "k" + (i % 37);
+            (i % 2 == 0 ? left : right).add(key, i);
+            both.add(key, i);
+        }
+
+        left.merge(right);
+
+        assertThat(left.total()).isEqualTo(both.total());
+        for (int i = 0; i < 37; i++) {
+            assertThat(left.estimate("k" + i)).isEqualTo(both.estimate("k" + i));
+        }
+        assertThatThrownBy(() -> left.merge(new CountMinSketch(3, 51))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void survivesSerialization() throws IOException {
+        CountMinSketch sketch = new CountMinSketch(3, 20);
+        sketch.add("a", 7);
+        sketch.add("b", 2);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sketch.writeTo(new DataOutputStream(bytes));
+
+        CountMinSketch read = CountMinSketch.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertThat(read.depth()).isEqualTo(3);
+        assertThat(read.width()).isEqualTo(20);
+        assertThat(read.total()).isEqualTo(9);
+        assertThat(read.estimate("a")).isEqualTo(sketch.estimate("a"));
+        assertThat(read.estimate("b")).isEqualTo(sketch.estimate("b"));
+    }
+
+    @Test
+    void rejectsEmptyShapes() {
+        assertThatThrownBy(() -> new CountMinSketch(0, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CountMinSketch(2, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ims.api.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+class HyperLogLogTest {
+
+    private static HyperLogLog of(int precision, int from, int to) {
+        HyperLogLog hll = new HyperLogLog(precision);
+        for (int i = from; i < to; i++) {
+            hll.add("customer-" + i);
+        }
+        return hll;
+    }
+
+    @Test
+    void emptyCountsZero() {
+        assertThat(new HyperLogLog(12).estimate()).isZero();
+    }
+
+    @Test
+    void smallCountsAreNearlyExact() {
+        HyperLogLog hll = of(14, 0, 100);
+        for (int i = 0; i < 100; i++) {
+            hll.add("customer-" + i);
+        }
+
+        assertThat(hll.estimate()).isBetween(98L, 102L);
+    }
+
+    @Test
+    void largeCountsStayWithinFourStandardErrors() {
+        HyperLogLog hll = of(12, 0, 200_000);
+
+        double error = 4 * hll.relativeStandardError();
+        assertThat((double) hll.estimate()).isCloseTo(200_000, within(200_000 * error));
+    }
+
+    @Test
+    void mergeCountsTheUnion() {
+        HyperLogLog left = of(12, 0, 30_000);
+        HyperLogLog right = of(12, 20_000, 50_000);
+
+        left.merge(right);
+
+        assertThat(left.estimate()).isEqualTo(of(12, 0, 50_000).estimate());
+        assertThatThrownBy(() -> left.merge(new HyperLogLog(11))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void survivesSerialization() throws IOException {
+        HyperLogLog hll = of(10, 0, 5_000);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        hll.writeTo(new DataOutputStream(bytes));
+
+        HyperLogLog read = HyperLogLog.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertThat(read.precision()).isEqualTo(10);
+        assertThat(read.estimate()).isEqualTo(hll.estimate());
+    }
+
+    @Test
+    void rejectsPrecisionOutOfRange() {
+        assertThatThrownBy(() -> new HyperLogLog(3)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HyperLogLog(19)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
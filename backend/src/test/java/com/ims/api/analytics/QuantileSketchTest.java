@@ -0,0 +1,99 @@
+package com.ims.api.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class QuantileSketchTest {
+
+    private static final double ALPHA = 0.01;
+
+    @Test
+    void emptyHasNoQuantiles() {
+        QuantileSketch sketch = new QuantileSketch(ALPHA);
+
+        assertThat(sketch.count()).isZero();
+        assertThat(sketch.quantile(0.5)).isNaN();
+    }
+
+    @Test
+    void quantilesAreWithinTheRelativeAccuracy() {
+        QuantileSketch sketch = new QuantileSketch(ALPHA);
+        Random random = new Random(7);
+        double[] values = new double[10_001];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1 + Math.exp(random.nextGaussian() * 2 + 4);
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[] {0, 0.1, 0.5, 0.9, 0.99, 1}) {
+            double exact = values[(int) Math.floor(q * (values.length - 1))];
+            assertThat(sketch.quantile(q)).as("q=" + q).isCloseTo(exact, within(exact * ALPHA));
+        }
+        assertThat(sketch.count()).isEqualTo(values.length);
+    }
+
+    @Test
+    void clampsToTheObservedRange() {
+        QuantileSketch sketch = new QuantileSketch(ALPHA);
+        sketch.add(0.2);
+        sketch.add(42);
+
+        assertThat(sketch.quantile(0)).isEqualTo(1);
+        assertThat(sketch.quantile(1)).isCloseTo(42, within(42 * ALPHA)).isLessThanOrEqualTo(42);
+    }
+
+    @Test
+    void mergeIsExact() {
+        QuantileSketch left = new QuantileSketch(ALPHA);
+        QuantileSketch right = new QuantileSketch(ALPHA);
+        QuantileSketch both = new QuantileSketch(ALPHA);
+        for (int i = 1; i <= 1000; i++) {
+            (i % 3 == 0 ? left : right).add(i * 1.5);
+            both.add(i * 1.5);
+        }
+
+        left.merge(right);
+
+        assertThat(left.count()).isEqualTo(both.count());
+        for (double q = 0; q <= 1; q += 0.05) {
+            assertThat(left.quantile(q)).isEqualTo(both.quantile(q));
+        }
+        assertThatThrownBy(() -> left.merge(new QuantileSketch(0.02))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void survivesSerialization() throws IOException {
+        QuantileSketch sketch = new QuantileSketch(ALPHA);
+        for (int i = 1; i <= 100; i++) {
+            sketch.add(i);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sketch.writeTo(new DataOutputStream(bytes));
+
+        QuantileSketch read = QuantileSketch.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertThat(read.count()).isEqualTo(100);
+        assertThat(read.alpha()).isEqualTo(ALPHA);
+        assertThat(read.quantile(0.5)).isEqualTo(sketch.quantile(0.5));
+        read.add(1000);
+        assertThat(read.quantile(1)).isCloseTo(1000, within(1000 * ALPHA));
+    }
+
+    @Test
+    void rejectsAccuracyOutOfRange() {
+        assertThatThrownBy(() -> new QuantileSketch(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new QuantileSketch(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,136 @@
+package com.ims.api.archive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import com.ims.api.model.SalesRecord;
+
+class SalesBlockCodecTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 3, 10, 0, 0);
+    private static final ZoneId ZONE = SalesBlockCodec.ZONE;
+
+    private static SalesRecord record(String id, int minute, String itemId, String locationId, int quantity) {
+        SalesRecord record = new SalesRecord();
+        record.setId(id);
+        record.setTimestamp(DAY.plusMinutes(minute));
+        record.setItemId(itemId);
+        record.setItemName("Item " + itemId);
+        record.setCategory(itemId.startsWith("a") ? "Furniture" : "Stationery");
+        record.setLocationId(locationId);
+        record.setQuantity(quantity);
+        record.setUnitPrice(2.5);
+        record.setTotalPrice(2.5 * quantity);
+        return record;
+    }
+
+    @SafeVarargs
+    private static byte[] encode(List<SalesRecord>... blocks) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (List<SalesRecord> block : blocks) {
+                SalesBlockCodec.write(block, out);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<List<SalesRecord>> decode(byte[] bytes, LocalDateTime start, LocalDateTime end, String itemId)
+            throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        List<List<SalesRecord>> blocks = new ArrayList<>();
+        for (List<SalesRecord> block; (block = SalesBlockCodec.read(in, SalesBlockCodec.toMillis(start, ZONE),
+                SalesBlockCodec.toMillis(end, ZONE), itemId, ZONE)) != null;) {
+            blocks.add(block);
+        }
+        return blocks;
+    }
+
+    private static void assertSameRecord(SalesRecord actual, SalesRecord expected) {
+        assertThat(actual).usingRecursiveComparison().isEqualTo(expected);
+    }
+
+    @Test
+    void roundTripsEveryColumn() throws IOException {
+        List<SalesRecord> block = List.of(
+                record(new ObjectId().toHexString(), 1, "a1", "main", 3),
+                record(new ObjectId().toHexString(), 2, "b2", null, -1),
+                record(new ObjectId().toHexString(), 2, "a1", "north", 100_000));
+
+        List<List<SalesRecord>> read = decode(encode(block), DAY.minusDays(1), DAY.plusDays(1), null);
+
+        assertThat(read).hasSize(1);
+        assertThat(read.get(0)).hasSize(3);
+        for (int i = 0; i < block.size(); i++) {
+            assertSameRecord(read.get(0).get(i), block.get(i));
+        }
+    }
+
+    @Test
+    void keepsIdsThatAreNotObjectIds() throws IOException {
+        List<SalesRecord> block = List.of(record("sale-1", 1, "a1", "main", 1),
+                record(new ObjectId().toHexString(), 2, "a1", "main", 1));
+
+        List<SalesRecord> read = decode(encode(block), DAY, DAY.plusDays(1), null).get(0);
+
+        assertThat(read).extracting(SalesRecord::getId).containsExactly("sale-1", block.get(1).getId());
+    }
+
+    @Test
+    void rangeBoundsAreExclusive() throws IOException {
+        List<SalesRecord> block = List.of(record("s1", 10, "a1", "main", 1), record("s2", 20, "a1", "main", 1),
+                record("s3", 30, "a1", "main", 1));
+
+        List<SalesRecord> read = decode(encode(block), DAY.plusMinutes(10), DAY.plusMinutes(30), null).get(0);
+
+        assertThat(read).extracting(SalesRecord::getId).containsExactly("s2");
+    }
+
+    @Test
+    void skipsBlocksOutsideTheRangeOrWithoutTheItem() throws IOException {
+        List<SalesRecord> early = List.of(record("s1", 10, "a1", "main", 1), record("s2", 20, "b2", "main", 1));
+        List<SalesRecord> late = List.of(record("s3", 600, "a1", "main", 1), record("s4", 610, "c3", "main", 1));
+        byte[] bytes = encode(early, late);
+
+        List<List<SalesRecord>> inRange = decode(bytes, DAY.plusMinutes(500), DAY.plusDays(1), null);
+        assertThat(inRange.get(0)).isEmpty();
+        assertThat(inRange.get(1)).extracting(SalesRecord::getId).containsExactly("s3", "s4");
+
+        List<List<SalesRecord>> byItem = decode(bytes, DAY, DAY.plusDays(1), "b2");
+        assertThat(byItem.get(0)).extracting(SalesRecord::getId).containsExactly("s2");
+        assertThat(byItem.get(1)).isEmpty();
+    }
+
+    @Test
+    void readsTimestampsBackInTheRequestedZone() throws IOException {
+        byte[] bytes = encode(List.of(record("s1", 90, "a1", "main", 1)));
+        ZoneId zone = ZoneId.of("Asia/Kolkata");
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+
+        List<SalesRecord> read = SalesBlockCodec.read(in, Long.MIN_VALUE, Long.MAX_VALUE, null, zone);
+
+        assertThat(read.get(0).getTimestamp()).isEqualTo(DAY.plusMinutes(90 + 330));
+    }
+
+    @Test
+    void rejectsTruncatedBlocks() throws IOException {
+        byte[] bytes = encode(List.of(record("s1", 1, "a1", "main", 1)));
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 4);
+
+        assertThatThrownBy(() -> decode(truncated, DAY, DAY.plusDays(1), null)).isInstanceOf(IOException.class);
+    }
+}
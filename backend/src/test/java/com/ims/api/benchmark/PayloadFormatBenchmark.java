@@ -0,0 +1,143 @@
+package com.ims.api.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import com.ims.api.model.Item;
+import com.ims.api.model.SalesRecord;
+
+/*
+ * Compares encode time and payload size of JSON, Smile and CBOR for the payloads
+ * returned by /api/items and /api/sales/period.
+ *
+ * Lives with the test sources so it stays out of the application jar. Run after `mvn test-compile`:
+ *   java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *       com.ims.api.benchmark.PayloadFormatBenchmark [items] [sales] [iterations]
+ */
+public class PayloadFormatBenchmark {
+
+    private static final String[] CATEGORIES = {"Electronics", "Furniture", "Stationery", "Office Supplies"};
+    private static final String[] NOUNS = {"Laptop", "Monitor", "Chair", "Desk", "Notebook", "Pen", "Lamp",
+            "Stapler", "Cabinet", "Keyboard", "Mouse", "Shelf", "Folder", "Printer", "Router"};
+    private static final String[] ADJECTIVES = {"Ergonomic", "Wireless", "Compact", "Premium", "Classic",
+            "Portable", "Adjustable", "Heavy Duty", "Eco", "Pro"};
+
+    public static void main(String[] args) throws IOException {
+        int itemCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int salesCount = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        Random random = new Random(42);
+        List<Item> items = generateItems(random, itemCount);
+        List<SalesRecord> sales = generateSales(random, items, salesCount);
+
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", mapper(new JsonFactory()));
+        mappers.put("smile", mapper(new SmileFactory()));
+        mappers.put("cbor", mapper(new CBORFactory()));
+
+        System.out.println("Items: " + itemCount + ", sales records: " + salesCount + ", iterations: " + iterations);
+        System.out.println();
+        run("Item list", items, mappers, iterations);
+        run("SalesRecord list", sales, mappers, iterations);
+    }
+
+    private static void run(String label, Object payload, Map<String, ObjectMapper> mappers, int iterations)
+            throws IOException {
+        System.out.println(label);
+        System.out.println(String.format("  %-6s %12s %12s %10s %12s", "format", "bytes", "gzip bytes", "ratio", "encode ms"));
+
+        long jsonBytes = 0;
+        for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+            ObjectMapper mapper = entry.getValue();
+
+            // Warm up the serializers and the JIT before measuring
+            for (int i = 0; i < Math.max(3, iterations / 4); i++) {
+                mapper.writeValueAsBytes(payload);
+            }
+
+            byte[] encoded = null;
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                encoded = mapper.writeValueAsBytes(payload);
+            }
+            double encodeMs = (System.nanoTime() - start) / 1_000_000.0 / iterations;
+
+            if (jsonBytes == 0) {
+                jsonBytes = encoded.length;
+            }
+            System.out.println(String.format("  %-6s %12d %12d %9.2fx %12.2f",
+                    entry.getKey(), encoded.length, gzipSize(encoded),
+                    (double) jsonBytes / encoded.length, encodeMs));
+        }
+        System.out.println();
+    }
+
+    // Mirrors the application's Jackson setup (JavaTimeModule, ISO dates, UTC, field filter)
+    private static ObjectMapper mapper(JsonFactory factory) {
+        return Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .timeZone("UTC")
+                .simpleDateFormat("yyyy-MM-dd HH:mm:ss")
+                .filters(new SimpleFilterProvider().setFailOnUnknownId(false))
+                .build();
+    }
+
+    private static int gzipSize(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.size();
+    }
+
+    private static List<Item> generateItems(Random random, int count) {
+        List<Item> items = new ArrayList<>(count);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < count; i++) {
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                    + NOUNS[random.nextInt(NOUNS.length)] + " " + i;
+            Item item = new Item(name, category, random.nextInt(200), 5 + random.nextInt(20),
+                    Math.round(random.nextDouble() * 50_000_00) / 100.0);
+            item.setId(String.format("%024x", i));
+            item.setDescription("High quality " + name.toLowerCase() + " for home and office use.");
+            item.setImageUrl("/assets/images/categories/" + category.toLowerCase().replace(' ', '-') + ".jpg");
+            item.setSales(random.nextInt(1_000));
+            item.setLastUpdated(now.minusMinutes(random.nextInt(525_600)));
+            items.add(item);
+        }
+        return items;
+    }
+
+    private static List<SalesRecord> generateSales(Random random, List<Item> items, int count) {
+        List<SalesRecord> sales = new ArrayList<>(count);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < count; i++) {
+            Item item = items.get(random.nextInt(items.size()));
+            SalesRecord record = new SalesRecord(item.getId(), item.getName(), item.getCategory(),
+                    1 + random.nextInt(5), item.getPrice());
+            record.setId(String.format("%024x", i + items.size()));
+            record.setTimestamp(now.minusSeconds(random.nextInt(31_536_000)));
+            sales.add(record);
+        }
+        return sales;
+    }
+}
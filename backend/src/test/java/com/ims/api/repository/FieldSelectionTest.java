@@ -0,0 +1,85 @@
+package com.ims.api.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.ims.api.model.Item;
+import com.ims.api.model.SalesRecord;
+
+class FieldSelectionTest {
+
+    @Test
+    void noFieldsMeansFullDocuments() {
+        assertThat(FieldSelection.parse(null, Item.class)).isNull();
+        assertThat(FieldSelection.parse("  ", Item.class)).isNull();
+    }
+
+    @Test
+    void alwaysSelectsTheIdAndKeepsRequestOrder() {
+        FieldSelection selection = FieldSelection.parse("quantity, name,,", Item.class);
+
+        assertThat(selection.getViewFields()).containsExactly("id", "quantity", "name");
+        assertThat(selection.getProjectedFields()).containsExactly("id", "quantity", "name");
+        assertThat(selection).hasToString("id,quantity,name");
+    }
+
+    @Test
+    void derivedFieldsProjectTheirSources() {
+        FieldSelection selection = FieldSelection.parse("lowStock", Item.class);
+
+        assertThat(selection.getViewFields()).containsExactly("id", "lowStock");
+        assertThat(selection.getProjectedFields()).containsExactly("id", "quantity", "minStock");
+    }
+
+    @Test
+    void rejectsUnknownAndInternalFields() {
+        assertThatThrownBy(() -> FieldSelection.parse("name,colour", Item.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("'colour'")
+                .hasMessageContaining("Allowed fields");
+        assertThatThrownBy(() -> FieldSelection.parse("version", Item.class))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> FieldSelection.parse("lowStock", SalesRecord.class))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsUnsupportedDocumentTypes() {
+        assertThatThrownBy(() -> FieldSelection.parse("id", String.class))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void projectsOnlyTheSelectedFields() {
+        Query query = FieldSelection.parse("name,inStock", Item.class).applyTo(new Query());
+
+        assertThat(query.getFieldsObject().keySet()).containsExactlyInAnyOrder("id", "name", "quantity");
+    }
+
+    @Test
+    void rendersOnlyTheSelectedProperties() throws Exception {
+        Item item = new Item();
+        item.setId("i1");
+        item.setName("Desk");
+        item.setQuantity(2);
+        item.setMinStock(5);
+        MappingJacksonValue view = FieldSelection.parse("name,lowStock", Item.class).view(item);
+
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+        String json = mapper.writer(view.getFilters()).writeValueAsString(view.getValue());
+        Map<String, Object> rendered = mapper.readValue(json, new TypeReference<Map<String, Object>>() { });
+
+        assertThat(rendered).containsOnlyKeys("id", "name", "lowStock")
+                .containsEntry("name", "Desk")
+                .containsEntry("lowStock", true);
+    }
+}
@@ -0,0 +1,99 @@
+package com.ims.api.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ims.api.model.Item;
+
+class ItemMergePatchTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private ItemMergePatch parse(String json) throws Exception {
+        return ItemMergePatch.parse(mapper.readTree(json));
+    }
+
+    @Test
+    void setsNamedFieldsAndRemovesNullOnes() throws Exception {
+        UpdateDefinition update = parse("{\"name\":\"Desk\",\"price\":12,\"description\":null}").toUpdate(NOW);
+
+        assertThat(update).isInstanceOf(Update.class);
+        Document document = update.getUpdateObject();
+        assertThat(document.get("$set", Document.class))
+                .containsEntry("name", "Desk")
+                .containsEntry("price", 12.0)
+                .containsEntry("lastUpdated", NOW);
+        assertThat(document.get("$unset", Document.class)).containsOnlyKeys("description");
+        assertThat(document.get("$inc", Document.class)).containsEntry("version", 1);
+    }
+
+    @Test
+    void minStockAlsoSetsHeadroomInAPipeline() throws Exception {
+        UpdateDefinition update = parse("{\"minStock\":4,\"name\":\"$quantity\"}").toUpdate(NOW);
+
+        assertThat(update).isInstanceOf(AggregationUpdate.class);
+        List<Document> pipeline = ((AggregationUpdate) update).toPipeline(Aggregation.DEFAULT_CONTEXT);
+        Document set = new Document();
+        pipeline.forEach(stage -> set.putAll(stage.get("$set", Document.class)));
+        assertThat(set).containsKeys("minStock", "headroom", "lastUpdated", "version");
+        // Values are literals, not field paths
+        assertThat(set.get("name")).isEqualTo(new Document("$literal", "$quantity"));
+    }
+
+    @Test
+    void emptyPatchWritesNothing() throws Exception {
+        assertThat(parse("{}").isEmpty()).isTrue();
+        assertThat(parse("{\"name\":\"Desk\"}").isEmpty()).isFalse();
+    }
+
+    @Test
+    void rejectsServerManagedAndUnknownFields() {
+        for (String json : List.of("{\"quantity\":3}", "{\"version\":2}", "{\"sales\":1}", "{\"id\":\"x\"}",
+                "{\"colour\":\"red\"}")) {
+            assertThatThrownBy(() -> parse(json)).as(json).isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThatThrownBy(() -> parse("{\"quantity\":3}")).hasMessageContaining("/quantity");
+    }
+
+    @Test
+    void rejectsValuesOfTheWrongType() {
+        for (String json : List.of("[]", "\"name\"", "{\"name\":5}", "{\"name\":\" \"}", "{\"name\":null}",
+                "{\"minStock\":\"3\"}", "{\"minStock\":-1}", "{\"minStock\":1.5}", "{\"price\":\"9.99\"}",
+                "{\"price\":-0.5}")) {
+            assertThatThrownBy(() -> parse(json)).as(json).isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThatThrownBy(() -> ItemMergePatch.parse((JsonNode) null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void applyToMatchesTheWrittenDocument() throws Exception {
+        Item item = new Item();
+        item.setName("Chair");
+        item.setDescription("Old");
+        item.setQuantity(10);
+        item.setVersion(3L);
+
+        parse("{\"name\":\"Stool\",\"minStock\":4,\"description\":null}").applyTo(item, NOW);
+
+        assertThat(item.getName()).isEqualTo("Stool");
+        assertThat(item.getMinStock()).isEqualTo(4);
+        assertThat(item.getHeadroom()).isEqualTo(6);
+        assertThat(item.getDescription()).isNull();
+        assertThat(item.getLastUpdated()).isEqualTo(NOW);
+        assertThat(item.getVersion()).isEqualTo(4L);
+    }
+}
@@ -0,0 +1,113 @@
+package com.ims.api.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.ims.api.model.Item;
+
+class ItemSearchTest {
+
+    private static ItemSearch search(String category, String sort, String order, String cursor) {
+        return ItemSearch.parse(category, null, null, null, null, null, sort, order, 20, cursor);
+    }
+
+    private static Item item(String id, String name, double price, LocalDateTime lastUpdated) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setPrice(price);
+        item.setLastUpdated(lastUpdated);
+        return item;
+    }
+
+    // The keyset condition the page query adds after the filters
+    private static Document afterCondition(ItemSearch search) {
+        List<?> parts = search.pageQuery().getQueryObject().getList("$and", Object.class);
+        return (Document) parts.get(parts.size() - 1);
+    }
+
+    @Test
+    void firstPageFetchesOneExtraItemInSortOrder() {
+        ItemSearch search = search("Furniture", "price", "desc", null);
+        Query query = search.pageQuery();
+
+        assertThat(search.isFirstPage()).isTrue();
+        assertThat(query.getLimit()).isEqualTo(21);
+        assertThat(query.getSortObject()).isEqualTo(new Document("price", -1).append("id", -1));
+        assertThat(query.getQueryObject().toString()).doesNotContain("$or");
+    }
+
+    @Test
+    void cursorContinuesAfterTheLastItem() {
+        ItemSearch first = search("Furniture", "price", "asc", null);
+        String cursor = first.cursorAfter(item("66aa", "Desk", 120.5, null));
+
+        ItemSearch next = search("Furniture", "price", "asc", cursor);
+
+        assertThat(next.isFirstPage()).isFalse();
+        assertThat(next.toString()).endsWith("after 66aa");
+        Document after = afterCondition(next);
+        assertThat(after.toString()).contains("$gte=120.5").contains("$gt=120.5").contains("$gt=66aa");
+    }
+
+    @Test
+    void timestampCursorsKeepTheirType() {
+        LocalDateTime updated = LocalDateTime.of(2024, 2, 29, 13, 45, 1, 500_000_000);
+        String cursor = search(null, "lastUpdated", "desc", null).cursorAfter(item("66ab", "Lamp", 10, updated));
+
+        Document after = afterCondition(search(null, "lastUpdated", "desc", cursor));
+
+        assertThat(after.toString()).contains(updated.toString()).contains("$lt=66ab");
+        assertThat(after.toString()).contains("$not");
+    }
+
+    @Test
+    void cursorFromAnotherSortOrFilterIsRejected() {
+        String cursor = search("Furniture", "name", "asc", null).cursorAfter(item("66ac", "Chair", 0, null));
+
+        assertThatThrownBy(() -> search("Furniture", "price", "asc", cursor))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("first page");
+        assertThatThrownBy(() -> search("Furniture", "name", "desc", cursor))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> search("Stationery", "name", "asc", cursor))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(search("Furniture", "name", "asc", cursor).isFirstPage()).isFalse();
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        String notJson = Base64.getUrlEncoder().encodeToString("not json".getBytes());
+        for (String cursor : List.of("%%%", notJson, Base64.getUrlEncoder().encodeToString("{}".getBytes()))) {
+            assertThatThrownBy(() -> search(null, "name", "asc", cursor)).as(cursor)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void validatesParameters() {
+        assertThatThrownBy(() -> ItemSearch.parse(null, 5.0, 1.0, null, null, null, "name", "asc", 20, null))
+                .hasMessageContaining("minPrice");
+        assertThatThrownBy(() -> search(null, "quantity", "asc", null)).hasMessageContaining("sort");
+        assertThatThrownBy(() -> search(null, "name", "up", null)).hasMessageContaining("order");
+        assertThatThrownBy(() -> ItemSearch.parse(null, null, null, null, null, null, "name", "asc", 0, null))
+                .hasMessageContaining("limit");
+        assertThatThrownBy(() -> ItemSearch.parse(null, null, null, null, null, "x".repeat(101), "name", "asc", 20,
+                null)).hasMessageContaining("q must be");
+    }
+
+    @Test
+    void lowStockFiltersOnHeadroom() {
+        ItemSearch search = ItemSearch.parse(null, null, null, null, true, null, "name", "asc", 20, null);
+
+        assertThat(search.hasFilters()).isTrue();
+        assertThat(search.filterQuery().getQueryObject().toString()).contains("headroom=Document{{$lte=0}}");
+    }
+}
@@ -0,0 +1,108 @@
+package com.ims.api.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ItemTextIndexTest {
+
+    private final ItemTextIndex index = new ItemTextIndex(64, 100);
+
+    private static List<String> ids(List<ItemTextIndex.Hit> hits) {
+        return hits.stream().map(hit -> hit.id).toList();
+    }
+
+    private void put(String id, String name, String description, int sales) {
+        index.put(id, name, description, "Electronics", 10, 1, sales);
+    }
+
+    @Test
+    void everyQueryTermMustMatchAPrefix() {
+        put("1", "Blue Wireless Mouse", null, 0);
+        put("2", "Blue Desk", null, 0);
+        put("3", "Wired Mouse", null, 0);
+
+        assertThat(ids(index.search("blu wir", 10))).containsExactly("1");
+        assertThat(ids(index.search("mouse", 10))).containsExactlyInAnyOrder("1", "3");
+        assertThat(index.search("", 10)).isEmpty();
+        assertThat(index.search("mouse", 0)).isEmpty();
+    }
+
+    @Test
+    void ranksNameOverDescriptionAndWholeWordsOverPrefixes() {
+        put("desc", "Office Chair", "comes with a lamp", 0);
+        put("prefix", "Lampshade", null, 0);
+        put("word", "Desk Lamp", null, 0);
+
+        assertThat(ids(index.search("lamp", 10))).containsExactly("word", "prefix", "desc");
+    }
+
+    @Test
+    void salesBreakTies() {
+        put("slow", "Stapler", null, 1);
+        put("fast", "Stapler", null, 500);
+
+        List<ItemTextIndex.Hit> hits = index.search("stapler", 10);
+
+        assertThat(ids(hits)).containsExactly("fast", "slow");
+        assertThat(hits.get(0).score).isGreaterThan(hits.get(1).score);
+        assertThat(hits.get(0).sales).isEqualTo(500);
+    }
+
+    @Test
+    void fallsBackToOneEditWhenExactPrefixesFindTooFew() {
+        put("1", "Wireless Keyboard", null, 0);
+        put("2", "Notebook", null, 0);
+
+        List<ItemTextIndex.Hit> hits = index.search("wirless", 10);
+
+        assertThat(ids(hits)).containsExactly("1");
+        assertThat(hits.get(0).fuzzy).isTrue();
+        // Short terms are never fuzzy
+        assertThat(index.search("wir", 10)).extracting(hit -> hit.fuzzy).containsExactly(false);
+        assertThat(index.search("ntb", 10)).isEmpty();
+    }
+
+    @Test
+    void reindexingReplacesTheOldTerms() {
+        put("1", "Filing Cabinet", "grey steel", 0);
+        put("1", "Bookshelf", "oak", 0);
+
+        assertThat(index.search("cabinet", 10)).isEmpty();
+        assertThat(index.search("steel", 10)).isEmpty();
+        assertThat(ids(index.search("book oak", 10))).containsExactly("1");
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void removedItemsAreNotFoundAndTheirIdsAreReused() {
+        put("1", "Desk", null, 0);
+        put("2", "Desk Organizer", null, 0);
+
+        assertThat(index.remove("1")).isTrue();
+        assertThat(index.remove("1")).isFalse();
+        index.sortBySales();
+        put("3", "Standing Desk", null, 0);
+
+        assertThat(ids(index.search("desk", 10))).containsExactlyInAnyOrder("2", "3");
+        assertThat(index.stats()).containsEntry("items", 2).containsEntry("nameTerms", 3);
+    }
+
+    @Test
+    void broadQueriesReturnTheBestSellers() {
+        ItemTextIndex small = new ItemTextIndex(64, 5);
+        for (int i = 0; i < 200; i++) {
+            small.put("item-" + i, "Pen " + i, null, "Stationery", 1, 1, i);
+        }
+        small.sortBySales();
+        // Added after the sort, still scanned
+        small.put("item-new", "Pen deluxe", null, "Stationery", 1, 1, 1000);
+
+        List<ItemTextIndex.Hit> hits = small.search("pen", 3);
+
+        assertThat(ids(hits)).containsExactly("item-new", "item-199", "item-198");
+        assertThat(small.stats()).containsEntry("unsortedItems", 1);
+    }
+}
@@ -0,0 +1,45 @@
+package com.ims.api.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class TextAnalyzerTest {
+
+    @Test
+    void foldsCaseAndAccentsAndSplitsOnPunctuation() {
+        assertThat(TextAnalyzer.terms("Café-Table, 2 SEATS", 10)).containsExactly("cafe", "table", "2", "seats");
+        assertThat(TextAnalyzer.terms("cafe table", 10)).isEqualTo(TextAnalyzer.terms("CAFÉ   table!", 10));
+    }
+
+    @Test
+    void keepsDistinctTermsInOrderUpToTheLimit() {
+        assertThat(TextAnalyzer.terms("pen red pen blue pen green", 10)).containsExactly("pen", "red", "blue", "green");
+        assertThat(TextAnalyzer.terms("pen red pen blue pen green", 2)).containsExactly("pen", "red");
+    }
+
+    @Test
+    void emptyTextHasNoTerms() {
+        assertThat(TextAnalyzer.terms(null, 10)).isEmpty();
+        assertThat(TextAnalyzer.terms("", 10)).isEmpty();
+        assertThat(TextAnalyzer.terms(" -- ", 10)).isEmpty();
+    }
+
+    @Test
+    void matchesPrefixesWithinOneEdit() {
+        assertThat(TextAnalyzer.prefixWithinOneEdit("wire", "wireless")).isTrue();
+        // Deletion, insertion, substitution and transposition
+        assertThat(TextAnalyzer.prefixWithinOneEdit("wirless", "wireless")).isTrue();
+        assertThat(TextAnalyzer.prefixWithinOneEdit("wiireless", "wireless")).isTrue();
+        assertThat(TextAnalyzer.prefixWithinOneEdit("wirelass", "wireless")).isTrue();
+        assertThat(TextAnalyzer.prefixWithinOneEdit("wierless", "wireless")).isTrue();
+        assertThat(TextAnalyzer.prefixWithinOneEdit("wrie", "wireless")).isTrue();
+    }
+
+    @Test
+    void rejectsTwoEdits() {
+        assertThat(TextAnalyzer.prefixWithinOneEdit("wrilass", "wireless")).isFalse();
+        assertThat(TextAnalyzer.prefixWithinOneEdit("keyboard", "wireless")).isFalse();
+        assertThat(TextAnalyzer.prefixWithinOneEdit("wirelesss", "wire")).isFalse();
+    }
+}
@@ -0,0 +1,123 @@
+package com.ims.api.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+    @Test
+    void allowsABurstOfCapacityThenRejects() {
+        TokenBucket bucket = new TokenBucket(3, 100, 0);
+
+        assertThat(bucket.tryConsume(0).remaining).isEqualTo(2);
+        assertThat(bucket.tryConsume(0).remaining).isEqualTo(1);
+        TokenBucket.Result last = bucket.tryConsume(0);
+        assertThat(last.allowed).isTrue();
+        assertThat(last.remaining).isZero();
+        assertThat(last.resetNanos).isEqualTo(300);
+
+        TokenBucket.Result rejected = bucket.tryConsume(0);
+        assertThat(rejected.allowed).isFalse();
+        assertThat(rejected.remaining).isZero();
+        assertThat(rejected.retryAfterNanos).isEqualTo(100);
+        assertThat(rejected.resetNanos).isEqualTo(300);
+    }
+
+    @Test
+    void rejectedRequestsDoNotConsume() {
+        TokenBucket bucket = new TokenBucket(1, 100, 0);
+        bucket.tryConsume(0);
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryConsume(50).allowed).isFalse();
+        }
+
+        assertThat(bucket.tryConsume(100).allowed).isTrue();
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        TokenBucket bucket = new TokenBucket(2, 100, 0);
+        bucket.tryConsume(0);
+        bucket.tryConsume(0);
+
+        assertThat(bucket.tryConsume(99).allowed).isFalse();
+        TokenBucket.Result refilled = bucket.tryConsume(100);
+        assertThat(refilled.allowed).isTrue();
+        assertThat(refilled.remaining).isZero();
+    }
+
+    @Test
+    void idleTimeDoesNotGrowTheBurstBeyondCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 100, 0);
+
+        assertThat(bucket.tryConsume(10_000).allowed).isTrue();
+        assertThat(bucket.tryConsume(10_000).allowed).isTrue();
+        assertThat(bucket.tryConsume(10_000).allowed).isFalse();
+    }
+
+    @Test
+    void reportsFullnessAndUse() {
+        TokenBucket bucket = new TokenBucket(4, 100, 0);
+        assertThat(bucket.isFull(0)).isTrue();
+        assertThat(bucket.usedFraction(0)).isZero();
+
+        bucket.tryConsume(0);
+        bucket.tryConsume(0);
+        assertThat(bucket.isFull(0)).isFalse();
+        assertThat(bucket.usedFraction(0)).isEqualTo(0.5);
+        assertThat(bucket.usedFraction(100)).isEqualTo(0.25);
+        assertThat(bucket.isFull(200)).isTrue();
+    }
+
+    @Test
+    void concurrentConsumersNeverExceedCapacity() throws Exception {
+        TokenBucket bucket = new TokenBucket(100, 1_000_000, 0);
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            for (int t = 0; t < 8; t++) {
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < 1000; i++) {
+                        if (bucket.tryConsume(0).allowed) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            pool.shutdown();
+            assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(allowed.get()).isEqualTo(100);
+    }
+
+    @Test
+    void policyWindowIsTheTimeToRefillTheBurst() {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setCapacity(20);
+        route.setRefillTokens(10);
+        route.setRefillPeriod(Duration.ofSeconds(1));
+        assertThat(route.getNanosPerToken()).isEqualTo(100_000_000L);
+        assertThat(route.getWindowSeconds()).isEqualTo(2);
+
+        route.setCapacity(1);
+        route.setRefillTokens(1000);
+        assertThat(route.getWindowSeconds()).isEqualTo(1);
+    }
+}